@@ -12,9 +12,9 @@ import java.util.Properties;
 
 
 /**
- * <b>Propriete est la classe reprsentant le fichier de configuration contenant toutes les proprts du projet.</b>
- * <p>Elle permet d'accder au fichier de configuration du projet une unique fois au dmarrage de l'application (<i>singleton</i>).
- * Ceci pour viter de ralentir l'excution au dmarrage du programme.<br>
+ * <b>Propriete est la classe représentant le fichier de configuration contenant toutes les proprétés du projet.</b>
+ * <p>Elle permet d'accéder au fichier de configuration du projet une unique fois au démarrage de l'application (<i>singleton</i>).
+ * Ceci pour éviter de ralentir l'exécution au démarrage du programme.<br>
  * On utilise la classe Properties pour lire le fichier de configuration.</p>
  * 
  * @author Yoan DUMAS
@@ -36,8 +36,8 @@ public class Proprietes {
 
 	/**
 	 * Le constructeur de Proprietes. 
-	 * <p> Permet de charger le fichier de configuration : "<i>conf.properties</i>". Ce fichier sera utilis par la classe Propriete
-	 * pour rcuprer la configuration du projet.</p>
+	 * <p> Permet de charger le fichier de configuration : "<i>conf.properties</i>". Ce fichier sera utilisé par la classe Propriete
+	 * pour récupérer la configuration du projet.</p>
 	 * @see java.util.Properties
 	 */
 	private Proprietes() {
@@ -80,10 +80,10 @@ public class Proprietes {
 
 
 	/**
-	 * Retourne la valeur de la cl passe en paramtre.
+	 * Retourne la valeur de la clé passée en paramètre.
 	 * @param cle
-	 * 				La proprit dont on veut connatre la valeur.
-	 * @return La valeur correspondant a la cl passe en paramtre.
+	 * 				La propriété dont on veut connaître la valeur.
+	 * @return La valeur correspondant a la clé passée en paramètre.
 	 */
 	public String getPropriete( String cle) {
 		return fichierConf_s.getProperty( cle);
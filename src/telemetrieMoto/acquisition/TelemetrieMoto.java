@@ -13,13 +13,13 @@ import telemetrieMoto.acquisition.peripheriques.GPS;
 
 
 /**
- * <b>TelemetrieMoto est la classe  excuter pour lancer l'acquisition des donnes de tlmtrie moto.</b>
- * <p>L'acquisition des donnes de tlmtrie moto consiste en :
+ * <b>TelemetrieMoto est la classe à exécuter pour lancer l'acquisition des données de télémétrie moto.</b>
+ * <p>L'acquisition des données de télémétrie moto consiste en :
  * <ul>
- * 	<li>L'acquisition des dones GPS</li>
- * 	<li>L'envoi des donnes <i>(Emetteur)</i> au PC en bord de piste <i>(Recepteur)</i></li>
+ * 	<li>L'acquisition des donées GPS</li>
+ * 	<li>L'envoi des données <i>(Emetteur)</i> au PC en bord de piste <i>(Recepteur)</i></li>
  * </ul>
- * Suivant ce qui est dfinit dans le fichier de configuration, elle permet d'afficher une trace de l'excution du programme.</p>
+ * Suivant ce qui est définit dans le fichier de configuration, elle permet d'afficher une trace de l'exécution du programme.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -30,7 +30,7 @@ import telemetrieMoto.acquisition.peripheriques.GPS;
  */
 public class TelemetrieMoto {
 
-	/** La variable du fichier de configuration permettant de savoir si on doit afficher une trace de l'excution du progamme. */
+	/** La variable du fichier de configuration permettant de savoir si on doit afficher une trace de l'exécution du progamme. */
 	private static final boolean DEBUG_S = Boolean.valueOf( Proprietes.getInstance().getPropriete( "DebugTM"));
 
 
@@ -48,8 +48,8 @@ public class TelemetrieMoto {
 		// La trame GPS lue a envoyer au recepteur si elle valide
 		TrameGPS trame;
 
-		// On envoie les trames GPS au recepteur
-		while( true){
+		// On envoie les trames GPS au recepteur jusqu'a l'interruption du programme
+		while( !Thread.currentThread().isInterrupted()) {
 			// Lecture et analyse de la trame
 			trame = gps.lireTrameGPS();
 			if( trame != null && trame.estValide()) {
@@ -57,7 +57,7 @@ public class TelemetrieMoto {
 					System.out.println( "On envoie une trame valide !");
 				}
 				em.envoyerMessage( trame);
-			} else {
+			} else if( trame != null) {
 				em.envoyerMessage( "/!\\Trame recue non valide :s !");
 			}
 		}
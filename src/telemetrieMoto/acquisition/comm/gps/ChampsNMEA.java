@@ -0,0 +1,299 @@
+/*
+ * ChampsNMEA.java
+ * Permet d'acceder aux champs d'une trame NMEA sans la decouper en chaines
+ */
+
+package telemetrieMoto.acquisition.comm.gps;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * <b>ChampsNMEA est une vue sur les champs d'une trame NMEA brute.</b>
+ * <p>Les octets du corps de la trame (du '$' exclu au '*' exclu) sont conservés tels quels avec la position
+ * du début de chaque champ, calculée une fois pour toutes. Les champs ne sont convertis qu'à la demande,
+ * par des analyseurs de nombres ASCII écrits à la main qui ne créent aucune chaine intermédiaire.
+ * <br>Le champ d'indice 0 est l'entête de la trame (par exemple <i>GPGGA</i>).</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see TrameGPS
+ * @see DecoupeurTramesNMEA
+ */
+public class ChampsNMEA {
+
+
+	/** Les puissances de dix utilisées pour placer la virgule des nombres décimaux. */
+	private static final double[] PUISSANCES_DIX_S = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+		1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+
+
+	/** Les octets du corps de la trame. */
+	private final byte[] octets_;
+
+
+	/** La position du début de chaque champ, suivie d'une sentinelle placée après la fin du dernier champ. */
+	private final int[] debuts_;
+
+
+
+
+	/**
+	 * Le constructeur de ChampsNMEA à partir d'une trame brute.
+	 * <p>Les octets de la trame sont recopiés, la vue reste donc valable après la réutilisation du tableau source.</p>
+	 * @param trame
+	 * 				Le tableau contenant la trame brute.
+	 * @param debut
+	 * 				L'indice du premier octet de la trame, éventuellement le '$'.
+	 * @param longueur
+	 * 				Le nombre d'octets de la trame, checksum éventuel compris.
+	 */
+	public ChampsNMEA( byte[] trame, int debut, int longueur) {
+		int fin = debut + longueur;
+		if( longueur > 0 && trame[ debut] == '$') {
+			++debut;
+		}
+
+		// On ne conserve que le corps de la trame en comptant les champs
+		int finCorps = debut;
+		int nbVirgules = 0;
+		while( finCorps < fin && trame[ finCorps] != '*') {
+			if( trame[ finCorps] == ',') {
+				++nbVirgules;
+			}
+			++finCorps;
+		}
+		octets_ = Arrays.copyOfRange( trame, debut, finCorps);
+
+		debuts_ = new int[ nbVirgules + 2];
+		int champ = 1;
+		for( int i = 0 ; i < octets_.length ; ++i) {
+			if( octets_[ i] == ',') {
+				debuts_[ champ++] = i + 1;
+			}
+		}
+		debuts_[ champ] = octets_.length + 1;
+	}
+
+
+
+
+	/**
+	 * Le constructeur de ChampsNMEA à partir d'une trame en chaine de caractères.
+	 * @param trame
+	 * 				La trame NMEA, avec ou sans '$' et checksum.
+	 */
+	public ChampsNMEA( String trame) {
+		this( trame.getBytes( StandardCharsets.US_ASCII), 0, trame.length());
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de champs de la trame, entête comprise.
+	 * @return Le nombre de champs de la trame.
+	 */
+	public int getNbChamps() {
+		return debuts_.length - 1;
+	}
+
+
+
+
+	/**
+	 * Retourne la position du premier octet du champ.
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @return La position du premier octet du champ.
+	 */
+	private int debut( int champ) {
+		if( champ < 0 || champ >= getNbChamps()) {
+			throw new NumberFormatException( "Le champ " + champ + " est absent de la trame");
+		}
+		return debuts_[ champ];
+	}
+
+
+
+
+	/**
+	 * Retourne la position suivant le dernier octet du champ.
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @return La position suivant le dernier octet du champ.
+	 */
+	private int fin( int champ) {
+		return debuts_[ champ + 1] - 1;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si un champ est vide ou absent.
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @return <i>true</i> si le champ est vide ou absent, <i>false</i> sinon.
+	 */
+	public boolean estVide( int champ) {
+		return champ < 0 || champ >= getNbChamps() || debuts_[ champ] == fin( champ);
+	}
+
+
+
+
+	/**
+	 * Retourne le premier caractère d'un champ.
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @return Le premier caractère du champ.
+	 * @throws NumberFormatException si le champ est vide ou absent.
+	 */
+	public char caractere( int champ) {
+		if( estVide( champ)) {
+			throw new NumberFormatException( "Le champ " + champ + " est vide");
+		}
+		return ( char) octets_[ debuts_[ champ]];
+	}
+
+
+
+
+	/**
+	 * Retourne un champ en chaine de caractères.
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @return Le champ en chaine de caractères, éventuellement vide.
+	 */
+	public String chaine( int champ) {
+		int debut = debut( champ);
+		return new String( octets_, debut, fin( champ) - debut, StandardCharsets.US_ASCII);
+	}
+
+
+
+
+	/**
+	 * Permet de convertir un champ en entier.
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @return La valeur entière du champ.
+	 * @throws NumberFormatException si le champ n'est pas un entier.
+	 */
+	public int entier( int champ) {
+		long valeur = decimalFixe( champ, 0);
+		if( valeur < Integer.MIN_VALUE || valeur > Integer.MAX_VALUE) {
+			throw new NumberFormatException( "Le champ " + champ + " depasse la capacite d'un entier");
+		}
+		return ( int) valeur;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir un champ en nombre décimal.
+	 * <p>Les chiffres sont accumulés dans un entier puis divisés une seule fois par la puissance de dix
+	 * correspondant au nombre de décimales, ce qui donne le même résultat que {@link Double#parseDouble(String)}
+	 * pour les nombres écrits par un GPS.</p>
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @return La valeur décimale du champ.
+	 * @throws NumberFormatException si le champ n'est pas un nombre décimal.
+	 */
+	public double reel( int champ) {
+		int debut = debut( champ);
+		int fin = fin( champ);
+		int i = debut;
+		boolean negatif = false;
+		if( i < fin && ( octets_[ i] == '-' || octets_[ i] == '+')) {
+			negatif = octets_[ i++] == '-';
+		}
+
+		long mantisse = 0;
+		int nbChiffres = 0;
+		int nbDecimales = -1;
+		for( ; i < fin ; ++i) {
+			byte c = octets_[ i];
+			if( c >= '0' && c <= '9') {
+				if( nbChiffres < 18) {
+					mantisse = mantisse * 10 + ( c - '0');
+					++nbChiffres;
+					if( nbDecimales >= 0) {
+						++nbDecimales;
+					}
+				} else if( nbDecimales < 0) {
+					// Trop de chiffres significatifs, on laisse faire la conversion standard
+					return Double.parseDouble( chaine( champ));
+				}
+			} else if( c == '.' && nbDecimales < 0) {
+				nbDecimales = 0;
+			} else {
+				throw new NumberFormatException( "Le champ " + champ + " n'est pas un nombre : " + chaine( champ));
+			}
+		}
+		if( nbChiffres == 0) {
+			throw new NumberFormatException( "Le champ " + champ + " ne contient pas de chiffre");
+		}
+
+		double valeur = nbDecimales > 0 ? mantisse / PUISSANCES_DIX_S[ nbDecimales] : mantisse;
+		return negatif ? -valeur : valeur;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir un champ en nombre à virgule fixe.
+	 * <p>Par exemple, le champ <i>4836.5375</i> converti avec 4 décimales donne 48365375.
+	 * Les décimales en trop sont tronquées, celles qui manquent sont complétées par des zéros.</p>
+	 * @param champ
+	 * 				L'indice du champ.
+	 * @param nbDecimales
+	 * 				Le nombre de décimales à conserver.
+	 * @return La valeur du champ multipliée par 10 puissance <b>nbDecimales</b>.
+	 * @throws NumberFormatException si le champ n'est pas un nombre décimal.
+	 */
+	public long decimalFixe( int champ, int nbDecimales) {
+		int debut = debut( champ);
+		int fin = fin( champ);
+		int i = debut;
+		boolean negatif = false;
+		if( i < fin && ( octets_[ i] == '-' || octets_[ i] == '+')) {
+			negatif = octets_[ i++] == '-';
+		}
+
+		long valeur = 0;
+		int nbChiffres = 0;
+		int decimalesLues = -1;
+		for( ; i < fin ; ++i) {
+			byte c = octets_[ i];
+			if( c >= '0' && c <= '9') {
+				if( decimalesLues < nbDecimales) {
+					if( ++nbChiffres > 18) {
+						throw new NumberFormatException( "Le champ " + champ + " contient trop de chiffres");
+					}
+					valeur = valeur * 10 + ( c - '0');
+					if( decimalesLues >= 0) {
+						++decimalesLues;
+					}
+				}
+			} else if( c == '.' && decimalesLues < 0) {
+				decimalesLues = 0;
+			} else {
+				throw new NumberFormatException( "Le champ " + champ + " n'est pas un nombre : " + chaine( champ));
+			}
+		}
+		if( nbChiffres == 0 && decimalesLues <= 0) {
+			throw new NumberFormatException( "Le champ " + champ + " ne contient pas de chiffre");
+		}
+
+		// On complete les decimales manquantes
+		for( int d = Math.max( decimalesLues, 0) ; d < nbDecimales ; ++d) {
+			valeur *= 10;
+		}
+		return negatif ? -valeur : valeur;
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * DecoupeurTramesNMEA.java
+ * Permet de decouper un flux d'octets en trames NMEA en verifiant leur checksum
+ */
+
+package telemetrieMoto.acquisition.comm.gps;
+
+
+/**
+ * <b>DecoupeurTramesNMEA permet d'extraire les trames NMEA d'un flux d'octets reçu du GPS.</b>
+ * <p>Le découpeur est un automate à états qui consomme les octets un à un et reconnaît les trames de la forme :
+ * <i>$corps*hh</i>. Le checksum <i>hh</i>, écrit en hexadécimal, est comparé au OU exclusif des octets compris
+ * entre le '$' et le '*'. Seules les trames dont le checksum est correct sont signalées.
+ * <br>Les octets de la trame sont recopiés dans un tableau réutilisé d'une trame à l'autre : le découpage
+ * n'alloue aucun objet. La trame reconnue occupe les octets <i>[0, {@link #getLongueur()}[</i> du tableau
+ * retourné par {@link #getTrame()}, du '$' jusqu'au dernier caractère du checksum inclus. Elle n'est valable
+ * que jusqu'au prochain appel à {@link #decouper(byte[], int, int)}.
+ * <br>Les caractères de fin de trame <i>\r\n</i> ne sont pas attendus pour signaler la trame au plus tôt :
+ * ils sont ignorés comme tous les octets reçus entre deux trames.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see telemetrieMoto.acquisition.peripheriques.GPS
+ */
+public class DecoupeurTramesNMEA {
+
+
+	/** L'état dans lequel on attend le '$' de début de trame. */
+	private static final int ATTENTE_DEBUT_S = 0;
+
+
+	/** L'état dans lequel on lit le corps de la trame jusqu'au '*'. */
+	private static final int CORPS_S = 1;
+
+
+	/** L'état dans lequel on attend le premier caractère du checksum. */
+	private static final int CHECKSUM_1_S = 2;
+
+
+	/** L'état dans lequel on attend le second caractère du checksum. */
+	private static final int CHECKSUM_2_S = 3;
+
+
+	/** Le tableau réutilisé contenant la trame en cours de découpage. */
+	private final byte[] trame_;
+
+
+	/** Le nombre d'octets de la trame en cours de découpage. */
+	private int longueur_ = 0;
+
+
+	/** L'état courant de l'automate. */
+	private int etat_ = ATTENTE_DEBUT_S;
+
+
+	/** Le checksum calculé sur le corps de la trame en cours de découpage. */
+	private int checksumCalcule_ = 0;
+
+
+	/** Le checksum reçu à la fin de la trame en cours de découpage. */
+	private int checksumRecu_ = 0;
+
+
+	/** Permet de savoir si une trame complète et correcte est disponible. */
+	private boolean trameDisponible_ = false;
+
+
+	/** Le nombre de trames correctes découpées. */
+	private long nbTramesValides_ = 0;
+
+
+	/** Le nombre de trames rejetées à cause d'un mauvais checksum. */
+	private long nbErreursChecksum_ = 0;
+
+
+	/** Le nombre de trames rejetées car trop longues ou mal formées. */
+	private long nbTramesMalFormees_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur de DecoupeurTramesNMEA.
+	 * @param tailleTrameMax
+	 * 						La taille maximale d'une trame, du '$' au checksum inclus.
+	 */
+	public DecoupeurTramesNMEA( int tailleTrameMax) {
+		trame_ = new byte[ tailleTrameMax];
+	}
+
+
+
+
+	/**
+	 * Permet de découper les octets passés en paramètre.
+	 * <p>Les octets sont consommés jusqu'à la fin d'une trame correcte ou jusqu'à l'indice <b>fin</b>.
+	 * Si une trame est reconnue, {@link #trameDisponible()} renvoie <i>true</i> et les octets suivants
+	 * devront être passés lors d'un prochain appel.</p>
+	 * @param octets
+	 * 					Le tableau contenant les octets reçus du GPS.
+	 * @param debut
+	 * 					L'indice du premier octet à découper.
+	 * @param fin
+	 * 					L'indice suivant le dernier octet à découper.
+	 * @return L'indice du premier octet non consommé.
+	 */
+	public int decouper( byte[] octets, int debut, int fin) {
+		trameDisponible_ = false;
+		int i = debut;
+		while( i < fin && !trameDisponible_) {
+			ajouterOctet( octets[ i++]);
+		}
+		return i;
+	}
+
+
+
+
+	/**
+	 * Permet de faire avancer l'automate d'un octet.
+	 * @param octet
+	 * 				L'octet reçu du GPS.
+	 */
+	private void ajouterOctet( byte octet) {
+		if( octet == '$') {
+			// Un debut de trame abandonne toujours la trame en cours
+			if( etat_ != ATTENTE_DEBUT_S) {
+				++nbTramesMalFormees_;
+			}
+			longueur_ = 0;
+			checksumCalcule_ = 0;
+			trame_[ longueur_++] = octet;
+			etat_ = CORPS_S;
+			return;
+		}
+
+		switch( etat_) {
+		case ATTENTE_DEBUT_S:
+			// On ignore tout ce qui est recu entre deux trames
+			break;
+
+		case CORPS_S:
+			if( octet == '*' && longueur_ + 3 <= trame_.length) {
+				trame_[ longueur_++] = octet;
+				etat_ = CHECKSUM_1_S;
+			} else if( octet == '\r' || octet == '\n' || octet == '*' || longueur_ + 4 > trame_.length) {
+				// Trame tronquee ou trop longue pour contenir encore le checksum
+				etat_ = rejeter();
+			} else {
+				trame_[ longueur_++] = octet;
+				checksumCalcule_ ^= octet;
+			}
+			break;
+
+		case CHECKSUM_1_S:
+			checksumRecu_ = valeurHexa( octet) << 4;
+			trame_[ longueur_++] = octet;
+			etat_ = checksumRecu_ < 0 ? rejeter() : CHECKSUM_2_S;
+			break;
+
+		case CHECKSUM_2_S:
+			int quartet = valeurHexa( octet);
+			trame_[ longueur_++] = octet;
+			etat_ = ATTENTE_DEBUT_S;
+			if( quartet < 0) {
+				rejeter();
+			} else if( ( checksumRecu_ | quartet) != checksumCalcule_) {
+				++nbErreursChecksum_;
+			} else {
+				++nbTramesValides_;
+				trameDisponible_ = true;
+			}
+			break;
+
+		default:
+			etat_ = ATTENTE_DEBUT_S;
+			break;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de comptabiliser une trame mal formée.
+	 * @return L'état dans lequel l'automate doit repartir.
+	 */
+	private int rejeter() {
+		++nbTramesMalFormees_;
+		return ATTENTE_DEBUT_S;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir un caractère hexadécimal en sa valeur.
+	 * @param c
+	 * 			Le caractère hexadécimal, en majuscule ou en minuscule.
+	 * @return La valeur du caractère entre 0 et 15, ou -1 si ce n'est pas un caractère hexadécimal.
+	 */
+	private static int valeurHexa( byte c) {
+		if( c >= '0' && c <= '9') {
+			return c - '0';
+		} else if( c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		} else if( c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		return -1;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si le dernier découpage a produit une trame correcte.
+	 * @return <i>true</i> si une trame est disponible, <i>false</i> sinon.
+	 */
+	public boolean trameDisponible() {
+		return trameDisponible_;
+	}
+
+
+
+
+	/**
+	 * Retourne le tableau contenant la dernière trame découpée.
+	 * @return Le tableau réutilisé contenant la trame, à partir de l'indice 0.
+	 */
+	public byte[] getTrame() {
+		return trame_;
+	}
+
+
+
+
+	/**
+	 * Retourne la longueur de la dernière trame découpée.
+	 * @return Le nombre d'octets de la trame, du '$' au checksum inclus.
+	 */
+	public int getLongueur() {
+		return longueur_;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si la dernière trame découpée commence par l'entête passée en paramètre.
+	 * @param entete
+	 * 					L'entête recherchée, sans le '$' (par exemple "GPGGA").
+	 * @return <i>true</i> si la trame porte cette entête, <i>false</i> sinon.
+	 */
+	public boolean estDeType( String entete) {
+		if( longueur_ <= entete.length() + 1 || trame_[ entete.length() + 1] != ',') {
+			return false;
+		}
+		for( int i = 0 ; i < entete.length() ; ++i) {
+			if( trame_[ i + 1] != entete.charAt( i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trames correctes découpées.
+	 * @return Le nombre de trames correctes découpées.
+	 */
+	public long getNbTramesValides() {
+		return nbTramesValides_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trames rejetées à cause d'un mauvais checksum.
+	 * @return Le nombre de trames rejetées à cause d'un mauvais checksum.
+	 */
+	public long getNbErreursChecksum() {
+		return nbErreursChecksum_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trames rejetées car trop longues ou mal formées.
+	 * @return Le nombre de trames rejetées car trop longues ou mal formées.
+	 */
+	public long getNbTramesMalFormees() {
+		return nbTramesMalFormees_;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * TestDecoupeurTramesNMEA.java
+ * Permet de tester le decoupage des trames NMEA
+ */
+
+package telemetrieMoto.acquisition.comm.gps;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+
+
+/**
+ * <b>TestDecoupeurTramesNMEA permet de tester le {@link DecoupeurTramesNMEA}.</b>
+ * <p>On vérifie le découpage des trames reçues par morceaux, la vérification du checksum et le rejet
+ * des trames mal formées.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see DecoupeurTramesNMEA
+ */
+public class TestDecoupeurTramesNMEA {
+
+
+	/** Une trame GPGGA dont le checksum est correct. */
+	private static final String GPGGA_S = "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,04,3.2,200.2,M,,,,,0000*22";
+
+
+	/** Une trame GPRMC dont le checksum est correct. */
+	private static final String GPRMC_S = "$GPRMC,053740.000,A,2503.6319,N,12136.0099,E,2.69,79.65,100106,,,A*53";
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un flux contenant plusieurs trames, reçu octet par octet, est correctement découpé.
+	 */
+	@Test
+	public void testDecoupageFlux() {
+		DecoupeurTramesNMEA decoupeur = new DecoupeurTramesNMEA( 255);
+		byte[] flux = ( "parasites" + GPGGA_S + "\r\n" + GPRMC_S + "\r\n").getBytes();
+
+		int nbTrames = 0;
+		int position = 0;
+		// On passe les octets un par un pour simuler une reception fragmentee
+		for( int i = 0 ; i < flux.length ; ++i) {
+			position = decoupeur.decouper( flux, position, i + 1);
+			if( decoupeur.trameDisponible()) {
+				String trame = new String( decoupeur.getTrame(), 0, decoupeur.getLongueur());
+				if( nbTrames == 0) {
+					assertEquals( GPGGA_S, trame);
+					assertTrue( decoupeur.estDeType( "GPGGA"));
+				} else {
+					assertEquals( GPRMC_S, trame);
+					assertTrue( decoupeur.estDeType( "GPRMC"));
+					assertFalse( decoupeur.estDeType( "GPGGA"));
+				}
+				++nbTrames;
+			}
+		}
+		assertEquals( "Nombre de trames decoupees", 2, nbTrames);
+		assertEquals( 0, decoupeur.getNbErreursChecksum());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier le contrôle du checksum : il est décodé en hexadécimal, en majuscules
+	 * comme en minuscules, et une trame altérée est rejetée.
+	 */
+	@Test
+	public void testChecksum() {
+		DecoupeurTramesNMEA decoupeur = new DecoupeurTramesNMEA( 255);
+
+		byte[] minuscules = "$PMTK001,604,3*32\r\n$GPGGA,1*4b".getBytes();
+		int position = decoupeur.decouper( minuscules, 0, minuscules.length);
+		assertTrue( decoupeur.trameDisponible());
+		assertEquals( "$PMTK001,604,3*32", new String( decoupeur.getTrame(), 0, decoupeur.getLongueur()));
+		decoupeur.decouper( minuscules, position, minuscules.length);
+		assertTrue( "Checksum en minuscules", decoupeur.trameDisponible());
+
+		// Un caractere altere dans le corps de la trame
+		byte[] alteree = GPGGA_S.replace( "4836", "4837").getBytes();
+		decoupeur.decouper( alteree, 0, alteree.length);
+		assertFalse( decoupeur.trameDisponible());
+		assertEquals( "Nombre d'erreurs de checksum", 1, decoupeur.getNbErreursChecksum());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que les trames trop longues ou interrompues sont rejetées
+	 * sans empêcher le découpage de la trame suivante.
+	 */
+	@Test
+	public void testTramesMalFormees() {
+		DecoupeurTramesNMEA decoupeur = new DecoupeurTramesNMEA( 20);
+
+		byte[] flux = ( GPGGA_S + "\r\n$GPGGA,1\r\n$GPGGA,1*4B").getBytes();
+		int position = 0;
+		int nbTrames = 0;
+		while( position < flux.length) {
+			position = decoupeur.decouper( flux, position, flux.length);
+			if( decoupeur.trameDisponible()) {
+				++nbTrames;
+			}
+		}
+		assertEquals( "Seule la derniere trame est correcte", 1, nbTrames);
+		assertEquals( "Nombre de trames mal formees", 2, decoupeur.getNbTramesMalFormees());
+	}
+}
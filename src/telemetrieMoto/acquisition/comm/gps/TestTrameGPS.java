@@ -13,7 +13,7 @@ import org.junit.Test;
 
 /**
  * <b>TestTrameGPS permet de tester les trames GPS.</b>
- * <p>TestTrameGPS teste la validit et la comparaison des trames GPS : GPRMC et GPGGA.</p>
+ * <p>TestTrameGPS teste la validité et la comparaison des trames GPS : GPRMC et GPGGA.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -26,11 +26,11 @@ public class TestTrameGPS {
 	
 	
 	/**
-	 * Permet de tester la validit des trames GPGGA.
-	 * <br>Une trame GPGGA est considere comme valide si :
+	 * Permet de tester la validité des trames GPGGA.
+	 * <br>Une trame GPGGA est considerée comme valide si :
 	 * <ul>
-	 * 	<li>la dilution horizontale est infrieure  une valeur dfinie dans le fichier de configuration</li>
-	 * 	<li>le nombre de satellite est suprieur  une valeur dfinie dans le fichier de configuration</li>
+	 * 	<li>la dilution horizontale est inférieure à une valeur définie dans le fichier de configuration</li>
+	 * 	<li>le nombre de satellite est supérieur à une valeur définie dans le fichier de configuration</li>
 	 * </ul>
 	 */
 	@Test
@@ -54,7 +54,7 @@ public class TestTrameGPS {
 	
 	/**
 	 * Permet de tester la validite des trames GPRMC.
-	 * <br>Une trame GPRMC est valide si son indicateur de validit est gale  'A'
+	 * <br>Une trame GPRMC est valide si son indicateur de validité est égale à 'A'
 	 */
 	@Test
 	public void testValiditeTrameGPRMC() {
@@ -72,11 +72,11 @@ public class TestTrameGPS {
 	
 	
 	/**
-	 * Permet de tester l'galite de deux trames GPS.
-	 * <p>Deux trames GPS sont considres comme gales si :
+	 * Permet de tester l'égalite de deux trames GPS.
+	 * <p>Deux trames GPS sont considérées comme égales si :
 	 * <ul>
-	 * 	<li>Elles sont de mme type <i>(GPGGA / GPRMC)</i></li>
-	 * 	<li>Tous leurs attributs sont gaux</li>
+	 * 	<li>Elles sont de même type <i>(GPGGA / GPRMC)</i></li>
+	 * 	<li>Tous leurs attributs sont égaux</li>
 	 * </ul>
 	 * </p>
 	 */
@@ -104,4 +104,136 @@ public class TestTrameGPS {
 		assertFalse( trameGPGGA1.equals( trameGPRMC1));
 	}
 
+	
+	
+	
+	/**
+	 * Permet de tester le décodage des trames brutes reçues du GPS.
+	 * <p>Les informations décodées à la demande doivent être identiques à celles obtenues par une conversion
+	 * standard des champs, et une trame dont un champ est mal formé doit être remise à zéro.</p>
+	 */
+	@Test
+	public void testDecodageTramesBrutes() {
+		byte[] octets = "xx$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,04,3.2,200.2,M,,,,,0000*22".getBytes();
+		TrameGPGGA trameGPGGA = new TrameGPGGA( octets, 2, octets.length - 2);
+		
+		assertTrue( trameGPGGA.estValide());
+		assertEquals( 4, trameGPGGA.getNbSat());
+		assertEquals( Float.valueOf( "3.2"), trameGPGGA.getHDOP(), 0);
+		assertEquals( Float.valueOf( "200.2"), trameGPGGA.getAltitude(), 0);
+		assertEquals( Float.valueOf( "064036.289"), trameGPGGA.getHeure(), 0);
+		assertEquals( "4836.5375,N", trameGPGGA.getLatitude());
+		assertEquals( "00740.9373,E", trameGPGGA.getLongitude());
+		
+		TrameGPRMC trameGPRMC = new TrameGPRMC( "$GPRMC,053740.000,A,2503.6319,N,12136.0099,E,2.69,79.65,100106,,,A*53");
+		assertTrue( trameGPRMC.estValide());
+		assertEquals( 100106, trameGPRMC.getDate());
+		assertEquals( "2503.6319,N", trameGPRMC.getLatitude());
+		assertEquals( 2.69f, trameGPRMC.getVitesse(), 0);
+		assertEquals( 7965, trameGPRMC.getCapCentiemes());
+		assertEquals( 79.65f, trameGPRMC.getCap(), 1e-4);
+		TrameGPRMC attendue = new TrameGPRMC( "2503.6319,N", "12136.0099,E", ( float) 53740.000, 'A', 100106);
+		assertFalse( trameGPRMC.equals( attendue));
+		attendue.setVitesse( 2.69f);
+		attendue.setCapCentiemes( 7965);
+		assertTrue( trameGPRMC.equals( attendue));
+		
+		// Le cap est absent quand la moto est arretee
+		TrameGPRMC arretee = new TrameGPRMC( "$GPRMC,053740.000,A,2503.6319,N,12136.0099,E,0.00,,100106,,,A*53");
+		assertEquals( 0f, arretee.getVitesse(), 0);
+		assertEquals( TrameGPRMC.CAP_ABSENT_S, arretee.getCapCentiemes());
+		assertTrue( Float.isNaN( arretee.getCap()));
+		
+		// Une altitude mal formee rend la trame incomplete
+		TrameGPGGA trameIncomplete = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,04,3.2,2O0.2,M,,,,,0000*22");
+		assertEquals( 0, trameIncomplete.getAltitude(), 0);
+		assertEquals( 0, trameIncomplete.getNbSat());
+		assertEquals( "", trameIncomplete.getLatitude());
+		assertFalse( trameIncomplete.estValide());
+	}
+
+	
+	
+	
+	/**
+	 * Permet de tester la représentation primitive des trames : position en millionièmes de degré et horodatage 
+	 * en millisecondes, ainsi que la reconstruction du format NMEA à partir de ces valeurs.
+	 */
+	@Test
+	public void testRepresentationPrimitive() {
+		TrameGPRMC trameGPRMC = new TrameGPRMC( "$GPRMC,053740.000,A,2503.6319,N,12136.0099,E,2.69,79.65,100106,,,A*53");
+		assertEquals( 25060532, trameGPRMC.getLatitudeMicroDegres());
+		assertEquals( 121600165, trameGPRMC.getLongitudeMicroDegres());
+		assertEquals( 1136871460000L, trameGPRMC.getHorodatage());
+		assertTrue( trameGPRMC.estDatee());
+		
+		// Une trame GPGGA n'a pas de date tant qu'on ne lui a pas donne celle d'une trame GPRMC
+		TrameGPGGA trameGPGGA = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,S,00740.9373,W,1,04,3.2,200.2,M,,,,,0000*2D");
+		assertEquals( -48608958, trameGPGGA.getLatitudeMicroDegres());
+		assertEquals( -7682288, trameGPGGA.getLongitudeMicroDegres());
+		assertEquals( "4836.5375,S", trameGPGGA.getLatitude());
+		assertEquals( "00740.9373,W", trameGPGGA.getLongitude());
+		assertEquals( ( 6 * 3600 + 40 * 60 + 36) * 1000L + 289, trameGPGGA.getHorodatage());
+		assertFalse( trameGPGGA.estDatee());
+		trameGPGGA.dater( trameGPRMC.getDate());
+		assertEquals( 1136851200000L + ( 6 * 3600 + 40 * 60 + 36) * 1000L + 289, trameGPGGA.getHorodatage());
+		trameGPGGA.daterDepuis( trameGPRMC.getHorodatage());
+		assertEquals( 1136851200000L + ( 6 * 3600 + 40 * 60 + 36) * 1000L + 289, trameGPGGA.getHorodatage());
+		
+		// Une trame GPGGA recue juste apres minuit UTC, avant la GPRMC suivante, est datee du jour suivant
+		TrameGPRMC avantMinuit = new TrameGPRMC( "4545.5635,N", "00306.6789,E", 235959.5f, 'A', 100106);
+		TrameGPGGA apresMinuit = new TrameGPGGA( "$GPGGA,000000.200,4836.5375,S,00740.9373,W,1,04,3.2,200.2,M,,,,,0000*2D");
+		apresMinuit.daterDepuis( avantMinuit.getHorodatage());
+		assertEquals( 1136851200000L + TrameGPS.MS_PAR_JOUR_S + 200, apresMinuit.getHorodatage());
+		assertEquals( 700, apresMinuit.getHorodatage() - avantMinuit.getHorodatage());
+		
+		// Les accesseurs en chaine et en millioniemes de degre decrivent la meme position
+		TrameGPS trame = new TrameGPRMC( "4545.5635,N", "00306.6789,E", 164715.f, 'A', 280213);
+		assertEquals( 45759392, trame.getLatitudeMicroDegres());
+		assertEquals( 3111315, trame.getLongitudeMicroDegres());
+		assertEquals( 1362070035000L, trame.getHorodatage());
+		trame.setLatitudeMicroDegres( -45759392);
+		assertEquals( "4545.5635,S", trame.getLatitude());
+		
+		TrameGPGGA sansPosition = new TrameGPGGA( "$GPGGA,064036.289,,,,,0,00,99.9,,M,,,,,0000*0A");
+		assertFalse( sansPosition.aUnePosition());
+		assertEquals( "", sansPosition.getLatitude());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'une trame dont un champ est absent ou mal formé n'est jamais valide, quel que soit
+	 * l'ordre des accès, et qu'un échec de décodage ne change pas les informations déjà lues.
+	 */
+	@Test
+	public void testTrameIncomplete() {
+		// Dilution absente : la validite est jugee avant tout autre acces
+		TrameGPGGA sansDilution = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,08,,200.2,M,,,,,0000*0E");
+		assertFalse( sansDilution.estValide());
+		assertFalse( sansDilution.estComplete());
+		assertEquals( 0, sansDilution.getNbSat());
+		assertFalse( sansDilution.aUnePosition());
+
+		// Altitude mal formee
+		TrameGPGGA altitudeFausse = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,08,3.2,2O0.2,M,,,,,0000*22");
+		assertFalse( altitudeFausse.estValide());
+		assertEquals( 0, altitudeFausse.getAltitude(), 0);
+		assertEquals( "", altitudeFausse.getLatitude());
+
+		// La position lue avant l'echec du decodage de l'altitude est conservee
+		TrameGPGGA positionLue = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,08,3.2,2O0.2,M,,,,,0000*22");
+		assertEquals( 48608958, positionLue.getLatitudeMicroDegres());
+		assertEquals( 0, positionLue.getAltitude(), 0);
+		assertEquals( 48608958, positionLue.getLatitudeMicroDegres());
+		assertEquals( 0, positionLue.getNbSat());
+		assertFalse( positionLue.estValide());
+
+		// Une date mal formee rend une trame GPRMC non valide malgre son indicateur
+		TrameGPRMC dateFausse = new TrameGPRMC( "$GPRMC,053740.000,A,2503.6319,N,12136.0099,E,2.69,79.65,10O106,,,A*53");
+		assertFalse( dateFausse.estValide());
+		assertEquals( 0, dateFausse.getDate());
+	}
+
 }
@@ -9,8 +9,8 @@ import telemetrieMoto.Proprietes;
 
 
 /**
- * <b>TrameGPGGA permet de reprsenter une trame GPS de type GPGGA.</b>
- * <p>Une trame GPS GPGGA est caractrise par les informations suivantes :
+ * <b>TrameGPGGA permet de représenter une trame GPS de type GPGGA.</b>
+ * <p>Une trame GPS GPGGA est caractérisée par les informations suivantes :
  * <ul>
  * 	<li>Une latitude</li>
  * 	<li>Une longitude</li>
@@ -31,7 +31,7 @@ import telemetrieMoto.Proprietes;
 public class TrameGPGGA extends TrameGPS {
 
 
-	/** L'identifiant de srialisation. */
+	/** L'identifiant de sérialisation. */
 	private static final long serialVersionUID = 1L;
 
 
@@ -43,26 +43,42 @@ public class TrameGPGGA extends TrameGPS {
 	private float HDOP_;
 
 
-	/** L'altitude associe  la coordonne GPS. */
+	/** L'altitude associée à la coordonnée GPS. */
 	private float altitude_;
 
 
-	/** L'instance reprsentant le fichier de configuration du projet  interroger. */
+	/** L'information de la trame correspondant au nombre de satellites. */
+	private static final int NB_SAT_S = 1 << 3;
+
+
+	/** L'information de la trame correspondant à la dilution horizontale. */
+	private static final int HDOP_S = 1 << 4;
+
+
+	/** L'information de la trame correspondant à l'altitude. */
+	private static final int ALTITUDE_S = 1 << 5;
+
+
+	/** L'ensemble des informations d'une trame GPGGA à décoder à partir de la trame brute. */
+	private static final int INFORMATIONS_S = HEURE_S | POSITION_S | NB_SAT_S | HDOP_S | ALTITUDE_S;
+
+
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
 	private static Proprietes prop_s = Proprietes.getInstance();
 
 
 	/** La dilution horizontale max que l'on accepte. 
-	 * Sa valeur est stocke dans le fichier de configuration du projet. */
+	 * Sa valeur est stockée dans le fichier de configuration du projet. */
 	private static final float HDOPMAX_S = Float.valueOf( prop_s.getPropriete( "HdopMax"));
 
 
 	/** Le nombre de satellites min a partir duquel on decide que la trame GPS est valide.
-	 * Sa valeur est stocke dans le fichier de configuration du projet. */
+	 * Sa valeur est stockée dans le fichier de configuration du projet. */
 	private static final int NBSATMIN_S = Integer.valueOf( prop_s.getPropriete( "NbSatellitesMin"));
 
 	
 	/** Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
-	 * Sa valeur est stocke dans le fichier de configuration du projet. 
+	 * Sa valeur est stockée dans le fichier de configuration du projet. 
 	 */
 	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugGPS"));
 
@@ -72,17 +88,17 @@ public class TrameGPGGA extends TrameGPS {
 	/**
 	 * Le constructeur de trame GPGGA.
 	 * @param latitude
-	 * 					La latitude de la coordonne GPGGA.
+	 * 					La latitude de la coordonnée GPGGA.
 	 * @param longitude
-	 * 					La longitude de la coordonne GPGGA.
+	 * 					La longitude de la coordonnée GPGGA.
 	 * @param heure
 	 * 					L'heure UTC de l'acquisition de la trame GPGGA.
 	 * @param nbSat
-	 * 					Le nombre de satellite que le GPS a capt lors de l'acquisition.
+	 * 					Le nombre de satellite que le GPS a capté lors de l'acquisition.
 	 * @param HDOP
 	 * 					La dilution horizontale subie par la trame GPGGA.
 	 * @param altitude
-	 * 					L'altitude associe a la coordonne GPGGA.
+	 * 					L'altitude associée a la coordonnée GPGGA.
 	 */
 	public TrameGPGGA( String latitude, String longitude, float heure, int nbSat, float HDOP, float altitude) {
 		setLatitude( latitude);
@@ -97,41 +113,102 @@ public class TrameGPGGA extends TrameGPS {
 
 
 	/**
-	 * Le constructeur de trame GPGGA  partir d'une chaine de caractres.
+	 * Le constructeur de trame GPGGA à partir d'une position en millionièmes de degré.
+	 * @param latitude
+	 * 					La latitude de la coordonnée GPGGA en millionièmes de degré, positive au nord.
+	 * @param longitude
+	 * 					La longitude de la coordonnée GPGGA en millionièmes de degré, positive à l'est.
+	 * @param heure
+	 * 					L'heure UTC de l'acquisition de la trame GPGGA.
+	 * @param nbSat
+	 * 					Le nombre de satellite que le GPS a capté lors de l'acquisition.
+	 * @param HDOP
+	 * 					La dilution horizontale subie par la trame GPGGA.
+	 * @param altitude
+	 * 					L'altitude associée a la coordonnée GPGGA.
+	 */
+	public TrameGPGGA( int latitude, int longitude, float heure, int nbSat, float HDOP, float altitude) {
+		setLatitudeMicroDegres( latitude);
+		setLongitudeMicroDegres( longitude);
+		setHeure( heure);
+		nbSat_ = nbSat;
+		HDOP_ = HDOP;
+		altitude_ = altitude;
+	}
+
+
+
+
+	/**
+	 * Le constructeur de trame GPGGA à partir d'une chaine de caractères.
+	 * <p>Les informations de la trame ne sont décodées qu'au moment où on y accède.</p>
 	 * @param trameGPSLue
-	 * 						La trame brute reue du GPS
+	 * 						La trame brute reçue du GPS
 	 */
 	public TrameGPGGA( String trameGPSLue) {
-		if( trameGPSLue != null) {
-
-			// On se debarasse de l'entete de la trame
-			String chaineAParser = trameGPSLue.substring( trameGPSLue.indexOf( ',') + 1);
-
-			String chaineParsee[] = chaineAParser.split( ",");
-
-			if( chaineParsee.length >= 8) {
-				try {
-
-					// Extraction des informations utiles
-					setHeure( Float.valueOf( chaineParsee[ 0]));
-					setLatitude( chaineParsee[ 1] + "," + chaineParsee[ 2]);
-					setLongitude( chaineParsee[ 3] + "," + chaineParsee[ 4]);
-					nbSat_ = Integer.valueOf( chaineParsee[ 6]);
-					HDOP_ = Float.valueOf( chaineParsee[ 7]);
-					altitude_ = Float.valueOf( chaineParsee[ 8]);
-
-				} catch( NumberFormatException e) {
-					if( DEBUG_S) {
-						System.err.println( "Erreur : trame incomplete!");
-					}
-					setHeure( 0);
-					setLatitude( "");
-					setLongitude( "");
-					nbSat_ = 0;
-					HDOP_ = 0;
-					altitude_ = 0;
-				}
-			}
+		super( trameGPSLue != null ? new ChampsNMEA( trameGPSLue) : null, trameGPSLue != null ? INFORMATIONS_S : 0);
+	}
+
+
+
+
+	/**
+	 * Le constructeur de trame GPGGA à partir des octets de la trame brute.
+	 * <p>Les octets sont recopiés et les informations de la trame ne sont décodées qu'au moment où on y accède.</p>
+	 * @param trame
+	 * 					Le tableau contenant la trame brute reçue du GPS.
+	 * @param debut
+	 * 					L'indice du '$' de la trame dans le tableau.
+	 * @param longueur
+	 * 					Le nombre d'octets de la trame.
+	 */
+	public TrameGPGGA( byte[] trame, int debut, int longueur) {
+		super( new ChampsNMEA( trame, debut, longueur), INFORMATIONS_S);
+	}
+
+
+
+
+	@Override
+	protected void decoderInformation( int information, ChampsNMEA champs) {
+		// Trame du type : $GPGGA,heure,latitude,N/S,longitude,E/W,fix,nbSat,HDOP,altitude,M,...
+		switch( information) {
+		case HEURE_S:
+			decoderHeure( champs, 1);
+			break;
+		case POSITION_S:
+			decoderPosition( champs, 2);
+			break;
+		case NB_SAT_S:
+			nbSat_ = champs.entier( 7);
+			break;
+		case HDOP_S:
+			HDOP_ = ( float) champs.reel( 8);
+			break;
+		case ALTITUDE_S:
+			altitude_ = ( float) champs.reel( 9);
+			break;
+		default:
+			break;
+		}
+	}
+
+
+
+
+	@Override
+	protected void reinitialiser( int informations) {
+		if( DEBUG_S) {
+			System.err.println( "Erreur : trame incomplete!");
+		}
+		if( ( informations & NB_SAT_S) != 0) {
+			nbSat_ = 0;
+		}
+		if( ( informations & HDOP_S) != 0) {
+			HDOP_ = 0;
+		}
+		if( ( informations & ALTITUDE_S) != 0) {
+			altitude_ = 0;
 		}
 	}
 
@@ -139,56 +216,57 @@ public class TrameGPGGA extends TrameGPS {
 
 
 	/**
-	 * Retourne la trame GPGGA en chaine de caractres.
-	 * <p>La chaine de caractres aura le format : "Latitude = <i>...</i>, longitude = <i>...</i>, 
+	 * Retourne la trame GPGGA en chaine de caractères.
+	 * <p>La chaine de caractères aura le format : "Latitude = <i>...</i>, longitude = <i>...</i>, 
 	 * heure = <i>...</i>, nombre de satellites = <i>...</i>, dilution horizontale = <i>...</i>,
 	 * altitude = <i>...</i></p>
 	 * 
-	 * @return La trame GPS convertie en chaine de caractres.
+	 * @return La trame GPS convertie en chaine de caractères.
 	 */
 	public String toString() {
 		return "Latitude = " + getLatitude() + ", longitude = " + getLongitude()
-				+ ", heure = " + getHeure() + ", nombre de satellites = " + nbSat_
-				+ ", dilution horizontale = " + HDOP_ + ", altitude = " + altitude_;
+				+ ", heure = " + getHeure() + ", nombre de satellites = " + getNbSat()
+				+ ", dilution horizontale = " + getHDOP() + ", altitude = " + getAltitude();
 	}
 	
 	
 	
 	
 	/**
-	 * Retourne la trame GPGGA convertie en chaine de caractres.
-	 * <p>La chaine de caractres aura le format : "<i>classe de la trame (GPGGA);latitude;longitude
+	 * Retourne la trame GPGGA convertie en chaine de caractères.
+	 * <p>La chaine de caractères aura le format : "<i>classe de la trame (GPGGA);latitude;longitude
 	 * ;heure;nombre de satellites;dilution horizontale;altitude</i></p>
 	 * 
-	 * @deprecated Cette mthode tait utilise pour la srialisation dans des fichiers texte. 
-	 * Utiliser {@link #toString()}  la place. 
+	 * @deprecated Cette méthode était utilisée pour la sérialisation dans des fichiers texte. 
+	 * Utiliser {@link #toString()} à la place. 
 	 */
 	public String afficher() {
 		return TrameGPGGA.class + ";" + getLatitude() + ";" + getLongitude()
-				+ ";" + getHeure() + ";" + nbSat_
-				+ ";" + HDOP_ + ";" + altitude_;
+				+ ";" + getHeure() + ";" + getNbSat()
+				+ ";" + getHDOP() + ";" + getAltitude();
 	}
 
 
 
 
 	/**
-	 * Permet de savoir si la trame GPGGA reue est valide.
+	 * Permet de savoir si la trame GPGGA reçue est valide.
 	 * @return true, si la trame est valide
 	 * 		   false, si la trame n'est pas valide
 	 */
 	public boolean estValide() {
-		return nbSat_ >= NBSATMIN_S && HDOP_ <= HDOPMAX_S;
+		return estComplete() && getNbSat() >= NBSATMIN_S && getHDOP() <= HDOPMAX_S;
 	}
 
 
 
 
 	/**
-	 * Retourne le nombre de satellites capts.
-	 * @return Le nombre de satellites capts.
+	 * Retourne le nombre de satellites captés.
+	 * @return Le nombre de satellites captés.
 	 */
 	public int getNbSat() {
+		decoder( NB_SAT_S);
 		return nbSat_;
 	}
 
@@ -196,11 +274,12 @@ public class TrameGPGGA extends TrameGPS {
 
 
 	/**
-	 * Permet de modifier le nombre de satellites capts.
+	 * Permet de modifier le nombre de satellites captés.
 	 * @param nbSat 
-	 * 				Le nouveau nombre de satellites capts
+	 * 				Le nouveau nombre de satellites captés
 	 */
 	public void setNbSat( int nbSat) {
+		decoder( NB_SAT_S);
 		nbSat_ = nbSat;
 	}
 
@@ -212,6 +291,7 @@ public class TrameGPGGA extends TrameGPS {
 	 * @return La dilution horizontale subie par la trame GPS.
 	 */
 	public float getHDOP() {
+		decoder( HDOP_S);
 		return HDOP_;
 	}
 
@@ -224,6 +304,7 @@ public class TrameGPGGA extends TrameGPS {
 	 * 				La nouvelle dilution horiizontale subie par la trame GPS.
 	 */
 	public void setHDOP( float HDOP) {
+		decoder( HDOP_S);
 		HDOP_ = HDOP;
 	}
 
@@ -231,10 +312,11 @@ public class TrameGPGGA extends TrameGPS {
 
 
 	/**
-	 * Retourne l'altitude de la coordonne GPS.
-	 * @return L'altitude de la coordonne GPS.
+	 * Retourne l'altitude de la coordonnée GPS.
+	 * @return L'altitude de la coordonnée GPS.
 	 */
 	public float getAltitude() {
+		decoder( ALTITUDE_S);
 		return altitude_;
 	}
 
@@ -242,11 +324,12 @@ public class TrameGPGGA extends TrameGPS {
 
 
 	/**
-	 * Permet de modifier l'altitude de la coordonne GPS.
+	 * Permet de modifier l'altitude de la coordonnée GPS.
 	 * @param altitude
-	 * 					La nouvelle altitude de la coordonne GPS.
+	 * 					La nouvelle altitude de la coordonnée GPS.
 	 */
 	public void setAltitude( float altitude) {
+		decoder( ALTITUDE_S);
 		altitude_ = altitude;
 	}
 
@@ -257,8 +340,8 @@ public class TrameGPGGA extends TrameGPS {
 	public boolean equals(TrameGPS trame) {
 		if( trame.getClass().equals( TrameGPGGA.class)) {
 			return getLatitude().equals( trame.getLatitude()) && getLongitude().equals( trame.getLongitude())
-					&& getHeure() == trame.getHeure() && nbSat_ == ( ( TrameGPGGA ) trame).getNbSat()
-					&& HDOP_ == ( ( TrameGPGGA) trame).getHDOP() && altitude_ == ( ( TrameGPGGA) trame).getAltitude();
+					&& getHeure() == trame.getHeure() && getNbSat() == ( ( TrameGPGGA ) trame).getNbSat()
+					&& getHDOP() == ( ( TrameGPGGA) trame).getHDOP() && getAltitude() == ( ( TrameGPGGA) trame).getAltitude();
 		}
 		return false;
 	}
@@ -9,17 +9,22 @@ import telemetrieMoto.Proprietes;
 
 
 /**
- * <b>TrameGPRMC permet de reprsenter une trame GPS de type GPRMC.</b>
- * <p>Une trame GPS GPRMC est caractrise par les informations suivantes :
+ * <b>TrameGPRMC permet de représenter une trame GPS de type GPRMC.</b>
+ * <p>Une trame GPS GPRMC est caractérisée par les informations suivantes :
  * <ul>
  * 	<li>Une latitude</li>
  * 	<li>Une longitude</li>
  * 	<li>Une heure</li>
- * 	<li>La validit de ses donnes</li>
+ * 	<li>La validité de ses données</li>
  * 	<li>Une date</li>
+ * 	<li>La vitesse par rapport au sol</li>
+ * 	<li>Le cap suivi par rapport au nord vrai</li>
  * </ul>
- * Si le <i>GPS</i> ne nous envoie pas une de ces informations la trame sera nulle.
+ * Si le <i>GPS</i> ne nous envoie pas une de ces informations la trame sera nulle. La vitesse et le cap peuvent
+ * cependant manquer, le cap en particulier lorsque la moto est arrêtée : ils valent alors <i>NaN</i>.
  * </p>
+ * <p>La vitesse est conservée en noeuds et le cap en centièmes de degré, comme la position en millionièmes de
+ * degré : les analyses de vitesse n'ont plus à dériver les positions successives.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -30,20 +35,49 @@ import telemetrieMoto.Proprietes;
 public class TrameGPRMC extends TrameGPS {
 
 
-	/** L'identifiant de srialisation. */
-	private static final long serialVersionUID = 1L;
+	/** L'identifiant de sérialisation. */
+	private static final long serialVersionUID = 2L;
 
 
-	/** Permet de savoir si les donnes reues du GPS sont valides.
-	 * <br>Par convention : 'A' = donnes valides, 'V' = donnes invalides. */
+	/** Permet de savoir si les données reçues du GPS sont valides.
+	 * <br>Par convention : 'A' = données valides, 'V' = données invalides. */
 	private char donneesValides_;
 
 
-	/** La date exprime au format : ddmmyy. */
+	/** La date exprimée au format : ddmmyy. */
 	private int date_;
+
+
+	/** La vitesse par rapport au sol en noeuds, <i>NaN</i> si elle est absente. */
+	private float vitesse_ = Float.NaN;
+
+
+	/** Le cap suivi en centièmes de degré depuis le nord vrai dans le sens horaire, ou {@link #CAP_ABSENT_S}. */
+	private int cap_ = CAP_ABSENT_S;
+
+
+	/** La valeur du cap lorsque la trame n'en contient pas. */
+	public static final int CAP_ABSENT_S = 0xFFFF;
+
+
+	/** La vitesse en mètres par seconde d'un noeud. */
+	public static final double METRES_SECONDE_PAR_NOEUD_S = 1852.0 / 3600.0;
+
+
+	/** L'information de la trame correspondant à l'indicateur de validité. */
+	private static final int VALIDITE_S = 1 << 3;
+
+
+	/** L'information de la trame correspondant à la vitesse et au cap. */
+	private static final int VITESSE_CAP_S = 1 << 4;
+
+
+	/** L'ensemble des informations d'une trame GPRMC à décoder à partir de la trame brute. */
+	private static final int INFORMATIONS_S = HEURE_S | POSITION_S | VALIDITE_S | DATE_S | VITESSE_CAP_S;
+
 	
 	/** Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
-	 * Sa valeur est stocke dans le fichier de configuration du projet. */
+	 * Sa valeur est stockée dans le fichier de configuration du projet. */
 	private static final boolean DEBUG_S = Boolean.valueOf( Proprietes.getInstance().getPropriete( "DebugGPS"));
 
 
@@ -52,9 +86,9 @@ public class TrameGPRMC extends TrameGPS {
 	/**
 	 * Le constructeur de trame GPRMC.
 	 * @param latitude
-	 * 					La latitude de la coordonne GPRMC.
+	 * 					La latitude de la coordonnée GPRMC.
 	 * @param longitude
-	 * 					La longitude de la coordonne GPRMC.
+	 * 					La longitude de la coordonnée GPRMC.
 	 * @param heure
 	 * 					L'heure UTC de l'acquisition de la trame GPRMC.
 	 * @param donneesValides
@@ -68,45 +102,137 @@ public class TrameGPRMC extends TrameGPS {
 		setHeure( heure);
 		donneesValides_ = donneesValides;
 		date_ = date;
+		dater( date);
 	}
 
 
 
 
 	/**
-	 * Le constructeur de trame GPRMC  partir d'une chaine de caractres.
+	 * Le constructeur de trame GPRMC à partir d'une position en millionièmes de degré.
+	 * @param latitude
+	 * 					La latitude de la coordonnée GPRMC en millionièmes de degré, positive au nord.
+	 * @param longitude
+	 * 					La longitude de la coordonnée GPRMC en millionièmes de degré, positive à l'est.
+	 * @param heure
+	 * 					L'heure UTC de l'acquisition de la trame GPRMC.
+	 * @param donneesValides
+	 * 					Permet de savoir si la trame est correcte.
+	 * @param date
+	 * 					La date d'acquisition de la trame.
+	 */
+	public TrameGPRMC( int latitude, int longitude, float heure, char donneesValides, int date) {
+		setLatitudeMicroDegres( latitude);
+		setLongitudeMicroDegres( longitude);
+		setHeure( heure);
+		donneesValides_ = donneesValides;
+		date_ = date;
+		dater( date);
+	}
+
+
+
+
+	/**
+	 * Le constructeur de trame GPRMC à partir d'une position en millionièmes de degré, avec la vitesse et le cap.
+	 * @param latitude
+	 * 					La latitude de la coordonnée GPRMC en millionièmes de degré, positive au nord.
+	 * @param longitude
+	 * 					La longitude de la coordonnée GPRMC en millionièmes de degré, positive à l'est.
+	 * @param heure
+	 * 					L'heure UTC de l'acquisition de la trame GPRMC.
+	 * @param donneesValides
+	 * 					Permet de savoir si la trame est correcte.
+	 * @param date
+	 * 					La date d'acquisition de la trame.
+	 * @param vitesse
+	 * 					La vitesse par rapport au sol en noeuds, <i>NaN</i> si elle est absente.
+	 * @param cap
+	 * 					Le cap suivi en centièmes de degré, ou {@link #CAP_ABSENT_S}.
+	 */
+	public TrameGPRMC( int latitude, int longitude, float heure, char donneesValides, int date, float vitesse, int cap) {
+		this( latitude, longitude, heure, donneesValides, date);
+		vitesse_ = vitesse;
+		cap_ = cap;
+	}
+
+
+
+
+	/**
+	 * Le constructeur de trame GPRMC à partir d'une chaine de caractères.
+	 * <p>Les informations de la trame ne sont décodées qu'au moment où on y accède.</p>
 	 * @param trameGPSLue
 	 * 					La trame brute recue du GPS.
 	 */
 	public TrameGPRMC( String trameGPSLue) {
-		if( trameGPSLue != null) {
-
-			// On se debarasse de l'entete de la trame
-			String chaineAParser = trameGPSLue.substring( trameGPSLue.indexOf( ',') + 1);
-
-			String chaineParsee[] = chaineAParser.split( ",");
-
-			if( chaineParsee.length >= 8) {
-				try {
-					
-					// Extraction des informations utiles
-					setHeure( Float.valueOf( chaineParsee[ 0]));
-					donneesValides_ = chaineParsee[ 1].charAt( 0);
-					setLatitude( chaineParsee[ 2] + "," + chaineParsee[ 3]);
-					setLongitude( chaineParsee[ 4] + "," + chaineParsee[ 5]);
-					date_ = Integer.valueOf( chaineParsee[ 8]);
-					
-				} catch( NumberFormatException e) {
-					if( DEBUG_S) {
-						System.err.println( "Erreur : trame incomplete.");
-						setHeure( 0);
-						donneesValides_ = '\0';
-						setLatitude( "");
-						setLongitude( "");
-						date_ = 0;
-					}
-				}
-			}
+		super( trameGPSLue != null ? new ChampsNMEA( trameGPSLue) : null, trameGPSLue != null ? INFORMATIONS_S : 0);
+	}
+
+
+
+
+	/**
+	 * Le constructeur de trame GPRMC à partir des octets de la trame brute.
+	 * <p>Les octets sont recopiés et les informations de la trame ne sont décodées qu'au moment où on y accède.</p>
+	 * @param trame
+	 * 					Le tableau contenant la trame brute reçue du GPS.
+	 * @param debut
+	 * 					L'indice du '$' de la trame dans le tableau.
+	 * @param longueur
+	 * 					Le nombre d'octets de la trame.
+	 */
+	public TrameGPRMC( byte[] trame, int debut, int longueur) {
+		super( new ChampsNMEA( trame, debut, longueur), INFORMATIONS_S);
+	}
+
+
+
+
+	@Override
+	protected void decoderInformation( int information, ChampsNMEA champs) {
+		// Trame du type : $GPRMC,heure,etat,latitude,N/S,longitude,E/W,vitesse,cap,date,...
+		switch( information) {
+		case HEURE_S:
+			decoderHeure( champs, 1);
+			break;
+		case VALIDITE_S:
+			donneesValides_ = champs.caractere( 2);
+			break;
+		case POSITION_S:
+			decoderPosition( champs, 3);
+			break;
+		case DATE_S:
+			date_ = champs.entier( 9);
+			dater( date_);
+			break;
+		case VITESSE_CAP_S:
+			vitesse_ = champs.estVide( 7) ? Float.NaN : ( float) champs.reel( 7);
+			// Le cap est lu directement en centiemes de degre, 360 degres valant 0
+			cap_ = champs.estVide( 8) ? CAP_ABSENT_S : ( int) ( champs.decimalFixe( 8, 2) % 36000L);
+			break;
+		default:
+			break;
+		}
+	}
+
+
+
+
+	@Override
+	protected void reinitialiser( int informations) {
+		if( DEBUG_S) {
+			System.err.println( "Erreur : trame incomplete.");
+		}
+		if( ( informations & VALIDITE_S) != 0) {
+			donneesValides_ = '\0';
+		}
+		if( ( informations & DATE_S) != 0) {
+			date_ = 0;
+		}
+		if( ( informations & VITESSE_CAP_S) != 0) {
+			vitesse_ = Float.NaN;
+			cap_ = CAP_ABSENT_S;
 		}
 	}
 
@@ -114,55 +240,56 @@ public class TrameGPRMC extends TrameGPS {
 
 
 	/**
-	 * Retourne la trame GPRMC en chaine de caractres.
-	 * <p>La chaine de caractres aura le format : "Latitude = <i>...</i>, longitude = <i>...</i>, 
-	 * heure = <i>...</i>, etat = <i>...</i>, date = <i>...</i></p>
+	 * Retourne la trame GPRMC en chaine de caractères.
+	 * <p>La chaine de caractères aura le format : "Latitude = <i>...</i>, longitude = <i>...</i>, 
+	 * heure = <i>...</i>, etat = <i>...</i>, date = <i>...</i>, vitesse = <i>...</i>, cap = <i>...</i></p>
 	 * 
-	 * @return La trame GPRMC convertie en chaine de caractres.
+	 * @return La trame GPRMC convertie en chaine de caractères.
 	 */
 	public String toString() {
 		return "Latitude = " + getLatitude() + ", longitude = " + getLongitude()
-				+ ", heure = " + getHeure() + ", etat = " + donneesValides_ 
-				+ ", date = " + date_;
+				+ ", heure = " + getHeure() + ", etat = " + getDonneesValides() 
+				+ ", date = " + getDate() + ", vitesse = " + getVitesse() + ", cap = " + getCap();
 	}
 	
 	
 	
 	
 	/**
-	 * Retourne la trame GPRMC convertie en chaine de caractres.
-	 * <p>La chaine de caractres aura le format : "<i>classe de la trame (GPRMC);latitude;longitude
-	 * ;heure;donnes valides;date</i></p>
+	 * Retourne la trame GPRMC convertie en chaine de caractères.
+	 * <p>La chaine de caractères aura le format : "<i>classe de la trame (GPRMC);latitude;longitude
+	 * ;heure;données valides;date</i></p>
 	 * 
-	 * @deprecated Cette mthode tait utilise pour la srialisation dans des fichiers texte. 
-	 * Utiliser {@link #toString()}  la place. 
+	 * @deprecated Cette méthode était utilisée pour la sérialisation dans des fichiers texte. 
+	 * Utiliser {@link #toString()} à la place. 
 	 */
 	public String afficher() {
 		return TrameGPRMC.class + ";" + getLatitude() + ";" + getLongitude()
-				+ ";" + getHeure() + ";" + donneesValides_ 
-				+ ";" + date_;
+				+ ";" + getHeure() + ";" + getDonneesValides() 
+				+ ";" + getDate();
 	}
 
 
 
 
 	/**
-	 * Permet de savoir si la trame GPRMC reue est valide.
+	 * Permet de savoir si la trame GPRMC reçue est valide.
 	 * @return true, si la trame est valide
 	 * 		   false, si la trame n'est pas valide.
 	 */
 	public boolean estValide() {
-		return donneesValides_ == 'A';
+		return estComplete() && getDonneesValides() == 'A';
 	}
 
 
 
 
 	/**
-	 * Retourne l'indicateur de validit de la trame GPRMC.
-	 * @return L'indicateur de validit de la trame GPRMC.
+	 * Retourne l'indicateur de validité de la trame GPRMC.
+	 * @return L'indicateur de validité de la trame GPRMC.
 	 */
 	public char getDonneesValides() {
+		decoder( VALIDITE_S);
 		return donneesValides_;
 	}
 
@@ -170,11 +297,12 @@ public class TrameGPRMC extends TrameGPS {
 
 
 	/**
-	 * Permet de modifier l'indicateur de validit de la trame GPRMC.
+	 * Permet de modifier l'indicateur de validité de la trame GPRMC.
 	 * @param donneesValides 
-	 *					Le nouvel indicateur de validit de la trame GPRMC.
+	 *					Le nouvel indicateur de validité de la trame GPRMC.
 	 */
 	public void setDonneesValides( char donneesValides) {
+		decoder( VALIDITE_S);
 		donneesValides_ = donneesValides;
 	}
 
@@ -186,6 +314,7 @@ public class TrameGPRMC extends TrameGPS {
 	 * @return La date de l'acquisition de la trame GPRMC.
 	 */
 	public int getDate() {
+		decoder( DATE_S);
 		return date_;
 	}
 
@@ -194,11 +323,88 @@ public class TrameGPRMC extends TrameGPS {
 
 	/**
 	 * Permet de modifier la date de l'acquisition de la trame GPRMC.
+	 * <p>La date de l'horodatage de la trame est modifiée en conséquence.</p>
 	 * @param date
 	 * 				La nouvelle date de l'acquisition de la trame GPRMC.
 	 */
 	public void setDate( int date) {
+		decoder( DATE_S);
 		date_ = date;
+		dater( date);
+	}
+
+
+
+
+	/**
+	 * Retourne la vitesse par rapport au sol de la trame GPRMC.
+	 * @return La vitesse en noeuds, <i>NaN</i> si la trame n'en contient pas.
+	 */
+	public float getVitesse() {
+		decoder( VITESSE_CAP_S);
+		return vitesse_;
+	}
+
+
+
+
+	/**
+	 * Retourne la vitesse par rapport au sol de la trame GPRMC en mètres par seconde.
+	 * @return La vitesse en mètres par seconde, <i>NaN</i> si la trame n'en contient pas.
+	 */
+	public double getVitesseMetresSeconde() {
+		return getVitesse() * METRES_SECONDE_PAR_NOEUD_S;
+	}
+
+
+
+
+	/**
+	 * Permet de modifier la vitesse par rapport au sol de la trame GPRMC.
+	 * @param vitesse
+	 * 				La nouvelle vitesse en noeuds, <i>NaN</i> si elle est absente.
+	 */
+	public void setVitesse( float vitesse) {
+		decoder( VITESSE_CAP_S);
+		vitesse_ = vitesse;
+	}
+
+
+
+
+	/**
+	 * Retourne le cap suivi de la trame GPRMC.
+	 * @return Le cap en degrés depuis le nord vrai dans le sens horaire, dans [0, 360[, <i>NaN</i> si la trame
+	 * n'en contient pas.
+	 */
+	public float getCap() {
+		decoder( VITESSE_CAP_S);
+		return cap_ == CAP_ABSENT_S ? Float.NaN : cap_ / 100.0f;
+	}
+
+
+
+
+	/**
+	 * Retourne le cap suivi de la trame GPRMC en centièmes de degré.
+	 * @return Le cap en centièmes de degré, de 0 à 35999, ou {@link #CAP_ABSENT_S}.
+	 */
+	public int getCapCentiemes() {
+		decoder( VITESSE_CAP_S);
+		return cap_;
+	}
+
+
+
+
+	/**
+	 * Permet de modifier le cap suivi de la trame GPRMC.
+	 * @param cap
+	 * 				Le nouveau cap en centièmes de degré, de 0 à 35999, ou {@link #CAP_ABSENT_S}.
+	 */
+	public void setCapCentiemes( int cap) {
+		decoder( VITESSE_CAP_S);
+		cap_ = cap;
 	}
 
 
@@ -207,8 +413,10 @@ public class TrameGPRMC extends TrameGPS {
 	@Override
 	public boolean equals( TrameGPS trame) {
 		if( trame.getClass().equals( TrameGPRMC.class)) {
+			TrameGPRMC rmc = ( TrameGPRMC) trame;
 			return getLatitude().equals( trame.getLatitude()) && getLongitude().equals( trame.getLongitude())
-					&& getHeure() == trame.getHeure() && donneesValides_ == ( ( TrameGPRMC) trame).getDonneesValides() && date_ == ( ( TrameGPRMC) trame).getDate();
+					&& getHeure() == trame.getHeure() && getDonneesValides() == rmc.getDonneesValides() && getDate() == rmc.getDate()
+					&& Float.compare( getVitesse(), rmc.getVitesse()) == 0 && getCapCentiemes() == rmc.getCapCentiemes();
 		}
 		return false;
 	}
@@ -5,17 +5,28 @@
 
 package telemetrieMoto.acquisition.comm.gps;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 /**
- * <b>TrameGPS permet de reprsenter tous les types de trames GPS en ne conservant que les informations essentielles.</b>
- * <p>Une TrameGPS est donc caractrise par :
+ * <b>TrameGPS permet de représenter tous les types de trames GPS en ne conservant que les informations essentielles.</b>
+ * <p>Une TrameGPS est donc caractérisée par :
  * <ul>
  * 	<li>Une latitude</li>
  * 	<li>Une longitude</li>
  * 	<li>Une heure</li>
  * </ul>
- * C'est une classe abstraite qui ne doit pas tre instancie directement.</p>
+ * La position est stockée sous forme d'entiers en millionièmes de degré et l'heure est complétée par un 
+ * horodatage en millisecondes : les post traitements n'ont ainsi plus de texte à analyser. Les accesseurs
+ * sous forme de chaines (<i>ddmm.mmmm,N</i>) sont conservés et reconstruisent le format NMEA à la demande.
+ * C'est une classe abstraite qui ne doit pas être instanciée directement.</p>
+ * <p>Une trame construite à partir d'une trame NMEA brute n'est pas décodée à sa création : elle conserve
+ * les {@link ChampsNMEA} de la trame et chaque information n'est convertie que lors de son premier accès.
+ * Une trame dont on ne lit que quelques informations ne décode ainsi que les champs correspondants.
+ * <br>Si un champ est absent ou mal formé, la trame est incomplète : les informations déjà lues gardent leur
+ * valeur, toutes les autres sont remises à leur valeur par défaut. La validité d'une trame ({@link #estValide()})
+ * n'est jugée qu'après le décodage de toutes ses informations, une trame incomplète n'est jamais valide.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -26,27 +37,218 @@ import java.io.Serializable;
 public abstract class TrameGPS implements Serializable {
 
 
-	/** L'identifiant de srialisation. */
-	private static final long serialVersionUID = 1L;
+	/** L'identifiant de sérialisation. */
+	private static final long serialVersionUID = 2L;
 
 
-	/** La latitude que le GPS nous envoie. */
-	private String latitude_;
+	/** La valeur de la latitude ou de la longitude lorsque la trame ne contient pas de position. */
+	public static final int POSITION_ABSENTE_S = Integer.MIN_VALUE;
+
+
+	/** Le nombre de millisecondes dans une journée. */
+	public static final long MS_PAR_JOUR_S = 24L * 3600L * 1000L;
+
+
+	/** La latitude en millionièmes de degré, positive au nord. */
+	private int latitude_ = POSITION_ABSENTE_S;
 	
 	
-	/** La longitude que le GPS nous envoie. */
-	private String longitude_;
+	/** La longitude en millionièmes de degré, positive à l'est. */
+	private int longitude_ = POSITION_ABSENTE_S;
 	
 	
-	/** L'heure UTC exprime au format : hhmmss.sss. */
+	/** L'heure UTC exprimée au format : hhmmss.sss. */
 	private float heure_;
+
+
+	/** L'horodatage de l'acquisition en millisecondes depuis le 1er janvier 1970 UTC.
+	 * <br>Tant que la date de la trame n'est pas connue, il est compté depuis minuit UTC. */
+	private long horodatage_;
+
+
+	/** L'information de la trame correspondant à l'heure. */
+	protected static final int HEURE_S = 1;
+
+
+	/** L'information de la trame correspondant à la latitude et la longitude. */
+	protected static final int POSITION_S = 1 << 1;
+
+
+	/** L'information de la trame correspondant à la date, pour les trames qui la transmettent. */
+	protected static final int DATE_S = 1 << 2;
+
+
+	/** Les champs bruts de la trame NMEA restant à décoder, <i>null</i> si toutes les informations sont décodées. */
+	private transient ChampsNMEA champs_ = null;
+
+
+	/** L'ensemble des informations à décoder à partir des champs bruts (une information par bit). */
+	private transient int aDecoder_ = 0;
+
+
+	/** L'ensemble des informations déjà lues ou modifiées par l'appelant, qu'un échec de décodage ne doit pas changer. */
+	private transient int lues_ = 0;
+
+
+	/** Vrai si un champ de la trame brute était absent ou mal formé. */
+	private boolean incomplete_ = false;
+
+
+
+
+	/**
+	 * Le constructeur d'une trame GPS dont les informations seront fixées champ par champ.
+	 */
+	protected TrameGPS() {
+	}
+
+
+
+
+	/**
+	 * Le constructeur d'une trame GPS dont les informations seront décodées à la demande.
+	 * @param champs
+	 * 					Les champs bruts de la trame NMEA reçue du GPS.
+	 * @param informations
+	 * 					L'ensemble des informations à décoder à partir des champs (une information par bit).
+	 */
+	protected TrameGPS( ChampsNMEA champs, int informations) {
+		champs_ = champs;
+		aDecoder_ = informations;
+	}
+
+
+
+
+	/**
+	 * Permet de décoder une information de la trame que l'appelant va lire ou modifier.
+	 * <p>Si le décodage échoue, la trame est considérée comme incomplète : l'information et toutes celles que
+	 * l'appelant n'a pas encore lues sont remises à leur valeur par défaut.</p>
+	 * @param information
+	 * 					Le bit de l'information à décoder.
+	 */
+	protected final void decoder( int information) {
+		lues_ |= information;
+		decoderSansLire( information);
+	}
+
+
+
+
+	/**
+	 * Permet de décoder toutes les informations de la trame qui ne l'ont pas encore été.
+	 * <p>Les informations ne sont pas considérées comme lues : si un champ est mal formé, toutes celles que
+	 * l'appelant n'a pas lues sont remises à leur valeur par défaut.</p>
+	 */
+	protected final void decoderTout() {
+		while( aDecoder_ != 0) {
+			decoderSansLire( Integer.lowestOneBit( aDecoder_));
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de décoder une information de la trame si elle ne l'a pas encore été.
+	 * @param information
+	 * 					Le bit de l'information à décoder.
+	 */
+	private void decoderSansLire( int information) {
+		if( ( aDecoder_ & information) != 0) {
+			// L'information est marquee comme decodee avant l'appel pour que les setters ne bouclent pas
+			aDecoder_ &= ~information;
+			// Les informations decodees en cascade, par exemple l'heure pour dater une trame, ne sont pas lues
+			int lues = lues_;
+			try {
+				decoderInformation( information, champs_);
+				lues_ = lues;
+			} catch( NumberFormatException e) {
+				lues_ = lues;
+				// Seules les informations decodees et deja lues par l'appelant sont conservees
+				int aReinitialiser = ~( lues_ & ~( aDecoder_ | information));
+				aDecoder_ = 0;
+				incomplete_ = true;
+				if( ( aReinitialiser & POSITION_S) != 0) {
+					latitude_ = POSITION_ABSENTE_S;
+					longitude_ = POSITION_ABSENTE_S;
+				}
+				if( ( aReinitialiser & HEURE_S) != 0) {
+					heure_ = 0;
+					horodatage_ = Math.floorDiv( horodatage_, MS_PAR_JOUR_S) * MS_PAR_JOUR_S;
+				}
+				if( ( aReinitialiser & DATE_S) != 0) {
+					horodatage_ = Math.floorMod( horodatage_, MS_PAR_JOUR_S);
+				}
+				reinitialiser( aReinitialiser);
+			}
+			if( aDecoder_ == 0) {
+				// Plus rien a decoder, on libere les octets de la trame
+				champs_ = null;
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si toutes les informations de la trame ont pu être décodées.
+	 * <p>Toutes les informations restant à décoder le sont lors de l'appel.</p>
+	 * @return <i>true</i> si aucun champ de la trame brute n'était absent ou mal formé, <i>false</i> sinon.
+	 */
+	public boolean estComplete() {
+		decoderTout();
+		return !incomplete_;
+	}
+
+
+
+
+	/**
+	 * Permet de décoder une information à partir des champs bruts de la trame NMEA.
+	 * <p>Les classes filles décodent leurs propres informations ainsi que l'heure ({@link #HEURE_S}) et la position 
+	 * ({@link #POSITION_S}), dont l'emplacement dépend du type de la trame, grâce à {@link #decoderHeure(ChampsNMEA, int)}
+	 * et {@link #decoderPosition(ChampsNMEA, int)}.</p>
+	 * @param information
+	 * 					Le bit de l'information à décoder.
+	 * @param champs
+	 * 					Les champs bruts de la trame NMEA.
+	 * @throws NumberFormatException si le champ correspondant est absent ou mal formé.
+	 */
+	protected abstract void decoderInformation( int information, ChampsNMEA champs);
+
+
+
+
+	/**
+	 * Permet de remettre des informations de la trame à leur valeur par défaut lorsque la trame reçue est incomplète.
+	 * <p>La position, l'heure et l'horodatage concernés sont déjà remis à zéro lors de l'appel.</p>
+	 * @param informations
+	 * 					L'ensemble des informations à remettre à leur valeur par défaut (une information par bit).
+	 */
+	protected abstract void reinitialiser( int informations);
+
+
+
+
+	/**
+	 * Permet de décoder toutes les informations de la trame avant sa sérialisation.
+	 * @param out
+	 * 				Le flux dans lequel la trame est sérialisée.
+	 * @throws IOException si l'écriture dans le flux a échoué.
+	 */
+	private void writeObject( ObjectOutputStream out) throws IOException {
+		decoderTout();
+		out.defaultWriteObject();
+	}
 	
 	
 	
 	
 	/**
-	 * Permet de convertir la trame GPS en chaine de caractres.
-	 * @return La trame GPS convertie en chaine de caractres.
+	 * Permet de convertir la trame GPS en chaine de caractères.
+	 * @return La trame GPS convertie en chaine de caractères.
 	 */
 	public abstract String toString();
 	
@@ -54,7 +256,8 @@ public abstract class TrameGPS implements Serializable {
 	
 	
 	/**
-	 * Permet de savoir si la trame GPS reue est valide.
+	 * Permet de savoir si la trame GPS reçue est valide.
+	 * <p>Toutes les informations de la trame sont décodées : une trame incomplète n'est pas valide.</p>
 	 * @return true, si la trame est valide
 	 * 		   false, si la trame n'est pas valide.
 	 */
@@ -65,14 +268,14 @@ public abstract class TrameGPS implements Serializable {
 	
 	/**
 	 * Permet de comparer deux trames GPS.
-	 * <p>Deux trames GPS sont considres comme gales si :
+	 * <p>Deux trames GPS sont considérées comme égales si :
 	 * <ul>
-	 * 	<li>Elles sont de mme type <i>(GPGGA / GPRMC)</i></li>
-	 * 	<li>Tous leurs attributs sont gaux</li>
+	 * 	<li>Elles sont de même type <i>(GPGGA / GPRMC)</i></li>
+	 * 	<li>Tous leurs attributs sont égaux</li>
 	 * </ul>
 	 * </p>
 	 * @param trame
-	 * 				La trame  comparer avec la trame courante.
+	 * 				La trame à comparer avec la trame courante.
 	 * @return true si les deux trames sont identiques,
 	 * 		   false sinon.
 	 */
@@ -81,12 +284,158 @@ public abstract class TrameGPS implements Serializable {
 	
 	
 	
+	/**
+	 * Permet de décoder l'heure de la trame et l'heure de son horodatage.
+	 * @param champs
+	 * 					Les champs bruts de la trame NMEA.
+	 * @param champ
+	 * 					L'indice du champ contenant l'heure au format <i>hhmmss.sss</i>.
+	 * @throws NumberFormatException si le champ est absent ou mal formé.
+	 */
+	protected final void decoderHeure( ChampsNMEA champs, int champ) {
+		long hhmmssmmm = champs.decimalFixe( champ, 3);
+		long ms = ( hhmmssmmm / 10000000L) * 3600000L + ( ( hhmmssmmm / 100000L) % 100L) * 60000L + hhmmssmmm % 100000L;
+		heure_ = ( float) champs.reel( champ);
+		horodatage_ = Math.floorDiv( horodatage_, MS_PAR_JOUR_S) * MS_PAR_JOUR_S + ms;
+	}
+
+
+
+
+	/**
+	 * Permet de décoder la latitude et la longitude de la trame.
+	 * <p>Les quatre champs <i>latitude,N/S,longitude,E/W</i> doivent se suivre.</p>
+	 * @param champs
+	 * 					Les champs bruts de la trame NMEA.
+	 * @param champ
+	 * 					L'indice du champ contenant la latitude.
+	 * @throws NumberFormatException si un champ est mal formé.
+	 */
+	protected final void decoderPosition( ChampsNMEA champs, int champ) {
+		latitude_ = microDegres( champs, champ);
+		longitude_ = microDegres( champs, champ + 2);
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une coordonnée NMEA <i>dddmm.mmmm</i> suivie de son hémisphère en millionièmes de degré.
+	 * @param champs
+	 * 					Les champs bruts contenant la coordonnée.
+	 * @param champ
+	 * 					L'indice du champ contenant la coordonnée, l'hémisphère étant dans le champ suivant.
+	 * @return La coordonnée en millionièmes de degré, ou {@link #POSITION_ABSENTE_S} si le champ est vide.
+	 * @throws NumberFormatException si un champ est mal formé.
+	 */
+	private static int microDegres( ChampsNMEA champs, int champ) {
+		if( champs.estVide( champ)) {
+			return POSITION_ABSENTE_S;
+		}
+		// Les minutes sont lues avec 6 decimales puis converties en millioniemes de degre arrondis
+		long dddmmmmmmmm = champs.decimalFixe( champ, 6);
+		long microDegres = ( dddmmmmmmmm / 100000000L) * 1000000L + ( dddmmmmmmmm % 100000000L + 30L) / 60L;
+		char hemisphere = champs.estVide( champ + 1) ? 'N' : champs.caractere( champ + 1);
+		if( hemisphere == 'S' || hemisphere == 'W') {
+			microDegres = -microDegres;
+		}
+		if( microDegres <= Integer.MIN_VALUE || microDegres > Integer.MAX_VALUE) {
+			throw new NumberFormatException( "Coordonnee hors limites : " + champs.chaine( champ));
+		}
+		return ( int) microDegres;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une coordonnée au format NMEA <i>dddmm.mmmm,H</i> en millionièmes de degré.
+	 * @param coordonnee
+	 * 					La coordonnée au format NMEA, éventuellement vide.
+	 * @return La coordonnée en millionièmes de degré, ou {@link #POSITION_ABSENTE_S} si elle est vide.
+	 */
+	private static int microDegres( String coordonnee) {
+		if( coordonnee == null || coordonnee.isEmpty()) {
+			return POSITION_ABSENTE_S;
+		}
+		return microDegres( new ChampsNMEA( coordonnee), 0);
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une coordonnée en millionièmes de degré au format NMEA <i>dddmm.mmmm,H</i>.
+	 * @param microDegres
+	 * 					La coordonnée en millionièmes de degré.
+	 * @param nbChiffresDegres
+	 * 					Le nombre minimal de chiffres des degrés (2 pour la latitude, 3 pour la longitude).
+	 * @param positif
+	 * 					L'hémisphère des coordonnées positives.
+	 * @param negatif
+	 * 					L'hémisphère des coordonnées négatives.
+	 * @return La coordonnée au format NMEA, vide si la position est absente.
+	 */
+	private static String formaterNMEA( int microDegres, int nbChiffresDegres, char positif, char negatif) {
+		if( microDegres == POSITION_ABSENTE_S) {
+			return "";
+		}
+		long valeur = Math.abs( ( long) microDegres);
+		long degres = valeur / 1000000L;
+		// Les minutes a 4 decimales, arrondies
+		long minutes = ( ( valeur % 1000000L) * 6L + 5L) / 10L;
+
+		StringBuilder sb = new StringBuilder( 16);
+		String chaineDegres = Long.toString( degres);
+		for( int i = chaineDegres.length() ; i < nbChiffresDegres ; ++i) {
+			sb.append( '0');
+		}
+		sb.append( chaineDegres);
+		sb.append( ( char) ( '0' + minutes / 100000L)).append( ( char) ( '0' + ( minutes / 10000L) % 10L)).append( '.');
+		for( long diviseur = 1000L ; diviseur > 0 ; diviseur /= 10L) {
+			sb.append( ( char) ( '0' + ( minutes / diviseur) % 10L));
+		}
+		sb.append( ',').append( microDegres < 0 ? negatif : positif);
+		return sb.toString();
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une date au format <i>ddmmyy</i> en nombre de jours depuis le 1er janvier 1970.
+	 * <p>Les années 80 à 99 sont celles du XXème siècle, les autres celles du XXIème siècle.</p>
+	 * @param date
+	 * 				La date au format <i>ddmmyy</i>.
+	 * @return Le nombre de jours depuis le 1er janvier 1970.
+	 */
+	public static long joursDepuisEpoch( int date) {
+		int jour = date / 10000;
+		int mois = ( date / 100) % 100;
+		int annee = date % 100;
+		annee += annee >= 80 ? 1900 : 2000;
+
+		// Calcul sur un calendrier commencant au 1er mars pour placer le 29 fevrier en fin d'annee
+		if( mois <= 2) {
+			--annee;
+		}
+		long ere = annee / 400;
+		long anneeEre = annee - ere * 400;
+		long jourAnnee = ( 153L * ( mois > 2 ? mois - 3 : mois + 9) + 2) / 5 + jour - 1;
+		long jourEre = anneeEre * 365 + anneeEre / 4 - anneeEre / 100 + jourAnnee;
+		return ere * 146097L + jourEre - 719468L;
+	}
+
+
+
+
 	/**
 	 * Retourne la latitude de la trame GPS.
-	 * @return La latitude de la trame GPS.
+	 * @return La latitude de la trame GPS au format NMEA <i>ddmm.mmmm,N</i>, vide si la trame n'a pas de position.
 	 */
 	public String getLatitude() {
-		return latitude_;
+		decoder( POSITION_S);
+		return formaterNMEA( latitude_, 2, 'N', 'S');
 	}
 
 
@@ -94,9 +443,34 @@ public abstract class TrameGPS implements Serializable {
 
 	/**
 	 * Retourne la longitude de la trame GPS.
-	 * @return La longitude de la trame GPS.
+	 * @return La longitude de la trame GPS au format NMEA <i>dddmm.mmmm,E</i>, vide si la trame n'a pas de position.
 	 */
 	public String getLongitude() {
+		decoder( POSITION_S);
+		return formaterNMEA( longitude_, 3, 'E', 'W');
+	}
+
+
+
+
+	/**
+	 * Retourne la latitude de la trame GPS en millionièmes de degré.
+	 * @return La latitude, positive au nord, ou {@link #POSITION_ABSENTE_S}.
+	 */
+	public int getLatitudeMicroDegres() {
+		decoder( POSITION_S);
+		return latitude_;
+	}
+
+
+
+
+	/**
+	 * Retourne la longitude de la trame GPS en millionièmes de degré.
+	 * @return La longitude, positive à l'est, ou {@link #POSITION_ABSENTE_S}.
+	 */
+	public int getLongitudeMicroDegres() {
+		decoder( POSITION_S);
 		return longitude_;
 	}
 
@@ -104,10 +478,23 @@ public abstract class TrameGPS implements Serializable {
 
 
 	/**
-	 * Retourne l'heure o la trame GPS a t acquise.
-	 * @return L'heure o la trame GPS a t acquise.
+	 * Permet de savoir si la trame contient une position.
+	 * @return <i>true</i> si la latitude et la longitude sont connues, <i>false</i> sinon.
+	 */
+	public boolean aUnePosition() {
+		decoder( POSITION_S);
+		return latitude_ != POSITION_ABSENTE_S && longitude_ != POSITION_ABSENTE_S;
+	}
+
+
+
+
+	/**
+	 * Retourne l'heure où la trame GPS a été acquise.
+	 * @return L'heure où la trame GPS a été acquise.
 	 */
 	public float getHeure() {
+		decoder( HEURE_S);
 		return heure_;
 	}
 
@@ -115,23 +502,74 @@ public abstract class TrameGPS implements Serializable {
 
 
 	/**
-	 * Permet de modifier la latitude de la coordonne GPS.
+	 * Retourne l'horodatage de l'acquisition de la trame GPS.
+	 * @return Le nombre de millisecondes depuis le 1er janvier 1970 UTC, ou depuis minuit UTC si la date 
+	 * de la trame n'est pas connue (voir {@link #estDatee()}).
+	 */
+	public long getHorodatage() {
+		decoder( HEURE_S);
+		decoder( DATE_S);
+		return horodatage_;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si l'horodatage de la trame contient la date.
+	 * @return <i>true</i> si l'horodatage est compté depuis le 1er janvier 1970, <i>false</i> s'il l'est depuis minuit.
+	 */
+	public boolean estDatee() {
+		return getHorodatage() >= MS_PAR_JOUR_S;
+	}
+
+
+
+
+	/**
+	 * Permet de modifier la latitude de la coordonnée GPS.
 	 * @param latitude
-	 * 					La nouvelle latitude de la coordonne GPS.
+	 * 					La nouvelle latitude de la coordonnée GPS au format NMEA <i>ddmm.mmmm,N</i>.
 	 */
 	public void setLatitude( String latitude) {
-		latitude_ = latitude;
+		setLatitudeMicroDegres( microDegres( latitude));
 	}
 
 
 
 
 	/**
-	 * Permet de modifier la longitude de la coordonne GPS.
+	 * Permet de modifier la longitude de la coordonnée GPS.
 	 * @param longitude
-	 * 					La nouvelle longitude de la coordonne GPS.
+	 * 					La nouvelle longitude de la coordonnée GPS au format NMEA <i>dddmm.mmmm,E</i>.
 	 */
 	public void setLongitude( String longitude) {
+		setLongitudeMicroDegres( microDegres( longitude));
+	}
+
+
+
+
+	/**
+	 * Permet de modifier la latitude de la coordonnée GPS.
+	 * @param latitude
+	 * 					La nouvelle latitude en millionièmes de degré, positive au nord.
+	 */
+	public void setLatitudeMicroDegres( int latitude) {
+		decoder( POSITION_S);
+		latitude_ = latitude;
+	}
+
+
+
+
+	/**
+	 * Permet de modifier la longitude de la coordonnée GPS.
+	 * @param longitude
+	 * 					La nouvelle longitude en millionièmes de degré, positive à l'est.
+	 */
+	public void setLongitudeMicroDegres( int longitude) {
+		decoder( POSITION_S);
 		longitude_ = longitude;
 	}
 
@@ -140,11 +578,70 @@ public abstract class TrameGPS implements Serializable {
 
 	/**
 	 * Permet de modifier l'heure de l'acquisition de la trame GPS.
+	 * <p>L'heure de l'horodatage est mise à jour, sa date est conservée.</p>
 	 * @param heure
 	 * 					La nouvelle heure de l'acquisition de la trame GPS.
 	 */
 	public void setHeure( float heure) {
+		decoder( HEURE_S);
 		heure_ = heure;
+
+		// Conversion de hhmmss.sss en millisecondes depuis minuit
+		int heures = ( int) ( heure / 10000);
+		int minutes = ( int) ( heure / 100) % 100;
+		long ms = heures * 3600000L + minutes * 60000L + Math.round( ( heure - heures * 10000 - minutes * 100) * 1000.0);
+		horodatage_ = Math.floorDiv( horodatage_, MS_PAR_JOUR_S) * MS_PAR_JOUR_S + ms;
+	}
+
+
+
+
+	/**
+	 * Permet de modifier l'horodatage de l'acquisition de la trame GPS.
+	 * <p>L'heure <i>hhmmss.sss</i> de la trame n'est pas modifiée.</p>
+	 * @param horodatage
+	 * 					Le nouvel horodatage en millisecondes depuis le 1er janvier 1970 UTC, ou depuis minuit UTC.
+	 */
+	public void setHorodatage( long horodatage) {
+		decoder( HEURE_S);
+		decoder( DATE_S);
+		horodatage_ = horodatage;
+	}
+
+
+
+
+	/**
+	 * Permet de fixer la date de l'horodatage de la trame GPS, son heure étant conservée.
+	 * <p>Les trames qui ne transmettent pas la date (GPGGA) peuvent ainsi être datées avec la date 
+	 * de la dernière trame GPRMC reçue.</p>
+	 * @param date
+	 * 				La date de l'acquisition au format <i>ddmmyy</i>, ignorée si elle est nulle.
+	 */
+	public void dater( int date) {
+		if( date > 0) {
+			long heure = getHorodatage() % MS_PAR_JOUR_S;
+			horodatage_ = joursDepuisEpoch( date) * MS_PAR_JOUR_S + heure;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de dater la trame GPS avec le jour d'une trame de référence déjà datée, son heure étant conservée.
+	 * <p>Si l'heure de la trame la place plus d'une demi-journée avant la référence, c'est que minuit UTC 
+	 * est passé depuis la référence : la trame est alors datée du jour suivant, pour que les horodatages 
+	 * restent croissants.</p>
+	 * @param reference
+	 * 				L'horodatage complet (en millisecondes depuis l'epoch) de la trame de référence.
+	 */
+	public void daterDepuis( long reference) {
+		long heure = getHorodatage() % MS_PAR_JOUR_S;
+		horodatage_ = Math.floorDiv( reference, MS_PAR_JOUR_S) * MS_PAR_JOUR_S + heure;
+		if( reference - horodatage_ > MS_PAR_JOUR_S / 2) {
+			horodatage_ += MS_PAR_JOUR_S;
+		}
 	}
 	
 	
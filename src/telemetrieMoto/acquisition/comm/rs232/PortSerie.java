@@ -11,14 +11,15 @@ import gnu.io.*;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.IOException;
+import java.util.TooManyListenersException;
 
 import telemetrieMoto.Proprietes;
 
  
 /**
- * <b>PortSerie permet la communication srie grce au port RS 232.</b>
+ * <b>PortSerie permet la communication série grâce au port RS 232.</b>
  * <p>Pour cela elle utilise la librairie RXTX. Toutes les configurations 
- * du port srie sont lues dans le fichier de configuration du projet.</p>
+ * du port série sont lues dans le fichier de configuration du projet.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -26,62 +27,72 @@ import telemetrieMoto.Proprietes;
 public class PortSerie {
 
 
-	/** L'objet reprsentant le port srie matriel sur lequel on va communiquer. */
+	/** L'objet représentant le port série matériel sur lequel on va communiquer. */
 	private SerialPort portSerie_;
 	
 
-	/** Le flux d'criture sur le port srie. */
+	/** Le flux d'écriture sur le port série. */
 	private OutputStream fluxSortie_;
 	
 	
-	/** Le flux de lecture sur le port srie. */
+	/** Le flux de lecture sur le port série. */
 	private InputStream fluxEntree_;
 
 
-	/** Le nombre de bauds de la liaison srie.
+	/** Le nombre de bauds de la liaison série.
 	 * <br><i>Cette information est lue dans le fichier de configuration du projet.</i> */
 	private int nbBauds_;
 
 
-	/** Le nom du port srie auquel on souhaite se connecter.
+	/** Le nom du port série auquel on souhaite se connecter.
 	 * <br><i>Cette information est lue dans le fichier de configuration du projet.</i> */
 	private String nomPort_;
 
 
-	/** L'identifiant du port srie auquel on souhaite se connecter. */
+	/** L'identifiant du port série auquel on souhaite se connecter. */
 	private CommPortIdentifier portId_;
 
 
-	/** Permet de savoir si l'on est connect au port srie. */
+	/** Permet de savoir si l'on est connecté au port série. */
 	private boolean estConnecte_;
 	
 	
-	/** Le buffer contenant les messages lus sur le port srie en attente d'une lecture de l'utilisateur.
-	 * A chaque lecture de l'utilisateur le buffer est vid. 
+	/** Le tampon circulaire contenant les octets lus sur le port série en attente d'une lecture de l'utilisateur.
+	 * Il est alimenté par l'{@link EcouteurLecture} dès que des octets arrivent et vidé par le consommateur.
 	 */
-	private volatile StringBuffer msgLus_;
+	private final TamponCirculaireOctets tamponLecture_;
+
+
+	/** Le tableau réutilisé par l'{@link EcouteurLecture} pour lire les octets disponibles sur le flux d'entrée. */
+	private final byte[] octetsLus_ = new byte[ 1024];
 	
 	
-	/** Le buffer contenant les messages  crire en attente d'criture sur le port srie.
-	 * Ds que le message a t envoy sur le port srie, le buffer est vid. 
+	/** Le buffer contenant les messages à écrire en attente d'écriture sur le port série.
+	 * Dès que le message a été envoyé sur le port série, le buffer est vidé. 
 	 */
 	private volatile StringBuffer msgAEcrire_;
 	
 	
 	/** Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration du projet.</i> 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
 	 */
 	private static final boolean DEBUG_S = Boolean.valueOf( Proprietes.getInstance().getPropriete( "DebugPS"));
 
 
+	/** La capacité du tampon de lecture en octets.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i>
+	 */
+	private static final int TAILLE_TAMPON_S = Integer.valueOf( Proprietes.getInstance().getPropriete( "TailleTamponSerie"));
+
+
 
 
 	/**
-	 * Le constructeur de port srie.
+	 * Le constructeur de port série.
 	 * @param nomPort
- 	 *					Le nom du port srie  ouvrir.
+ 	 *					Le nom du port série à ouvrir.
 	 * @param nbBauds
-	 * 					Le nombre de bauds de la liaison srie.
+	 * 					Le nombre de bauds de la liaison série.
 	 */
 	public PortSerie( String nomPort, int nbBauds) {
 		nomPort_ = nomPort;
@@ -89,7 +100,7 @@ public class PortSerie {
 		// La connexion n'est pas encore etablie
 		estConnecte_ = false;
 		// Initialisation des buffers
-		msgLus_ = new StringBuffer( 256);
+		tamponLecture_ = new TamponCirculaireOctets( TAILLE_TAMPON_S);
 		msgAEcrire_ = new StringBuffer( 256);
 	}
 
@@ -97,9 +108,9 @@ public class PortSerie {
 
 
 	/**
-	 * Permet d'tablir la connexion au port srie.
-	 * Lance un thread d'coute sur le port srie permettant la lecture de celui-ci et un autre d'criture.
-	 * @throws IOException si l'on a pas pu obtenir les flux de communication sur le port srie.
+	 * Permet d'établir la connexion au port série.
+	 * Abonne un {@link EcouteurLecture} aux évènements de réception du port série et lance un thread d'écriture.
+	 * @throws IOException si l'on a pas pu obtenir les flux de communication sur le port série.
 	 */
 	public void connect() throws IOException {
 
@@ -131,12 +142,21 @@ public class PortSerie {
 			fluxSortie_ = portSerie_.getOutputStream();
 			fluxEntree_ = portSerie_.getInputStream();
 
+			// On est prevenu des l'arrivee d'octets sur le port
+			portSerie_.addEventListener( new EcouteurLecture());
+			portSerie_.notifyOnDataAvailable( true);
+
 		} catch( NoSuchPortException e) {
 			throw new IOException( "Le port " + nomPort_ + " n'existe pas !");
 
 		} catch( PortInUseException e) {
 			throw new IOException("Le port " + nomPort_ + " est deja utilise !");
 
+		} catch( TooManyListenersException e) {
+			// Le port a deja un ecouteur, on ferme le port serie
+			portSerie_.close();
+			throw new IOException( "Le port " + nomPort_ + " est deja ecoute !");
+
 		} catch( IOException e) {
 			// Erreur lors de l'ouverture des flux de communication, on ferme le port serie
 			portSerie_.close();
@@ -145,7 +165,6 @@ public class PortSerie {
 		}
 
 		new Thread( new ThreadEcriture()).start();
-		new Thread( new ThreadLecture()).start();
 
 		if( DEBUG_S) {
 			System.out.println( "Connecte au port " + nomPort_);
@@ -157,8 +176,8 @@ public class PortSerie {
 
 
 	/**
-	 * Permet de paramtrer la communication au port srie.
-	 * @throws IOException Si le port srie est mal paramtr.
+	 * Permet de paramétrer la communication au port série.
+	 * @throws IOException Si le port série est mal paramétré.
 	 */
 	private void setParametreConnexion() throws IOException {
 
@@ -251,12 +270,15 @@ public class PortSerie {
 
 
 	/**
-	 * Permet de se dconnecter du port srie.
-	 * Ferme les flux de communication, mettant fin aux threads de lecture et criture sur le port srie.
+	 * Permet de se déconnecter du port série.
+	 * Ferme les flux de communication, mettant fin aux threads de lecture et écriture sur le port série.
 	 */
 	public void disconnect() {
 		if( portSerie_ != null) {
 
+			// On n'ecoute plus les evenements du port
+			portSerie_.removeEventListener();
+
 			try {
 				// Fermeture des flux de communication
 				fluxSortie_.close();
@@ -273,7 +295,7 @@ public class PortSerie {
 			portSerie_.close();
 		}
 		
-		// On arrete les threads de lecture et ecriture du port serie
+		// On arrete le thread d'ecriture du port serie
 		fluxSortie_ = null;
 		fluxEntree_ = null;
 		
@@ -284,8 +306,8 @@ public class PortSerie {
 
 
 	/**
-	 * Permet de savoir si l'on est bien connect au port srie.
-	 * @return <i>true</i> si l'on est connect au port srie, <i>false</i> sinon.
+	 * Permet de savoir si l'on est bien connecté au port série.
+	 * @return <i>true</i> si l'on est connecté au port série, <i>false</i> sinon.
 	 */
 	public boolean estConnecte() {
 		return estConnecte_;
@@ -295,11 +317,11 @@ public class PortSerie {
 
 
 	/**
-	 * Permet d'crire sur le port srie matriel.
+	 * Permet d'écrire sur le port série matériel.
 	 * @param msg
-	 * 				Le message  crire sur le port srie.
+	 * 				Le message à écrire sur le port série.
 	 * @throws IOException
-	 * 				Si l'envoi du message a echou. 
+	 * 				Si l'envoi du message a echoué. 
 	 */
 	private void ecrire( String msg) throws IOException {
 		if( estConnecte_) {
@@ -314,10 +336,10 @@ public class PortSerie {
 
 
 	/**
-	 * Le thread permettant d'crire sur le port srie matriel.
-	 * Il n'est actif que sur une interruption lance par la fonction {@link PortSerie#ecrirePortSerie(String)}. Il crit le message
-	 *  crire sur le port srie puis vide le buffer d'criture. Le thread se rendort jusqu' ce qu'il soit
-	 * rveill par une autre interruption. Il est actif tant que le flux d'criture n'est pas nul.
+	 * Le thread permettant d'écrire sur le port série matériel.
+	 * Il n'est actif que sur une interruption lancée par la fonction {@link PortSerie#ecrirePortSerie(String)}. Il écrit le message
+	 * à écrire sur le port série puis vide le buffer d'écriture. Le thread se rendort jusqu'à ce qu'il soit
+	 * réveillé par une autre interruption. Il est actif tant que le flux d'écriture n'est pas nul.
 	 * 
 	 * @author Yoan DUMAS
 	 * @version 1.1
@@ -357,63 +379,41 @@ public class PortSerie {
 
 
 	/**
-	 * Permet de lire sur le port srie matriel.
-	 * @return Le message lu sur le port srie.
-	 * @throws IOException Si la lecture s'est mal droule.
-	 */
-	private String lire() throws IOException {
-		String res = null;	// La chaine a retourner
-		if( estConnecte_) {
-			// On lit le message sur le posrt serie
-			byte[] aLire = new byte[ 256];
-			fluxEntree_.read( aLire);
-			res = new String( aLire);
-		}
-		return res;
-	}
-	
-	
-	
-	
-	/**
-	 * Le thread permettant de lire les informations reues sur le port srie.
-	 * Il effectue une lecture toutes les 100ms tant que le flux de lecture n'est pas nul.
-	 * A chaque lecture, il concatne le message lu au buffer de lecture.
+	 * L'écouteur des évènements de réception du port série matériel.
+	 * <p>Il est appelé par la librairie RXTX dès que des octets sont disponibles sur le port série. Il lit 
+	 * tous les octets disponibles et les dépose dans le tampon de lecture, sans attente ni création de chaine.
+	 * Le consommateur du tampon est ainsi réveillé dès la réception des octets.</p>
 	 * 
 	 * @author Yoan DUMAS
 	 * @version 1.1
 	 */
-	private class ThreadLecture implements Runnable {
+	private class EcouteurLecture implements SerialPortEventListener {
 
 		@Override
-		public void run() {
-			
-			while( fluxEntree_ != null) {
-				if( estConnecte_) {
-					// On lit le port serie
-					try {
-						String msgAAjouter = lire();
-						if( msgAAjouter != null && msgAAjouter.length() != 0) {
-							synchronized( PortSerie.class) {
-								msgLus_.append( msgAAjouter);
-							}
-						}
-						
-						Thread.sleep( 100);
-
-					} catch (IOException e) {
-						if( DEBUG_S) {
-							System.err.println( "Erreur lors de la lecture sur le port serie.");
-							e.printStackTrace();
-						}
-
-					} catch (InterruptedException e) {
-						if( DEBUG_S) {
-							System.err.println( "Erreur le sleep a ete interrompu.");
-							e.printStackTrace();
-						}
+		public void serialEvent( SerialPortEvent evt) {
+			if( evt.getEventType() != SerialPortEvent.DATA_AVAILABLE) {
+				return;
+			}
+
+			InputStream flux = fluxEntree_;
+			try {
+				// On lit tous les octets disponibles sur le port serie
+				int nbDisponibles;
+				while( flux != null && ( nbDisponibles = flux.available()) > 0) {
+					int nbLus = flux.read( octetsLus_, 0, Math.min( nbDisponibles, octetsLus_.length));
+					if( nbLus <= 0) {
+						break;
+					}
+					if( tamponLecture_.ecrire( octetsLus_, 0, nbLus) < nbLus && DEBUG_S) {
+						System.err.println( "Le tampon de lecture est plein, des octets ont ete perdus.");
 					}
 				}
+
+			} catch( IOException e) {
+				if( DEBUG_S) {
+					System.err.println( "Erreur lors de la lecture sur le port serie.");
+					e.printStackTrace();
+				}
 			}
 		}
 		
@@ -423,29 +423,38 @@ public class PortSerie {
 	
 	
 	/**
-	 * Retourne la chaine lue sur le port srie.
-	 * Vide le buffer de lecture, une fois la lecture termine.
-	 * @return La chaine lue sur le port srie.
+	 * Retourne le tampon de lecture du port série.
+	 * <p>Le tampon ne doit avoir qu'un seul consommateur, qui y lit directement les octets reçus.</p>
+	 * @return Le tampon contenant les octets lus sur le port série.
+	 */
+	public TamponCirculaireOctets getTamponLecture() {
+		return tamponLecture_;
+	}
+	
+	
+	
+	
+	/**
+	 * Retourne la chaine lue sur le port série.
+	 * Vide le tampon de lecture, une fois la lecture terminée.
+	 * <p>Cette méthode crée une chaine à chaque appel, on lui préfèrera une lecture directe 
+	 * dans le tampon retourné par {@link #getTamponLecture()}.</p>
+	 * @return La chaine lue sur le port série.
 	 */
 	public String lirePortSerie() {
-		String res = null;
-		synchronized( PortSerie.class) {
-			res = msgLus_.toString();
-			if( res != null && res.length() != 0) {
-				msgLus_.delete( 0, msgLus_.length());
-			}
-		}
-		return res;
+		byte[] aLire = new byte[ tamponLecture_.disponible()];
+		int nbLus = tamponLecture_.lire( aLire, 0, aLire.length);
+		return new String( aLire, 0, nbLus);
 	}
 	
 	
 	
 	
 	/**
-	 * Permet de prciser quel message on doit envoyer sur le port srie.
-	 * Il sera concatner au buffer des messages  crire sur le port srie matriel.
+	 * Permet de préciser quel message on doit envoyer sur le port série.
+	 * Il sera concaténer au buffer des messages à écrire sur le port série matériel.
 	 * @param msg 
-	 * 				Le message  envoyer sur le port srie.
+	 * 				Le message à envoyer sur le port série.
 	 */
 	public void ecrirePortSerie( String msg) {
 		synchronized( msgAEcrire_) {
@@ -458,9 +467,9 @@ public class PortSerie {
 
 
 	/**
-	 * Permet de modifier le dbit de la liaison srie (nombre de bauds).
+	 * Permet de modifier le débit de la liaison série (nombre de bauds).
 	 * @param br 
-	 * 				Le nouveau nombre de bauds de la liaison srie.
+	 * 				Le nouveau nombre de bauds de la liaison série.
 	 */
 	public void setBaudRate( int br) {
 
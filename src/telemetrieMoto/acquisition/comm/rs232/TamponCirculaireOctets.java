@@ -0,0 +1,267 @@
+/*
+ * TamponCirculaireOctets.java
+ * Tampon circulaire d'octets sans verrou entre un unique producteur et un unique consommateur
+ */
+
+package telemetrieMoto.acquisition.comm.rs232;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * <b>TamponCirculaireOctets est un tampon circulaire d'octets partagé entre un unique producteur et un unique consommateur.</b>
+ * <p>Le producteur (l'écouteur du {@link PortSerie}) dépose les octets reçus sur la liaison série et le consommateur
+ * (le {@link telemetrieMoto.acquisition.peripheriques.GPS}) les récupère directement, sans verrou ni création de chaine.
+ * Chaque côté ne modifie que sa propre position, la publication se faisant par des écritures <i>volatile</i>.
+ * <br>Si le consommateur est trop lent et que le tampon est plein, les nouveaux octets sont perdus et comptabilisés.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see PortSerie
+ */
+public class TamponCirculaireOctets {
+
+
+	/** Le tableau contenant les octets du tampon. Sa taille est une puissance de deux. */
+	private final byte[] tampon_;
+
+
+	/** Le masque permettant de ramener une position dans les bornes du tableau. */
+	private final int masque_;
+
+
+	/** Le nombre total d'octets écrits dans le tampon. <i>Modifié uniquement par le producteur.</i> */
+	private final AtomicLong positionEcriture_ = new AtomicLong();
+
+
+	/** Le nombre total d'octets lus dans le tampon. <i>Modifié uniquement par le consommateur.</i> */
+	private final AtomicLong positionLecture_ = new AtomicLong();
+
+
+	/** La dernière position de lecture connue du producteur, pour éviter de relire la position partagée à chaque écriture. */
+	private long lectureConnue_ = 0;
+
+
+	/** La dernière position d'écriture connue du consommateur, pour éviter de relire la position partagée à chaque lecture. */
+	private long ecritureConnue_ = 0;
+
+
+	/** Le consommateur endormi en attente d'octets, <i>null</i> s'il n'attend pas. */
+	private volatile Thread consommateurEnAttente_ = null;
+
+
+	/** Le nombre d'octets perdus faute de place dans le tampon. */
+	private volatile long nbOctetsPerdus_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur de TamponCirculaireOctets.
+	 * @param capacite
+	 * 					La capacité minimale du tampon en octets, elle est arrondie à la puissance de deux supérieure.
+	 */
+	public TamponCirculaireOctets( int capacite) {
+		if( capacite <= 0) {
+			throw new IllegalArgumentException( "La capacite du tampon doit etre positive : " + capacite);
+		}
+		int taille = Integer.highestOneBit( capacite);
+		if( taille < capacite) {
+			taille <<= 1;
+		}
+		tampon_ = new byte[ taille];
+		masque_ = taille - 1;
+	}
+
+
+
+
+	/**
+	 * Permet au producteur de déposer des octets dans le tampon.
+	 * <p>Les octets qui ne tiennent pas dans le tampon sont perdus. Le consommateur est réveillé s'il attendait.</p>
+	 * @param src
+	 * 				Le tableau contenant les octets à déposer.
+	 * @param debut
+	 * 				L'indice du premier octet à déposer.
+	 * @param longueur
+	 * 				Le nombre d'octets à déposer.
+	 * @return Le nombre d'octets effectivement déposés.
+	 */
+	public int ecrire( byte[] src, int debut, int longueur) {
+		long ecriture = positionEcriture_.get();
+		long libre = tampon_.length - ( ecriture - lectureConnue_);
+		if( libre < longueur) {
+			// On relit la position du consommateur qui a peut etre avance
+			lectureConnue_ = positionLecture_.get();
+			libre = tampon_.length - ( ecriture - lectureConnue_);
+		}
+
+		int aEcrire = ( int) Math.min( libre, longueur);
+		if( aEcrire < longueur) {
+			nbOctetsPerdus_ += longueur - aEcrire;
+		}
+
+		if( aEcrire > 0) {
+			// Copie en deux parties si l'on depasse la fin du tableau
+			int indice = ( int) ( ecriture & masque_);
+			int premierePartie = Math.min( aEcrire, tampon_.length - indice);
+			System.arraycopy( src, debut, tampon_, indice, premierePartie);
+			System.arraycopy( src, debut + premierePartie, tampon_, 0, aEcrire - premierePartie);
+
+			// Publication des octets au consommateur
+			positionEcriture_.set( ecriture + aEcrire);
+
+			Thread consommateur = consommateurEnAttente_;
+			if( consommateur != null) {
+				LockSupport.unpark( consommateur);
+			}
+		}
+		return aEcrire;
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur de lire un octet sans attendre.
+	 * @return L'octet lu (entre 0 et 255), ou -1 si le tampon est vide.
+	 */
+	public int lire() {
+		long lecture = positionLecture_.get();
+		if( lecture == ecritureConnue_) {
+			ecritureConnue_ = positionEcriture_.get();
+			if( lecture == ecritureConnue_) {
+				return -1;
+			}
+		}
+		int octet = tampon_[ ( int) ( lecture & masque_)] & 0xFF;
+		positionLecture_.set( lecture + 1);
+		return octet;
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur de lire plusieurs octets sans attendre.
+	 * @param dst
+	 * 				Le tableau dans lequel copier les octets lus.
+	 * @param debut
+	 * 				L'indice à partir duquel on copie les octets lus.
+	 * @param longueur
+	 * 				Le nombre maximum d'octets à lire.
+	 * @return Le nombre d'octets lus, éventuellement 0.
+	 */
+	public int lire( byte[] dst, int debut, int longueur) {
+		long lecture = positionLecture_.get();
+		ecritureConnue_ = positionEcriture_.get();
+		int aLire = ( int) Math.min( ecritureConnue_ - lecture, longueur);
+		if( aLire > 0) {
+			int indice = ( int) ( lecture & masque_);
+			int premierePartie = Math.min( aLire, tampon_.length - indice);
+			System.arraycopy( tampon_, indice, dst, debut, premierePartie);
+			System.arraycopy( tampon_, 0, dst, debut + premierePartie, aLire - premierePartie);
+			positionLecture_.set( lecture + aLire);
+		}
+		return aLire;
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur de lire un octet en attendant qu'il soit disponible.
+	 * Attention fonction bloquante ! Le consommateur est endormi tant que le tampon est vide.
+	 * @return L'octet lu (entre 0 et 255), ou -1 si l'attente a été interrompue.
+	 */
+	public int lireBloquant() {
+		int octet;
+		while( ( octet = lire()) < 0) {
+			if( !attendreDonnees( Long.MAX_VALUE)) {
+				return -1;
+			}
+		}
+		return octet;
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur d'attendre que des octets soient disponibles.
+	 * @param timeoutNanos
+	 * 						Le temps d'attente maximal en nanosecondes.
+	 * @return <i>true</i> si des octets sont disponibles, <i>false</i> si le délai est écoulé ou si l'attente a été interrompue.
+	 */
+	public boolean attendreDonnees( long timeoutNanos) {
+		long echeance = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+		consommateurEnAttente_ = Thread.currentThread();
+		try {
+			while( disponible() == 0) {
+				if( Thread.currentThread().isInterrupted()) {
+					return false;
+				}
+				if( echeance == Long.MAX_VALUE) {
+					// Attente sans delai : on se reveille tout de meme regulierement pour reverifier les octets
+					// disponibles et l'interruption, par precaution contre un reveil manque
+					LockSupport.parkNanos( this, TimeUnit.MILLISECONDS.toNanos( 100));
+				} else {
+					long restant = echeance - System.nanoTime();
+					if( restant <= 0) {
+						return false;
+					}
+					LockSupport.parkNanos( this, restant);
+				}
+			}
+			return true;
+		} finally {
+			consommateurEnAttente_ = null;
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'octets en attente de lecture.
+	 * @return Le nombre d'octets en attente de lecture.
+	 */
+	public int disponible() {
+		return ( int) ( positionEcriture_.get() - positionLecture_.get());
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur d'abandonner tous les octets en attente de lecture.
+	 */
+	public void vider() {
+		ecritureConnue_ = positionEcriture_.get();
+		positionLecture_.set( ecritureConnue_);
+	}
+
+
+
+
+	/**
+	 * Retourne la capacité du tampon.
+	 * @return La capacité du tampon en octets.
+	 */
+	public int getCapacite() {
+		return tampon_.length;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'octets perdus faute de place dans le tampon.
+	 * @return Le nombre d'octets perdus depuis la création du tampon.
+	 */
+	public long getNbOctetsPerdus() {
+		return nbOctetsPerdus_;
+	}
+}
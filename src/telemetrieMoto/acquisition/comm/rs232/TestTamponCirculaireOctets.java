@@ -0,0 +1,98 @@
+/*
+ * TestTamponCirculaireOctets.java
+ * Permet de tester le tampon circulaire d'octets du port serie
+ */
+
+package telemetrieMoto.acquisition.comm.rs232;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestTamponCirculaireOctets permet de tester le {@link TamponCirculaireOctets}.</b>
+ * <p>On vérifie l'ordre des octets, le passage en fin de tableau, la perte des octets quand le tampon est plein
+ * et l'échange entre un producteur et un consommateur s'exécutant dans deux threads différents.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see TamponCirculaireOctets
+ */
+public class TestTamponCirculaireOctets {
+
+
+
+
+	/**
+	 * Permet de vérifier que les octets sont relus dans l'ordre, y compris après un retour en début de tableau,
+	 * et que les octets qui ne tiennent pas dans le tampon sont comptabilisés comme perdus.
+	 */
+	@Test
+	public void testEcritureLecture() {
+		TamponCirculaireOctets tampon = new TamponCirculaireOctets( 5);
+		// La capacite est arrondie a la puissance de deux superieure
+		assertEquals( "Capacite du tampon", 8, tampon.getCapacite());
+
+		byte[] octets = "$GPGGA,1".getBytes();
+		byte[] lus = new byte[ 8];
+
+		// On decale les positions pour forcer le retour en debut de tableau
+		assertEquals( 6, tampon.ecrire( octets, 0, 6));
+		assertEquals( 6, tampon.lire( lus, 0, 8));
+		assertEquals( -1, tampon.lire());
+
+		// Ecriture a cheval sur la fin du tableau
+		assertEquals( 8, tampon.ecrire( octets, 0, 8));
+		assertEquals( 8, tampon.disponible());
+		assertEquals( '$', tampon.lire());
+		assertEquals( 7, tampon.lire( lus, 0, 8));
+		assertEquals( "GPGGA,1", new String( lus, 0, 7));
+
+		// Le tampon plein perd les octets en trop
+		assertEquals( 8, tampon.ecrire( octets, 0, 8));
+		assertEquals( 0, tampon.ecrire( octets, 0, 3));
+		assertEquals( "Nombre d'octets perdus", 3, tampon.getNbOctetsPerdus());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un consommateur bloqué reçoit tous les octets d'un producteur, dans l'ordre.
+	 * @throws InterruptedException si le test a été interrompu.
+	 */
+	@Test
+	public void testProducteurConsommateur() throws InterruptedException {
+		final TamponCirculaireOctets tampon = new TamponCirculaireOctets( 64);
+		final int nbOctets = 100000;
+
+		Thread producteur = new Thread( new Runnable() {
+			@Override
+			public void run() {
+				byte[] bloc = new byte[ 7];
+				int valeur = 0;
+				while( valeur < nbOctets) {
+					int n = Math.min( bloc.length, nbOctets - valeur);
+					for( int i = 0 ; i < n ; ++i) {
+						bloc[ i] = ( byte) ( valeur + i);
+					}
+					// On n'ecrit que ce qui tient dans le tampon
+					valeur += tampon.ecrire( bloc, 0, n);
+					if( tampon.disponible() > 32) {
+						Thread.yield();
+					}
+				}
+			}
+		});
+		producteur.start();
+
+		for( int i = 0 ; i < nbOctets ; ++i) {
+			assertEquals( "Octet " + i, i & 0xFF, tampon.lireBloquant());
+		}
+		producteur.join();
+		assertEquals( 0, tampon.disponible());
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * AnneauRetransmission.java
+ * Permet de conserver les derniers paquets envoyes pour pouvoir les renvoyer s'ils ont ete perdus
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * <b>AnneauRetransmission conserve une copie des derniers paquets envoyés par l'{@link Emetteur}.</b>
+ * <p>Les paquets sont rangés par numéro de séquence dans un nombre fixe d'emplacements alloués une fois pour toutes.
+ * Un paquet reste disponible pour une retransmission tant qu'il n'a pas été acquitté par le {@link Recepteur}
+ * et qu'il n'a pas été écrasé par un paquet plus récent : la mémoire utilisée est donc bornée, au prix de
+ * l'abandon des plus vieux paquets si le lien reste coupé trop longtemps.
+ * <br>Les numéros de séquence sont comparés par différence, le passage de {@link Integer#MAX_VALUE} à
+ * {@link Integer#MIN_VALUE} est donc géré.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Emetteur
+ * @see SuiviSequences
+ */
+public class AnneauRetransmission {
+
+
+	/** Les copies des paquets envoyés, une par emplacement. */
+	private final byte[][] paquets_;
+
+
+	/** La longueur du paquet de chaque emplacement. */
+	private final int[] longueurs_;
+
+
+	/** Le numéro de séquence du paquet de chaque emplacement. */
+	private final int[] sequences_;
+
+
+	/** Permet de savoir si l'emplacement contient un paquet non acquitté. */
+	private final boolean[] occupes_;
+
+
+	/** Le masque permettant de ramener un numéro de séquence à un emplacement. */
+	private final int masque_;
+
+
+	/** Le nombre de paquets écrasés avant d'avoir été acquittés. */
+	private long nbPaquetsAbandonnes_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur d'AnneauRetransmission.
+	 * @param capacite
+	 * 					Le nombre minimal de paquets conservés, arrondi à la puissance de deux supérieure.
+	 */
+	public AnneauRetransmission( int capacite) {
+		if( capacite <= 0) {
+			throw new IllegalArgumentException( "La capacite de l'anneau doit etre positive : " + capacite);
+		}
+		int taille = Integer.highestOneBit( capacite);
+		if( taille < capacite) {
+			taille <<= 1;
+		}
+		paquets_ = new byte[ taille][ CodecTrames.TAILLE_PAQUET_MAX_S];
+		longueurs_ = new int[ taille];
+		sequences_ = new int[ taille];
+		occupes_ = new boolean[ taille];
+		masque_ = taille - 1;
+	}
+
+
+
+
+	/**
+	 * Permet de conserver une copie d'un paquet envoyé.
+	 * <p>Le paquet est copié de sa position à sa limite, la position du tampon n'est pas modifiée.</p>
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 * @param paquet
+	 * 					Le tampon contenant le paquet envoyé.
+	 */
+	public void memoriser( int sequence, ByteBuffer paquet) {
+		int emplacement = sequence & masque_;
+		if( occupes_[ emplacement]) {
+			++nbPaquetsAbandonnes_;
+		}
+		int longueur = paquet.remaining();
+		paquet.duplicate().get( paquets_[ emplacement], 0, longueur);
+		longueurs_[ emplacement] = longueur;
+		sequences_[ emplacement] = sequence;
+		occupes_[ emplacement] = true;
+	}
+
+
+
+
+	/**
+	 * Permet de libérer tous les paquets dont le numéro de séquence est inférieur ou égal à celui passé en paramètre.
+	 * @param sequence
+	 * 					Le numéro de séquence jusqu'auquel tous les paquets ont été reçus.
+	 */
+	public void acquitter( int sequence) {
+		for( int i = 0 ; i < occupes_.length ; ++i) {
+			if( occupes_[ i] && sequence - sequences_[ i] >= 0) {
+				occupes_[ i] = false;
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne la copie d'un paquet non acquitté.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 * @return Le tableau contenant le paquet à partir de l'indice 0, ou <i>null</i> s'il a été acquitté ou écrasé.
+	 */
+	public byte[] getPaquet( int sequence) {
+		int emplacement = sequence & masque_;
+		if( occupes_[ emplacement] && sequences_[ emplacement] == sequence) {
+			return paquets_[ emplacement];
+		}
+		return null;
+	}
+
+
+
+
+	/**
+	 * Retourne la longueur d'un paquet non acquitté.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 * @return La longueur du paquet en octets, ou 0 s'il a été acquitté ou écrasé.
+	 */
+	public int getLongueur( int sequence) {
+		return getPaquet( sequence) != null ? longueurs_[ sequence & masque_] : 0;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets conservés par l'anneau.
+	 * @return La capacité de l'anneau.
+	 */
+	public int getCapacite() {
+		return occupes_.length;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets écrasés avant d'avoir été acquittés.
+	 * @return Le nombre de paquets qui ne pourront plus être retransmis.
+	 */
+	public long getNbPaquetsAbandonnes() {
+		return nbPaquetsAbandonnes_;
+	}
+}
@@ -0,0 +1,702 @@
+/*
+ * CodecTrames.java
+ * Permet de coder et decoder les messages echanges entre l'Emetteur et le Recepteur dans un format binaire compact
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+/**
+ * <b>CodecTrames permet de coder et décoder les messages échangés entre l'{@link Emetteur} et le {@link Recepteur}.</b>
+ * <p>Chaque paquet est composé d'une entête fixe suivie des champs du message écrits sous forme primitive,
+ * dans l'ordre réseau (<i>big endian</i>) :
+ * <ul>
+ * 	<li>L'entête : le nombre magique <i>'T' 'M'</i> (2 octets), la version du format (1 octet),
+ * 	le type du message (1 octet), l'identifiant de la moto (2 octets), l'époque de l'{@link Emetteur} (2 octets)
+ * 	et le numéro de séquence (4 octets).</li>
+ * 	<li>{@link #TYPE_GPGGA_S} : latitude et longitude en millionièmes de degré (2 x 4 octets), horodatage
+ * 	(8 octets), heure <i>hhmmss.sss</i> (4 octets), nombre de satellites (1 octet), dilution horizontale
+ * 	et altitude (2 x 4 octets).</li>
+ * 	<li>{@link #TYPE_GPRMC_S} : latitude, longitude, horodatage et heure comme pour une trame GPGGA,
+ * 	indicateur de validité (1 octet), date <i>ddmmyy</i> (4 octets), vitesse en noeuds (4 octets) et cap en
+ * 	centièmes de degré (2 octets).</li>
+ * 	<li>{@link #TYPE_MESSAGE_S} : la longueur (2 octets) puis le texte encodé en UTF-8.</li>
+ * 	<li>{@link #TYPE_LOT_S} : le nombre de messages du lot (1 octet) puis, pour chaque message, son type
+ * 	(1 octet) suivi de ses champs. Un lot regroupe plusieurs trames dans un même datagramme.</li>
+ * 	<li>{@link #TYPE_ACK_S} : envoyé par le {@link Recepteur}, son numéro de séquence est l'acquittement cumulé
+ * 	(tous les paquets jusqu'à ce numéro ont été reçus). Il est suivi du nombre de trous (1 octet) puis, pour chaque
+ * 	trou, du premier numéro de séquence manquant (4 octets) et du nombre de paquets manquants (2 octets).</li>
+ * </ul>
+ * Contrairement à la sérialisation Java, aucune description de classe n'est transmise : une trame GPGGA
+ * tient en 41 octets et son décodage ne fait appel à aucune réflexion.
+ * <br>L'identifiant de la moto permet au {@link Recepteur} de séparer les paquets de plusieurs motos écoutées
+ * sur le même port. Les acquittements portent l'identifiant de la moto à laquelle ils sont destinés.
+ * <br>L'époque est tirée au hasard à chaque démarrage de l'{@link Emetteur}, dont les numéros de séquence repartent
+ * de zéro : le {@link Recepteur} reconnait ainsi un redémarrage même s'il survient avant que les numéros n'aient
+ * dépassé la fenêtre de son {@link SuiviSequences}. Les acquittements portent l'époque des paquets acquittés.
+ * <br>Le codage se fait dans un tampon réutilisé d'un message à l'autre, un codec ne doit donc être utilisé
+ * que par un seul thread.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Emetteur
+ * @see Recepteur
+ */
+public class CodecTrames {
+
+
+	/** Le nombre magique placé au début de chaque paquet : les caractères 'T' et 'M'. */
+	public static final short MAGIQUE_S = ( short) 0x544D;
+
+
+	/** La version du format des paquets. */
+	public static final byte VERSION_S = 4;
+
+
+	/** La taille de l'entête des paquets en octets. */
+	public static final int TAILLE_ENTETE_S = 12;
+
+
+	/** L'identifiant d'une moto qui n'a pas été configurée : le {@link Recepteur} la reconnait alors à son adresse. */
+	public static final int ID_MOTO_INCONNU_S = 0;
+
+
+	/** La position de l'identifiant de la moto dans l'entête. */
+	private static final int POSITION_ID_MOTO_S = 4;
+
+
+	/** La taille maximale d'un paquet en octets : la charge utile d'un datagramme UDP sur un lien de MTU 1500. */
+	public static final int TAILLE_PAQUET_MAX_S = 1472;
+
+
+	/** Le nombre maximal de messages dans un lot. */
+	public static final int NB_MESSAGES_LOT_MAX_S = 255;
+
+
+	/** Le type d'un paquet contenant une {@link TrameGPGGA}. */
+	public static final byte TYPE_GPGGA_S = 1;
+
+
+	/** Le type d'un paquet contenant une {@link TrameGPRMC}. */
+	public static final byte TYPE_GPRMC_S = 2;
+
+
+	/** Le type d'un paquet contenant un message texte. */
+	public static final byte TYPE_MESSAGE_S = 3;
+
+
+	/** Le type d'un paquet regroupant plusieurs messages. */
+	public static final byte TYPE_LOT_S = 4;
+
+
+	/** Le type d'un paquet d'acquittement cumulé avec la liste des paquets manquants. */
+	public static final byte TYPE_ACK_S = 5;
+
+
+	/** Le nombre maximal de trous signalés dans un acquittement. */
+	public static final int NB_TROUS_MAX_S = 64;
+
+
+	/** Le tampon réutilisé dans lequel les messages sont codés. */
+	private final ByteBuffer tampon_ = ByteBuffer.allocate( TAILLE_PAQUET_MAX_S);
+
+
+	/** Le numéro de séquence du dernier paquet décodé. */
+	private int derniereSequence_ = 0;
+
+
+	/** L'identifiant de la moto écrit dans l'entête des paquets codés. */
+	private int idMoto_ = ID_MOTO_INCONNU_S;
+
+
+	/** L'identifiant de la moto du dernier paquet décodé. */
+	private int dernierIdMoto_ = ID_MOTO_INCONNU_S;
+
+
+	/** L'époque écrite dans l'entête des paquets codés. */
+	private int epoque_ = 0;
+
+
+	/** L'époque du dernier paquet décodé. */
+	private int derniereEpoque_ = 0;
+
+
+	/** Le nombre de messages du lot en cours de codage. */
+	private int nbMessagesLot_ = 0;
+
+
+	/** Le premier numéro de séquence de chaque trou du dernier acquittement décodé. */
+	private final int[] debutsTrous_ = new int[ NB_TROUS_MAX_S];
+
+
+	/** Le nombre de paquets de chaque trou du dernier acquittement décodé. */
+	private final int[] longueursTrous_ = new int[ NB_TROUS_MAX_S];
+
+
+	/** Le nombre de trous du dernier acquittement décodé. */
+	private int nbTrous_ = 0;
+
+
+
+
+	/**
+	 * Permet de coder un message seul dans le tampon du codec.
+	 * @param message
+	 * 					Le message à coder : une {@link TrameGPGGA}, une {@link TrameGPRMC} ou une chaine de caractères.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 * @return Le tampon contenant le paquet, prêt à être lu. Il n'est valable que jusqu'au prochain codage.
+	 * @throws IllegalArgumentException si le type du message n'est pas géré ou si le message est trop long.
+	 */
+	public ByteBuffer encoder( Object message, int sequence) {
+		tampon_.clear();
+		ecrireEntete( type( message), sequence);
+		try {
+			ecrireChamps( message);
+		} catch( BufferOverflowException e) {
+			throw new IllegalArgumentException( "Message trop long pour un paquet", e);
+		}
+		tampon_.flip();
+		return tampon_;
+	}
+
+
+
+
+	/**
+	 * Permet de commencer le codage d'un lot de messages.
+	 * <p>Les messages sont ensuite ajoutés par {@link #ajouterAuLot(Object, int)} et le paquet est 
+	 * obtenu par {@link #terminerLot()}.</p>
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 */
+	public void commencerLot( int sequence) {
+		tampon_.clear();
+		ecrireEntete( TYPE_LOT_S, sequence);
+		tampon_.put( ( byte) 0);
+		nbMessagesLot_ = 0;
+	}
+
+
+
+
+	/**
+	 * Permet d'ajouter un message au lot en cours de codage s'il y a encore la place.
+	 * @param message
+	 * 					Le message à ajouter : une {@link TrameGPGGA}, une {@link TrameGPRMC} ou une chaine de caractères.
+	 * @param tailleMax
+	 * 					La taille maximale du paquet en octets, au plus {@link #TAILLE_PAQUET_MAX_S}.
+	 * @return <i>true</i> si le message a été ajouté, <i>false</i> si le lot est plein : il est alors inchangé.
+	 * @throws IllegalArgumentException si le type du message n'est pas géré.
+	 */
+	public boolean ajouterAuLot( Object message, int tailleMax) {
+		byte type = type( message);
+		if( nbMessagesLot_ >= NB_MESSAGES_LOT_MAX_S) {
+			return false;
+		}
+
+		// Le message est ecrit dans les limites du paquet, il est retire s'il ne tient pas en entier
+		int debut = tampon_.position();
+		tampon_.limit( Math.min( tailleMax, TAILLE_PAQUET_MAX_S));
+		try {
+			tampon_.put( type);
+			ecrireChamps( message);
+		} catch( BufferOverflowException e) {
+			tampon_.position( debut);
+			return false;
+		} finally {
+			tampon_.limit( tampon_.capacity());
+		}
+		tampon_.put( TAILLE_ENTETE_S, ( byte) ++nbMessagesLot_);
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet de terminer le codage du lot de messages.
+	 * @return Le tampon contenant le paquet, prêt à être lu. Il n'est valable que jusqu'au prochain codage.
+	 */
+	public ByteBuffer terminerLot() {
+		tampon_.flip();
+		return tampon_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de messages du lot en cours de codage.
+	 * @return Le nombre de messages du lot.
+	 */
+	public int getNbMessagesLot() {
+		return nbMessagesLot_;
+	}
+
+
+
+
+	/**
+	 * Retourne la taille du paquet en cours de codage.
+	 * @return La taille du paquet en octets, entête comprise.
+	 */
+	public int getTailleLot() {
+		return tampon_.position();
+	}
+
+
+
+
+	/**
+	 * Permet de connaitre la taille du paquet contenant un message seul, sans le coder.
+	 * <p>Un message dont le paquet dépasse {@link #TAILLE_PAQUET_MAX_S} octets ne peut pas être envoyé, ni seul ni
+	 * dans un lot.</p>
+	 * @param message
+	 * 					Le message : une {@link TrameGPGGA}, une {@link TrameGPRMC} ou une chaine de caractères.
+	 * @return La taille du paquet en octets, entête comprise.
+	 * @throws IllegalArgumentException si le type du message n'est pas géré.
+	 */
+	public static int taillePaquet( Object message) {
+		// Position, horodatage et heure des trames GPS : 2 x 4 + 8 + 4 octets
+		switch( type( message)) {
+		case TYPE_GPGGA_S:
+			return TAILLE_ENTETE_S + 20 + 1 + 4 + 4;
+		case TYPE_GPRMC_S:
+			return TAILLE_ENTETE_S + 20 + 1 + 4 + 4 + 2;
+		default:
+			return TAILLE_ENTETE_S + 2 + ( ( String) message).getBytes( StandardCharsets.UTF_8).length;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de connaitre le type d'un message.
+	 * @param message
+	 * 					Le message à coder.
+	 * @return Le type du message.
+	 * @throws IllegalArgumentException si le type du message n'est pas géré.
+	 */
+	private static byte type( Object message) {
+		if( message instanceof TrameGPGGA) {
+			return TYPE_GPGGA_S;
+		} else if( message instanceof TrameGPRMC) {
+			return TYPE_GPRMC_S;
+		} else if( message instanceof String) {
+			return TYPE_MESSAGE_S;
+		}
+		throw new IllegalArgumentException( "Type de message non gere : " + ( message == null ? null : message.getClass()));
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire l'entête d'un paquet.
+	 * @param type
+	 * 				Le type du message.
+	 * @param sequence
+	 * 				Le numéro de séquence du paquet.
+	 */
+	private void ecrireEntete( byte type, int sequence) {
+		tampon_.putShort( MAGIQUE_S);
+		tampon_.put( VERSION_S);
+		tampon_.put( type);
+		tampon_.putShort( ( short) idMoto_);
+		tampon_.putShort( ( short) epoque_);
+		tampon_.putInt( sequence);
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire les champs d'un message.
+	 * @param message
+	 * 					Le message à coder, dont le type est géré.
+	 * @throws BufferOverflowException si le message ne tient pas dans le tampon.
+	 */
+	private void ecrireChamps( Object message) {
+		if( message instanceof TrameGPGGA) {
+			TrameGPGGA trame = ( TrameGPGGA) message;
+			ecrirePositionHeure( trame);
+			tampon_.put( ( byte) trame.getNbSat());
+			tampon_.putFloat( trame.getHDOP());
+			tampon_.putFloat( trame.getAltitude());
+		} else if( message instanceof TrameGPRMC) {
+			TrameGPRMC trame = ( TrameGPRMC) message;
+			ecrirePositionHeure( trame);
+			tampon_.put( ( byte) trame.getDonneesValides());
+			tampon_.putInt( trame.getDate());
+			tampon_.putFloat( trame.getVitesse());
+			tampon_.putShort( ( short) trame.getCapCentiemes());
+		} else {
+			byte[] texte = ( ( String) message).getBytes( StandardCharsets.UTF_8);
+			if( texte.length > tampon_.remaining() - 2) {
+				throw new BufferOverflowException();
+			}
+			tampon_.putShort( ( short) texte.length);
+			tampon_.put( texte);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire les champs communs à toutes les trames GPS.
+	 * @param trame
+	 * 				La trame GPS à coder.
+	 */
+	private void ecrirePositionHeure( TrameGPS trame) {
+		tampon_.putInt( trame.getLatitudeMicroDegres());
+		tampon_.putInt( trame.getLongitudeMicroDegres());
+		tampon_.putLong( trame.getHorodatage());
+		tampon_.putFloat( trame.getHeure());
+	}
+
+
+
+
+	/**
+	 * Permet de décoder un paquet contenant un message seul.
+	 * <p>Le paquet est lu à partir de la position courante du tampon jusqu'à sa limite.</p>
+	 * @param paquet
+	 * 				Le tampon contenant le paquet reçu.
+	 * @return Le message décodé : une {@link TrameGPGGA}, une {@link TrameGPRMC} ou une chaine de caractères.
+	 * @throws IllegalArgumentException si le paquet n'est pas au format attendu, s'il est tronqué ou s'il 
+	 * contient un lot.
+	 */
+	public Object decoder( ByteBuffer paquet) {
+		try {
+			byte type = lireEntete( paquet);
+			if( type == TYPE_LOT_S) {
+				throw new IllegalArgumentException( "Le paquet contient un lot de messages");
+			}
+			return lireChamps( type, paquet);
+		} catch( BufferUnderflowException e) {
+			throw new IllegalArgumentException( "Paquet tronque", e);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de décoder un paquet contenant un message seul ou un lot de messages.
+	 * <p>Le paquet est lu à partir de la position courante du tampon jusqu'à sa limite. Les messages sont
+	 * ajoutés dans l'ordre où ils ont été codés, seulement si tout le paquet est correct.</p>
+	 * @param paquet
+	 * 				Le tampon contenant le paquet reçu.
+	 * @param messages
+	 * 				La file à la fin de laquelle ajouter les messages décodés.
+	 * @return Le nombre de messages décodés.
+	 * @throws IllegalArgumentException si le paquet n'est pas au format attendu ou s'il est tronqué.
+	 */
+	public int decoder( ByteBuffer paquet, Deque<Object> messages) {
+		int nbAjoutes = 0;
+		try {
+			byte type = lireEntete( paquet);
+			if( type != TYPE_LOT_S) {
+				messages.addLast( lireChamps( type, paquet));
+				return 1;
+			}
+			int nbMessages = paquet.get() & 0xFF;
+			for( ; nbAjoutes < nbMessages ; ++nbAjoutes) {
+				messages.addLast( lireChamps( paquet.get(), paquet));
+			}
+			return nbMessages;
+		} catch( BufferUnderflowException e) {
+			retirer( messages, nbAjoutes);
+			throw new IllegalArgumentException( "Paquet tronque", e);
+		} catch( IllegalArgumentException e) {
+			retirer( messages, nbAjoutes);
+			throw e;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de retirer les messages d'un lot incorrect déjà ajoutés à la file.
+	 * @param messages
+	 * 				La file des messages décodés.
+	 * @param nbAjoutes
+	 * 				Le nombre de messages à retirer de la fin de la file.
+	 */
+	private static void retirer( Deque<Object> messages, int nbAjoutes) {
+		for( int i = 0 ; i < nbAjoutes ; ++i) {
+			messages.pollLast();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de lire et vérifier l'entête d'un paquet.
+	 * @param paquet
+	 * 				Le tampon contenant le paquet reçu.
+	 * @return Le type du paquet.
+	 * @throws IllegalArgumentException si le paquet n'est pas au format attendu.
+	 */
+	private byte lireEntete( ByteBuffer paquet) {
+		if( paquet.getShort() != MAGIQUE_S) {
+			throw new IllegalArgumentException( "Le paquet ne commence pas par le nombre magique");
+		}
+		byte version = paquet.get();
+		if( version != VERSION_S) {
+			throw new IllegalArgumentException( "Version du format non geree : " + version);
+		}
+		byte type = paquet.get();
+		dernierIdMoto_ = paquet.getShort() & 0xFFFF;
+		derniereEpoque_ = paquet.getShort() & 0xFFFF;
+		derniereSequence_ = paquet.getInt();
+		return type;
+	}
+
+
+
+
+	/**
+	 * Permet de lire l'identifiant de la moto d'un paquet sans le décoder.
+	 * <p>La position du tampon n'est pas modifiée : le {@link Recepteur} s'en sert pour choisir la session
+	 * qui décodera le paquet.</p>
+	 * @param paquet
+	 * 				Le tampon contenant le paquet reçu, à partir de sa position.
+	 * @return L'identifiant de la moto, ou {@link #ID_MOTO_INCONNU_S} si le paquet n'est pas au format attendu.
+	 */
+	public static int lireIdMoto( ByteBuffer paquet) {
+		int debut = paquet.position();
+		if( paquet.remaining() < TAILLE_ENTETE_S || paquet.getShort( debut) != MAGIQUE_S || paquet.get( debut + 2) != VERSION_S) {
+			return ID_MOTO_INCONNU_S;
+		}
+		return paquet.getShort( debut + POSITION_ID_MOTO_S) & 0xFFFF;
+	}
+
+
+
+
+	/**
+	 * Permet de lire les champs d'un message.
+	 * @param type
+	 * 				Le type du message.
+	 * @param paquet
+	 * 				Le tampon positionné sur le premier champ du message.
+	 * @return Le message décodé.
+	 * @throws IllegalArgumentException si le type est inconnu ou si le message est tronqué.
+	 */
+	private static Object lireChamps( byte type, ByteBuffer paquet) {
+		switch( type) {
+		case TYPE_GPGGA_S: {
+			int latitude = paquet.getInt();
+			int longitude = paquet.getInt();
+			long horodatage = paquet.getLong();
+			float heure = paquet.getFloat();
+			int nbSat = paquet.get() & 0xFF;
+			float hdop = paquet.getFloat();
+			float altitude = paquet.getFloat();
+			TrameGPGGA trame = new TrameGPGGA( latitude, longitude, heure, nbSat, hdop, altitude);
+			trame.setHorodatage( horodatage);
+			return trame;
+		}
+		case TYPE_GPRMC_S: {
+			int latitude = paquet.getInt();
+			int longitude = paquet.getInt();
+			long horodatage = paquet.getLong();
+			float heure = paquet.getFloat();
+			char donneesValides = ( char) ( paquet.get() & 0xFF);
+			int date = paquet.getInt();
+			float vitesse = paquet.getFloat();
+			int cap = paquet.getShort() & 0xFFFF;
+			TrameGPRMC trame = new TrameGPRMC( latitude, longitude, heure, donneesValides, date, vitesse, cap);
+			trame.setHorodatage( horodatage);
+			return trame;
+		}
+		case TYPE_MESSAGE_S: {
+			int longueur = paquet.getShort() & 0xFFFF;
+			if( longueur > paquet.remaining()) {
+				throw new IllegalArgumentException( "Message tronque");
+			}
+			byte[] texte = new byte[ longueur];
+			paquet.get( texte);
+			return new String( texte, StandardCharsets.UTF_8);
+		}
+		default:
+			throw new IllegalArgumentException( "Type de message inconnu : " + type);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de coder un acquittement cumulé et la liste des paquets manquants.
+	 * @param cumul
+	 * 					Le numéro de séquence jusqu'auquel tous les paquets ont été reçus.
+	 * @param debuts
+	 * 					Le premier numéro de séquence de chaque trou.
+	 * @param longueurs
+	 * 					Le nombre de paquets manquants de chaque trou, au plus 65535.
+	 * @param nbTrous
+	 * 					Le nombre de trous à signaler, au plus {@link #NB_TROUS_MAX_S}.
+	 * @return Le tampon contenant le paquet, prêt à être lu. Il n'est valable que jusqu'au prochain codage.
+	 */
+	public ByteBuffer encoderAcquittement( int cumul, int[] debuts, int[] longueurs, int nbTrous) {
+		nbTrous = Math.min( nbTrous, NB_TROUS_MAX_S);
+		tampon_.clear();
+		ecrireEntete( TYPE_ACK_S, cumul);
+		tampon_.put( ( byte) nbTrous);
+		for( int i = 0 ; i < nbTrous ; ++i) {
+			tampon_.putInt( debuts[ i]);
+			tampon_.putShort( ( short) Math.min( longueurs[ i], 0xFFFF));
+		}
+		tampon_.flip();
+		return tampon_;
+	}
+
+
+
+
+	/**
+	 * Permet de décoder un acquittement.
+	 * <p>La liste des trous est ensuite accessible par {@link #getNbTrous()}, {@link #getDebutTrou(int)} et
+	 * {@link #getLongueurTrou(int)}.</p>
+	 * @param paquet
+	 * 				Le tampon contenant le paquet reçu.
+	 * @return Le numéro de séquence jusqu'auquel tous les paquets ont été reçus.
+	 * @throws IllegalArgumentException si le paquet n'est pas un acquittement correct.
+	 */
+	public int decoderAcquittement( ByteBuffer paquet) {
+		nbTrous_ = 0;
+		try {
+			if( lireEntete( paquet) != TYPE_ACK_S) {
+				throw new IllegalArgumentException( "Le paquet n'est pas un acquittement");
+			}
+			int nbTrous = Math.min( paquet.get() & 0xFF, NB_TROUS_MAX_S);
+			for( int i = 0 ; i < nbTrous ; ++i) {
+				debutsTrous_[ i] = paquet.getInt();
+				longueursTrous_[ i] = paquet.getShort() & 0xFFFF;
+			}
+			nbTrous_ = nbTrous;
+			return derniereSequence_;
+		} catch( BufferUnderflowException e) {
+			throw new IllegalArgumentException( "Acquittement tronque", e);
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trous du dernier acquittement décodé.
+	 * @return Le nombre de trous.
+	 */
+	public int getNbTrous() {
+		return nbTrous_;
+	}
+
+
+
+
+	/**
+	 * Retourne le premier numéro de séquence manquant d'un trou du dernier acquittement décodé.
+	 * @param trou
+	 * 				L'indice du trou.
+	 * @return Le premier numéro de séquence manquant.
+	 */
+	public int getDebutTrou( int trou) {
+		return debutsTrous_[ trou];
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets manquants d'un trou du dernier acquittement décodé.
+	 * @param trou
+	 * 				L'indice du trou.
+	 * @return Le nombre de paquets manquants.
+	 */
+	public int getLongueurTrou( int trou) {
+		return longueursTrous_[ trou];
+	}
+
+
+
+
+	/**
+	 * Retourne le numéro de séquence du dernier paquet décodé.
+	 * @return Le numéro de séquence du dernier paquet décodé.
+	 */
+	public int getDerniereSequence() {
+		return derniereSequence_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'identifiant de la moto du dernier paquet décodé.
+	 * @return L'identifiant de la moto, ou {@link #ID_MOTO_INCONNU_S} si elle n'a pas été configurée.
+	 */
+	public int getDernierIdMoto() {
+		return dernierIdMoto_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'époque du dernier paquet décodé.
+	 * @return L'époque de l'{@link Emetteur} qui a codé le paquet, ou celle des paquets acquittés.
+	 */
+	public int getDerniereEpoque() {
+		return derniereEpoque_;
+	}
+
+
+
+
+	/**
+	 * Permet de choisir l'époque écrite dans l'entête des paquets codés.
+	 * @param epoque
+	 * 				L'époque, de 0 à 65535.
+	 * @throws IllegalArgumentException si l'époque ne tient pas sur deux octets.
+	 */
+	public void setEpoque( int epoque) {
+		if( epoque < 0 || epoque > 0xFFFF) {
+			throw new IllegalArgumentException( "Epoque invalide : " + epoque);
+		}
+		epoque_ = epoque;
+	}
+
+
+
+
+	/**
+	 * Permet de choisir l'identifiant de la moto écrit dans l'entête des paquets codés.
+	 * @param idMoto
+	 * 				L'identifiant de la moto, de 1 à 65535, ou {@link #ID_MOTO_INCONNU_S}.
+	 * @throws IllegalArgumentException si l'identifiant ne tient pas sur deux octets.
+	 */
+	public void setIdMoto( int idMoto) {
+		if( idMoto < 0 || idMoto > 0xFFFF) {
+			throw new IllegalArgumentException( "Identifiant de moto invalide : " + idMoto);
+		}
+		idMoto_ = idMoto;
+	}
+}
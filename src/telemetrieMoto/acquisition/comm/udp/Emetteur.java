@@ -7,6 +7,9 @@ package telemetrieMoto.acquisition.comm.udp;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import telemetrieMoto.Proprietes;
 
@@ -14,13 +17,21 @@ import telemetrieMoto.Proprietes;
 
 /**
  * <b>Emetteur permet d'envoyer les informations de la moto vers un {@link Recepteur} en bord de piste.</b>
- * <p>Le protocole de communication UDP a t choisi pour envoyer les informations sans perdre de temps 
+ * <p>Le protocole de communication UDP a été choisi pour envoyer les informations sans perdre de temps 
  * avec les acquittements. L'adresse IP de l'Emetteur et du {@link Recepteur}, ainsi que les ports 
- * utiliss sont stocks dans le fichier de configuration du projet.</p>
+ * utilisés sont stockés dans le fichier de configuration du projet.
+ * <br>Les messages sont codés dans un format binaire compact par un {@link CodecTrames}. En mode lot,
+ * plusieurs trames sont regroupées dans un même datagramme pour réduire le nombre de paquets émis : 
+ * le lot part dès qu'il atteint la taille maximale ou que le délai maximal de son premier message est écoulé.
+ * <br>Chaque paquet porte un numéro de séquence et reste dans un {@link AnneauRetransmission} jusqu'à son acquittement.
+ * Le {@link Recepteur} envoie périodiquement un acquittement cumulé accompagné de la liste des paquets manquants :
+ * seuls ces paquets sont renvoyés.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
  * @see Recepteur
+ * @see CodecTrames
+ * @see AnneauRetransmission
  */
 public class Emetteur {
 
@@ -29,15 +40,15 @@ public class Emetteur {
 	private DatagramSocket sockEnvoie_ = null;
 	
 	
-	/** La socket de communication pour la rception d'informations. */
+	/** La socket de communication pour la réception d'informations. */
 	private DatagramSocket sockEcoute_ = null;
 
 
-	/** L'adresse IP  laquelle on doit envoyer les informations. */
+	/** L'adresse IP à laquelle on doit envoyer les informations. */
 	private InetAddress adresseIP_ = null;
 	
 	
-	/** L'instance reprsentant le fichier de configuration du projet  interroger. */
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
 	private static Proprietes prop_s = Proprietes.getInstance();
 
 
@@ -45,13 +56,92 @@ public class Emetteur {
 	private int port_ = Integer.valueOf( prop_s.getPropriete( "UDPPort"));
 	
 	
-	/** Le port sur lequel on coutera la rception d'informations provenant du {@link Recepteur}. */
+	/** Le port sur lequel on écoutera la réception d'informations provenant du {@link Recepteur}. */
 	private int portACK_ = Integer.valueOf( prop_s.getPropriete( "UDPACK"));
 
 
+	/** Le codec utilisé pour coder les messages envoyés au {@link Recepteur}. */
+	private final CodecTrames codec_ = new CodecTrames();
+
+
+	/** L'identifiant de la moto placé dans l'entête des paquets, 0 pour laisser le {@link Recepteur} utiliser l'adresse de la moto.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final int ID_MOTO_S = Integer.valueOf( prop_s.getPropriete( "IdMoto"));
+
+
+	/** L'époque de l'Emetteur, tirée au hasard à sa création : elle signale au {@link Recepteur} que les numéros
+	 * de séquence sont repartis de zéro. */
+	private final int epoque_ = new Random().nextInt( 0x10000);
+
+
+	/** Le paquet réutilisé pour l'envoi des messages. */
+	private DatagramPacket paquetAEnvoyer_ = null;
+
+
+	/** Le numéro de séquence du prochain paquet envoyé. */
+	private int sequence_ = 0;
+
+
+	/** Permet de regrouper plusieurs messages par paquet si vrai <i>(true)</i>.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final boolean MODE_LOT_S = Boolean.valueOf( prop_s.getPropriete( "UDPModeLot"));
+
+
+	/** La taille maximale d'un lot en octets, entête comprise.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final int TAILLE_LOT_MAX_S = Integer.valueOf( prop_s.getPropriete( "UDPTailleLotMax"));
+
+
+	/** Le délai maximal en millisecondes entre l'ajout du premier message d'un lot et son envoi.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final long DELAI_LOT_MS_S = Long.valueOf( prop_s.getPropriete( "UDPDelaiLotMs"));
+
+
+	/** Permet de savoir si un lot est en cours de codage. */
+	private boolean lotOuvert_ = false;
+
+
+	/** L'échéance du lot en cours, en nanosecondes (voir {@link System#nanoTime()}). */
+	private long echeanceLot_ = 0;
+
+
+	/** Le nombre de paquets envoyés. */
+	private long nbPaquetsEnvoyes_ = 0;
+
+
+	/** Le nombre de messages envoyés. */
+	private long nbMessagesEnvoyes_ = 0;
+
+
+	/** La période en millisecondes des acquittements envoyés par le {@link Recepteur}.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final long PERIODE_ACK_MS_S = Long.valueOf( prop_s.getPropriete( "UDPPeriodeAckMs"));
+
+
+	/** Les copies des derniers paquets envoyés, pour les renvoyer s'ils sont signalés manquants.
+	 * <br><i>Sa taille est stockée dans le fichier de configuration du projet.</i> */
+	private final AnneauRetransmission anneau_ = new AnneauRetransmission( Integer.valueOf( prop_s.getPropriete( "UDPTailleAnneauRetransmission")));
+
+
+	/** Le paquet réutilisé pour les retransmissions. */
+	private DatagramPacket paquetRetransmis_ = null;
+
+
+	/** Le numéro de séquence du dernier acquittement cumulé reçu. */
+	private int dernierCumul_ = -1;
+
+
+	/** Le nombre de paquets renvoyés. */
+	private long nbRetransmissions_ = 0;
+
+
+	/** Le thread chargé d'envoyer les lots à leur échéance, <i>null</i> hors du mode lot. */
+	private Thread threadEcheance_ = null;
+
+
 	/** 
 	 * Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration du projet.</i> 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
 	 */
 	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugUDP"));
 
@@ -59,7 +149,7 @@ public class Emetteur {
 
 
 	/**
-	 * Le constructeur d'Emetteur embarqu sur la moto.
+	 * Le constructeur d'Emetteur embarqué sur la moto.
 	 */
 	public Emetteur() {
 
@@ -87,103 +177,340 @@ public class Emetteur {
 		if( DEBUG_S) {
 			System.out.println( "Creation de l'adresse IP OK.");
 		}
+
+		codec_.setIdMoto( ID_MOTO_S);
+		codec_.setEpoque( epoque_);
+		paquetAEnvoyer_ = new DatagramPacket( new byte[ 0], 0, adresseIP_, port_);
+		paquetRetransmis_ = new DatagramPacket( new byte[ 0], 0, adresseIP_, port_);
+
+		// Lancement du thread de reception des acquittements
+		Thread threadAcquittements = new Thread( new ThreadAcquittements(), "AcquittementsUDP");
+		threadAcquittements.setDaemon( true);
+		threadAcquittements.start();
+
+		// Lancement du thread charge d'envoyer les lots a leur echeance
+		if( MODE_LOT_S) {
+			threadEcheance_ = new Thread( new ThreadEcheance(), "EcheanceLotsUDP");
+			threadEcheance_.setDaemon( true);
+			threadEcheance_.start();
+		}
 	}
 
 
 
 
 	/**
-	 * Permet de convertir un objet en tableau d'octets.
-	 * @param o 
-	 * 			L'objet  convertir en tableau d'octets.
-	 * @return L'objet converti en tableau d'octets.
+	 * Permet d'envoyer un message au {@link Recepteur}.
+	 * <p>Le message est codé par le {@link CodecTrames} de l'Emetteur dans un tampon réutilisé. En mode lot,
+	 * il est ajouté au lot en cours qui n'est envoyé que lorsqu'il est plein, lorsque son délai maximal est
+	 * écoulé ou lors d'un appel à {@link #vider()}. Sinon il est envoyé immédiatement dans son propre paquet.</p>
+	 * <p>Un message trop long pour tenir dans un paquet est refusé avant de prendre un numéro de séquence.</p>
+	 * @param trame 
+	 * 				La trame à envoyer, ou un message texte.
+	 * @throws IllegalArgumentException si le type du message n'est pas géré ou s'il ne tient pas dans un paquet.
 	 */
-	public static byte[] toByteArray( Object o) {
-		byte[] resultat = null;
+	public synchronized void envoyerMessage( Object trame) {
+		if( CodecTrames.taillePaquet( trame) > CodecTrames.TAILLE_PAQUET_MAX_S) {
+			throw new IllegalArgumentException( "Message trop long pour un paquet");
+		}
+		if( !MODE_LOT_S) {
+			envoyerPaquet( codec_.encoder( trame, sequence_), sequence_++, 1);
+			return;
+		}
 
-		// Ecriture de l'objet dans un flux d'octets
-		ByteArrayOutputStream fluxTabOctetsEcriture = new ByteArrayOutputStream();
-		ObjectOutputStream fluxSortieObjet = null;
-		try {
-			fluxSortieObjet = new ObjectOutputStream( fluxTabOctetsEcriture);
-			fluxSortieObjet.writeObject( o);
-			if( DEBUG_S){
-				System.out.println( "Ecriture de la trame dans le flux de sortie OK.");
-			}
+		if( !lotOuvert_) {
+			commencerLot();
+		}
+		boolean ajoute = codec_.ajouterAuLot( trame, TAILLE_LOT_MAX_S);
+		if( !ajoute && codec_.getNbMessagesLot() > 0) {
+			// Le lot est plein, on l'envoie et on en commence un nouveau
+			vider();
+			commencerLot();
+			ajoute = codec_.ajouterAuLot( trame, TAILLE_LOT_MAX_S);
+		}
+		if( !ajoute) {
+			// Le message ne tient pas dans un lot vide mais tient dans un paquet : il part seul avec le numero de
+			// sequence du lot ouvert pour lui, qui ne doit pas rester sans paquet
+			lotOuvert_ = false;
+			envoyerPaquet( codec_.encoder( trame, sequence_ - 1), sequence_ - 1, 1);
+			return;
+		}
+		if( codec_.getNbMessagesLot() >= CodecTrames.NB_MESSAGES_LOT_MAX_S) {
+			vider();
+		}
+	}
 
-			resultat = fluxTabOctetsEcriture.toByteArray();
 
-			if( DEBUG_S) {
-				System.out.println( "Conversion de la trame en un tableau d'octets OK.");
-			}
 
-			// Fermeture des flux intermediaires
-			fluxSortieObjet.close();
-			fluxTabOctetsEcriture.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-			System.exit( 1);
+
+	/**
+	 * Permet d'envoyer immédiatement le lot en cours, s'il contient des messages.
+	 */
+	public synchronized void vider() {
+		if( lotOuvert_) {
+			lotOuvert_ = false;
+			if( codec_.getNbMessagesLot() > 0) {
+				envoyerPaquet( codec_.terminerLot(), sequence_ - 1, codec_.getNbMessagesLot());
+			}
 		}
-		
-		return resultat;
 	}
 
 
 
 
-
 	/**
-	 * Permet d'envoyer un message au {@link Recepteur}.
-	 * @param trame 
-	 * 				La trame  envoyer.
+	 * Permet de commencer un nouveau lot et de réveiller le thread chargé de son échéance.
 	 */
-	public void envoyerMessage( Object trame) {
-		
-		// Le tableau d'octets a envoyer
-		byte[] aEnvoye = Emetteur.toByteArray( trame);
+	private void commencerLot() {
+		codec_.commencerLot( sequence_++);
+		lotOuvert_ = true;
+		echeanceLot_ = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( DELAI_LOT_MS_S);
+		notifyAll();
+	}
+
 
-		// Creation du paquet a envoyer au serveur
-		DatagramPacket paquetAEnvoyer = new DatagramPacket( aEnvoye, aEnvoye.length, adresseIP_, port_);
+
+
+	/**
+	 * Permet d'envoyer un paquet codé au {@link Recepteur}.
+	 * <p>Une copie du paquet est conservée dans l'anneau de retransmission jusqu'à son acquittement.</p>
+	 * @param aEnvoye
+	 * 					Le tampon contenant le paquet à envoyer.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 * @param nbMessages
+	 * 					Le nombre de messages contenus dans le paquet.
+	 */
+	private void envoyerPaquet( ByteBuffer aEnvoye, int sequence, int nbMessages) {
+		paquetAEnvoyer_.setData( aEnvoye.array(), 0, aEnvoye.limit());
+		anneau_.memoriser( sequence, aEnvoye);
 
 		if( DEBUG_S) {
-			System.out.println( "Paquet de donnees cree.");
+			System.out.println( "Paquet de donnees cree (" + nbMessages + " messages, " + aEnvoye.limit() + " octets).");
 		}
 
 		try {
-			sockEnvoie_.send( paquetAEnvoyer);
+			sockEnvoie_.send( paquetAEnvoyer_);
 		} catch( IOException e) {
 			e.printStackTrace();
 			System.exit( 1);
 		}
+		++nbPaquetsEnvoyes_;
+		nbMessagesEnvoyes_ += nbMessages;
 
 		if( DEBUG_S) {
 			System.out.println( "Paquet envoye.");
 		}
 	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets envoyés au {@link Recepteur}.
+	 * @return Le nombre de paquets envoyés.
+	 */
+	public synchronized long getNbPaquetsEnvoyes() {
+		return nbPaquetsEnvoyes_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de messages envoyés au {@link Recepteur}, tous paquets confondus.
+	 * @return Le nombre de messages envoyés.
+	 */
+	public synchronized long getNbMessagesEnvoyes() {
+		return nbMessagesEnvoyes_;
+	}
+
+
+
+
+	/**
+	 * <b>ThreadEcheance permet d'envoyer le lot en cours lorsque son délai maximal est écoulé.</b>
+	 * <p>Le thread dort tant qu'aucun lot n'est commencé, puis jusqu'à l'échéance du lot.</p>
+	 * 
+	 * @author Yoan DUMAS
+	 * @version 1.1
+	 */
+	private class ThreadEcheance implements Runnable {
+
+
+		@Override
+		public void run() {
+			synchronized( Emetteur.this) {
+				try {
+					while( true) {
+						if( !lotOuvert_) {
+							Emetteur.this.wait();
+						} else {
+							long restant = echeanceLot_ - System.nanoTime();
+							if( restant <= 0) {
+								vider();
+							} else {
+								TimeUnit.NANOSECONDS.timedWait( Emetteur.this, restant);
+							}
+						}
+					}
+				} catch( InterruptedException e) {
+					if( DEBUG_S) {
+						System.out.println( "Fin du thread d'echeance des lots.");
+					}
+				}
+			}
+		}
+	}
 	
 	
 	
 	
 	/**
-	 * Permet d'attendre la rception d'un acquittement du {@link Recepteur}.
+	 * Permet d'attendre que tous les paquets envoyés aient été acquittés par le {@link Recepteur}.
+	 * <p>Les acquittements sont reçus en tâche de fond ; cette méthode attend au plus quatre périodes
+	 * d'acquittement. Le lot en cours n'est pas envoyé, il faut appeler {@link #vider()} auparavant.</p>
+	 * @return <i>true</i> si tous les paquets envoyés ont été acquittés, <i>false</i> si le délai est écoulé.
 	 */
-	public void ecouterACK() {
+	public synchronized boolean ecouterACK() {
 		if( DEBUG_S) {
 			System.out.println( "On attend de recevoir un ACK...");
 		}
+		long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( 4 * PERIODE_ACK_MS_S);
 		try {
-			// Creation du paquet de reception
-			DatagramPacket paquetReception = new DatagramPacket( new byte[ 512], 512);
-			// Attente de l'ACK
-			sockEcoute_.receive( paquetReception);
-			
-			if( DEBUG_S) {
-				System.out.println( "Paquet recu : " + new String( paquetReception.getData()));
+			// Le numero de sequence du lot en cours n'a pas encore ete envoye
+			while( dernierCumul_ - ( lotOuvert_ ? sequence_ - 2 : sequence_ - 1) < 0) {
+				long restant = echeance - System.nanoTime();
+				if( restant <= 0) {
+					if( DEBUG_S) {
+						System.err.println( "Pas d'acquittement recu pour le paquet " + ( sequence_ - 1));
+					}
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait( this, restant);
 			}
-		} catch (IOException e) {
-			if( DEBUG_S) {
-				e.printStackTrace();
+		} catch( InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet de traiter un acquittement reçu du {@link Recepteur}.
+	 * <p>Les paquets acquittés sont libérés de l'anneau de retransmission et les paquets signalés comme
+	 * manquants sont renvoyés s'ils y sont encore.</p>
+	 * @param cumul
+	 * 				Le numéro de séquence jusqu'auquel tous les paquets ont été reçus.
+	 * @param codecACK
+	 * 				Le codec contenant la liste des trous de l'acquittement.
+	 */
+	private synchronized void traiterAcquittement( int cumul, CodecTrames codecACK) {
+		if( cumul - dernierCumul_ > 0) {
+			dernierCumul_ = cumul;
+			anneau_.acquitter( cumul);
+		}
+
+		for( int i = 0 ; i < codecACK.getNbTrous() ; ++i) {
+			int debut = codecACK.getDebutTrou( i);
+			for( int j = 0 ; j < codecACK.getLongueurTrou( i) && j < anneau_.getCapacite() ; ++j) {
+				byte[] paquet = anneau_.getPaquet( debut + j);
+				if( paquet != null) {
+					paquetRetransmis_.setData( paquet, 0, anneau_.getLongueur( debut + j));
+					try {
+						sockEnvoie_.send( paquetRetransmis_);
+						++nbRetransmissions_;
+					} catch( IOException e) {
+						if( DEBUG_S) {
+							e.printStackTrace();
+						}
+					}
+				}
+			}
+		}
+		notifyAll();
+	}
+
+
+
+
+	/**
+	 * Permet de fermer les sockets et d'arrêter les threads de l'Emetteur.
+	 * <p>Le lot en cours n'est pas envoyé, il faut appeler {@link #vider()} auparavant.</p>
+	 */
+	public void fermer() {
+		if( threadEcheance_ != null) {
+			threadEcheance_.interrupt();
+		}
+		sockEcoute_.close();
+		sockEnvoie_.close();
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets renvoyés à la demande du {@link Recepteur}.
+	 * @return Le nombre de retransmissions.
+	 */
+	public synchronized long getNbRetransmissions() {
+		return nbRetransmissions_;
+	}
+
+
+
+
+	/**
+	 * <b>ThreadAcquittements permet de recevoir en tâche de fond les acquittements du {@link Recepteur}.</b>
+	 * 
+	 * @author Yoan DUMAS
+	 * @version 1.1
+	 */
+	private class ThreadAcquittements implements Runnable {
+
+
+		/** Le codec propre au thread pour décoder les acquittements. */
+		private final CodecTrames codecACK_ = new CodecTrames();
+
+
+		/** Le tableau réutilisé dans lequel les acquittements sont reçus. */
+		private final byte[] octetsRecus_ = new byte[ CodecTrames.TAILLE_PAQUET_MAX_S];
+
+
+		@Override
+		public void run() {
+			DatagramPacket paquetReception = new DatagramPacket( octetsRecus_, octetsRecus_.length);
+			ByteBuffer tampon = ByteBuffer.wrap( octetsRecus_);
+			while( !sockEcoute_.isClosed()) {
+				try {
+					paquetReception.setLength( octetsRecus_.length);
+					sockEcoute_.receive( paquetReception);
+					tampon.limit( paquetReception.getLength()).position( 0);
+					int cumul = codecACK_.decoderAcquittement( tampon);
+					if( codecACK_.getDernierIdMoto() != ID_MOTO_S) {
+						throw new IllegalArgumentException( "Acquittement destine a la moto " + codecACK_.getDernierIdMoto());
+					}
+					if( codecACK_.getDerniereEpoque() != epoque_) {
+						// Acquittement des paquets envoyes avant le redemarrage de l'emetteur
+						throw new IllegalArgumentException( "Acquittement de l'epoque " + codecACK_.getDerniereEpoque());
+					}
+					if( DEBUG_S) {
+						System.out.println( "Acquittement recu jusqu'au paquet " + cumul + ", " + codecACK_.getNbTrous() + " trou(s).");
+					}
+					traiterAcquittement( cumul, codecACK_);
+				} catch( IllegalArgumentException e) {
+					if( DEBUG_S) {
+						System.err.println( "Acquittement ignore : " + e.getMessage());
+					}
+				} catch( IOException e) {
+					if( DEBUG_S && !sockEcoute_.isClosed()) {
+						e.printStackTrace();
+					}
+				}
 			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,245 @@
+/*
+ * FileSPSC.java
+ * File bornee sans verrou entre un unique producteur et un unique consommateur
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * <b>FileSPSC est une file bornée d'objets partagée entre un unique producteur et un unique consommateur.</b>
+ * <p>Elle relie le thread de réception du {@link Recepteur}, qui dépose les trames reçues, au thread qui les
+ * enregistre sur le disque. Comme pour le {@link telemetrieMoto.acquisition.comm.rs232.TamponCirculaireOctets},
+ * chaque côté ne modifie que sa propre position et la publication se fait par des écritures <i>volatile</i> :
+ * aucun verrou n'est pris et un côté lent ne bloque jamais l'autre.
+ * <br>Lorsque la file est pleine, le producteur choisit d'attendre un peu que le consommateur libère de la place
+ * ou de renoncer : la file ne perd jamais d'élément d'elle même.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @param <E> Le type des éléments de la file.
+ * @see Recepteur
+ */
+public class FileSPSC<E> {
+
+
+	/** Les éléments de la file. Sa taille est une puissance de deux. */
+	private final Object[] elements_;
+
+
+	/** Le masque permettant de ramener une position dans les bornes du tableau. */
+	private final int masque_;
+
+
+	/** Le nombre total d'éléments déposés. <i>Modifié uniquement par le producteur.</i> */
+	private final AtomicLong positionEcriture_ = new AtomicLong();
+
+
+	/** Le nombre total d'éléments retirés. <i>Modifié uniquement par le consommateur.</i> */
+	private final AtomicLong positionLecture_ = new AtomicLong();
+
+
+	/** La dernière position de lecture connue du producteur. */
+	private long lectureConnue_ = 0;
+
+
+	/** Le consommateur endormi en attente d'éléments, <i>null</i> s'il n'attend pas. */
+	private volatile Thread consommateurEnAttente_ = null;
+
+
+	/** Le producteur endormi en attente de place, <i>null</i> s'il n'attend pas. */
+	private volatile Thread producteurEnAttente_ = null;
+
+
+
+
+	/**
+	 * Le constructeur de FileSPSC.
+	 * @param capacite
+	 * 					La capacité minimale de la file, arrondie à la puissance de deux supérieure.
+	 */
+	public FileSPSC( int capacite) {
+		if( capacite <= 0) {
+			throw new IllegalArgumentException( "La capacite de la file doit etre positive : " + capacite);
+		}
+		int taille = Integer.highestOneBit( capacite);
+		if( taille < capacite) {
+			taille <<= 1;
+		}
+		elements_ = new Object[ taille];
+		masque_ = taille - 1;
+	}
+
+
+
+
+	/**
+	 * Permet au producteur de déposer un élément sans attendre.
+	 * @param element
+	 * 					L'élément à déposer, non nul.
+	 * @return <i>true</i> si l'élément a été déposé, <i>false</i> si la file est pleine.
+	 */
+	public boolean offrir( E element) {
+		long ecriture = positionEcriture_.get();
+		if( ecriture - lectureConnue_ >= elements_.length) {
+			// On relit la position du consommateur qui a peut etre avance
+			lectureConnue_ = positionLecture_.get();
+			if( ecriture - lectureConnue_ >= elements_.length) {
+				return false;
+			}
+		}
+		elements_[ ( int) ( ecriture & masque_)] = element;
+		positionEcriture_.set( ecriture + 1);
+
+		Thread consommateur = consommateurEnAttente_;
+		if( consommateur != null) {
+			LockSupport.unpark( consommateur);
+		}
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet au producteur de déposer un élément en attendant si besoin que de la place se libère.
+	 * @param element
+	 * 					L'élément à déposer, non nul.
+	 * @param timeoutNanos
+	 * 					Le temps d'attente maximal en nanosecondes.
+	 * @return <i>true</i> si l'élément a été déposé, <i>false</i> si la file est restée pleine.
+	 */
+	public boolean offrir( E element, long timeoutNanos) {
+		if( offrir( element)) {
+			return true;
+		}
+		long echeance = System.nanoTime() + timeoutNanos;
+		producteurEnAttente_ = Thread.currentThread();
+		try {
+			while( !offrir( element)) {
+				long restant = echeance - System.nanoTime();
+				if( restant <= 0 || Thread.currentThread().isInterrupted()) {
+					return false;
+				}
+				LockSupport.parkNanos( this, restant);
+			}
+			return true;
+		} finally {
+			producteurEnAttente_ = null;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur de retirer un élément sans attendre.
+	 * @return L'élément le plus ancien de la file, ou <i>null</i> si elle est vide.
+	 */
+	@SuppressWarnings( "unchecked")
+	public E prendre() {
+		long lecture = positionLecture_.get();
+		if( lecture == positionEcriture_.get()) {
+			return null;
+		}
+		int indice = ( int) ( lecture & masque_);
+		E element = ( E) elements_[ indice];
+		// On libere la reference pour ne pas retenir l'element
+		elements_[ indice] = null;
+		positionLecture_.set( lecture + 1);
+		reveillerProducteur();
+		return element;
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur de retirer d'un coup plusieurs éléments sans attendre.
+	 * @param destination
+	 * 					La collection à laquelle ajouter les éléments retirés, dans l'ordre de la file.
+	 * @param nbMax
+	 * 					Le nombre maximal d'éléments à retirer.
+	 * @return Le nombre d'éléments retirés, éventuellement 0.
+	 */
+	@SuppressWarnings( "unchecked")
+	public int vider( Collection<? super E> destination, int nbMax) {
+		long lecture = positionLecture_.get();
+		int nb = ( int) Math.min( positionEcriture_.get() - lecture, nbMax);
+		for( int i = 0 ; i < nb ; ++i) {
+			int indice = ( int) ( ( lecture + i) & masque_);
+			destination.add( ( E) elements_[ indice]);
+			elements_[ indice] = null;
+		}
+		if( nb > 0) {
+			positionLecture_.set( lecture + nb);
+			reveillerProducteur();
+		}
+		return nb;
+	}
+
+
+
+
+	/**
+	 * Permet de réveiller le producteur s'il attend de la place.
+	 */
+	private void reveillerProducteur() {
+		Thread producteur = producteurEnAttente_;
+		if( producteur != null) {
+			LockSupport.unpark( producteur);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet au consommateur d'attendre que des éléments soient disponibles.
+	 * @param timeoutNanos
+	 * 						Le temps d'attente maximal en nanosecondes.
+	 * @return <i>true</i> si des éléments sont disponibles, <i>false</i> si le délai est écoulé ou si l'attente a été interrompue.
+	 */
+	public boolean attendreElements( long timeoutNanos) {
+		long echeance = System.nanoTime() + timeoutNanos;
+		consommateurEnAttente_ = Thread.currentThread();
+		try {
+			while( taille() == 0) {
+				long restant = echeance - System.nanoTime();
+				if( restant <= 0 || Thread.currentThread().isInterrupted()) {
+					return false;
+				}
+				LockSupport.parkNanos( this, restant);
+			}
+			return true;
+		} finally {
+			consommateurEnAttente_ = null;
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'éléments en attente dans la file.
+	 * @return Le nombre d'éléments en attente.
+	 */
+	public int taille() {
+		return ( int) ( positionEcriture_.get() - positionLecture_.get());
+	}
+
+
+
+
+	/**
+	 * Retourne la capacité de la file.
+	 * @return Le nombre maximal d'éléments de la file.
+	 */
+	public int getCapacite() {
+		return elements_.length;
+	}
+}
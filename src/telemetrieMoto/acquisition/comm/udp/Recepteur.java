@@ -1,14 +1,22 @@
 /*
  * Recepteur.java
- * Permet de recevoir les donnees de la carte RASPBERRY-PI
+ * Permet de recevoir les donnees des cartes RASPBERRY-PI d'une ou plusieurs motos
  */
 
 package telemetrieMoto.acquisition.comm.udp;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import telemetrieMoto.Proprietes;
 import telemetrieMoto.acquisition.comm.gps.TrameGPS;
@@ -17,53 +25,120 @@ import telemetrieMoto.postTraitement.PostTraitement;
 
 
 /**
- * <b>Recepteur permet de recevoir les informations provenant de la moto ({@link Emetteur}).</b>
- * <p>Le protocole de communication <b>UDP</b> a t choisi pour changer les informations sans perdre de temps 
- * avec les acquittements. L'adresse IP de l'{@link Emetteur} et du Recepteur, ainsi que les ports 
- * utiliss sont stocks dans le fichier de configuration du projet.
- * <br> Recepteur est aussi le programme  excuter sur le PC en bord de piste pour recevoir et 
- * srialiser grce aux fonctions de {@link PostTraitement} les informations de la moto dans un 
- * fichier binaire.</p>
- * 
+ * <b>Recepteur permet de recevoir les informations provenant des motos ({@link Emetteur}).</b>
+ * <p>Le protocole de communication <b>UDP</b> a été choisi pour échanger les informations sans perdre de temps
+ * avec les acquittements. L'adresse IP du Recepteur, ainsi que les ports utilisés sont stockés dans le
+ * fichier de configuration du projet.
+ * <br>Plusieurs motos peuvent émettre en même temps vers le même port : chaque paquet est rattaché à la
+ * {@link SessionMoto} de l'identifiant placé dans son entête, ou à défaut de son adresse IP. Chaque session a son
+ * propre suivi des séquences, ses acquittements, envoyés à l'adresse d'où viennent les paquets, et son fichier.
+ * <br>Les paquets ne sont pas acquittés un par un : le Recepteur envoie périodiquement à chaque moto un
+ * acquittement cumulé et la liste des paquets manquants, qu'elle renvoie (voir {@link SuiviSequences}).
+ * <br> Recepteur est aussi le programme à exécuter sur le PC en bord de piste pour recevoir et
+ * sérialiser grâce aux fonctions de {@link PostTraitement} les informations des motos dans un
+ * fichier binaire par moto. Un thread lit la socket et répartit les paquets, selon la moto, entre quelques
+ * threads de traitement reliés chacun par une {@link FileSPSC} : une moto très bavarde ou une écriture lente
+ * ne retarde que les motos du même thread, et les trames accumulées pendant une écriture sont enregistrées
+ * ensemble à l'écriture suivante.</p>
+ *
  * @author Yoan DUMAS
  * @version 1.1
  * @see Emetteur
+ * @see CodecTrames
+ * @see SessionMoto
+ * @see FileSPSC
  * @see telemetrieMoto.acquisition.comm.gps.TrameGPS
  * @see telemetrieMoto.postTraitement.PostTraitement
  */
 public class Recepteur {
 
 
-	/** La socket de communication pour la rception d'informations provenant de la moto. */
-	private DatagramSocket sockEcoute_ = null;
-	
-	
-	/** La socket de communication pour l'envoie des informations vers la moto. */
-	private DatagramSocket sockEnvoie_ = null;
+	/** Le canal non bloquant de réception des informations provenant des motos. */
+	private DatagramChannel canalEcoute_ = null;
+
 
+	/** Le sélecteur permettant d'attendre les paquets reçus sur {@link #canalEcoute_} avec un timeout. */
+	private Selector selecteur_ = null;
 
-	/** L'adresse IP  laquelle on doit envoyer les informations. */
-	private InetAddress adresseIP_ = null;
+
+	/** La socket de communication pour l'envoie des acquittements vers les motos. */
+	private DatagramSocket sockEnvoie_ = null;
 
 
-	/** L'instance reprsentant le fichier de configuration du projet  interroger. */
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
 	private static Proprietes prop_s = Proprietes.getInstance();
 
 
-	/** Le port sur lequel on doit couter la rception d'informations provenant de la moto. */
+	/** Le port sur lequel on doit écouter la réception d'informations provenant des motos. */
 	private int port_ = Integer.valueOf( prop_s.getPropriete( "UDPPort"));
 
-	
-	/** Le port sur lequel on doit envoyer les informations  la moto. */
+
+	/** Le port sur lequel les motos attendent les acquittements. */
 	private int portACK_ = Integer.valueOf( prop_s.getPropriete( "UDPACK"));
 
 
-	/** Permet d'arrter l'attente de rception d'informations quand on n'a pas reu de donnes depuis un certain temps. */
-	private boolean stop_ = false;
+	/** Permet d'arrêter l'attente de réception d'informations quand on n'a pas reçu de données depuis un certain temps. */
+	private volatile boolean stop_ = false;
+
+
+	/** Le tampon direct réutilisé dans lequel les paquets sont reçus. */
+	private final ByteBuffer tamponRecu_ = ByteBuffer.allocateDirect( CodecTrames.TAILLE_PAQUET_MAX_S);
+
+
+	/** Les sessions des motos écoutées par {@link #ecouterCarte()}, rangées par {@link SessionMoto#cle(int, InetAddress)}. */
+	private final Map<Object, SessionMoto> sessions_ = new HashMap<Object, SessionMoto>();
+
+
+	/** La session de la moto qui a envoyé la dernière trame rendue par {@link #ecouterCarte()}. */
+	private SessionMoto sessionDerniereTrame_ = null;
+
+
+	/** Les sessions fermées par les threads de traitement à la fin de {@link #enregistrer(String)}. */
+	private final List<SessionMoto> sessionsFermees_ = Collections.synchronizedList( new ArrayList<SessionMoto>());
+
+
+	/** Le temps d'attente maximal d'un paquet en millisecondes, au delà on arrête l'écoute. */
+	private static final long TIMEOUT_ECOUTE_MS_S = 2000;
+
+
+	/** La taille en octets demandée au système pour le tampon de réception de la socket.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final int TAILLE_TAMPON_SOCKET_S = Integer.valueOf( prop_s.getPropriete( "UDPTailleTamponReception"));
+
+
+	/** Le nombre de threads de traitement des paquets, 0 pour en avoir autant que de processeurs.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final int NB_THREADS_TRAITEMENT_S = Integer.valueOf( prop_s.getPropriete( "NbThreadsTraitement"));
+
+
+	/** La capacité de la file de paquets de chaque thread de traitement.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final int TAILLE_FILE_TRAITEMENT_S = Integer.valueOf( prop_s.getPropriete( "TailleFileTraitement"));
+
+
+	/** Le nombre maximal de paquets traités, et de trames écrites sur le disque, en une seule fois.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final int TAILLE_LOT_PERSISTANCE_S = Integer.valueOf( prop_s.getPropriete( "TailleLotPersistance"));
+
+
+	/** Le temps maximal d'attente de nouveaux paquets par un thread de traitement, en millisecondes. */
+	private static final long ATTENTE_TRAITEMENT_MS_S = 100;
+
+
+	/** Permet aux threads de traitement de savoir que la réception est terminée. */
+	private volatile boolean receptionTerminee_ = false;
+
+
+	/** Le nombre de paquets reçus. <i>Modifié uniquement par le thread de réception.</i> */
+	private long nbPaquetsRecus_ = 0;
+
+
+	/** Le nombre de paquets perdus car la file de leur thread de traitement était pleine. <i>Modifié uniquement par le thread de réception.</i> */
+	private long nbPaquetsPerdus_ = 0;
 
 
 	/** Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration du projet.</i> 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i>
 	 */
 	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugUDP"));
 
@@ -75,11 +150,16 @@ public class Recepteur {
 	 */
 	public Recepteur() {
 
-		// Creation de la socket
+		// Creation du canal d'ecoute non bloquant et de la socket d'envoi
 		try {
-			sockEcoute_ = new DatagramSocket( port_);
+			canalEcoute_ = DatagramChannel.open();
+			canalEcoute_.socket().setReceiveBufferSize( TAILLE_TAMPON_SOCKET_S);
+			canalEcoute_.socket().bind( new InetSocketAddress( port_));
+			canalEcoute_.configureBlocking( false);
+			selecteur_ = Selector.open();
+			canalEcoute_.register( selecteur_, SelectionKey.OP_READ);
 			sockEnvoie_ = new DatagramSocket();
-		} catch( SocketException e) {
+		} catch( IOException e) {
 			e.printStackTrace();
 			System.exit( 1);
 		}
@@ -87,48 +167,284 @@ public class Recepteur {
 		if( DEBUG_S) {
 			System.out.println( "Socket cree.");
 		}
+	}
+
+
 
-		// Creation de l'adresse IP
+
+	/**
+	 * Permet de retrouver, ou de créer, la session de la moto qui a envoyé un paquet.
+	 * @param sessions
+	 * 					Les sessions du thread appelant.
+	 * @param idMoto
+	 * 					L'identifiant lu dans l'entête du paquet.
+	 * @param adresse
+	 * 					L'adresse IP d'où vient le paquet.
+	 * @param nomFichierBase
+	 * 					Le nom du fichier de trames de la configuration, <i>null</i> pour ne pas enregistrer les trames.
+	 * @return La session de la moto.
+	 */
+	private SessionMoto session( Map<Object, SessionMoto> sessions, int idMoto, InetAddress adresse, String nomFichierBase) {
+		Object cle = SessionMoto.cle( idMoto, adresse);
+		SessionMoto session = sessions.get( cle);
+		if( session == null) {
+			String nomFichier = nomFichierBase != null ? SessionMoto.nomFichier( nomFichierBase, idMoto, adresse) : null;
+			session = new SessionMoto( idMoto, adresse, portACK_, nomFichier);
+			sessions.put( cle, session);
+			if( DEBUG_S) {
+				System.out.println( "Nouvelle session pour la " + session + ( nomFichier != null ? ", fichier " + nomFichier : "") + ".");
+			}
+		}
+		return session;
+	}
+
+
+
+
+	/**
+	 * Permet d'attendre la réception d'un message d'une carte.
+	 * Un timeout est positionné sur l'attente d'un message, au bout de deux secondes, si l'on n'a rien
+	 * reçu on renvoie null.
+	 * <p>L'attente se fait sur un {@link Selector} ; à chaque réveil, tous les paquets en attente sur le canal
+	 * sont lus dans le même tampon direct et décodés par la session de leur moto. Les paquets mal formés sont
+	 * ignorés. Les trames reçues sont conservées et rendues une par une lors des appels suivants, sans nouvelle
+	 * attente. Les trames ne sont pas enregistrées, voir {@link #enregistrer(String)}.
+	 * <br>Chaque trame rendue a déjà mis à jour le chronomètre de sa moto : la session est donnée par
+	 * {@link #getSessionDerniereTrame()}.</p>
+	 * @return La {@link TrameGPS} qu'une moto nous a envoyé, ou <i>null</i> si on a reçu un autre message.
+	 */
+	public TrameGPS ecouterCarte() {
+
+		// On rend d'abord les trames deja recues
+		TrameGPS trame = prochaineTrame();
+		if( trame != null) {
+			return trame;
+		}
+
+		if( DEBUG_S) {
+			System.out.println( "On ecoute les cartes...");
+		}
 		try {
-			adresseIP_ = InetAddress.getByName( prop_s.getPropriete( "IPCarte"));
-		} catch( UnknownHostException e) {
-			e.printStackTrace();
-			System.exit( 1);
+			if( attendrePaquets()) {
+				drainer();
+			}
+			trame = prochaineTrame();
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+		}
+
+		return trame;
+	}
+
+
+
+
+	/**
+	 * Permet d'attendre qu'au moins un paquet soit arrivé sur le canal d'écoute.
+	 * <p>Si rien n'est arrivé au bout de {@link #TIMEOUT_ECOUTE_MS_S} millisecondes, on arrête l'écoute.</p>
+	 * @return <i>true</i> si des paquets sont à lire, <i>false</i> si le timeout est dépassé.
+	 * @throws IOException si l'attente sur le sélecteur a échoué.
+	 */
+	private boolean attendrePaquets() throws IOException {
+		if( selecteur_.select( TIMEOUT_ECOUTE_MS_S) == 0) {
+			if( DEBUG_S) {
+				System.err.println( "Le timeout d'attente de la reception d'une trame est depasse !");
+			}
+			stop_ = true;
+			return false;
+		}
+		selecteur_.selectedKeys().clear();
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet de lire et décoder tous les paquets en attente sur le canal d'écoute.
+	 * <p>Chaque paquet est reçu dans le même tampon direct puis décodé par la session de sa moto. Un
+	 * acquittement est ensuite envoyé aux motos dont la période est écoulée.</p>
+	 * @return Le nombre de paquets lus.
+	 * @throws IOException si la lecture sur le canal a échoué.
+	 */
+	private int drainer() throws IOException {
+		int nbPaquets = 0;
+		SocketAddress source;
+		tamponRecu_.clear();
+		while( ( source = canalEcoute_.receive( tamponRecu_)) != null) {
+			++nbPaquets;
+			tamponRecu_.flip();
+			InetAddress adresse = ( ( InetSocketAddress) source).getAddress();
+			session( sessions_, CodecTrames.lireIdMoto( tamponRecu_), adresse, null).recevoir( tamponRecu_, adresse);
+			tamponRecu_.clear();
+		}
+		nbPaquetsRecus_ += nbPaquets;
+		for( SessionMoto session : sessions_.values()) {
+			session.envoyerACK( sockEnvoie_);
 		}
 
 		if( DEBUG_S) {
-			System.out.println( "Creation de l'adresse IP OK.");
+			System.out.println( nbPaquets + " paquet(s) recu(s).");
 		}
+		return nbPaquets;
 	}
 
 
 
 
+	/**
+	 * Permet de récupérer la prochaine trame GPS parmi les messages reçus de toutes les motos.
+	 * @return La prochaine {@link TrameGPS} reçue, ou <i>null</i> s'il n'y en a plus.
+	 */
+	private TrameGPS prochaineTrame() {
+		for( SessionMoto session : sessions_.values()) {
+			TrameGPS trame = session.prochaineTrame();
+			if( trame != null) {
+				sessionDerniereTrame_ = session;
+				return trame;
+			}
+		}
+		return null;
+	}
+
+
+
 
 	/**
-	 * Permet d'envoyer un acquittement  la carte sur la moto.
+	 * Permet de savoir si l'on doit arrêter d'écouter les cartes.
+	 * @return <i>true</i> si on doit stoper l'écoute,
+	 * 		   <i>false</i> sinon.
 	 */
-	private void envoyerACK() {
+	public boolean arreterEcoute() {
+		return stop_;
+	}
 
-		// Le tableau d'octets a envoyer
-		byte[] aEnvoye = "ACK".getBytes();
 
-		// Creation du paquet a envoyer au serveur
-		DatagramPacket paquetAEnvoyer = new DatagramPacket( aEnvoye, aEnvoye.length, adresseIP_, portACK_);
 
-		if( DEBUG_S) {
-			System.out.println( "Paquet de donnees cree.");
+
+	/**
+	 * Retourne le nombre de paquets reçus des motos.
+	 * @return Le nombre de paquets reçus.
+	 */
+	public long getNbPaquetsRecus() {
+		return nbPaquetsRecus_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets ignorés car mal formés, toutes motos confondues.
+	 * @return Le nombre de paquets ignorés.
+	 */
+	public long getNbPaquetsInvalides() {
+		long nb = 0;
+		for( SessionMoto session : getSessions()) {
+			nb += session.getNbPaquetsInvalides();
+		}
+		return nb;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets perdus car la file de leur thread de traitement était pleine.
+	 * <p>Ces paquets sont signalés manquants dans les acquittements et seront renvoyés par les motos.</p>
+	 * @return Le nombre de paquets reçus mais non traités.
+	 */
+	public long getNbPaquetsPerdus() {
+		return nbPaquetsPerdus_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trames écrites sur le disque, toutes motos confondues.
+	 * @return Le nombre de trames enregistrées.
+	 */
+	public long getNbTramesEcrites() {
+		long nb = 0;
+		for( SessionMoto session : getSessions()) {
+			nb += session.getNbTramesEcrites();
+		}
+		return nb;
+	}
+
+
+
+
+	/**
+	 * Retourne la session de la moto qui a envoyé la dernière trame rendue par {@link #ecouterCarte()}.
+	 * <p>Son chronomètre donne alors l'écart au meilleur tour à la position de cette trame (voir
+	 * {@link SessionMoto#getChronometre()}).</p>
+	 * @return La session, ou <i>null</i> si aucune trame n'a été rendue.
+	 */
+	public SessionMoto getSessionDerniereTrame() {
+		return sessionDerniereTrame_;
+	}
+
+
+
+
+	/**
+	 * Retourne les sessions des motos entendues.
+	 * <p>Les sessions de {@link #enregistrer(String)} ne sont disponibles qu'une fois l'enregistrement terminé.</p>
+	 * @return La liste des sessions.
+	 */
+	public List<SessionMoto> getSessions() {
+		List<SessionMoto> sessions = new ArrayList<SessionMoto>( sessions_.values());
+		synchronized( sessionsFermees_) {
+			sessions.addAll( sessionsFermees_);
 		}
+		return sessions;
+	}
+
+
+
+
+	/**
+	 * Permet d'écouter les cartes et d'enregistrer les trames reçues jusqu'à l'arrêt de l'écoute.
+	 * <p>Le thread de réception répartit les paquets entre les threads de traitement selon leur moto : toutes
+	 * les trames d'une moto sont donc traitées dans l'ordre par le même thread, sans verrou. La méthode
+	 * rend la main lorsque toutes les trames reçues ont été enregistrées et les fichiers fermés.</p>
+	 * @param nomFichierBase
+	 * 				Le nom du fichier de la configuration, complété pour chaque moto (voir {@link SessionMoto#nomFichier(String, int, InetAddress)}).
+	 */
+	public void enregistrer( String nomFichierBase) {
+		int nbThreads = NB_THREADS_TRAITEMENT_S > 0 ? NB_THREADS_TRAITEMENT_S : Runtime.getRuntime().availableProcessors();
+		ThreadTraitement[] traitements = new ThreadTraitement[ nbThreads];
+		Thread[] threads = new Thread[ nbThreads + 1];
+		receptionTerminee_ = false;
+		for( int i = 0 ; i < nbThreads ; ++i) {
+			traitements[ i] = new ThreadTraitement( nomFichierBase);
+			threads[ i] = new Thread( traitements[ i], "TraitementUDP-" + i);
+			threads[ i].start();
+		}
+		threads[ nbThreads] = new Thread( new ThreadReception( traitements), "ReceptionUDP");
+		threads[ nbThreads].start();
 
 		try {
-			sockEnvoie_.send( paquetAEnvoyer);
-		} catch( IOException e) {
-			e.printStackTrace();
-			System.exit( 1);
+			for( int i = threads.length - 1 ; i >= 0 ; --i) {
+				threads[ i].join();
+			}
+		} catch( InterruptedException e) {
+			for( Thread thread : threads) {
+				thread.interrupt();
+			}
+			Thread.currentThread().interrupt();
 		}
 
 		if( DEBUG_S) {
-			System.out.println( "ACK envoye.");
+			System.out.println( nbPaquetsRecus_ + " paquet(s) recu(s) sur " + nbThreads + " thread(s), "
+					+ nbPaquetsPerdus_ + " perdu(s) sur file pleine.");
+			for( SessionMoto session : getSessions()) {
+				System.out.println( session + " : " + session.getNbTramesEcrites() + " trame(s) ecrite(s) en "
+						+ session.getNbLotsEcrits() + " lot(s) dans " + session.getNomFichier() + ".");
+			}
 		}
 	}
 
@@ -136,123 +452,254 @@ public class Recepteur {
 
 
 	/**
-	 * Permet de convertir un tableau d'octets en un objet.
-	 * @param b 
-	 * 				Le tableau d'octets  dsrialiser.
-	 * @return L'objet correspondant  <b>b</b> dsrialis.
+	 * <b>PaquetRecu est une copie d'un paquet reçu, transmise par le thread de réception à un thread de traitement.</b>
+	 * <p>Les paquets sont alloués une fois pour toutes et recyclés : le thread de traitement rend chaque paquet
+	 * traité au thread de réception par une seconde {@link FileSPSC}.</p>
+	 *
+	 * @author Yoan DUMAS
+	 * @version 1.1
 	 */
-	public static Object toObject( byte[] b) {
+	private static class PaquetRecu {
 
-		Object o = null;	// L'objet lu a retourner
 
-		// Creation du flux d'entree de byte[]
-		ByteArrayInputStream fluxTabOctetsLecture = new ByteArrayInputStream( b);
-		try {
-			// Creation du flux de lecture d'objet
-			ObjectInputStream fluxEntreeObjet = new ObjectInputStream( fluxTabOctetsLecture);
-			o = fluxEntreeObjet.readObject();
+		/** Les octets du paquet. */
+		private final byte[] octets_ = new byte[ CodecTrames.TAILLE_PAQUET_MAX_S];
 
-			if( DEBUG_S) {
-				System.out.println( "Lecture de la trame dans le flux d'octets OK.");
-			}
 
-			// Fermeture des flux de lecture
-			fluxEntreeObjet.close();
-			fluxTabOctetsLecture.close();
+		/** Le tampon enveloppant {@link #octets_}, limité à la longueur du paquet. */
+		private final ByteBuffer tampon_ = ByteBuffer.wrap( octets_);
 
-		} catch (IOException e) {
-			e.printStackTrace();
-			System.err.println( "Erreur dans la fonction Recepteur.toObject().");
-			System.exit( 1);
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
-			System.err.println( "Erreur la classe de l'objet deserialisee n'est pas connu.");
-			System.exit( 1);
-		}
-		return o;
+
+		/** L'identifiant de la moto lu dans l'entête. */
+		private int idMoto_;
+
+
+		/** L'adresse IP d'où vient le paquet. */
+		private InetAddress adresse_;
 	}
 
 
 
 
 	/**
-	 * Permet d'attendre la rception d'un message de la carte.
-	 * Un timeout est positionn sur l'attente d'un message, au bout de deux secondes, si l'on n'a rien
-	 * reu on renvoie null.
-	 * @return La {@link TrameGPS} que la moto nous a envoy.
+	 * <b>ThreadReception permet de lire la socket et de répartir les paquets reçus entre les threads de traitement.</b>
+	 * <p>Le thread de traitement d'un paquet est choisi selon sa moto. Si sa file est pleine, le paquet est perdu
+	 * sans attendre pour ne pas retarder les autres motos : il sera signalé manquant et renvoyé par la moto.</p>
+	 *
+	 * @author Yoan DUMAS
+	 * @version 1.1
 	 */
-	public TrameGPS ecouterCarte() {
+	private class ThreadReception implements Runnable {
 
-		// La trame GPS que l'on a recu
-		TrameGPS trame = null;
 
-		if( DEBUG_S) {
-			System.out.println( "On ecoute la carte...");
+		/** Les threads de traitement entre lesquels les paquets sont répartis. */
+		private final ThreadTraitement[] traitements_;
+
+
+		/**
+		 * Le constructeur de ThreadReception.
+		 * @param traitements
+		 * 				Les threads de traitement entre lesquels les paquets sont répartis.
+		 */
+		public ThreadReception( ThreadTraitement[] traitements) {
+			traitements_ = traitements;
 		}
-		try {
-			DatagramPacket paquetEcoute = new DatagramPacket( new byte[ 512], 512);
 
-			// On met un timeout d'une seconde sur la socket
-			sockEcoute_.setSoTimeout( 2000);
+
+		@Override
+		public void run() {
 			try {
-				sockEcoute_.receive( paquetEcoute);
-			} catch( SocketTimeoutException e) {
+				while( !arreterEcoute() && !Thread.currentThread().isInterrupted()) {
+					if( attendrePaquets()) {
+						repartir();
+					}
+				}
+			} catch( IOException e) {
 				if( DEBUG_S) {
-					System.err.println( "Le timeout d'attente de la reception d'une trame est depasse !");
+					e.printStackTrace();
 				}
-				stop_ = true;
+			} finally {
+				receptionTerminee_ = true;
 			}
+		}
 
-			if( DEBUG_S && !stop_) {
-				System.out.println( "On a recu un paquet de donnees !");
-			}
 
-			Object donneesRecues = null;
-			if( !stop_ && paquetEcoute.getData()[ 0] != 0) {
-				donneesRecues = toObject( paquetEcoute.getData());
+		/**
+		 * Permet de lire tous les paquets en attente sur le canal et de les confier à leur thread de traitement.
+		 * @throws IOException si la lecture sur le canal a échoué.
+		 */
+		private void repartir() throws IOException {
+			SocketAddress source;
+			tamponRecu_.clear();
+			while( ( source = canalEcoute_.receive( tamponRecu_)) != null) {
+				++nbPaquetsRecus_;
+				tamponRecu_.flip();
+				InetAddress adresse = ( ( InetSocketAddress) source).getAddress();
+				int idMoto = CodecTrames.lireIdMoto( tamponRecu_);
+				if( !traitements_[ indice( SessionMoto.cle( idMoto, adresse))].deposer( tamponRecu_, idMoto, adresse)) {
+					++nbPaquetsPerdus_;
+					if( DEBUG_S) {
+						System.err.println( "File de traitement pleine, paquet perdu.");
+					}
+				}
+				tamponRecu_.clear();
 			}
+		}
+
+
+		/**
+		 * Permet de choisir le thread de traitement d'une moto.
+		 * @param cle
+		 * 				La clé de la moto.
+		 * @return L'indice du thread de traitement.
+		 */
+		private int indice( Object cle) {
+			int h = cle.hashCode();
+			h ^= h >>> 16;
+			return ( h & 0x7FFFFFFF) % traitements_.length;
+		}
+	}
+
+
+
+
+	/**
+	 * <b>ThreadTraitement permet de décoder et d'enregistrer les paquets des motos qui lui sont confiées.</b>
+	 * <p>Tous les paquets disponibles, dans la limite de {@link Recepteur#TAILLE_LOT_PERSISTANCE_S}, sont décodés
+	 * par la session de leur moto. Les trames de chaque session sont ensuite ajoutées à son journal, qui les écrit
+	 * ensemble lorsque son seuil de validation est atteint, puis les acquittements dont la période est écoulée
+	 * sont envoyés.
+	 * <br>Les sessions d'un thread de traitement ne sont utilisées que par lui.</p>
+	 *
+	 * @author Yoan DUMAS
+	 * @version 1.1
+	 */
+	private class ThreadTraitement implements Runnable {
+
+
+		/** Les paquets reçus en attente de traitement. <i>Le thread de réception les dépose, ce thread les retire.</i> */
+		private final FileSPSC<PaquetRecu> pleins_ = new FileSPSC<PaquetRecu>( TAILLE_FILE_TRAITEMENT_S);
+
+
+		/** Les paquets libres. <i>Ce thread les rend, le thread de réception les reprend.</i> */
+		private final FileSPSC<PaquetRecu> libres_ = new FileSPSC<PaquetRecu>( TAILLE_FILE_TRAITEMENT_S);
+
+
+		/** Les sessions des motos confiées à ce thread. */
+		private final Map<Object, SessionMoto> sessions_ = new HashMap<Object, SessionMoto>();
+
+
+		/** Le lot de paquets réutilisé d'un traitement à l'autre. */
+		private final ArrayList<PaquetRecu> lot_ = new ArrayList<PaquetRecu>( TAILLE_LOT_PERSISTANCE_S);
+
 
-			if( DEBUG_S && donneesRecues != null) {
-				System.out.println( "Donnees recues : " + donneesRecues.toString());
+		/** Le nom du fichier de la configuration, complété pour chaque moto. */
+		private final String nomFichierBase_;
+
+
+		/**
+		 * Le constructeur de ThreadTraitement.
+		 * @param nomFichierBase
+		 * 				Le nom du fichier de la configuration, complété pour chaque moto.
+		 */
+		public ThreadTraitement( String nomFichierBase) {
+			nomFichierBase_ = nomFichierBase;
+			while( libres_.offrir( new PaquetRecu())) {
+				// On remplit la reserve de paquets
 			}
+		}
+
 
-			if( !stop_) {
-				envoyerACK();
+		/**
+		 * Permet au thread de réception de confier une copie d'un paquet à ce thread.
+		 * @param tampon
+		 * 				Le tampon contenant le paquet, de sa position à sa limite.
+		 * @param idMoto
+		 * 				L'identifiant de la moto lu dans l'entête.
+		 * @param adresse
+		 * 				L'adresse IP d'où vient le paquet.
+		 * @return <i>true</i> si le paquet a été confié, <i>false</i> si la file est pleine.
+		 */
+		public boolean deposer( ByteBuffer tampon, int idMoto, InetAddress adresse) {
+			PaquetRecu paquet = libres_.prendre();
+			if( paquet == null) {
+				return false;
 			}
+			int longueur = tampon.remaining();
+			tampon.get( paquet.octets_, 0, longueur);
+			paquet.tampon_.limit( longueur).position( 0);
+			paquet.idMoto_ = idMoto;
+			paquet.adresse_ = adresse;
+			// Il y a autant de paquets que de places, la file ne peut pas etre pleine
+			pleins_.offrir( paquet);
+			return true;
+		}
+
 
-			// Si on recoit une trame gps on l'enregistre dans le fichier
-			if( donneesRecues instanceof TrameGPS) {
-				trame = ( TrameGPS) donneesRecues;
+		@Override
+		public void run() {
+			long attente = TimeUnit.MILLISECONDS.toNanos( ATTENTE_TRAITEMENT_MS_S);
+			while( true) {
+				// On lit l'indicateur avant de vider la file pour ne pas manquer les derniers paquets
+				boolean terminee = receptionTerminee_;
+				if( pleins_.vider( lot_, TAILLE_LOT_PERSISTANCE_S) == 0) {
+					if( terminee) {
+						break;
+					}
+					if( !pleins_.attendreElements( attente)) {
+						// Rien recu : on ecrit les trames qui attendent depuis trop longtemps
+						for( SessionMoto session : sessions_.values()) {
+							session.enregistrer();
+						}
+					}
+					continue;
+				}
+				for( int i = 0 ; i < lot_.size() ; ++i) {
+					PaquetRecu paquet = lot_.get( i);
+					session( sessions_, paquet.idMoto_, paquet.adresse_, nomFichierBase_).recevoir( paquet.tampon_, paquet.adresse_);
+					paquet.adresse_ = null;
+					libres_.offrir( paquet);
+				}
+				lot_.clear();
+				for( SessionMoto session : sessions_.values()) {
+					session.enregistrer();
+					session.envoyerACK( sockEnvoie_);
+				}
 			}
-		} catch( IOException e) {
-			if( DEBUG_S) {
-				e.printStackTrace();
+
+			for( SessionMoto session : sessions_.values()) {
+				session.fermer();
 			}
+			sessionsFermees_.addAll( sessions_.values());
 		}
-
-		return trame;
 	}
 
 
 
 
 	/**
-	 * Permet de savoir si l'on doit arrter d'couter la carte.
-	 * @return <i>true</i> si on doit stoper l'coute,
-	 * 		   <i>false</i> sinon.
+	 * Permet de fermer le canal d'écoute et la socket d'envoi.
 	 */
-	public boolean arreterEcoute() {
-		return stop_;
+	public void fermer() {
+		try {
+			selecteur_.close();
+			canalEcoute_.close();
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+		}
+		sockEnvoie_.close();
 	}
 
 
 
 
 	/**
-	 * La fonction  excuter sur le PC en bord de piste.
-	 * Permet d'couter la carte et d'enregistrer les trames reues dans un fichier binaire pour le Posttraitement.
+	 * La fonction à exécuter sur le PC en bord de piste.
+	 * Permet d'écouter les cartes et d'enregistrer les trames reçues dans un fichier binaire par moto pour le Posttraitement.
 	 * @param args
-	 * 				Non utilis.
+	 * 				Non utilisé.
 	 */
 	public static void main( String args[]) {
 
@@ -260,25 +707,18 @@ public class Recepteur {
 			System.out.println( "Debut du programme recepteur.");
 		}
 		Recepteur pcBordDePiste = new Recepteur();
-		PostTraitement p = new PostTraitement();
-		TrameGPS trame = null;
 
 		if( DEBUG_S) {
-			System.out.println( "Ecoute de la carte");
-		}
-		// On ecoute la carte
-		while( !pcBordDePiste.arreterEcoute()) {
-			trame = pcBordDePiste.ecouterCarte();
-			if( trame != null) {
-				p.ecrireTrameBin( trame, prop_s.getPropriete( "nomFichTramesBin"));
-			}
+			System.out.println( "Ecoute des cartes");
 		}
+		// On ecoute les cartes et on enregistre les trames recues
+		pcBordDePiste.enregistrer( prop_s.getPropriete( "nomFichTramesBin"));
 
-		// On ferme le fichier de serialisation
-		p.fermerFichier();
+		// On ferme le canal d'ecoute
+		pcBordDePiste.fermer();
 
 		if( DEBUG_S) {
 			System.out.println( "Fin du programme recepteur.");
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,508 @@
+/*
+ * SessionMoto.java
+ * Permet de regrouper l'etat de la reception des paquets d'une moto
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import telemetrieMoto.Proprietes;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.PostTraitement;
+import telemetrieMoto.postTraitement.cinematique.FiltreKalman;
+import telemetrieMoto.postTraitement.tours.Chronometre;
+import telemetrieMoto.postTraitement.tours.LigneChronometrage;
+import telemetrieMoto.postTraitement.tours.Tour;
+
+
+/**
+ * <b>SessionMoto regroupe tout ce que le {@link Recepteur} sait d'une des motos qu'il écoute.</b>
+ * <p>Chaque moto a son propre suivi des numéros de séquence, sa propre adresse d'acquittement et son propre
+ * fichier de trames. Une moto est reconnue à l'identifiant placé dans l'entête de ses paquets ou, si elle n'a
+ * pas été configurée, à son adresse IP (voir {@link #cle(int, InetAddress)}).
+ * <br>Si une ligne d'arrivée est configurée, les trames de la moto passent par un {@link Chronometre} : chaque
+ * temps au tour est affiché dès la trame qui suit la ligne, et l'écart au meilleur tour est tenu à jour à chaque
+ * position.
+ * <br>Les positions de la moto passent aussi par un {@link FiltreKalman} sans historique : la position, la vitesse et
+ * l'accélération filtrées sont connues à chaque trame.
+ * <br>Une session n'est utilisée que par un seul thread du {@link Recepteur} : elle n'est pas synchronisée.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Recepteur
+ * @see SuiviSequences
+ */
+public class SessionMoto {
+
+
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
+	private static Proprietes prop_s = Proprietes.getInstance();
+
+
+	/** La période en millisecondes des acquittements envoyés à la moto.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final long PERIODE_ACK_MS_S = Long.valueOf( prop_s.getPropriete( "UDPPeriodeAckMs"));
+
+
+	/** Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i>
+	 */
+	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugUDP"));
+
+
+	/** La ligne d'arrivée du circuit, <i>null</i> si elle n'est pas configurée.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final LigneChronometrage LIGNE_ARRIVEE_S = LigneChronometrage.analyser( prop_s.getPropriete( "LigneArrivee"));
+
+
+	/** La durée minimale d'un tour en millisecondes.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final long DUREE_MIN_TOUR_MS_S = Long.valueOf( prop_s.getPropriete( "DureeMinTourMs"));
+
+
+	/** Les lignes des secteurs du circuit, dans le repère de la ligne d'arrivée.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final LigneChronometrage[] LIGNES_SECTEURS_S = LIGNE_ARRIVEE_S != null
+			? LigneChronometrage.analyserSecteurs( prop_s.getPropriete( "LignesSecteurs"), LIGNE_ARRIVEE_S) : null;
+
+
+	/** L'identifiant de la moto, ou {@link CodecTrames#ID_MOTO_INCONNU_S} si elle est reconnue à son adresse. */
+	private final int idMoto_;
+
+
+	/** Le codec propre à la session pour décoder les paquets de la moto et coder ses acquittements. */
+	private final CodecTrames codec_ = new CodecTrames();
+
+
+	/** Le suivi des numéros de séquence reçus de la moto. */
+	private final SuiviSequences suivi_ = new SuiviSequences( 1024);
+
+
+	/** L'époque des derniers paquets reçus de la moto, qui change à chaque redémarrage de son {@link Emetteur}. */
+	private int epoque_ = 0;
+
+
+	/** Le nombre de redémarrages de l'{@link Emetteur} de la moto détectés par un changement d'époque. */
+	private long nbRedemarrages_ = 0;
+
+
+	/** Les premiers numéros de séquence des trous à signaler, réutilisés d'un acquittement à l'autre. */
+	private final int[] debutsTrous_ = new int[ CodecTrames.NB_TROUS_MAX_S];
+
+
+	/** Les longueurs des trous à signaler, réutilisées d'un acquittement à l'autre. */
+	private final int[] longueursTrous_ = new int[ CodecTrames.NB_TROUS_MAX_S];
+
+
+	/** L'instant, en nanosecondes, à partir duquel le prochain acquittement peut être envoyé. */
+	private long prochainACK_ = System.nanoTime();
+
+
+	/** Le paquet d'acquittement réutilisé, adressé à la moto. */
+	private final DatagramPacket paquetACK_;
+
+
+	/** Les messages reçus de la moto et pas encore rendus ou enregistrés. */
+	private final ArrayDeque<Object> messagesRecus_ = new ArrayDeque<Object>();
+
+
+	/** Le post traitement chargé de sérialiser les trames de la moto, <i>null</i> si elles ne sont pas enregistrées. */
+	private final PostTraitement postTraitement_;
+
+
+	/** Le nom du fichier des trames de la moto, <i>null</i> si elles ne sont pas enregistrées. */
+	private final String nomFichier_;
+
+
+	/** Le chronométrage des tours de la moto, <i>null</i> si aucune ligne d'arrivée n'est configurée. */
+	private final Chronometre chronometre_ = LIGNE_ARRIVEE_S != null
+			? new Chronometre( LIGNE_ARRIVEE_S, LIGNES_SECTEURS_S, DUREE_MIN_TOUR_MS_S) : null;
+
+
+	/** Le filtre des positions de la moto, en direct. */
+	private final FiltreKalman filtre_ = new FiltreKalman( false);
+
+
+	/** Le nombre de paquets reçus de la moto. */
+	private long nbPaquetsRecus_ = 0;
+
+
+	/** Le nombre de paquets de la moto ignorés car mal formés. */
+	private long nbPaquetsInvalides_ = 0;
+
+
+	/** Le nombre de trames de la moto écrites sur le disque. */
+	private long nbTramesEcrites_ = 0;
+
+
+	/** Le nombre de lots de trames ajoutés au fichier. */
+	private long nbLotsEcrits_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur de SessionMoto.
+	 * @param idMoto
+	 * 					L'identifiant de la moto lu dans l'entête de ses paquets.
+	 * @param adresse
+	 * 					L'adresse IP de la moto.
+	 * @param portACK
+	 * 					Le port sur lequel la moto attend les acquittements.
+	 * @param nomFichier
+	 * 					Le nom du fichier dans lequel enregistrer les trames de la moto, <i>null</i> pour ne pas les enregistrer.
+	 */
+	public SessionMoto( int idMoto, InetAddress adresse, int portACK, String nomFichier) {
+		idMoto_ = idMoto;
+		codec_.setIdMoto( idMoto);
+		paquetACK_ = new DatagramPacket( new byte[ 0], 0, adresse, portACK);
+		nomFichier_ = nomFichier;
+		postTraitement_ = nomFichier != null ? new PostTraitement() : null;
+	}
+
+
+
+
+	/**
+	 * Retourne la clé identifiant une moto parmi celles écoutées.
+	 * @param idMoto
+	 * 					L'identifiant lu dans l'entête du paquet.
+	 * @param adresse
+	 * 					L'adresse IP d'où vient le paquet.
+	 * @return L'identifiant de la moto s'il est connu, sinon son adresse IP.
+	 */
+	public static Object cle( int idMoto, InetAddress adresse) {
+		return idMoto != CodecTrames.ID_MOTO_INCONNU_S ? Integer.valueOf( idMoto) : adresse;
+	}
+
+
+
+
+	/**
+	 * Retourne le nom du fichier des trames d'une moto à partir du nom du fichier de la configuration.
+	 * <p>L'identifiant de la moto, ou son adresse IP, est ajouté avant l'extension :
+	 * <i>trames.serial</i> devient par exemple <i>trames_moto3.serial</i>.</p>
+	 * @param nomBase
+	 * 					Le nom du fichier de trames de la configuration.
+	 * @param idMoto
+	 * 					L'identifiant de la moto.
+	 * @param adresse
+	 * 					L'adresse IP de la moto.
+	 * @return Le nom du fichier des trames de la moto.
+	 */
+	public static String nomFichier( String nomBase, int idMoto, InetAddress adresse) {
+		String suffixe = idMoto != CodecTrames.ID_MOTO_INCONNU_S
+				? "_moto" + idMoto
+				: "_" + adresse.getHostAddress().replace( ':', '-');
+		int point = nomBase.lastIndexOf( '.');
+		if( point <= 0 || nomBase.indexOf( '/', point) >= 0 || nomBase.indexOf( '\\', point) >= 0) {
+			return nomBase + suffixe;
+		}
+		return nomBase.substring( 0, point) + suffixe + nomBase.substring( point);
+	}
+
+
+
+
+	/**
+	 * Permet de décoder un paquet de la moto.
+	 * <p>Les paquets déjà reçus sont écartés. Si la moto a changé d'adresse, les acquittements suivent.
+	 * <br>Si l'époque du paquet a changé, l'{@link Emetteur} de la moto a redémarré et ses numéros de séquence
+	 * sont repartis de zéro : le suivi des séquences repart du paquet et les acquittements portent la nouvelle époque.</p>
+	 * @param paquet
+	 * 					Le tampon contenant le paquet, de sa position à sa limite.
+	 * @param adresse
+	 * 					L'adresse IP d'où vient le paquet.
+	 * @return Le nombre de messages nouveaux décodés.
+	 */
+	public int recevoir( ByteBuffer paquet, InetAddress adresse) {
+		++nbPaquetsRecus_;
+		if( !adresse.equals( paquetACK_.getAddress())) {
+			paquetACK_.setAddress( adresse);
+		}
+		try {
+			int nbMessages = codec_.decoder( paquet, messagesRecus_);
+			int epoque = codec_.getDerniereEpoque();
+			if( epoque != epoque_) {
+				if( suivi_.estInitialise()) {
+					++nbRedemarrages_;
+					suivi_.reinitialiser( codec_.getDerniereSequence());
+					if( DEBUG_S) {
+						System.out.println( "Redemarrage de " + this + " detecte, epoque " + epoque + ".");
+					}
+				}
+				epoque_ = epoque;
+				codec_.setEpoque( epoque);
+			}
+			if( !suivi_.recevoir( codec_.getDerniereSequence())) {
+				// Paquet deja recu, par exemple retransmis alors que l'original est arrive en retard
+				for( int i = 0 ; i < nbMessages ; ++i) {
+					messagesRecus_.pollLast();
+				}
+				return 0;
+			}
+			return nbMessages;
+		} catch( IllegalArgumentException e) {
+			++nbPaquetsInvalides_;
+			if( DEBUG_S) {
+				System.err.println( "Paquet de " + this + " ignore : " + e.getMessage());
+			}
+			return 0;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'envoyer un acquittement à la moto si la période d'acquittement est écoulée.
+	 * <p>L'acquittement contient le numéro de séquence jusqu'auquel tous les paquets ont été reçus et la liste
+	 * des paquets manquants au delà, que l'{@link Emetteur} renverra.</p>
+	 * @param socket
+	 * 					La socket par laquelle envoyer l'acquittement.
+	 */
+	public void envoyerACK( DatagramSocket socket) {
+		long maintenant = System.nanoTime();
+		if( !suivi_.estInitialise() || maintenant - prochainACK_ < 0) {
+			return;
+		}
+		prochainACK_ = maintenant + TimeUnit.MILLISECONDS.toNanos( PERIODE_ACK_MS_S);
+
+		int nbTrous = suivi_.listerTrous( debutsTrous_, longueursTrous_);
+		ByteBuffer aEnvoye = codec_.encoderAcquittement( suivi_.getCumul(), debutsTrous_, longueursTrous_, nbTrous);
+		paquetACK_.setData( aEnvoye.array(), 0, aEnvoye.limit());
+		try {
+			socket.send( paquetACK_);
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+		}
+
+		if( DEBUG_S) {
+			System.out.println( "ACK envoye a " + this + " jusqu'au paquet " + suivi_.getCumul() + ", " + nbTrous + " trou(s).");
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de récupérer la prochaine trame GPS parmi les messages reçus de la moto.
+	 * <p>Les messages texte rencontrés sont affichés en mode debug puis ignorés. Les trames passent par le
+	 * filtre des positions et par le chronomètre de la moto, qui affiche le temps et les secteurs de chaque tour
+	 * terminé.</p>
+	 * @return La prochaine {@link TrameGPS} reçue, ou <i>null</i> s'il n'y en a plus.
+	 */
+	public TrameGPS prochaineTrame() {
+		Object message;
+		while( ( message = messagesRecus_.poll()) != null) {
+			if( message instanceof TrameGPS) {
+				TrameGPS trame = ( TrameGPS) message;
+				filtre_.ajouter( trame);
+				if( chronometre_ != null) {
+					Tour tour = chronometre_.ajouter( trame);
+					if( tour != null) {
+						afficherTour( tour);
+					}
+				}
+				return trame;
+			}
+			if( DEBUG_S) {
+				System.out.println( "Donnees recues de " + this + " : " + message);
+			}
+		}
+		return null;
+	}
+
+
+
+
+	/**
+	 * Permet d'afficher le temps et les secteurs d'un tour terminé.
+	 * @param tour
+	 * 				Le tour qui vient d'être terminé.
+	 */
+	private void afficherTour( Tour tour) {
+		StringBuilder texte = new StringBuilder();
+		texte.append( this).append( " : ").append( tour);
+		double[] secteurs = chronometre_.getSecteursDernierTour();
+		if( secteurs.length > 1) {
+			for( int i = 0 ; i < secteurs.length ; ++i) {
+				texte.append( i == 0 ? " [" : " ").append( Double.isNaN( secteurs[ i]) ? "-" : Tour.formaterDuree( secteurs[ i]));
+			}
+			texte.append( "]");
+		}
+		texte.append( " (meilleur ").append( Tour.formaterDuree( chronometre_.getMeilleurTour().getDuree())).append( ")");
+		System.out.println( texte);
+	}
+
+
+
+
+	/**
+	 * Permet d'ajouter au fichier de la moto toutes les trames reçues depuis le dernier appel.
+	 * <p>Les trames sont écrites ensemble lorsque le seuil de validation du journal est atteint, en nombre de trames
+	 * ou en temps : la méthode peut donc être appelée même si aucune trame n'a été reçue.</p>
+	 * @return Le nombre de trames ajoutées.
+	 */
+	public int enregistrer() {
+		if( postTraitement_ == null) {
+			return 0;
+		}
+		int nbTrames = 0;
+		TrameGPS trame;
+		while( ( trame = prochaineTrame()) != null) {
+			postTraitement_.ajouterTrameBin( trame, nomFichier_);
+			++nbTrames;
+		}
+		if( nbTrames > 0) {
+			nbTramesEcrites_ += nbTrames;
+			++nbLotsEcrits_;
+		}
+		postTraitement_.validerEcrituresSiSeuilAtteint();
+		return nbTrames;
+	}
+
+
+
+
+	/**
+	 * Permet d'enregistrer les dernières trames reçues et de fermer le fichier de la moto.
+	 */
+	public void fermer() {
+		enregistrer();
+		if( postTraitement_ != null) {
+			postTraitement_.fermerFichier();
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne l'identifiant de la moto.
+	 * @return L'identifiant de la moto, ou {@link CodecTrames#ID_MOTO_INCONNU_S} si elle est reconnue à son adresse.
+	 */
+	public int getIdMoto() {
+		return idMoto_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nom du fichier des trames de la moto.
+	 * @return Le nom du fichier, ou <i>null</i> si les trames ne sont pas enregistrées.
+	 */
+	public String getNomFichier() {
+		return nomFichier_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de redémarrages de l'{@link Emetteur} de la moto détectés par un changement d'époque.
+	 * @return Le nombre de redémarrages.
+	 */
+	public long getNbRedemarrages() {
+		return nbRedemarrages_;
+	}
+
+
+
+
+	/**
+	 * Retourne le suivi des numéros de séquence reçus de la moto.
+	 * @return Le suivi des séquences de la session.
+	 */
+	public SuiviSequences getSuivi() {
+		return suivi_;
+	}
+
+
+
+
+	/**
+	 * Retourne le chronométrage des tours de la moto, mis à jour par chaque trame rendue par {@link #prochaineTrame()}.
+	 * @return Le chronomètre, ou <i>null</i> si aucune ligne d'arrivée n'est configurée.
+	 */
+	public Chronometre getChronometre() {
+		return chronometre_;
+	}
+
+
+
+
+	/**
+	 * Retourne le filtre des positions de la moto, mis à jour par chaque trame rendue par {@link #prochaineTrame()}.
+	 * @return Le filtre, dont l'état est celui de la dernière position reçue.
+	 */
+	public FiltreKalman getFiltre() {
+		return filtre_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets reçus de la moto.
+	 * @return Le nombre de paquets reçus.
+	 */
+	public long getNbPaquetsRecus() {
+		return nbPaquetsRecus_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets de la moto ignorés car mal formés.
+	 * @return Le nombre de paquets ignorés.
+	 */
+	public long getNbPaquetsInvalides() {
+		return nbPaquetsInvalides_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trames de la moto écrites sur le disque.
+	 * @return Le nombre de trames enregistrées.
+	 */
+	public long getNbTramesEcrites() {
+		return nbTramesEcrites_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de lots de trames ajoutés au fichier.
+	 * @return Le nombre de lots de trames enregistrés.
+	 */
+	public long getNbLotsEcrits() {
+		return nbLotsEcrits_;
+	}
+
+
+
+
+	/**
+	 * Permet de décrire la moto de la session.
+	 * @return L'identifiant de la moto ou son adresse.
+	 */
+	@Override
+	public String toString() {
+		return idMoto_ != CodecTrames.ID_MOTO_INCONNU_S ? "moto " + idMoto_ : "moto " + paquetACK_.getAddress().getHostAddress();
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * SuiviSequences.java
+ * Permet de suivre les numeros de sequence des paquets recus pour detecter les pertes et les doublons
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+
+/**
+ * <b>SuiviSequences permet au {@link Recepteur} de savoir quels paquets de l'{@link Emetteur} ont été reçus.</b>
+ * <p>On retient le numéro de séquence du prochain paquet attendu (tous les précédents ont été reçus) ainsi qu'une
+ * fenêtre de bits pour les paquets reçus au delà. On peut ainsi :
+ * <ul>
+ * 	<li>Écarter les paquets reçus en double, notamment après une retransmission.</li>
+ * 	<li>Construire un acquittement cumulé et la liste des trous de la fenêtre à signaler à l'{@link Emetteur}.</li>
+ * </ul>
+ * Si un paquet arrive trop loin devant la fenêtre, les paquets manquants les plus anciens sont abandonnés.
+ * Si un paquet arrive très loin derrière, on considère que l'{@link Emetteur} a redémarré et le suivi repart de zéro.
+ * Un redémarrage plus proche est signalé par l'époque des paquets : la {@link SessionMoto} appelle alors
+ * {@link #reinitialiser(int)}.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Recepteur
+ * @see AnneauRetransmission
+ */
+public class SuiviSequences {
+
+
+	/** Les bits des paquets reçus au delà du prochain paquet attendu. Le bit <i>i</i> correspond à la séquence <i>i</i> modulo la taille. */
+	private final long[] recus_;
+
+
+	/** La taille de la fenêtre en nombre de paquets. */
+	private final int taille_;
+
+
+	/** Le numéro de séquence du prochain paquet attendu : tous les paquets précédents ont été reçus ou abandonnés. */
+	private int prochaineAttendue_ = 0;
+
+
+	/** Le plus grand numéro de séquence reçu. */
+	private int plusGrandeRecue_ = -1;
+
+
+	/** Permet de savoir si au moins un paquet a été reçu. */
+	private boolean initialise_ = false;
+
+
+	/** Le nombre de paquets reçus en double. */
+	private long nbDoublons_ = 0;
+
+
+	/** Le nombre de paquets jamais reçus et abandonnés. */
+	private long nbPaquetsPerdus_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur de SuiviSequences.
+	 * @param taille
+	 * 				La taille de la fenêtre en nombre de paquets, arrondie à la puissance de deux supérieure et au moins 64.
+	 * @throws IllegalArgumentException si la taille n'est pas positive ou dépasse 2<sup>30</sup>.
+	 */
+	public SuiviSequences( int taille) {
+		if( taille <= 0 || taille > 1 << 30) {
+			throw new IllegalArgumentException( "Taille de la fenetre invalide : " + taille);
+		}
+		// Le bit d'une sequence est obtenu par un masque, la taille doit donc etre une puissance de deux
+		taille_ = Math.max( 64, Integer.highestOneBit( taille - 1) << 1);
+		recus_ = new long[ taille_ / 64];
+	}
+
+
+
+
+	/**
+	 * Permet d'enregistrer la réception d'un paquet.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet reçu.
+	 * @return <i>true</i> si le paquet est nouveau et doit être traité, <i>false</i> s'il a déjà été reçu.
+	 */
+	public boolean recevoir( int sequence) {
+		if( !initialise_ || prochaineAttendue_ - sequence > taille_) {
+			// Premier paquet ou redemarrage de l'emetteur
+			reinitialiser( sequence);
+		}
+
+		int avance = sequence - prochaineAttendue_;
+		if( avance < 0 || estMarquee( sequence)) {
+			++nbDoublons_;
+			return false;
+		}
+		if( avance >= 2 * taille_) {
+			// Saut trop grand pour parcourir la fenetre, on repart de ce paquet
+			nbPaquetsPerdus_ += avance;
+			reinitialiser( sequence);
+		} else if( avance >= taille_) {
+			// On abandonne les plus vieux paquets manquants pour faire de la place
+			int nouvelleProchaine = sequence - taille_ + 1;
+			while( prochaineAttendue_ - nouvelleProchaine < 0) {
+				if( !estMarquee( prochaineAttendue_)) {
+					++nbPaquetsPerdus_;
+				}
+				demarquer( prochaineAttendue_++);
+			}
+		}
+
+		marquer( sequence);
+		if( sequence - plusGrandeRecue_ > 0) {
+			plusGrandeRecue_ = sequence;
+		}
+		while( estMarquee( prochaineAttendue_)) {
+			demarquer( prochaineAttendue_++);
+		}
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet de repartir de zéro à partir d'un numéro de séquence, par exemple après un redémarrage de l'{@link Emetteur}.
+	 * <p>Les compteurs de doublons et de paquets perdus sont conservés.</p>
+	 * @param sequence
+	 * 					Le numéro de séquence du premier paquet du nouveau suivi.
+	 */
+	public void reinitialiser( int sequence) {
+		for( int i = 0 ; i < recus_.length ; ++i) {
+			recus_[ i] = 0;
+		}
+		prochaineAttendue_ = sequence;
+		plusGrandeRecue_ = sequence - 1;
+		initialise_ = true;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si un paquet de la fenêtre a été reçu.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 * @return <i>true</i> si le bit du paquet est marqué.
+	 */
+	private boolean estMarquee( int sequence) {
+		int bit = sequence & ( taille_ - 1);
+		return ( recus_[ bit >>> 6] & ( 1L << bit)) != 0;
+	}
+
+
+
+
+	/**
+	 * Permet de marquer un paquet de la fenêtre comme reçu.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 */
+	private void marquer( int sequence) {
+		int bit = sequence & ( taille_ - 1);
+		recus_[ bit >>> 6] |= 1L << bit;
+	}
+
+
+
+
+	/**
+	 * Permet de libérer le bit d'un paquet sorti de la fenêtre.
+	 * @param sequence
+	 * 					Le numéro de séquence du paquet.
+	 */
+	private void demarquer( int sequence) {
+		int bit = sequence & ( taille_ - 1);
+		recus_[ bit >>> 6] &= ~( 1L << bit);
+	}
+
+
+
+
+	/**
+	 * Permet de lister les paquets manquants entre le prochain paquet attendu et le plus grand paquet reçu.
+	 * @param debuts
+	 * 				Le tableau à remplir avec le premier numéro de séquence de chaque trou.
+	 * @param longueurs
+	 * 				Le tableau à remplir avec le nombre de paquets de chaque trou.
+	 * @return Le nombre de trous trouvés, au plus la taille des tableaux.
+	 */
+	public int listerTrous( int[] debuts, int[] longueurs) {
+		int nbTrous = 0;
+		int sequence = prochaineAttendue_;
+		while( plusGrandeRecue_ - sequence > 0 && nbTrous < debuts.length) {
+			if( estMarquee( sequence)) {
+				++sequence;
+			} else {
+				int debut = sequence;
+				while( !estMarquee( sequence) && plusGrandeRecue_ - sequence > 0) {
+					++sequence;
+				}
+				debuts[ nbTrous] = debut;
+				longueurs[ nbTrous++] = sequence - debut;
+			}
+		}
+		return nbTrous;
+	}
+
+
+
+
+	/**
+	 * Retourne le numéro de séquence jusqu'auquel tous les paquets ont été reçus ou abandonnés.
+	 * @return Le numéro de séquence de l'acquittement cumulé.
+	 */
+	public int getCumul() {
+		return prochaineAttendue_ - 1;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si au moins un paquet a été reçu.
+	 * @return <i>true</i> si un paquet a été reçu.
+	 */
+	public boolean estInitialise() {
+		return initialise_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets reçus en double.
+	 * @return Le nombre de doublons écartés.
+	 */
+	public long getNbDoublons() {
+		return nbDoublons_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de paquets jamais reçus et abandonnés.
+	 * @return Le nombre de paquets perdus.
+	 */
+	public long getNbPaquetsPerdus() {
+		return nbPaquetsPerdus_;
+	}
+}
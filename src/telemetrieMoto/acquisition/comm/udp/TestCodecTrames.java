@@ -0,0 +1,164 @@
+/*
+ * TestCodecTrames.java
+ * Permet de tester le codage binaire des messages echanges entre l'Emetteur et le Recepteur
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+
+/**
+ * <b>TestCodecTrames permet de tester le {@link CodecTrames}.</b>
+ * <p>On vérifie que les trames et les messages décodés sont identiques à ceux qui ont été codés,
+ * la taille des paquets et le rejet des paquets mal formés.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see CodecTrames
+ */
+public class TestCodecTrames {
+
+
+
+
+	/**
+	 * Permet de vérifier qu'une trame codée puis décodée est identique à la trame d'origine.
+	 */
+	@Test
+	public void testAllerRetour() {
+		CodecTrames emission = new CodecTrames();
+		CodecTrames reception = new CodecTrames();
+		emission.setIdMoto( 12);
+		emission.setEpoque( 40000);
+
+		TrameGPGGA trameGPGGA = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,04,3.2,200.2,M,,,,,0000*22");
+		trameGPGGA.dater( 100106);
+		ByteBuffer paquet = emission.encoder( trameGPGGA, 41);
+		assertEquals( "Taille d'un paquet GPGGA", 41, paquet.remaining());
+		assertEquals( paquet.remaining(), CodecTrames.taillePaquet( trameGPGGA));
+		assertEquals( "Identifiant lu sans decoder", 12, CodecTrames.lireIdMoto( paquet));
+
+		TrameGPS recue = ( TrameGPS) reception.decoder( paquet);
+		assertTrue( recue.equals( trameGPGGA));
+		assertEquals( trameGPGGA.getHorodatage(), recue.getHorodatage());
+		assertEquals( 41, reception.getDerniereSequence());
+		assertEquals( 12, reception.getDernierIdMoto());
+		assertEquals( 40000, reception.getDerniereEpoque());
+
+		TrameGPRMC trameGPRMC = new TrameGPRMC( "3648.5375,S", "74000.9373,W", ( float) 053740.000, 'A', 100106);
+		trameGPRMC.setVitesse( 87.3f);
+		trameGPRMC.setCapCentiemes( 35999);
+		paquet = emission.encoder( trameGPRMC, 42);
+		assertEquals( "Taille d'un paquet GPRMC", 43, paquet.remaining());
+		assertEquals( paquet.remaining(), CodecTrames.taillePaquet( trameGPRMC));
+		assertEquals( new CodecTrames().encoder( "texte", 0).remaining(), CodecTrames.taillePaquet( "texte"));
+		recue = ( TrameGPS) reception.decoder( paquet);
+		assertTrue( recue.equals( trameGPRMC));
+		assertEquals( trameGPRMC.getHorodatage(), recue.getHorodatage());
+
+		paquet = emission.encoder( "/!\\Trame recue non valide :s !", 43);
+		assertEquals( "/!\\Trame recue non valide :s !", reception.decoder( paquet));
+		assertEquals( 43, reception.getDerniereSequence());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier le regroupement de plusieurs trames dans un lot limité en taille.
+	 */
+	@Test
+	public void testLot() {
+		CodecTrames emission = new CodecTrames();
+		CodecTrames reception = new CodecTrames();
+		TrameGPGGA trameGPGGA = new TrameGPGGA( "4836.5375,N", "00740.9373,E", ( float) 64036.289, 6, ( float) 3.2, ( float) 200.2);
+		TrameGPRMC trameGPRMC = new TrameGPRMC( "4836.5375,N", "00740.9373,E", ( float) 64036.289, 'A', 100106);
+
+		// Entete (12 octets), nombre de messages (1 octet), puis type (1 octet) et champs de chaque trame
+		emission.commencerLot( 7);
+		int nbMessages = 0;
+		while( emission.ajouterAuLot( nbMessages % 2 == 0 ? trameGPGGA : trameGPRMC, 204)) {
+			++nbMessages;
+		}
+		assertEquals( "Nombre de trames dans 204 octets", 6, nbMessages);
+		assertEquals( 13 + 3 * 30 + 3 * 32, emission.getTailleLot());
+		assertTrue( "Un message texte court tient encore", emission.ajouterAuLot( "ok", 204));
+
+		ArrayDeque<Object> messages = new ArrayDeque<Object>();
+		assertEquals( 7, reception.decoder( emission.terminerLot(), messages));
+		assertEquals( 7, reception.getDerniereSequence());
+		for( int i = 0 ; i < 6 ; ++i) {
+			assertTrue( ( ( TrameGPS) messages.poll()).equals( i % 2 == 0 ? trameGPGGA : trameGPRMC));
+		}
+		assertEquals( "ok", messages.poll());
+
+		// Un lot ne peut pas etre decode comme un message seul
+		emission.commencerLot( 8);
+		emission.ajouterAuLot( trameGPGGA, CodecTrames.TAILLE_PAQUET_MAX_S);
+		try {
+			reception.decoder( emission.terminerLot());
+			fail( "Un lot doit etre decode avec decoder( paquet, messages)");
+		} catch( IllegalArgumentException e) {
+		}
+
+		// Un lot tronque n'ajoute aucun message a la file
+		emission.commencerLot( 9);
+		emission.ajouterAuLot( trameGPGGA, CodecTrames.TAILLE_PAQUET_MAX_S);
+		emission.ajouterAuLot( trameGPRMC, CodecTrames.TAILLE_PAQUET_MAX_S);
+		ByteBuffer lotTronque = emission.terminerLot();
+		lotTronque.limit( lotTronque.limit() - 1);
+		try {
+			reception.decoder( lotTronque, messages);
+			fail( "Un lot tronque doit etre rejete");
+		} catch( IllegalArgumentException e) {
+		}
+		assertTrue( messages.isEmpty());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que les paquets qui ne sont pas au format attendu sont rejetés.
+	 */
+	@Test
+	public void testPaquetsInvalides() {
+		CodecTrames codec = new CodecTrames();
+		ByteBuffer paquet = codec.encoder( new TrameGPRMC( "3648.5375,N", "74000.9373,E", ( float) 053740.000, 'A', 100106), 0);
+		byte[] octets = new byte[ paquet.remaining()];
+		paquet.get( octets);
+
+		// Paquet tronque
+		try {
+			codec.decoder( ByteBuffer.wrap( octets, 0, octets.length - 1));
+			fail( "Un paquet tronque doit etre rejete");
+		} catch( IllegalArgumentException e) {
+		}
+
+		// Mauvaise version du format
+		octets[ 2] = CodecTrames.VERSION_S + 1;
+		try {
+			codec.decoder( ByteBuffer.wrap( octets));
+			fail( "Une version inconnue doit etre rejetee");
+		} catch( IllegalArgumentException e) {
+		}
+
+		// Ancien paquet issu de la serialisation Java
+		try {
+			codec.decoder( ByteBuffer.wrap( new byte[] { ( byte) 0xAC, ( byte) 0xED, 0, 5}));
+			fail( "Un paquet sans nombre magique doit etre rejete");
+		} catch( IllegalArgumentException e) {
+		}
+	}
+}
@@ -7,8 +7,11 @@ package telemetrieMoto.acquisition.comm.udp;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
+import telemetrieMoto.Proprietes;
 import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
 import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
 import telemetrieMoto.acquisition.comm.gps.TrameGPS;
@@ -18,8 +21,8 @@ import telemetrieMoto.acquisition.comm.gps.TrameGPS;
 
 /**
  * <b>TestCommunicationUDP permet de tester la communication entre le {@link Recepteur} et l'{@link Emetteur}.</b>
- * <p>Les tests consistent en l'envoie de {@link TrameGPS} avec change d'acquittements pour vrifier que
- * la communication se passe bien dans les deux sens. De plus un test d'intgrit des messages envoys est effectu.</p>
+ * <p>Les tests consistent en l'envoie de {@link TrameGPS} avec échange d'acquittements pour vérifier que
+ * la communication se passe bien dans les deux sens. De plus un test d'intégrité des messages envoyés est effectué.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -40,27 +43,83 @@ public class TestCommunicationUDP {
 		// Creation du Recepteur et de l'emetteur
 		Recepteur pcBordDePiste = new Recepteur();
 		Emetteur carteRPi = new Emetteur();
+		try {
+			// Creation des trames GPS a envoyer
+			TrameGPS trameGPGGA = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,04,3.2,200.2,M,,,,,0000*0E");
+			TrameGPRMC trameGPRMC = new TrameGPRMC( "3648.5375,N", "74000.9373,E", ( float) 053740.000, 'A', 100106);
+
+			// Envoie de la trame GPGGA
+			carteRPi.envoyerMessage( trameGPGGA);
+
+			// On veriifie que le trame recue correspond bien
+			assertTrue( pcBordDePiste.ecouterCarte().equals( trameGPGGA));
+
+			// Attente de l'ACK du recepteur
+			carteRPi.ecouterACK();
+
+			// Memes operations pour la trame GPRMC
+			carteRPi.envoyerMessage( trameGPRMC);
+			assertTrue( pcBordDePiste.ecouterCarte().equals( trameGPRMC));
+			carteRPi.ecouterACK();
+
+			// On test que l'on soit bien sortit de l'attente
+			assertTrue( true);
+		} finally {
+			carteRPi.fermer();
+			pcBordDePiste.fermer();
+		}
+	}
+
 
-		// Creation des trames GPS a envoyer
-		TrameGPS trameGPGGA = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,04,3.2,200.2,M,,,,,0000*0E");
-		TrameGPRMC trameGPRMC = new TrameGPRMC( "3648.5375,N", "74000.9373,E", ( float) 053740.000, 'A', 100106);
-
-		// Envoie de la trame GPGGA
-		carteRPi.envoyerMessage( trameGPGGA);
-
-		// On veriifie que le trame recue correspond bien
-		assertTrue( pcBordDePiste.ecouterCarte().equals( trameGPGGA));
-
-		// Attente de l'ACK du recepteur
-		carteRPi.ecouterACK();
-		
-		// Memes operations pour la trame GPRMC
-		carteRPi.envoyerMessage( trameGPRMC);
-		assertTrue( pcBordDePiste.ecouterCarte().equals( trameGPRMC));
-		carteRPi.ecouterACK();
-		
-		// On test que l'on soit bien sortit de l'attente
-		assertTrue( true);
+
+
+	/**
+	 * Permet de vérifier qu'un message trop grand pour un lot vide part avec le numéro de séquence de ce lot.
+	 * <br>Si un numéro de séquence restait sans paquet, le cumul acquitté par le {@link Recepteur} ne rattraperait
+	 * jamais le dernier numéro envoyé. Un message trop long pour tout paquet est donc refusé sans prendre de numéro.
+	 */
+	@Test
+	public void testMessageHorsLot() throws InterruptedException {
+		Proprietes prop = Proprietes.getInstance();
+		int tailleLot = Integer.valueOf( prop.getPropriete( "UDPTailleLotMax"));
+		long periodeACK = Long.valueOf( prop.getPropriete( "UDPPeriodeAckMs"));
+
+		Recepteur pcBordDePiste = new Recepteur();
+		Emetteur carteRPi = new Emetteur();
+		try {
+			TrameGPS trameGPGGA = new TrameGPGGA( "$GPGGA,064036.289,4836.5375,N,00740.9373,E,1,04,3.2,200.2,M,,,,,0000*0E");
+			TrameGPRMC trameGPRMC = new TrameGPRMC( "3648.5375,N", "74000.9373,E", ( float) 053740.000, 'A', 100106);
+			// Un texte qui tient dans un paquet mais pas dans un lot
+			char[] texte = new char[ tailleLot];
+			Arrays.fill( texte, 'x');
+
+			carteRPi.envoyerMessage( trameGPGGA);
+			carteRPi.vider();
+			carteRPi.envoyerMessage( new String( texte));
+
+			// Un texte qui ne tient dans aucun paquet : 1472 - 12 octets d'entete - 2 octets de longueur = 1458
+			char[] texteTropLong = new char[ 1459];
+			Arrays.fill( texteTropLong, 'x');
+			try {
+				carteRPi.envoyerMessage( new String( texteTropLong));
+				fail( "Un message plus long qu'un paquet doit etre refuse");
+			} catch( IllegalArgumentException e) {
+			}
+
+			carteRPi.envoyerMessage( trameGPRMC);
+			carteRPi.vider();
+
+			// On laisse arriver les trois paquets et passer la periode des acquittements
+			Thread.sleep( periodeACK + 50);
+			assertTrue( pcBordDePiste.ecouterCarte().equals( trameGPGGA));
+			assertTrue( pcBordDePiste.ecouterCarte().equals( trameGPRMC));
+
+			// Le cumul acquitte doit atteindre le dernier numero de sequence envoye
+			assertTrue( carteRPi.ecouterACK());
+		} finally {
+			carteRPi.fermer();
+			pcBordDePiste.fermer();
+		}
 	}
 
 }
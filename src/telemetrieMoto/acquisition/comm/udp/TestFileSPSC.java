@@ -0,0 +1,100 @@
+/*
+ * TestFileSPSC.java
+ * Permet de tester la file entre le thread de reception et le thread d'ecriture du recepteur
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestFileSPSC permet de tester la {@link FileSPSC}.</b>
+ * <p>On vérifie l'ordre des éléments, le refus d'un élément quand la file est pleine, le retrait par lots
+ * et l'échange entre un producteur et un consommateur s'exécutant dans deux threads différents.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see FileSPSC
+ */
+public class TestFileSPSC {
+
+
+
+
+	/**
+	 * Permet de vérifier l'ordre des éléments, le refus quand la file est pleine et le retrait par lots.
+	 */
+	@Test
+	public void testOffrirPrendre() {
+		FileSPSC<Integer> file = new FileSPSC<Integer>( 3);
+		// La capacite est arrondie a la puissance de deux superieure
+		assertEquals( "Capacite de la file", 4, file.getCapacite());
+		assertNull( file.prendre());
+
+		for( int i = 0 ; i < 4 ; ++i) {
+			assertTrue( file.offrir( i));
+		}
+		assertFalse( "File pleine", file.offrir( 4));
+		assertFalse( "File toujours pleine apres l'attente", file.offrir( 4, TimeUnit.MILLISECONDS.toNanos( 1)));
+		assertEquals( Integer.valueOf( 0), file.prendre());
+		assertTrue( file.offrir( 4));
+
+		// Retrait par lots a cheval sur la fin du tableau
+		ArrayList<Integer> lot = new ArrayList<Integer>();
+		assertEquals( 3, file.vider( lot, 3));
+		assertEquals( 1, file.taille());
+		assertEquals( 1, file.vider( lot, 3));
+		assertEquals( 0, file.vider( lot, 3));
+		for( int i = 0 ; i < lot.size() ; ++i) {
+			assertEquals( Integer.valueOf( i + 1), lot.get( i));
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un consommateur retirant par lots reçoit tous les éléments d'un producteur
+	 * qui attend quand la file est pleine, dans l'ordre et sans perte.
+	 * @throws InterruptedException si le test a été interrompu.
+	 */
+	@Test
+	public void testProducteurConsommateur() throws InterruptedException {
+		final FileSPSC<Integer> file = new FileSPSC<Integer>( 16);
+		final int nbElements = 100000;
+
+		Thread producteur = new Thread( new Runnable() {
+			@Override
+			public void run() {
+				for( int i = 0 ; i < nbElements ; ++i) {
+					while( !file.offrir( i, TimeUnit.MILLISECONDS.toNanos( 10))) {
+						Thread.yield();
+					}
+				}
+			}
+		});
+		producteur.start();
+
+		ArrayList<Integer> lot = new ArrayList<Integer>();
+		int attendu = 0;
+		while( attendu < nbElements) {
+			if( file.vider( lot, 8) == 0) {
+				file.attendreElements( TimeUnit.MILLISECONDS.toNanos( 10));
+			}
+			for( int i = 0 ; i < lot.size() ; ++i) {
+				assertEquals( "Element " + attendu, attendu++, lot.get( i).intValue());
+			}
+			lot.clear();
+		}
+		producteur.join();
+		assertEquals( 0, file.taille());
+	}
+}
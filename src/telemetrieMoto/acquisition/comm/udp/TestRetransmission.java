@@ -0,0 +1,147 @@
+/*
+ * TestRetransmission.java
+ * Permet de tester le suivi des sequences recues et la retransmission des paquets perdus
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+
+
+/**
+ * <b>TestRetransmission permet de tester la fiabilisation des échanges entre l'{@link Emetteur} et le {@link Recepteur}.</b>
+ * <p>On vérifie la détection des paquets manquants et des doublons par le {@link SuiviSequences}, le codage des
+ * acquittements et la conservation des paquets non acquittés par l'{@link AnneauRetransmission}.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see SuiviSequences
+ * @see AnneauRetransmission
+ */
+public class TestRetransmission {
+
+
+
+
+	/**
+	 * Permet de vérifier l'acquittement cumulé, la liste des trous et l'écart des doublons.
+	 */
+	@Test
+	public void testSuiviSequences() {
+		SuiviSequences suivi = new SuiviSequences( 64);
+		int[] debuts = new int[ 8];
+		int[] longueurs = new int[ 8];
+
+		// Les paquets 3, 4 et 7 sont perdus
+		for( int sequence : new int[] { 0, 1, 2, 5, 6, 8}) {
+			assertTrue( suivi.recevoir( sequence));
+		}
+		assertEquals( 2, suivi.getCumul());
+		assertEquals( 2, suivi.listerTrous( debuts, longueurs));
+		assertEquals( 3, debuts[ 0]);
+		assertEquals( 2, longueurs[ 0]);
+		assertEquals( 7, debuts[ 1]);
+		assertEquals( 1, longueurs[ 1]);
+
+		// Retransmission des paquets manquants, puis d'un paquet deja recu
+		assertTrue( suivi.recevoir( 4));
+		assertTrue( suivi.recevoir( 3));
+		assertEquals( 6, suivi.getCumul());
+		assertFalse( suivi.recevoir( 5));
+		assertFalse( suivi.recevoir( 1));
+		assertEquals( 2, suivi.getNbDoublons());
+		assertTrue( suivi.recevoir( 7));
+		assertEquals( 8, suivi.getCumul());
+		assertEquals( 0, suivi.listerTrous( debuts, longueurs));
+
+		// Un paquet trop en avance fait abandonner les plus vieux paquets manquants
+		assertTrue( suivi.recevoir( 10 + 64));
+		assertEquals( 10, suivi.getCumul());
+		assertEquals( "Paquets 9 et 10 abandonnes", 2, suivi.getNbPaquetsPerdus());
+
+		// Un paquet tres en retard correspond a un redemarrage de l'emetteur
+		SuiviSequences suiviRedemarrage = new SuiviSequences( 64);
+		assertTrue( suiviRedemarrage.recevoir( 500));
+		assertTrue( suiviRedemarrage.recevoir( 0));
+		assertEquals( 0, suiviRedemarrage.getCumul());
+
+		// Une taille quelconque est arrondie a une puissance de deux : chaque sequence de la fenetre a son propre bit
+		SuiviSequences suiviQuelconque = new SuiviSequences( 150);
+		for( int sequence = 0 ; sequence < 150 ; ++sequence) {
+			if( sequence != 10) {
+				assertTrue( "Paquet " + sequence, suiviQuelconque.recevoir( sequence));
+			}
+		}
+		assertEquals( 9, suiviQuelconque.getCumul());
+		assertEquals( 1, suiviQuelconque.listerTrous( debuts, longueurs));
+		assertEquals( 10, debuts[ 0]);
+		assertEquals( 1, longueurs[ 0]);
+		assertEquals( 0, suiviQuelconque.getNbDoublons());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier le codage d'un acquittement accompagné de la liste des trous.
+	 */
+	@Test
+	public void testCodageAcquittement() {
+		CodecTrames codec = new CodecTrames();
+		ByteBuffer paquet = codec.encoderAcquittement( 41, new int[] { 43, 50}, new int[] { 2, 1}, 2);
+		assertEquals( CodecTrames.TAILLE_ENTETE_S + 1 + 2 * 6, paquet.remaining());
+
+		CodecTrames reception = new CodecTrames();
+		assertEquals( 41, reception.decoderAcquittement( paquet));
+		assertEquals( 2, reception.getNbTrous());
+		assertEquals( 43, reception.getDebutTrou( 0));
+		assertEquals( 2, reception.getLongueurTrou( 0));
+		assertEquals( 50, reception.getDebutTrou( 1));
+		assertEquals( 1, reception.getLongueurTrou( 1));
+
+		// Une trame n'est pas un acquittement
+		try {
+			reception.decoderAcquittement( codec.encoder( "ACK", 0));
+			fail( "Un message texte n'est pas un acquittement");
+		} catch( IllegalArgumentException e) {
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que l'anneau conserve les paquets jusqu'à leur acquittement, dans la limite de sa capacité.
+	 */
+	@Test
+	public void testAnneauRetransmission() {
+		AnneauRetransmission anneau = new AnneauRetransmission( 3);
+		assertEquals( 4, anneau.getCapacite());
+		CodecTrames codec = new CodecTrames();
+
+		for( int sequence = 0 ; sequence < 4 ; ++sequence) {
+			anneau.memoriser( sequence, codec.encoder( "message " + sequence, sequence));
+		}
+		byte[] paquet = anneau.getPaquet( 2);
+		assertNotNull( paquet);
+		assertEquals( "message 2", codec.decoder( ByteBuffer.wrap( paquet, 0, anneau.getLongueur( 2))));
+
+		// L'acquittement cumule libere les paquets 0 et 1
+		anneau.acquitter( 1);
+		assertNull( anneau.getPaquet( 1));
+		assertNotNull( anneau.getPaquet( 3));
+
+		// Le paquet 4 prend la place du paquet 0 deja acquitte, le paquet 6 ecrase le paquet 2 non acquitte
+		anneau.memoriser( 4, codec.encoder( "message 4", 4));
+		assertEquals( 0, anneau.getNbPaquetsAbandonnes());
+		anneau.memoriser( 6, codec.encoder( "message 6", 6));
+		assertEquals( 1, anneau.getNbPaquetsAbandonnes());
+		assertNull( anneau.getPaquet( 2));
+		assertEquals( 0, anneau.getLongueur( 2));
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * TestSessionMoto.java
+ * Permet de tester la separation des paquets de plusieurs motos par le recepteur
+ */
+
+package telemetrieMoto.acquisition.comm.udp;
+
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+
+
+/**
+ * <b>TestSessionMoto permet de tester la {@link SessionMoto}.</b>
+ * <p>On vérifie l'identification des motos par leur identifiant ou leur adresse, le nom de leur fichier de trames,
+ * l'indépendance du suivi des séquences de deux motos qui émettent les mêmes numéros et la détection d'un
+ * redémarrage de l'{@link Emetteur} par son époque.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see SessionMoto
+ */
+public class TestSessionMoto {
+
+
+
+
+	/**
+	 * Permet de vérifier la clé et le nom de fichier d'une moto, avec et sans identifiant.
+	 * @throws UnknownHostException si l'adresse de test n'a pas pu être créée.
+	 */
+	@Test
+	public void testIdentification() throws UnknownHostException {
+		InetAddress adresse = InetAddress.getByName( "172.16.44.16");
+		assertEquals( Integer.valueOf( 3), SessionMoto.cle( 3, adresse));
+		assertEquals( "Repli sur l'adresse", adresse, SessionMoto.cle( CodecTrames.ID_MOTO_INCONNU_S, adresse));
+
+		assertEquals( "trames_moto3.serial", SessionMoto.nomFichier( "trames.serial", 3, adresse));
+		assertEquals( "trames_172.16.44.16.serial", SessionMoto.nomFichier( "trames.serial", CodecTrames.ID_MOTO_INCONNU_S, adresse));
+		assertEquals( "essais/trames_moto3", SessionMoto.nomFichier( "essais/trames", 3, adresse));
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que deux motos utilisant les mêmes numéros de séquence ont chacune leurs trames.
+	 * @throws UnknownHostException si l'adresse de test n'a pas pu être créée.
+	 */
+	@Test
+	public void testSessionsIndependantes() throws UnknownHostException {
+		InetAddress adresse = InetAddress.getByName( "127.0.0.1");
+		SessionMoto moto1 = new SessionMoto( 1, adresse, 8765, null);
+		SessionMoto moto2 = new SessionMoto( 2, adresse, 8765, null);
+		CodecTrames codec1 = new CodecTrames();
+		codec1.setIdMoto( 1);
+		CodecTrames codec2 = new CodecTrames();
+		codec2.setIdMoto( 2);
+
+		TrameGPS trame1 = new TrameGPGGA( "4836.5375,N", "00740.9373,E", ( float) 64036.289, 6, ( float) 3.2, ( float) 200.2);
+		TrameGPS trame2 = new TrameGPGGA( "4836.6000,N", "00741.0000,E", ( float) 64036.289, 7, ( float) 1.1, ( float) 190.5);
+
+		ByteBuffer paquet = codec1.encoder( trame1, 0);
+		assertEquals( 1, CodecTrames.lireIdMoto( paquet));
+		assertEquals( 1, moto1.recevoir( paquet, adresse));
+		paquet = codec2.encoder( trame2, 0);
+		assertEquals( 2, CodecTrames.lireIdMoto( paquet));
+		assertEquals( "Meme sequence, autre moto", 1, moto2.recevoir( paquet, adresse));
+
+		// Le meme paquet recu deux fois par la moto 1 est ecarte
+		assertEquals( 0, moto1.recevoir( codec1.encoder( trame1, 0), adresse));
+		assertEquals( 1, moto1.getSuivi().getNbDoublons());
+		assertEquals( 0, moto2.getSuivi().getNbDoublons());
+
+		assertTrue( moto1.prochaineTrame().equals( trame1));
+		assertNull( moto1.prochaineTrame());
+		assertTrue( moto2.prochaineTrame().equals( trame2));
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un redémarrage de l'{@link Emetteur} bien avant la fin de la fenêtre du suivi est détecté
+	 * par le changement d'époque : les trames de la nouvelle époque ne sont pas prises pour des doublons.
+	 * @throws UnknownHostException si l'adresse de test n'a pas pu être créée.
+	 */
+	@Test
+	public void testRedemarrage() throws UnknownHostException {
+		InetAddress adresse = InetAddress.getByName( "127.0.0.1");
+		SessionMoto moto = new SessionMoto( 1, adresse, 8765, null);
+		CodecTrames codec = new CodecTrames();
+		codec.setIdMoto( 1);
+		codec.setEpoque( 17);
+		TrameGPS trame = new TrameGPGGA( "4836.5375,N", "00740.9373,E", ( float) 64036.289, 6, ( float) 3.2, ( float) 200.2);
+
+		for( int sequence = 0 ; sequence < 100 ; ++sequence) {
+			assertEquals( 1, moto.recevoir( codec.encoder( trame, sequence), adresse));
+		}
+		assertEquals( 99, moto.getSuivi().getCumul());
+
+		// L'emetteur redemarre : ses numeros repartent de zero, seulement 100 paquets derriere
+		codec.setEpoque( 18);
+		for( int sequence = 0 ; sequence < 10 ; ++sequence) {
+			assertEquals( "Paquet " + sequence + " apres le redemarrage", 1, moto.recevoir( codec.encoder( trame, sequence), adresse));
+		}
+		assertEquals( 9, moto.getSuivi().getCumul());
+		assertEquals( 0, moto.getSuivi().getNbDoublons());
+		assertEquals( 1, moto.getNbRedemarrages());
+
+		// Un doublon de la nouvelle epoque est toujours ecarte
+		assertEquals( 0, moto.recevoir( codec.encoder( trame, 5), adresse));
+		assertEquals( 1, moto.getSuivi().getNbDoublons());
+	}
+}
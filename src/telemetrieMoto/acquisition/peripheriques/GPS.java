@@ -6,29 +6,33 @@
 package telemetrieMoto.acquisition.peripheriques;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import telemetrieMoto.Proprietes;
+import telemetrieMoto.acquisition.comm.gps.DecoupeurTramesNMEA;
 import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
 import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
 import telemetrieMoto.acquisition.comm.gps.TrameGPS;
 import telemetrieMoto.acquisition.comm.rs232.PortSerie;
+import telemetrieMoto.acquisition.comm.rs232.TamponCirculaireOctets;
 
 
 /**
- * <b>GPS reprsente un priphrique matriel de type GPS (Global Positioning System).</b>
+ * <b>GPS représente un périphérique matériel de type GPS (Global Positioning System).</b>
  * <p>La classe permet de communiquer avec tous types de GPS utilisant le protocole <b>NMEA</b>.
- * Elle permet d'couter le GPS et de le configurer. Les configurations possibles actuellement sont 
+ * Elle permet d'écouter le GPS et de le configurer. Les configurations possibles actuellement sont 
  * les suivantes :
  * <ul>
  * <li>Configuration du nombre de bauds de la liaison.</li>
  * <li>Configuration des trames NMEA que l'on souhaite recevoir.</li>
- * <li>Configuration de la frquence d'acquisition du GPS.</li>
+ * <li>Configuration de la fréquence d'acquisition du GPS.</li>
  * </ul>
- * <i>Les paramtres de configuration du GPS sont lus dans le fichier de configuration du projet.</i></p>
+ * <i>Les paramètres de configuration du GPS sont lus dans le fichier de configuration du projet.</i></p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
  * @see PortSerie
+ * @see DecoupeurTramesNMEA
  * @see TrameGPS
  * @see TrameGPGGA
  * @see TrameGPRMC
@@ -36,54 +40,74 @@ import telemetrieMoto.acquisition.comm.rs232.PortSerie;
 public class GPS {
 
 
-	/** Le port srie sur lequel est connect le GPS. */
+	/** Le port série sur lequel est connecté le GPS. */
 	private PortSerie uartGPS_;
 
 
-	/** Le buffer des caractres lus sur le port srie en attente de traitement. */
-	private StringBuffer charLus_ = new StringBuffer();
+	/** Le tampon des octets lus sur le port série en attente de traitement. Le GPS en est l'unique consommateur. */
+	private TamponCirculaireOctets octetsLus_;
 
 
-	/** Le mot cl permettant de spcifier que l'on envoie une commande au GPS. */
+	/** Le bloc d'octets lus dans le tampon du port série en attente de découpage. */
+	private final byte[] blocLu_ = new byte[ 256];
+
+
+	/** L'indice du premier octet du bloc qui n'a pas encore été découpé. */
+	private int debutBloc_ = 0;
+
+
+	/** L'indice suivant le dernier octet valide du bloc. */
+	private int finBloc_ = 0;
+
+
+	/** Le mot clé permettant de spécifier que l'on envoie une commande au GPS. */
 	private static final String PMTK_S = "PMTK";
 
 
-	/** L'instance reprsentant le fichier de configuration du projet  interroger. */
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
 	private static Proprietes prop_s = Proprietes.getInstance();
 
 
 	/** La taille maximale d'une trame GPS.
-	 * Dfinit dans le protocole NMEA. 
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration.</i> */
+	 * Définit dans le protocole NMEA. 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration.</i> */
 	private static final int TAILLE_TRAME_MAX_S = Integer.valueOf( prop_s.getPropriete( "GPSTailleTrameMax"));
 
 
-	/** Le nombre de trames maximum  lire en attendant un acquittement d'une commande NMEA du GPS.
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration.</i> */
+	/** Le nombre de trames maximum à lire en attendant un acquittement d'une commande NMEA du GPS.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration.</i> */
 	private static final int NB_TRAME_ACK_S = Integer.valueOf( prop_s.getPropriete( "GPSNbTrameAttenteACK"));
 
 
-	/** Le nombre de bauds par dfaut de la liaison GPS. 
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration.</i>*/
+	/** Le découpeur des trames NMEA reçues du GPS, réutilisé d'une trame à l'autre. */
+	private final DecoupeurTramesNMEA decoupeur_ = new DecoupeurTramesNMEA( TAILLE_TRAME_MAX_S);
+
+
+	/** L'horodatage de la dernière trame GPRMC datée reçue, utilisé pour dater les trames GPGGA (0 si aucune). */
+	private long horodatageRMC_ = 0;
+
+
+	/** Le nombre de bauds par défaut de la liaison GPS. 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration.</i>*/
 	private static final int NBBAUDSGSDEFAUT_S = Integer.valueOf( prop_s.getPropriete( "GPSNbBaudsDefaut"));
 
 
-	/** Le nombre de bauds de la liaison GPS souhait. 
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration.</i>*/
+	/** Le nombre de bauds de la liaison GPS souhaité. 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration.</i>*/
 	private static final int NBBAUDSGPSSOUHAITES_S = Integer.valueOf( prop_s.getPropriete( "GPSNbBaudsSouhaite"));
 
 
-	/************************************************* Les diffrentes commandes  envoyer au GPS *************************************************/
+	/************************************************* Les différentes commandes à envoyer au GPS *************************************************/
 
-	/** La commande qui permet d'envoyer au GPS le nombre de baud de la liaison souhait. */
+	/** La commande qui permet d'envoyer au GPS le nombre de baud de la liaison souhaité. */
 	private static final String SET_BAUD_RATE_S = prop_s.getPropriete( "GPSCmdSetNbBauds");
-	/** La commande qui permet de tester la liaison srie avec le GPS. */
+	/** La commande qui permet de tester la liaison série avec le GPS. */
 	private static final String TEST_UART_S = prop_s.getPropriete( "GPSCmdTestUart");
-	/** La commande qui permet de fixer la frquence d'acquisition des {@link TrameGPS}. */
+	/** La commande qui permet de fixer la fréquence d'acquisition des {@link TrameGPS}. */
 	private static final String SET_FREQ_S = prop_s.getPropriete( "GPSCmdSetFreq");
-	/** La commande permettant de prciser le type des {@link TrameGPS} que l'on souhaite recevoir. */
+	/** La commande permettant de préciser le type des {@link TrameGPS} que l'on souhaite recevoir. */
 	private static final String SET_TRAMES_S = prop_s.getPropriete( "GPSCmdSetTrames");
-	/** Le paramtre de la commande {@link #SET_TRAMES_S} ==> on ne veut que les {@link TrameGPGGA} et {@link TrameGPRMC}. */
+	/** Le paramètre de la commande {@link #SET_TRAMES_S} ==> on ne veut que les {@link TrameGPGGA} et {@link TrameGPRMC}. */
 	private static final String GPGGA_GPRMC_UART_S = prop_s.getPropriete( "GPSParamSetTrames");
 
 	/**********************************************************************************************************************************************/
@@ -98,7 +122,7 @@ public class GPS {
 
 	/** 
 	 * Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration du projet.</i> 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
 	 */
 	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugGPS"));
 
@@ -107,7 +131,7 @@ public class GPS {
 
 	/**
 	 * Le constructeur de GPS.
-	 * Permet d'initialiser le port srie utilis pour la communication avec le GPS matriel.
+	 * Permet d'initialiser le port série utilisé pour la communication avec le GPS matériel.
 	 */
 	public GPS() {
 
@@ -117,6 +141,7 @@ public class GPS {
 
 		// Initialisation du port serie
 		uartGPS_ = new PortSerie( prop_s.getPropriete( "NomPortSerie"), NBBAUDSGSDEFAUT_S);
+		octetsLus_ = uartGPS_.getTamponLecture();
 		try {
 			uartGPS_.connect();
 		} catch( IOException e) {
@@ -131,12 +156,12 @@ public class GPS {
 	 * Permet d'initialiser le GPS.
 	 * <p>Configuration de :
 	 * <ul>
-	 * 	<li>La frquence d'acquisition du GPS.</li>
-	 * 	<li>Le dbit de la liaison srie.</li>
-	 * 	<li>La slection des trames que l'on souhaite recevoir.</li>
+	 * 	<li>La fréquence d'acquisition du GPS.</li>
+	 * 	<li>Le débit de la liaison série.</li>
+	 * 	<li>La sélection des trames que l'on souhaite recevoir.</li>
 	 * </ul>
-	 * Tous les paramtres de la configuration sont lus dans le fichier de configuration du projet.
-	 * Si une configuration choue, le programme s'arrte.</p>
+	 * Tous les paramètres de la configuration sont lus dans le fichier de configuration du projet.
+	 * Si une configuration échoue, le programme s'arrête.</p>
 	 */
 	public void initGPS() {
 
@@ -157,9 +182,9 @@ public class GPS {
 
 
 	/**
-	 * Permet de fixer la frquence d'envoie des trames du GPS.
+	 * Permet de fixer la fréquence d'envoie des trames du GPS.
 	 * @param freqHz 
-	 * 					La frquence d'envoie des trames du GPS en Hertz.
+	 * 					La fréquence d'envoie des trames du GPS en Hertz.
 	 */
 	private void setSampleFrequency( int freqHz) {
 		int freqMs = 1000 / freqHz;										// La frequence d'envoie du GPS en millisecondes
@@ -183,7 +208,7 @@ public class GPS {
 
 
 	/**
-	 * Permet de slectionner le type de {@link TrameGPS} que l'on souhaite recevoir.
+	 * Permet de sélectionner le type de {@link TrameGPS} que l'on souhaite recevoir.
 	 * @param listeTrames 
 	 * 						La liste des trames <b>NMEA</b> que l'on souhaite recevoir.
 	 */
@@ -205,9 +230,9 @@ public class GPS {
 	/**
 	 * Permet d'envoyer une commande <b>NMEA</b> au GPS.
 	 * @param numCmd 
-	 * 					Le numro de la commande  envoyer.
+	 * 					Le numéro de la commande à envoyer.
 	 * @param paramCmd 
-	 * 					Les paramtres de la commande  envoyer.
+	 * 					Les paramètres de la commande à envoyer.
 	 */
 	private void envoyerCommande( String numCmd, String paramCmd) {
 		String trameAEnvoyer;	// La trame contenant la commande a envoyer au GPS
@@ -279,59 +304,75 @@ public class GPS {
 
 
 	/**
-	 * Permet de lire le premier caractre reu par le GPS.
-	 * Attention fonction bloquante ! Elle attend de recevoir un caractre du GPS.
-	 * @return c
-	 * 				Le premier caractre reu par le GPS.
+	 * Permet d'attendre la réception d'une trame NMEA correcte.
+	 * Attention fonction bloquante ! Elle attend de recevoir une trame complète du GPS.
+	 * <p>Les octets sont lus par blocs dans le tampon du port série et passés au {@link DecoupeurTramesNMEA}.
+	 * La trame reçue est ensuite disponible dans le découpeur jusqu'au prochain appel.</p>
+	 * <p>Si le thread appelant est interrompu pendant l'attente, on rend la main sans trame et le drapeau
+	 * d'interruption reste levé pour l'appelant.</p>
+	 * @return <i>true</i> si une trame a été reçue, <i>false</i> si l'attente a été interrompue.
 	 */
-	private char lireCaractere() {
-		char c = '\0';	// Le caractere que l'on va lire
-
-		while( c == '\0') {
-			if( charLus_.length() != 0) {
-				// Lecture du caractere
-				c = charLus_.charAt( 0);
-				// On efface le caractere lu
-				charLus_.deleteCharAt( 0);
-			} else {
-				// On actualise le buffer des caracteres lus
-				charLus_.append( uartGPS_.lirePortSerie());
+	private boolean attendreTrame() {
+		do {
+			if( debutBloc_ == finBloc_) {
+				// Le bloc a ete entierement decoupe, on lit les octets suivants
+				debutBloc_ = 0;
+				finBloc_ = octetsLus_.lire( blocLu_, 0, blocLu_.length);
+				while( finBloc_ == 0) {
+					if( !octetsLus_.attendreDonnees( Long.MAX_VALUE)) {
+						// Sans delai, l'attente ne se termine sans octet que sur une interruption : on la signale a l'appelant
+						Thread.currentThread().interrupt();
+						return false;
+					}
+					finBloc_ = octetsLus_.lire( blocLu_, 0, blocLu_.length);
+				}
 			}
-		}
+			debutBloc_ = decoupeur_.decouper( blocLu_, debutBloc_, finBloc_);
+		} while( !decoupeur_.trameDisponible());
 
-		return c;
+		if( DEBUG_S) {
+			System.out.println( "On a recu la trame :\n" + trameEnChaine());
+		}
+		return true;
 	}
 
 
 
 
 	/**
-	 * Permet de rcuprer une {@link TrameGPRMC} ou une {@link TrameGPGGA}  partir de la trame reue 
+	 * Permet de récuprer une {@link TrameGPRMC} ou une {@link TrameGPGGA} à partir de la trame reçue 
 	 * du GPS.
-	 * @return La trame {@link TrameGPRMC} ou {@link TrameGPGGA} que l'on vient de recevoir.
+	 * @return La trame {@link TrameGPRMC} ou {@link TrameGPGGA} que l'on vient de recevoir, ou <i>null</i> si le
+	 * thread appelant a été interrompu.
 	 */
 	public TrameGPS lireTrameGPS() {
 		TrameGPS trameResultat = null;	// La trame GPS correspondante a la trame lue
-		String trameLue = null;			// La trame lue sur le GPS
 
 		if( DEBUG_S) {
-			System.out.println( "On attend de recevoir une trame GPS non nulle.");
-		}
-		while( trameLue == null || ( trameLue.charAt( 3) != 'R' && trameLue.charAt( 4) != 'G')) {
-			trameLue = lireTrame();
-		}
-		if( DEBUG_S) {
-			System.out.println( "On a recu une trame GPGGA ou GPRMC.");
+			System.out.println( "On attend de recevoir une trame GPGGA ou GPRMC.");
 		}
+		while( trameResultat == null) {
+			if( !attendreTrame()) {
+				return null;
+			}
 
-		if( trameLue.charAt( 3)== 'R') {
-			// On a une trame de type GPRMC, on la parse pour recuperer les informations dont on a besoin
-			trameResultat = new TrameGPRMC( trameLue);
-		} else if( trameLue.charAt( 4) == 'G') {
-			// On a une trame du type GPGGA, on la parse pour recuperer les informations dont on a besoin
-			trameResultat = new TrameGPGGA( trameLue);
-		} else {
-			// On a une trame differente, non traite pour le moment
+			if( decoupeur_.estDeType( "GPRMC")) {
+				// On a une trame de type GPRMC, ses champs seront decodes a la demande
+				TrameGPRMC trameGPRMC = new TrameGPRMC( decoupeur_.getTrame(), 0, decoupeur_.getLongueur());
+				if( trameGPRMC.getDate() > 0) {
+					horodatageRMC_ = trameGPRMC.getHorodatage();
+				}
+				trameResultat = trameGPRMC;
+			} else if( decoupeur_.estDeType( "GPGGA")) {
+				// On a une trame du type GPGGA, elle ne transmet pas la date : on lui donne celle de la derniere GPRMC,
+				// ou celle du jour suivant si minuit UTC est passe depuis
+				trameResultat = new TrameGPGGA( decoupeur_.getTrame(), 0, decoupeur_.getLongueur());
+				if( horodatageRMC_ > 0) {
+					trameResultat.daterDepuis( horodatageRMC_);
+				}
+			} else {
+				// On a une trame differente, non traite pour le moment
+			}
 		}
 
 		return trameResultat;
@@ -341,74 +382,44 @@ public class GPS {
 
 
 	/**
-	 * Retourne la trame GPS reue en chaine de caractres.
+	 * Retourne la trame GPS reçue en chaine de caractères.
 	 * Tous types de trames NMEA confondues.
-	 * @return La trame GPS que l'on vient de recevoir ou null si celle-ci n'est pas valide ==> 
-	 * erreur de checksum par exemple.
+	 * @return La trame GPS que l'on vient de recevoir, dont le checksum a été vérifié, ou <i>null</i> si le thread
+	 * appelant a été interrompu.
 	 */
 	private String lireTrame() {
-
-		String trameLue = "";	// La trame GPS que l'on a lu
-		char c;					// Le caractere lu sur l'UART du GPS
-		char checksum = 0;		// Le checksum calcule par rapport a la trame que l'on veut envoyer
-		char checksumGPS;		// Le checksum envoye par le GPS pour la trame courante
-
-		if( DEBUG_S){
-			System.out.println( "Attente de la reception d'un '$'.");
-		}
-
-		// On attend le derbut de la trame
-		while( ( c = lireCaractere()) != '$');
-
-		for( int i = 0 ; i < TAILLE_TRAME_MAX_S && c != '*' ; ++i) {
-			// On ajoute le caractere a la trame
-			trameLue += c;
-			checksum ^= c;
-			c = lireCaractere();
-		}
-
-		// On ajoute le symbole de fin et les deux caracteres de checksum a notre trame
-		for( int i = 0 ; i < 3 ; ++i) {
-			trameLue += c;
-			c = lireCaractere();
-		}
-
-		if( DEBUG_S) {
-			System.out.println( "On a recu la trame :\n" + trameLue);
+		if( !attendreTrame()) {
+			return null;
 		}
+		return trameEnChaine();
+	}
 
-		// Calcul du checksum pour verifier la validite de la trame
-		checksumGPS = (char) (( trameLue.charAt( trameLue.length() - 2) << 8) | trameLue.charAt( trameLue.length() - 1));
 
-		if( DEBUG_S) {
-			System.out.println( "Checksum envoye par le GPS : " + trameLue.charAt( trameLue.length() - 2) + trameLue.charAt( trameLue.length() - 1));
-		}
 
-		if( ( checksumGPS & checksum) == 0) {
-			trameLue = null;
-			if( DEBUG_S) {
-				System.out.println( "La trame recue n'etait pas correcte ! On renvoi null.");
-			}
-		}
 
-		return trameLue;
+	/**
+	 * Permet de convertir la dernière trame découpée en chaine de caractères.
+	 * @return La trame découpée, du '$' au checksum inclus.
+	 */
+	private String trameEnChaine() {
+		return new String( decoupeur_.getTrame(), 0, decoupeur_.getLongueur(), StandardCharsets.US_ASCII);
 	}
 
 
 
 
 	/**
-	 * Permet d'couter l'acquittement de la commande que l'on vient d'envoyer.
-	 * Afin de vrifier qu'elle ait bien t execute ou comprendre pourquoi elle n'a pas fonctionn.
+	 * Permet d'écouter l'acquittement de la commande que l'on vient d'envoyer.
+	 * Afin de vérifier qu'elle ait bien été executée ou comprendre pourquoi elle n'a pas fonctionné.
 	 * @param numCmd 
-	 * 					Le numro de la commande dont on veut couter le retour.
+	 * 					Le numéro de la commande dont on veut écouter le retour.
 	 * @return Plusieurs retours sont possibles :
 	 * <ul>
-	 * <li>-1 pour pas d'acquitement reu.</li>
+	 * <li>-1 pour pas d'acquitement reçu.</li>
 	 * <li>0 pour commande non valide.</li> 
-	 * <li>1 pour commande non suppote.</li> 
-	 * <li>2 pour ordre reu mais non accompli.</li>
-	 * <li>3 pour ordre reu et accompli.</li>
+	 * <li>1 pour commande non suppotée.</li> 
+	 * <li>2 pour ordre reçu mais non accompli.</li>
+	 * <li>3 pour ordre reçu et accompli.</li>
 	 * </ul>
 	 */
 	private int ecouterACK( int numCmd) {
@@ -470,10 +481,10 @@ public class GPS {
 
 
 	/**
-	 * Permet d'analyser la rponse envoye par le GPS.
-	 * Si elle ne correspond pas au rsultat attendu on stop le programme.
+	 * Permet d'analyser la réponse envoyée par le GPS.
+	 * Si elle ne correspond pas au résultat attendu on stop le programme.
 	 * @param cmd 
-	 * 				La chaine reprsentant le numro de la commande dont on attend un acquittement.
+	 * 				La chaine représentant le numéro de la commande dont on attend un acquittement.
 	 */
 	private void ecouterReponse( String cmd) {
 
@@ -516,9 +527,9 @@ public class GPS {
 
 
 	/**
-	 * Permet de changer le dbit de la liaison srie et de le signaler au GPS pour qu'il s'adapte.
+	 * Permet de changer le débit de la liaison série et de le signaler au GPS pour qu'il s'adapte.
 	 * @param br
-	 * 				Le nouveau dbit de la liaison srie.
+	 * 				Le nouveau débit de la liaison série.
 	 */
 	private void setBaudRate( int br) {
 		// On ne sait pas quel est le nombre de bauds du GPS
@@ -589,9 +600,9 @@ public class GPS {
 	
 	
 	/**
-	 * <b>ThreadTimeoutTestSerie permet de s'assurer que le dbit de liaison srie et du GPS sont 
+	 * <b>ThreadTimeoutTestSerie permet de s'assurer que le débit de liaison série et du GPS sont 
 	 * compatibles.</b>
-	 * <p>Le thread change le dbit de la liaison aprs un certain timeout si on n'a toujours rien reu du GPS.</p>
+	 * <p>Le thread change le débit de la liaison après un certain timeout si on n'a toujours rien reçu du GPS.</p>
 	 * 
 	 * @author Yoan DUMAS
 	 * @version 1.1
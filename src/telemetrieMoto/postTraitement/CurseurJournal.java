@@ -0,0 +1,237 @@
+/*
+ * CurseurJournal.java
+ * Permet de parcourir les trames d'un journal de session sans les charger en memoire
+ */
+
+package telemetrieMoto.postTraitement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+/**
+ * <b>CurseurJournal permet de parcourir les trames d'un {@link LecteurJournal} une par une.</b>
+ * <p>Chaque enregistrement est décodé au moment où on l'atteint, dans une trame réutilisée : une {@link TrameGPGGA}
+ * et une {@link TrameGPRMC} par curseur, quelle que soit la longueur de la session. Le parcours se fait donc en
+ * mémoire constante et le traitement commence dès la première trame.
+ * <br>La trame retournée n'est valable que jusqu'à l'avancée suivante du curseur : pour la conserver, il faut
+ * en recopier les informations.</p>
+ * <p>Le curseur s'utilise directement avec {@link #avancer()} et {@link #getTrame()}, ou comme source d'un
+ * {@link Stream} (voir {@link #flux(String, boolean)}). Il est ordonné et de taille connue : un flux parallèle
+ * découpe le journal en intervalles de trames, chacun ayant ses propres trames réutilisées.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see LecteurJournal
+ * @see PostTraitement
+ */
+public class CurseurJournal implements Spliterator<TrameGPS> {
+
+
+	/** En dessous de ce nombre de trames restantes, le curseur n'est plus découpé. */
+	private static final int TAILLE_MIN_DECOUPAGE_S = 2 * JournalSession.ENREGISTREMENTS_PAR_BLOC_S;
+
+
+	/** Le lecteur du journal parcouru. */
+	private final LecteurJournal lecteur_;
+
+
+	/** L'indice de la prochaine trame à lire. */
+	private int indice_;
+
+
+	/** L'indice suivant la dernière trame à parcourir. */
+	private int fin_;
+
+
+	/** L'indice suivant la dernière trame du bloc en cours de lecture. */
+	private int finBloc_;
+
+
+	/** Le segment du fichier contenant le bloc en cours de lecture. */
+	private ByteBuffer segment_ = null;
+
+
+	/** La position du dernier enregistrement lu dans le segment. */
+	private int position_ = 0;
+
+
+	/** La trame réutilisée pour les enregistrements GPGGA. */
+	private final TrameGPGGA gga_ = new TrameGPGGA( 0, 0, 0, 0, 0, 0);
+
+
+	/** La trame réutilisée pour les enregistrements GPRMC. */
+	private final TrameGPRMC rmc_ = new TrameGPRMC( 0, 0, 0, 'V', 0);
+
+
+	/** La dernière trame lue, <i>null</i> avant la première avancée. */
+	private TrameGPS trame_ = null;
+
+
+
+
+	/**
+	 * Le constructeur d'un curseur parcourant toutes les trames d'un journal.
+	 * @param lecteur
+	 * 				Le lecteur du journal à parcourir.
+	 */
+	public CurseurJournal( LecteurJournal lecteur) {
+		this( lecteur, 0, lecteur.getNbTrames());
+	}
+
+
+
+
+	/**
+	 * Le constructeur d'un curseur parcourant un intervalle de trames d'un journal.
+	 * @param lecteur
+	 * 				Le lecteur du journal à parcourir.
+	 * @param debut
+	 * 				L'indice de la première trame à parcourir.
+	 * @param fin
+	 * 				L'indice suivant la dernière trame à parcourir.
+	 */
+	CurseurJournal( LecteurJournal lecteur, int debut, int fin) {
+		lecteur_ = lecteur;
+		indice_ = debut;
+		fin_ = fin;
+		finBloc_ = debut;
+	}
+
+
+
+
+	/**
+	 * Permet de passer à la trame suivante.
+	 * <p>Dans un bloc, les enregistrements sont lus à la suite ; le bloc suivant n'est recherché qu'en changeant de bloc.</p>
+	 * @return <i>true</i> si une trame a été lue, <i>false</i> si le curseur est à la fin.
+	 */
+	public boolean avancer() {
+		if( indice_ >= fin_) {
+			return false;
+		}
+		if( indice_ == finBloc_) {
+			long localisation = lecteur_.localiser( indice_);
+			segment_ = lecteur_.segment( localisation);
+			position_ = ( int) localisation;
+			finBloc_ = lecteur_.finBloc( indice_);
+		} else {
+			position_ += JournalSession.TAILLE_ENREGISTREMENT_S;
+		}
+		trame_ = JournalSession.lireEnregistrement( segment_, position_, gga_, rmc_);
+		++indice_;
+		return true;
+	}
+
+
+
+
+	/**
+	 * Retourne la dernière trame lue.
+	 * @return La trame lue par le dernier appel à {@link #avancer()}, modifiée par l'appel suivant.
+	 */
+	public TrameGPS getTrame() {
+		return trame_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'indice de la dernière trame lue dans le journal.
+	 * @return L'indice de la trame retournée par {@link #getTrame()}.
+	 */
+	public int getIndice() {
+		return indice_ - 1;
+	}
+
+
+
+
+	@Override
+	public boolean tryAdvance( Consumer<? super TrameGPS> action) {
+		if( !avancer()) {
+			return false;
+		}
+		action.accept( trame_);
+		return true;
+	}
+
+
+
+
+	@Override
+	public void forEachRemaining( Consumer<? super TrameGPS> action) {
+		while( avancer()) {
+			action.accept( trame_);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de découper le curseur en deux pour un parcours parallèle.
+	 * <p>Le curseur retourné parcourt la première moitié des trames restantes, celui-ci la seconde.</p>
+	 * @return Le curseur de la première moitié, ou <i>null</i> s'il reste trop peu de trames.
+	 */
+	@Override
+	public Spliterator<TrameGPS> trySplit() {
+		int reste = fin_ - indice_;
+		if( reste < TAILLE_MIN_DECOUPAGE_S) {
+			return null;
+		}
+		int milieu = indice_ + reste / 2;
+		CurseurJournal premiereMoitie = new CurseurJournal( lecteur_, indice_, milieu);
+		indice_ = milieu;
+		finBloc_ = milieu;
+		return premiereMoitie;
+	}
+
+
+
+
+	@Override
+	public long estimateSize() {
+		return fin_ - indice_;
+	}
+
+
+
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | NONNULL;
+	}
+
+
+
+
+	/**
+	 * Permet de parcourir un journal de session sous forme de flux.
+	 * <p>Le fichier reste projeté en mémoire jusqu'à la fermeture du flux, qu'il faut donc fermer après usage.</p>
+	 * @param nomFic
+	 * 				Le nom du fichier de la session.
+	 * @param parallele
+	 * 				<i>true</i> pour obtenir un flux parallèle.
+	 * @return Le flux des trames du journal, dans l'ordre d'enregistrement.
+	 * @throws IOException si le fichier n'a pas pu être lu ou n'est pas un journal de session.
+	 */
+	public static Stream<TrameGPS> flux( String nomFic, boolean parallele) throws IOException {
+		final LecteurJournal lecteur = new LecteurJournal( nomFic);
+		return StreamSupport.stream( lecteur.curseur(), parallele).onClose( new Runnable() {
+			@Override
+			public void run() {
+				lecteur.close();
+			}
+		});
+	}
+}
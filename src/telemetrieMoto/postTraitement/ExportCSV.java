@@ -0,0 +1,355 @@
+/*
+ * ExportCSV.java
+ * Permet d'ecrire les coordonnees converties dans un ou plusieurs fichiers csv en une seule passe
+ */
+
+package telemetrieMoto.postTraitement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import telemetrieMoto.Proprietes;
+
+
+/**
+ * <b>ExportCSV permet d'écrire des lignes de nombres dans plusieurs fichiers csv à la fois.</b>
+ * <p>Chaque fichier de sortie est ouvert une seule fois et possède un grand tampon : les lignes y sont formatées
+ * directement en octets et le tampon n'est écrit dans le fichier que lorsqu'il est presque plein. Une session
+ * entière ne coûte ainsi que quelques écritures par fichier, au lieu d'une ouverture, une écriture et une
+ * fermeture par ligne.
+ * <br>Les nombres sont écrits en virgule fixe avec le nombre de décimales demandé, sans passer par une
+ * chaîne de caractères.</p>
+ * <p>Comme {@link PostTraitement#ecrireDansFichierTxt(String, String)}, les lignes sont ajoutées à la fin des
+ * fichiers existants.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see PostTraitement
+ */
+public class ExportCSV implements Closeable {
+
+
+	/** Le séparateur des colonnes d'une ligne. */
+	public static final byte SEPARATEUR_S = ';';
+
+
+	/** La place minimale qui doit rester dans un tampon pour commencer une ligne. */
+	private static final int MARGE_S = 512;
+
+
+	/** Le nombre maximal de décimales d'un nombre. */
+	private static final int DECIMALES_MAX_S = 9;
+
+
+	/** Les puissances de 10 utilisées pour formater les décimales. */
+	private static final long[] PUISSANCES_S = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+			100000000L, 1000000000L};
+
+
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
+	private static Proprietes prop_s = Proprietes.getInstance();
+
+
+	/** La taille en octets du tampon de chaque fichier de sortie.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i>
+	 */
+	private static final int TAILLE_TAMPON_S = Integer.valueOf( prop_s.getPropriete( "TailleTamponExport"));
+
+
+	/** Les fichiers de sortie. */
+	private final FileChannel[] canaux_;
+
+
+	/** Le tampon de chaque fichier de sortie. */
+	private final ByteBuffer[] tampons_;
+
+
+	/** Pour chaque sortie, vrai si la ligne en cours ne contient encore aucune colonne. */
+	private final boolean[] debutLigne_;
+
+
+	/** Le nombre de lignes écrites dans chaque sortie. */
+	private final long[] nbLignes_;
+
+
+	/** Le nombre d'écritures effectuées dans les fichiers. */
+	private long nbEcritures_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur d'un export vers plusieurs fichiers csv.
+	 * @param nomFichiers
+	 * 				Les noms des fichiers de sortie, dans l'ordre de leur numéro de sortie.
+	 * @throws IOException si un des fichiers n'a pas pu être ouvert.
+	 */
+	public ExportCSV( String... nomFichiers) throws IOException {
+		this( TAILLE_TAMPON_S, nomFichiers);
+	}
+
+
+
+
+	/**
+	 * Le constructeur d'un export vers plusieurs fichiers csv avec une taille de tampon choisie.
+	 * @param tailleTampon
+	 * 				La taille en octets du tampon de chaque fichier de sortie.
+	 * @param nomFichiers
+	 * 				Les noms des fichiers de sortie, dans l'ordre de leur numéro de sortie.
+	 * @throws IOException si un des fichiers n'a pas pu être ouvert.
+	 */
+	public ExportCSV( int tailleTampon, String... nomFichiers) throws IOException {
+		canaux_ = new FileChannel[ nomFichiers.length];
+		tampons_ = new ByteBuffer[ nomFichiers.length];
+		debutLigne_ = new boolean[ nomFichiers.length];
+		nbLignes_ = new long[ nomFichiers.length];
+		try {
+			for( int i = 0 ; i < nomFichiers.length ; ++i) {
+				canaux_[ i] = FileChannel.open( Paths.get( nomFichiers[ i]), StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+				tampons_[ i] = ByteBuffer.allocateDirect( Math.max( tailleTampon, 2 * MARGE_S));
+				debutLigne_[ i] = true;
+			}
+		} catch( IOException e) {
+			fermerCanaux();
+			throw e;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'ajouter une colonne à la ligne en cours d'une sortie.
+	 * @param sortie
+	 * 				Le numéro de la sortie.
+	 * @param valeur
+	 * 				Le nombre à écrire.
+	 * @param decimales
+	 * 				Le nombre de décimales à écrire, de 0 à 9.
+	 * @return L'export, pour enchaîner les colonnes.
+	 * @throws IOException si le tampon plein n'a pas pu être écrit dans le fichier.
+	 */
+	public ExportCSV colonne( int sortie, double valeur, int decimales) throws IOException {
+		ByteBuffer tampon = tampons_[ sortie];
+		if( debutLigne_[ sortie]) {
+			if( tampon.remaining() < MARGE_S) {
+				vider( sortie);
+			}
+			debutLigne_[ sortie] = false;
+		} else {
+			tampon.put( SEPARATEUR_S);
+		}
+		formater( tampon, valeur, decimales);
+		return this;
+	}
+
+
+
+
+	/**
+	 * Permet de terminer la ligne en cours d'une sortie.
+	 * @param sortie
+	 * 				Le numéro de la sortie.
+	 */
+	public void finLigne( int sortie) {
+		tampons_[ sortie].put( ( byte) '\n');
+		debutLigne_[ sortie] = true;
+		++nbLignes_[ sortie];
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire une ligne de trois colonnes, comme une coordonnée.
+	 * @param sortie
+	 * 				Le numéro de la sortie.
+	 * @param a
+	 * 				La première colonne.
+	 * @param b
+	 * 				La deuxième colonne.
+	 * @param c
+	 * 				La troisième colonne.
+	 * @param decimalesAB
+	 * 				Le nombre de décimales des deux premières colonnes.
+	 * @param decimalesC
+	 * 				Le nombre de décimales de la troisième colonne.
+	 * @throws IOException si le tampon plein n'a pas pu être écrit dans le fichier.
+	 */
+	public void ligne( int sortie, double a, double b, double c, int decimalesAB, int decimalesC) throws IOException {
+		colonne( sortie, a, decimalesAB).colonne( sortie, b, decimalesAB).colonne( sortie, c, decimalesC);
+		finLigne( sortie);
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire le contenu du tampon d'une sortie dans son fichier.
+	 * @param sortie
+	 * 				Le numéro de la sortie.
+	 * @throws IOException si l'écriture a échoué.
+	 */
+	private void vider( int sortie) throws IOException {
+		ByteBuffer tampon = tampons_[ sortie];
+		tampon.flip();
+		while( tampon.hasRemaining()) {
+			canaux_[ sortie].write( tampon);
+		}
+		tampon.clear();
+		++nbEcritures_;
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire dans les fichiers toutes les lignes en attente dans les tampons.
+	 * @throws IOException si une écriture a échoué.
+	 */
+	public void vider() throws IOException {
+		for( int i = 0 ; i < tampons_.length ; ++i) {
+			if( tampons_[ i].position() > 0) {
+				vider( i);
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire les lignes en attente puis de fermer tous les fichiers.
+	 * @throws IOException si une écriture ou une fermeture a échoué.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			vider();
+		} finally {
+			fermerCanaux();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de fermer les fichiers ouverts, même si l'un d'eux ne se ferme pas.
+	 * @throws IOException si une fermeture a échoué.
+	 */
+	private void fermerCanaux() throws IOException {
+		IOException erreur = null;
+		for( FileChannel canal : canaux_) {
+			try {
+				if( canal != null) {
+					canal.close();
+				}
+			} catch( IOException e) {
+				erreur = e;
+			}
+		}
+		if( erreur != null) {
+			throw erreur;
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de lignes écrites dans une sortie.
+	 * @param sortie
+	 * 				Le numéro de la sortie.
+	 * @return Le nombre de lignes terminées dans cette sortie.
+	 */
+	public long getNbLignes( int sortie) {
+		return nbLignes_[ sortie];
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'écritures effectuées dans les fichiers.
+	 * @return Le nombre d'appels au système pour écrire les tampons.
+	 */
+	public long getNbEcritures() {
+		return nbEcritures_;
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire un nombre en virgule fixe dans un tampon, en caractères ASCII.
+	 * <p>Le nombre est arrondi au plus proche avec le nombre de décimales demandé. Les nombres trop grands pour
+	 * être écrits en virgule fixe, ainsi que les valeurs infinies ou indéfinies, sont écrits comme par
+	 * {@link Double#toString(double)}.</p>
+	 * @param tampon
+	 * 				Le tampon dans lequel écrire, à partir de sa position.
+	 * @param valeur
+	 * 				Le nombre à écrire.
+	 * @param decimales
+	 * 				Le nombre de décimales à écrire, de 0 à 9.
+	 * @throws IllegalArgumentException si le nombre de décimales est hors des bornes.
+	 */
+	static void formater( ByteBuffer tampon, double valeur, int decimales) {
+		if( decimales < 0 || decimales > DECIMALES_MAX_S) {
+			throw new IllegalArgumentException( "Nombre de decimales invalide : " + decimales);
+		}
+		long puissance = PUISSANCES_S[ decimales];
+		double absolue = Math.abs( valeur);
+		// Au dela, l'entier arrondi ne tient plus exactement dans un long
+		if( !( absolue * puissance < 1e17)) {
+			tampon.put( Double.toString( valeur).getBytes( StandardCharsets.US_ASCII));
+			return;
+		}
+		long arrondi = Math.round( absolue * puissance);
+		if( valeur < 0 && arrondi != 0) {
+			tampon.put( ( byte) '-');
+		}
+		ecrireEntier( tampon, arrondi / puissance);
+		if( decimales > 0) {
+			tampon.put( ( byte) '.');
+			long fraction = arrondi % puissance;
+			// Ecriture des decimales de droite a gauche, zeros de tete compris
+			int fin = tampon.position() + decimales;
+			for( int i = fin - 1 ; i >= fin - decimales ; --i) {
+				tampon.put( i, ( byte) ( '0' + fraction % 10));
+				fraction /= 10;
+			}
+			tampon.position( fin);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire un entier positif dans un tampon, en caractères ASCII.
+	 * @param tampon
+	 * 				Le tampon dans lequel écrire, à partir de sa position.
+	 * @param entier
+	 * 				L'entier positif ou nul à écrire.
+	 */
+	private static void ecrireEntier( ByteBuffer tampon, long entier) {
+		int nbChiffres = 1;
+		for( long reste = entier / 10 ; reste > 0 ; reste /= 10) {
+			++nbChiffres;
+		}
+		int fin = tampon.position() + nbChiffres;
+		for( int i = fin - 1 ; i >= fin - nbChiffres ; --i) {
+			tampon.put( i, ( byte) ( '0' + entier % 10));
+			entier /= 10;
+		}
+		tampon.position( fin);
+	}
+}
@@ -0,0 +1,579 @@
+/*
+ * JournalSession.java
+ * Permet d'enregistrer les trames GPS d'une session dans un fichier binaire a enregistrements fixes
+ */
+
+package telemetrieMoto.postTraitement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import telemetrieMoto.Proprietes;
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+/**
+ * <b>JournalSession permet d'enregistrer les {@link TrameGPS} d'une session à la fin d'un fichier binaire.</b>
+ * <p>Le fichier commence par une entête de {@link #TAILLE_ENTETE_S} octets : le nombre magique <i>'T' 'M' 'J' 'S'</i>,
+ * la version du format, la taille d'un enregistrement, la taille d'un bloc et le nombre d'enregistrements par bloc.
+ * Il est suivi de blocs de {@link #TAILLE_BLOC_S} octets, le dernier pouvant être incomplet. Chaque bloc contient :
+ * <ul>
+ * 	<li>Une entête de {@link #TAILLE_ENTETE_BLOC_S} octets : le nombre d'enregistrements du bloc, le CRC32 de ces
+ * 	enregistrements, puis l'horodatage du premier et du dernier enregistrement.</li>
+ * 	<li>Au plus {@link #ENREGISTREMENTS_PAR_BLOC_S} enregistrements de {@link #TAILLE_ENREGISTREMENT_S} octets : le type
+ * 	de la trame (1 octet), le nombre de satellites ou l'indicateur de validité (1 octet), le cap d'une trame GPRMC
+ * 	en centièmes de degré (2 octets, nuls pour une trame GPGGA), la latitude et la longitude en millionièmes de
+ * 	degré (2 x 4 octets), l'horodatage (8 octets), l'heure <i>hhmmss.sss</i> (4 octets), puis la dilution
+ * 	horizontale et l'altitude d'une trame GPGGA ou la date <i>ddmmyy</i> et la vitesse en noeuds d'une trame
+ * 	GPRMC (2 x 4 octets).</li>
+ * </ul>
+ * Les trames sont codées dans un bloc en mémoire réutilisé et écrites par un {@link FileChannel}. Elles ne sont
+ * écrites qu'à la validation : une validation regroupe donc toutes les trames ajoutées depuis la précédente et ne
+ * coûte qu'une écriture. Tant que le bloc courant n'est pas plein, il est réécrit en entier à chaque validation avec
+ * son nouveau CRC : un fichier interrompu en cours d'écriture perd au plus le dernier bloc.
+ * <br>Contrairement à un {@link java.io.ObjectOutputStream}, le journal ne retient aucune trame écrite : sa mémoire
+ * ne grandit pas avec la durée de la session.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see PostTraitement
+ * @see telemetrieMoto.acquisition.comm.gps.TrameGPS
+ */
+public class JournalSession {
+
+
+	/** Le nombre magique placé au début du fichier : les caractères 'T', 'M', 'J' et 'S'. */
+	public static final int MAGIQUE_S = 0x544D4A53;
+
+
+	/** La version du format du fichier. */
+	public static final short VERSION_S = 2;
+
+
+	/** La taille de l'entête du fichier en octets. */
+	public static final int TAILLE_ENTETE_S = 32;
+
+
+	/** La taille d'un bloc en octets, entête du bloc comprise. */
+	public static final int TAILLE_BLOC_S = 4096;
+
+
+	/** La taille de l'entête d'un bloc en octets. */
+	public static final int TAILLE_ENTETE_BLOC_S = 32;
+
+
+	/** La taille d'un enregistrement en octets. */
+	public static final int TAILLE_ENREGISTREMENT_S = 32;
+
+
+	/** Le nombre maximal d'enregistrements dans un bloc. */
+	public static final int ENREGISTREMENTS_PAR_BLOC_S = ( TAILLE_BLOC_S - TAILLE_ENTETE_BLOC_S) / TAILLE_ENREGISTREMENT_S;
+
+
+	/** Le type d'un enregistrement contenant une {@link TrameGPGGA}. */
+	public static final byte TYPE_GPGGA_S = 1;
+
+
+	/** Le type d'un enregistrement contenant une {@link TrameGPRMC}. */
+	public static final byte TYPE_GPRMC_S = 2;
+
+
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
+	private static Proprietes prop_s = Proprietes.getInstance();
+
+
+	/** Le nombre de trames ajoutées à partir duquel elles sont écrites par {@link #validerSiSeuilAtteint()}.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final int SEUIL_VALIDATION_S = Integer.valueOf( prop_s.getPropriete( "JournalSeuilValidation"));
+
+
+	/** Le temps en millisecondes depuis le premier ajout au delà duquel les trames sont écrites par {@link #validerSiSeuilAtteint()}.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final long DELAI_VALIDATION_MS_S = Long.valueOf( prop_s.getPropriete( "JournalDelaiValidationMs"));
+
+
+	/** Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i>
+	 */
+	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugPT"));
+
+
+	/** Le canal d'écriture du fichier. */
+	private final FileChannel canal_;
+
+
+	/** Le bloc courant, réutilisé d'un bloc à l'autre. */
+	private final ByteBuffer bloc_ = ByteBuffer.allocateDirect( TAILLE_BLOC_S);
+
+
+	/** Le calcul du CRC des blocs. */
+	private final CRC32 crc_ = new CRC32();
+
+
+	/** La position du bloc courant dans le fichier. */
+	private long positionBloc_ = TAILLE_ENTETE_S;
+
+
+	/** Le nombre d'enregistrements du bloc courant. */
+	private int nbDansBloc_ = 0;
+
+
+	/** Le nombre de trames ajoutées et pas encore écrites. */
+	private int nbEnAttente_ = 0;
+
+
+	/** L'instant, en nanosecondes, du premier ajout pas encore écrit. */
+	private long premierAjout_ = 0;
+
+
+	/** Le nombre de trames à partir duquel les trames ajoutées sont écrites. */
+	private final int seuilValidation_;
+
+
+	/** Le temps en nanosecondes depuis le premier ajout au delà duquel les trames ajoutées sont écrites. */
+	private final long delaiValidation_;
+
+
+	/** Le nombre de trames enregistrées. */
+	private long nbTrames_ = 0;
+
+
+	/** Le nombre d'écritures dans le fichier. */
+	private long nbEcritures_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur de JournalSession, avec les seuils de validation du fichier de configuration.
+	 * <p>Le fichier est créé, ou vidé s'il existait.</p>
+	 * @param nomFic
+	 * 				Le nom du fichier de la session.
+	 * @throws IOException si le fichier n'a pas pu être créé.
+	 */
+	public JournalSession( String nomFic) throws IOException {
+		this( nomFic, SEUIL_VALIDATION_S, DELAI_VALIDATION_MS_S);
+	}
+
+
+
+
+	/**
+	 * Le constructeur de JournalSession.
+	 * <p>Le fichier est créé, ou vidé s'il existait.</p>
+	 * @param nomFic
+	 * 				Le nom du fichier de la session.
+	 * @param seuilValidation
+	 * 				Le nombre de trames ajoutées à partir duquel elles sont écrites par {@link #validerSiSeuilAtteint()}.
+	 * @param delaiValidationMs
+	 * 				Le temps en millisecondes depuis le premier ajout au delà duquel elles sont écrites.
+	 * @throws IOException si le fichier n'a pas pu être créé.
+	 */
+	public JournalSession( String nomFic, int seuilValidation, long delaiValidationMs) throws IOException {
+		seuilValidation_ = seuilValidation;
+		delaiValidation_ = TimeUnit.MILLISECONDS.toNanos( delaiValidationMs);
+		canal_ = FileChannel.open( Paths.get( nomFic), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		ByteBuffer entete = ByteBuffer.allocate( TAILLE_ENTETE_S);
+		entete.putInt( MAGIQUE_S);
+		entete.putShort( VERSION_S);
+		entete.putShort( ( short) TAILLE_ENREGISTREMENT_S);
+		entete.putInt( TAILLE_BLOC_S);
+		entete.putInt( ENREGISTREMENTS_PAR_BLOC_S);
+		entete.clear();
+		ecrire( entete, 0);
+	}
+
+
+
+
+	/**
+	 * Permet d'ajouter une trame au journal sans l'écrire dans le fichier.
+	 * <p>Si le bloc courant est plein, il est écrit avant de commencer le suivant.</p>
+	 * @param trame
+	 * 				La trame à enregistrer.
+	 * @throws IOException si l'écriture d'un bloc plein a échoué.
+	 * @throws IllegalArgumentException si le type de la trame n'est pas géré.
+	 */
+	public void ajouter( TrameGPS trame) throws IOException {
+		ecrireEnregistrement( bloc_, TAILLE_ENTETE_BLOC_S + nbDansBloc_ * TAILLE_ENREGISTREMENT_S, trame);
+		if( nbDansBloc_ == 0) {
+			bloc_.putLong( 8, trame.getHorodatage());
+		}
+		bloc_.putLong( 16, trame.getHorodatage());
+		++nbDansBloc_;
+		++nbTrames_;
+		if( nbEnAttente_++ == 0) {
+			premierAjout_ = System.nanoTime();
+		}
+		if( nbDansBloc_ == ENREGISTREMENTS_PAR_BLOC_S) {
+			valider();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire dans le fichier les trames ajoutées si elles sont assez nombreuses ou si la plus ancienne
+	 * attend depuis assez longtemps.
+	 * @return <i>true</i> si les trames ont été écrites.
+	 * @throws IOException si l'écriture a échoué.
+	 */
+	public boolean validerSiSeuilAtteint() throws IOException {
+		if( nbEnAttente_ == 0 || ( nbEnAttente_ < seuilValidation_ && System.nanoTime() - premierAjout_ < delaiValidation_)) {
+			return false;
+		}
+		valider();
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire dans le fichier toutes les trames ajoutées depuis la dernière validation.
+	 * <p>Le bloc courant est écrit avec son nombre d'enregistrements et son CRC. S'il est plein, le bloc suivant
+	 * est commencé, sinon il sera réécrit à la prochaine validation.</p>
+	 * @throws IOException si l'écriture a échoué.
+	 */
+	public void valider() throws IOException {
+		if( nbEnAttente_ == 0) {
+			return;
+		}
+		int fin = TAILLE_ENTETE_BLOC_S + nbDansBloc_ * TAILLE_ENREGISTREMENT_S;
+		bloc_.putInt( 0, nbDansBloc_);
+		bloc_.putInt( 4, crc( bloc_, nbDansBloc_, crc_));
+		bloc_.limit( fin).position( 0);
+		ecrire( bloc_, positionBloc_);
+		bloc_.clear();
+		++nbEcritures_;
+		nbEnAttente_ = 0;
+
+		if( nbDansBloc_ == ENREGISTREMENTS_PAR_BLOC_S) {
+			positionBloc_ += TAILLE_BLOC_S;
+			nbDansBloc_ = 0;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire tout un tampon à une position du fichier.
+	 * @param tampon
+	 * 				Le tampon à écrire, de sa position à sa limite.
+	 * @param position
+	 * 				La position dans le fichier.
+	 * @throws IOException si l'écriture a échoué.
+	 */
+	private void ecrire( ByteBuffer tampon, long position) throws IOException {
+		while( tampon.hasRemaining()) {
+			position += canal_.write( tampon, position);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire les dernières trames, de forcer leur écriture sur le disque et de fermer le fichier.
+	 * @throws IOException si l'écriture ou la fermeture a échoué.
+	 */
+	public void fermer() throws IOException {
+		try {
+			valider();
+			canal_.force( false);
+		} finally {
+			canal_.close();
+		}
+		if( DEBUG_S) {
+			System.out.println( nbTrames_ + " trame(s) enregistree(s) en " + nbEcritures_ + " ecriture(s).");
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trames enregistrées.
+	 * @return Le nombre de trames ajoutées au journal.
+	 */
+	public long getNbTrames() {
+		return nbTrames_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'écritures dans le fichier.
+	 * @return Le nombre de validations ayant écrit des trames.
+	 */
+	public long getNbEcritures() {
+		return nbEcritures_;
+	}
+
+
+
+
+	/**
+	 * Permet de calculer le CRC32 des enregistrements d'un bloc.
+	 * @param bloc
+	 * 				Le tampon contenant le bloc à partir de l'indice 0.
+	 * @param nbEnregistrements
+	 * 				Le nombre d'enregistrements du bloc.
+	 * @param crc
+	 * 				Le calcul de CRC à utiliser.
+	 * @return Le CRC32 des enregistrements.
+	 */
+	static int crc( ByteBuffer bloc, int nbEnregistrements, CRC32 crc) {
+		ByteBuffer enregistrements = bloc.duplicate();
+		enregistrements.limit( TAILLE_ENTETE_BLOC_S + nbEnregistrements * TAILLE_ENREGISTREMENT_S).position( TAILLE_ENTETE_BLOC_S);
+		crc.reset();
+		crc.update( enregistrements);
+		return ( int) crc.getValue();
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier un bloc lu dans un fichier.
+	 * @param bloc
+	 * 				Le tampon contenant le bloc à partir de l'indice 0, jusqu'à sa limite.
+	 * @param crc
+	 * 				Le calcul de CRC à utiliser.
+	 * @return Le nombre d'enregistrements du bloc, ou -1 s'il est incomplet ou corrompu.
+	 */
+	static int verifierBloc( ByteBuffer bloc, CRC32 crc) {
+		if( bloc.limit() < TAILLE_ENTETE_BLOC_S) {
+			return -1;
+		}
+		int nb = bloc.getInt( 0);
+		if( nb <= 0 || nb > ENREGISTREMENTS_PAR_BLOC_S || bloc.limit() < TAILLE_ENTETE_BLOC_S + nb * TAILLE_ENREGISTREMENT_S) {
+			return -1;
+		}
+		return crc( bloc, nb, crc) == bloc.getInt( 4) ? nb : -1;
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier l'entête d'un fichier de session.
+	 * @param entete
+	 * 				Le tampon contenant l'entête du fichier à partir de l'indice 0.
+	 * @throws IOException si le fichier n'est pas un journal de session dans un format géré.
+	 */
+	static void verifierEntete( ByteBuffer entete) throws IOException {
+		if( entete.limit() < TAILLE_ENTETE_S || entete.getInt( 0) != MAGIQUE_S) {
+			throw new IOException( "Le fichier n'est pas un journal de session");
+		}
+		if( entete.getShort( 4) != VERSION_S || entete.getShort( 6) != TAILLE_ENREGISTREMENT_S || entete.getInt( 8) != TAILLE_BLOC_S) {
+			throw new IOException( "Version du journal de session non geree : " + entete.getShort( 4));
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de coder une trame dans un enregistrement.
+	 * @param tampon
+	 * 				Le tampon dans lequel écrire l'enregistrement. Sa position n'est pas modifiée.
+	 * @param position
+	 * 				La position de l'enregistrement dans le tampon.
+	 * @param trame
+	 * 				La trame à coder.
+	 * @throws IllegalArgumentException si le type de la trame n'est pas géré.
+	 */
+	static void ecrireEnregistrement( ByteBuffer tampon, int position, TrameGPS trame) {
+		tampon.putInt( position + 4, trame.getLatitudeMicroDegres());
+		tampon.putInt( position + 8, trame.getLongitudeMicroDegres());
+		tampon.putLong( position + 12, trame.getHorodatage());
+		tampon.putFloat( position + 20, trame.getHeure());
+		if( trame instanceof TrameGPGGA) {
+			TrameGPGGA gga = ( TrameGPGGA) trame;
+			tampon.put( position, TYPE_GPGGA_S);
+			tampon.put( position + 1, ( byte) gga.getNbSat());
+			tampon.putShort( position + 2, ( short) 0);
+			tampon.putFloat( position + 24, gga.getHDOP());
+			tampon.putFloat( position + 28, gga.getAltitude());
+		} else if( trame instanceof TrameGPRMC) {
+			TrameGPRMC rmc = ( TrameGPRMC) trame;
+			tampon.put( position, TYPE_GPRMC_S);
+			tampon.put( position + 1, ( byte) rmc.getDonneesValides());
+			tampon.putShort( position + 2, ( short) rmc.getCapCentiemes());
+			tampon.putInt( position + 24, rmc.getDate());
+			tampon.putFloat( position + 28, rmc.getVitesse());
+		} else {
+			throw new IllegalArgumentException( "Type de trame non gere : " + trame.getClass());
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de décoder la trame d'un enregistrement.
+	 * @param tampon
+	 * 				Le tampon contenant l'enregistrement. Sa position n'est pas modifiée.
+	 * @param position
+	 * 				La position de l'enregistrement dans le tampon.
+	 * @return La trame décodée.
+	 * @throws IllegalArgumentException si le type de l'enregistrement est inconnu.
+	 */
+	static TrameGPS lireEnregistrement( ByteBuffer tampon, int position) {
+		int latitude = tampon.getInt( position + 4);
+		int longitude = tampon.getInt( position + 8);
+		float heure = tampon.getFloat( position + 20);
+		TrameGPS trame;
+		switch( tampon.get( position)) {
+		case TYPE_GPGGA_S:
+			trame = new TrameGPGGA( latitude, longitude, heure, tampon.get( position + 1) & 0xFF,
+					tampon.getFloat( position + 24), tampon.getFloat( position + 28));
+			break;
+		case TYPE_GPRMC_S:
+			trame = new TrameGPRMC( latitude, longitude, heure, ( char) ( tampon.get( position + 1) & 0xFF),
+					tampon.getInt( position + 24), tampon.getFloat( position + 28), tampon.getShort( position + 2) & 0xFFFF);
+			break;
+		default:
+			throw new IllegalArgumentException( "Type d'enregistrement inconnu : " + tampon.get( position));
+		}
+		trame.setHorodatage( tampon.getLong( position + 12));
+		return trame;
+	}
+
+
+
+
+	/**
+	 * Permet de décoder la trame d'un enregistrement dans une trame existante, sans allocation.
+	 * <p>Toutes les informations de la trame réutilisée sont remplacées par celles de l'enregistrement.</p>
+	 * @param tampon
+	 * 				Le tampon contenant l'enregistrement. Sa position n'est pas modifiée.
+	 * @param position
+	 * 				La position de l'enregistrement dans le tampon.
+	 * @param gga
+	 * 				La trame remplie si l'enregistrement est une trame GPGGA.
+	 * @param rmc
+	 * 				La trame remplie si l'enregistrement est une trame GPRMC.
+	 * @return La trame remplie, <i>gga</i> ou <i>rmc</i>.
+	 * @throws IllegalArgumentException si le type de l'enregistrement est inconnu.
+	 */
+	static TrameGPS lireEnregistrement( ByteBuffer tampon, int position, TrameGPGGA gga, TrameGPRMC rmc) {
+		TrameGPS trame;
+		switch( tampon.get( position)) {
+		case TYPE_GPGGA_S:
+			gga.setNbSat( tampon.get( position + 1) & 0xFF);
+			gga.setHDOP( tampon.getFloat( position + 24));
+			gga.setAltitude( tampon.getFloat( position + 28));
+			trame = gga;
+			break;
+		case TYPE_GPRMC_S:
+			rmc.setDonneesValides( ( char) ( tampon.get( position + 1) & 0xFF));
+			rmc.setDate( tampon.getInt( position + 24));
+			rmc.setVitesse( tampon.getFloat( position + 28));
+			rmc.setCapCentiemes( tampon.getShort( position + 2) & 0xFFFF);
+			trame = rmc;
+			break;
+		default:
+			throw new IllegalArgumentException( "Type d'enregistrement inconnu : " + tampon.get( position));
+		}
+		trame.setLatitudeMicroDegres( tampon.getInt( position + 4));
+		trame.setLongitudeMicroDegres( tampon.getInt( position + 8));
+		trame.setHeure( tampon.getFloat( position + 20));
+		trame.setHorodatage( tampon.getLong( position + 12));
+		return trame;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si un fichier est un journal de session.
+	 * @param nomFic
+	 * 				Le nom du fichier.
+	 * @return <i>true</i> si le fichier commence par le nombre magique du journal.
+	 * @throws IOException si le fichier n'a pas pu être lu.
+	 */
+	public static boolean estJournal( String nomFic) throws IOException {
+		try( FileChannel canal = FileChannel.open( Paths.get( nomFic), StandardOpenOption.READ)) {
+			ByteBuffer magique = ByteBuffer.allocate( 4);
+			while( magique.hasRemaining() && canal.read( magique) >= 0) {
+				// On lit les quatre premiers octets
+			}
+			return !magique.hasRemaining() && magique.getInt( 0) == MAGIQUE_S;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de lire toutes les trames d'un journal de session.
+	 * <p>Les blocs corrompus, par exemple le dernier bloc d'un fichier interrompu en cours d'écriture, sont ignorés.</p>
+	 * @param nomFic
+	 * 				Le nom du fichier de la session.
+	 * @return La liste des trames lues, dans l'ordre d'enregistrement.
+	 * @throws IOException si le fichier n'a pas pu être lu ou n'est pas un journal de session.
+	 */
+	public static ArrayList<TrameGPS> lire( String nomFic) throws IOException {
+		ArrayList<TrameGPS> trames = new ArrayList<TrameGPS>();
+		try( FileChannel canal = FileChannel.open( Paths.get( nomFic), StandardOpenOption.READ)) {
+			ByteBuffer tampon = ByteBuffer.allocateDirect( TAILLE_BLOC_S);
+			CRC32 crc = new CRC32();
+			tampon.limit( TAILLE_ENTETE_S);
+			lire( canal, tampon, 0);
+			verifierEntete( tampon);
+
+			for( long position = TAILLE_ENTETE_S ; position < canal.size() ; position += TAILLE_BLOC_S) {
+				tampon.clear();
+				lire( canal, tampon, position);
+				int nb = verifierBloc( tampon, crc);
+				if( nb < 0) {
+					if( DEBUG_S) {
+						System.err.println( "Bloc corrompu ignore a la position " + position + " de " + nomFic);
+					}
+					continue;
+				}
+				for( int i = 0 ; i < nb ; ++i) {
+					trames.add( lireEnregistrement( tampon, TAILLE_ENTETE_BLOC_S + i * TAILLE_ENREGISTREMENT_S));
+				}
+			}
+		}
+		return trames;
+	}
+
+
+
+
+	/**
+	 * Permet de remplir un tampon à partir d'une position du fichier, jusqu'à sa limite ou la fin du fichier.
+	 * <p>Au retour, la limite du tampon est placée après le dernier octet lu et sa position à 0.</p>
+	 * @param canal
+	 * 				Le canal de lecture du fichier.
+	 * @param tampon
+	 * 				Le tampon à remplir.
+	 * @param position
+	 * 				La position dans le fichier.
+	 * @throws IOException si la lecture a échoué.
+	 */
+	private static void lire( FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+		int lus;
+		while( tampon.hasRemaining() && ( lus = canal.read( tampon, position)) >= 0) {
+			position += lus;
+		}
+		tampon.flip();
+	}
+}
@@ -0,0 +1,376 @@
+/*
+ * LecteurJournal.java
+ * Permet d'acceder directement aux trames d'un journal de session projete en memoire
+ */
+
+package telemetrieMoto.postTraitement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import telemetrieMoto.Proprietes;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+/**
+ * <b>LecteurJournal permet d'accéder directement à n'importe quelle trame d'un {@link JournalSession}.</b>
+ * <p>Le fichier est projeté en mémoire, aucune trame n'est décodée à l'ouverture : on vérifie seulement le CRC
+ * de chaque bloc et on lit son entête pour construire deux tables :
+ * <ul>
+ * 	<li>L'indice de la première trame de chaque bloc, qui permet de retrouver le bloc d'une trame par son indice.</li>
+ * 	<li>L'horodatage de la première trame de chaque bloc, enregistré par le {@link JournalSession} à l'écriture :
+ * 	c'est un index temporel creux, une entrée par bloc, qui permet de trouver une trame par recherche dichotomique
+ * 	sur les blocs puis dans le bloc.</li>
+ * </ul>
+ * Les blocs dont le CRC est faux sont écartés à l'ouverture, comme par {@link JournalSession#lire(String)}.
+ * <br>Les lectures ne modifient pas l'état du lecteur : il peut être partagé entre plusieurs threads.
+ * <br>Le canal du fichier est fermé dès la fin du constructeur, mais Java ne permet pas de défaire une projection :
+ * le fichier reste projeté jusqu'à ce que le ramasse-miettes récupère les segments, même après {@link #close()}.
+ * Sous Windows, il ne peut d'ici là être ni supprimé ni réécrit.
+ * <br>La recherche par horodatage suppose que les trames ont été enregistrées dans l'ordre chronologique,
+ * ce qui est le cas d'une session reçue d'une seule moto.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see JournalSession
+ * @see PostTraitement
+ */
+public class LecteurJournal implements Closeable {
+
+
+	/** Le nombre de blocs projetés par segment : un segment ne doit pas dépasser 2 Go. */
+	private static final int BLOCS_PAR_SEGMENT_S = 1 << 16;
+
+
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
+	private static Proprietes prop_s = Proprietes.getInstance();
+
+
+	/** Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i>
+	 */
+	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugPT"));
+
+
+	/** Les segments du fichier projetés en mémoire. */
+	private MappedByteBuffer[] segments_;
+
+
+	/** Le numéro dans le fichier de chaque bloc valide. */
+	private final int[] blocs_;
+
+
+	/** L'indice de la première trame de chaque bloc valide ; la dernière case contient le nombre de trames. */
+	private final int[] debuts_;
+
+
+	/** L'horodatage de la première trame de chaque bloc valide. */
+	private final long[] horodatagesDebut_;
+
+
+	/** Le nombre de blocs valides. */
+	private final int nbBlocs_;
+
+
+	/** Le nombre de blocs écartés car corrompus. */
+	private final int nbBlocsCorrompus_;
+
+
+
+
+	/**
+	 * Le constructeur de LecteurJournal.
+	 * @param nomFic
+	 * 				Le nom du fichier de la session.
+	 * @throws IOException si le fichier n'a pas pu être lu ou n'est pas un journal de session.
+	 */
+	public LecteurJournal( String nomFic) throws IOException {
+		try( FileChannel canal = FileChannel.open( Paths.get( nomFic), StandardOpenOption.READ)) {
+			long taille = canal.size();
+			MappedByteBuffer entete = canal.map( FileChannel.MapMode.READ_ONLY, 0, Math.min( taille, JournalSession.TAILLE_ENTETE_S));
+			JournalSession.verifierEntete( entete);
+
+			// Projection du fichier par segments de blocs
+			long tailleBlocs = taille - JournalSession.TAILLE_ENTETE_S;
+			int nbBlocsFichier = ( int) ( ( tailleBlocs + JournalSession.TAILLE_BLOC_S - 1) / JournalSession.TAILLE_BLOC_S);
+			int nbSegments = ( nbBlocsFichier + BLOCS_PAR_SEGMENT_S - 1) / BLOCS_PAR_SEGMENT_S;
+			segments_ = new MappedByteBuffer[ nbSegments];
+			for( int s = 0 ; s < nbSegments ; ++s) {
+				long debut = ( long) s * BLOCS_PAR_SEGMENT_S * JournalSession.TAILLE_BLOC_S;
+				long longueur = Math.min( ( long) BLOCS_PAR_SEGMENT_S * JournalSession.TAILLE_BLOC_S, tailleBlocs - debut);
+				segments_[ s] = canal.map( FileChannel.MapMode.READ_ONLY, JournalSession.TAILLE_ENTETE_S + debut, longueur);
+			}
+
+			// Construction des tables a partir des entetes des blocs
+			int[] blocs = new int[ nbBlocsFichier];
+			int[] debuts = new int[ nbBlocsFichier + 1];
+			long[] horodatages = new long[ nbBlocsFichier];
+			CRC32 crc = new CRC32();
+			int nbBlocs = 0;
+			int nbTrames = 0;
+			for( int b = 0 ; b < nbBlocsFichier ; ++b) {
+				int nb = JournalSession.verifierBloc( bloc( b), crc);
+				if( nb < 0) {
+					if( DEBUG_S) {
+						System.err.println( "Bloc corrompu " + b + " ignore dans " + nomFic);
+					}
+					continue;
+				}
+				blocs[ nbBlocs] = b;
+				debuts[ nbBlocs] = nbTrames;
+				horodatages[ nbBlocs] = bloc( b).getLong( 8);
+				nbTrames += nb;
+				++nbBlocs;
+			}
+			debuts[ nbBlocs] = nbTrames;
+			blocs_ = blocs;
+			debuts_ = debuts;
+			horodatagesDebut_ = horodatages;
+			nbBlocs_ = nbBlocs;
+			nbBlocsCorrompus_ = nbBlocsFichier - nbBlocs;
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne une vue d'un bloc du fichier.
+	 * @param numero
+	 * 				Le numéro du bloc dans le fichier.
+	 * @return Le tampon contenant le bloc à partir de l'indice 0, limité à la partie présente dans le fichier.
+	 */
+	private ByteBuffer bloc( int numero) {
+		ByteBuffer segment = segments_[ numero / BLOCS_PAR_SEGMENT_S];
+		int debut = ( numero % BLOCS_PAR_SEGMENT_S) * JournalSession.TAILLE_BLOC_S;
+		ByteBuffer vue = segment.duplicate();
+		vue.limit( Math.min( segment.capacity(), debut + JournalSession.TAILLE_BLOC_S)).position( debut);
+		return vue.slice();
+	}
+
+
+
+
+	/**
+	 * Retourne le rang parmi les blocs valides du bloc contenant une trame.
+	 * @param indice
+	 * 				L'indice de la trame.
+	 * @return Le rang du bloc dans {@link #blocs_}.
+	 * @throws IndexOutOfBoundsException si l'indice est hors du journal.
+	 */
+	private int rangBloc( int indice) {
+		if( indice < 0 || indice >= getNbTrames()) {
+			throw new IndexOutOfBoundsException( "Trame " + indice + " hors du journal de " + getNbTrames() + " trames");
+		}
+		// Dernier bloc dont la premiere trame est avant l'indice
+		int bas = 0;
+		int haut = nbBlocs_ - 1;
+		while( bas < haut) {
+			int milieu = ( bas + haut + 1) >>> 1;
+			if( debuts_[ milieu] <= indice) {
+				bas = milieu;
+			} else {
+				haut = milieu - 1;
+			}
+		}
+		return bas;
+	}
+
+
+
+
+	/**
+	 * Permet de localiser l'enregistrement d'une trame.
+	 * @param indice
+	 * 				L'indice de la trame.
+	 * @return Le numéro du segment contenant la trame dans les 32 bits de poids fort, et la position de
+	 * l'enregistrement dans ce segment dans les 32 bits de poids faible.
+	 */
+	long localiser( int indice) {
+		int rang = rangBloc( indice);
+		int numero = blocs_[ rang];
+		int position = ( numero % BLOCS_PAR_SEGMENT_S) * JournalSession.TAILLE_BLOC_S + JournalSession.TAILLE_ENTETE_BLOC_S
+				+ ( indice - debuts_[ rang]) * JournalSession.TAILLE_ENREGISTREMENT_S;
+		return ( ( long) ( numero / BLOCS_PAR_SEGMENT_S) << 32) | position;
+	}
+
+
+
+
+	/**
+	 * Retourne le segment contenant un enregistrement localisé par {@link #localiser(int)}.
+	 * @param localisation
+	 * 				La localisation de l'enregistrement.
+	 * @return Le segment projeté en mémoire, à lire par positions absolues.
+	 */
+	ByteBuffer segment( long localisation) {
+		return segments_[ ( int) ( localisation >>> 32)];
+	}
+
+
+
+
+	/**
+	 * Retourne l'indice suivant la dernière trame du bloc contenant une trame.
+	 * @param indice
+	 * 				L'indice de la trame.
+	 * @return L'indice de la première trame du bloc valide suivant, ou {@link #getNbTrames()}.
+	 * @throws IndexOutOfBoundsException si l'indice est hors du journal.
+	 */
+	int finBloc( int indice) {
+		return debuts_[ rangBloc( indice) + 1];
+	}
+
+
+
+
+	/**
+	 * Retourne un curseur parcourant toutes les trames du journal dans l'ordre.
+	 * @return Un nouveau {@link CurseurJournal}, qui peut aussi servir de source à un {@link java.util.stream.Stream}.
+	 */
+	public CurseurJournal curseur() {
+		return new CurseurJournal( this);
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de trames du journal.
+	 * @return Le nombre de trames des blocs valides.
+	 */
+	public int getNbTrames() {
+		return debuts_[ nbBlocs_];
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de blocs écartés car corrompus.
+	 * @return Le nombre de blocs corrompus.
+	 */
+	public int getNbBlocsCorrompus() {
+		return nbBlocsCorrompus_;
+	}
+
+
+
+
+	/**
+	 * Permet de décoder une trame.
+	 * @param indice
+	 * 				L'indice de la trame, de 0 à {@link #getNbTrames()} exclu.
+	 * @return La trame décodée.
+	 * @throws IndexOutOfBoundsException si l'indice est hors du journal.
+	 */
+	public TrameGPS getTrame( int indice) {
+		long localisation = localiser( indice);
+		return JournalSession.lireEnregistrement( segments_[ ( int) ( localisation >>> 32)], ( int) localisation);
+	}
+
+
+
+
+	/**
+	 * Retourne l'horodatage d'une trame sans la décoder.
+	 * @param indice
+	 * 				L'indice de la trame, de 0 à {@link #getNbTrames()} exclu.
+	 * @return L'horodatage de la trame, voir {@link TrameGPS#getHorodatage()}.
+	 * @throws IndexOutOfBoundsException si l'indice est hors du journal.
+	 */
+	public long getHorodatage( int indice) {
+		long localisation = localiser( indice);
+		return segments_[ ( int) ( localisation >>> 32)].getLong( ( int) localisation + 12);
+	}
+
+
+
+
+	/**
+	 * Retourne la latitude d'une trame sans la décoder.
+	 * @param indice
+	 * 				L'indice de la trame, de 0 à {@link #getNbTrames()} exclu.
+	 * @return La latitude en millionièmes de degré.
+	 * @throws IndexOutOfBoundsException si l'indice est hors du journal.
+	 */
+	public int getLatitudeMicroDegres( int indice) {
+		long localisation = localiser( indice);
+		return segments_[ ( int) ( localisation >>> 32)].getInt( ( int) localisation + 4);
+	}
+
+
+
+
+	/**
+	 * Retourne la longitude d'une trame sans la décoder.
+	 * @param indice
+	 * 				L'indice de la trame, de 0 à {@link #getNbTrames()} exclu.
+	 * @return La longitude en millionièmes de degré.
+	 * @throws IndexOutOfBoundsException si l'indice est hors du journal.
+	 */
+	public int getLongitudeMicroDegres( int indice) {
+		long localisation = localiser( indice);
+		return segments_[ ( int) ( localisation >>> 32)].getInt( ( int) localisation + 8);
+	}
+
+
+
+
+	/**
+	 * Permet de trouver la première trame enregistrée à partir d'un instant.
+	 * <p>La recherche se fait d'abord sur l'horodatage de la première trame de chaque bloc, puis dans le bloc
+	 * trouvé : seules les pages d'un ou deux blocs sont lues.</p>
+	 * @param horodatage
+	 * 				L'instant recherché, dans la même unité que {@link TrameGPS#getHorodatage()}.
+	 * @return L'indice de la première trame dont l'horodatage est supérieur ou égal à l'instant, ou
+	 * {@link #getNbTrames()} si toutes les trames sont antérieures.
+	 */
+	public int chercher( long horodatage) {
+		if( nbBlocs_ == 0) {
+			return 0;
+		}
+		// Dernier bloc commencant avant l'instant
+		int bas = 0;
+		int haut = nbBlocs_ - 1;
+		while( bas < haut) {
+			int milieu = ( bas + haut + 1) >>> 1;
+			if( horodatagesDebut_[ milieu] < horodatage) {
+				bas = milieu;
+			} else {
+				haut = milieu - 1;
+			}
+		}
+		// Premiere trame du bloc, ou du suivant, atteignant l'instant
+		int debut = debuts_[ bas];
+		int fin = debuts_[ bas + 1];
+		while( debut < fin) {
+			int milieu = ( debut + fin) >>> 1;
+			if( getHorodatage( milieu) < horodatage) {
+				debut = milieu + 1;
+			} else {
+				fin = milieu;
+			}
+		}
+		return debut;
+	}
+
+
+
+
+	/**
+	 * Permet d'abandonner les projections du fichier : le lecteur ne doit plus être utilisé ensuite.
+	 * <p>Les segments ne sont plus référencés par le lecteur, mais la mémoire projetée n'est rendue au système, et le
+	 * fichier libéré, que lorsque le ramasse-miettes les récupère.</p>
+	 */
+	@Override
+	public void close() {
+		segments_ = new MappedByteBuffer[ 0];
+	}
+}
@@ -6,78 +6,192 @@
 package telemetrieMoto.postTraitement;
 
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 import telemetrieMoto.Proprietes;
 import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.cinematique.Cinematique;
+import telemetrieMoto.postTraitement.cinematique.FiltreKalman;
+import telemetrieMoto.postTraitement.coordonnees.CacheConversions;
+import telemetrieMoto.postTraitement.coordonnees.ConvertisseurLambert2;
 import telemetrieMoto.postTraitement.coordonnees.CoordonneesGPSDegresDecimaux;
-import telemetrieMoto.postTraitement.coordonnees.CoordonneesGPSLambert2;
+import telemetrieMoto.postTraitement.coordonnees.ProjectionLocaleLambert2;
+import telemetrieMoto.postTraitement.tours.ComparaisonTours;
+import telemetrieMoto.postTraitement.tours.DetecteurTours;
+import telemetrieMoto.postTraitement.tours.LigneChronometrage;
+import telemetrieMoto.postTraitement.tours.Tour;
 
 
 /**
- * <b>PostTraitement permet d'extraire les coordonnes GPS d'un fichier srialis et de les traiter.</b>
- * <p>Les posts traitements consistent  dsrialiser les {@link TrameGPS} du fichier, ceci fait
- * les coordonnes GPS sont converties en degrs dcimaux et en coordonnes cartsienne et stockes dans 
- * deux fichiers csv distincts.</p>
+ * <b>PostTraitement permet d'extraire les coordonnées GPS d'un fichier de session et de les traiter.</b>
+ * <p>Les trames reçues sont enregistrées dans un {@link JournalSession}. Les posts traitements consistent à parcourir
+ * les {@link TrameGPS} du fichier avec un {@link CurseurJournal}, ceci fait
+ * les coordonnées GPS sont converties en degrés décimaux et en coordonnées cartésienne et stockées dans 
+ * deux fichiers csv distincts, écrits en une seule passe par un {@link ExportCSV}.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
+ * @see JournalSession
  * @see telemetrieMoto.acquisition.comm.gps.TrameGPS
  * @see telemetrieMoto.postTraitement.coordonnees.CoordonneesGPSDegresDecimaux
- * @see telemetrieMoto.postTraitement.coordonnees.CoordonneesGPSLambert2
+ * @see telemetrieMoto.postTraitement.coordonnees.ConvertisseurLambert2
  */
 public class PostTraitement {
 
 
-	/** L'instance reprsentant le fichier de configuration du projet  interroger. */
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
 	private static Proprietes prop_s = Proprietes.getInstance();
 
 	
 	/** 
 	 * Permet d'effectuer les affichages si vrai <i>(true)</i>, sinon on n'affiche rien <i>(false)</i>.
-	 * <br><i>Sa valeur est stocke dans le fichier de configuration du projet.</i> 
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
 	 */
 	private static final boolean DEBUG_S = Boolean.valueOf( prop_s.getPropriete( "DebugPT"));
 
 	
-	/** Le descripteur du fichier sur lequel on doit crire les trames reues. */
-	private FileOutputStream fos_ = null;
+	/** 
+	 * Le nombre de threads convertissant les trames d'un journal de session, 0 pour autant que de processeurs.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final int PARALLELISME_S = Integer.valueOf( prop_s.getPropriete( "ParallelismePostTraitement"));
 
-	
-	/** Le flux d'criture d'objets associs au descripteur de fichier. */
-	private ObjectOutputStream oos_ = null;
+
+	/** 
+	 * Vrai pour approcher la conversion Lambert II par une {@link ProjectionLocaleLambert2} sur l'emprise de la session.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final boolean PROJECTION_LOCALE_S = Boolean.valueOf( prop_s.getPropriete( "ProjectionLocale"));
+
+
+	/** 
+	 * Le nombre de cellules du {@link CacheConversions} placé devant la conversion Lambert II, 0 pour ne pas en utiliser.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final int CACHE_CONVERSIONS_S = Integer.valueOf( prop_s.getPropriete( "CacheConversions"));
+
+
+	/** 
+	 * Le côté en micro-degrés d'une cellule du {@link CacheConversions}.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final int PAS_CACHE_S = Integer.valueOf( prop_s.getPropriete( "PasCacheConversions"));
+
+
+	/** 
+	 * La ligne d'arrivée du circuit, <i>null</i> si la session n'est pas découpée en tours.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final LigneChronometrage LIGNE_ARRIVEE_S = LigneChronometrage.analyser( prop_s.getPropriete( "LigneArrivee"));
+
+
+	/** 
+	 * La durée minimale d'un tour en millisecondes.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final long DUREE_MIN_TOUR_MS_S = Long.valueOf( prop_s.getPropriete( "DureeMinTourMs"));
+
+
+	/** 
+	 * Le nom du fichier csv recevant la {@link Cinematique} des trames GPRMC, vide pour ne pas la calculer.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final String NOM_FICH_CINEMATIQUE_S = prop_s.getPropriete( "nomFichCinematiqueCsv").trim();
+
+
+	/** 
+	 * Le nom du fichier csv recevant la trajectoire lissée par un {@link FiltreKalman}, vide pour ne pas la calculer.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final String NOM_FICH_TRAJECTOIRE_S = prop_s.getPropriete( "nomFichTrajectoireCsv").trim();
+
+
+	/** 
+	 * Le nom du fichier csv recevant les écarts de chaque tour au meilleur tour, calculés par une
+	 * {@link ComparaisonTours}, vide pour ne pas les calculer.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> 
+	 */
+	private static final String NOM_FICH_COMPARAISON_S = prop_s.getPropriete( "nomFichComparaisonCsv").trim();
+
+
+	/** Le numéro de la sortie de l'{@link ExportCSV} recevant les coordonnées en degrés décimaux. */
+	static final int SORTIE_DEGRES_S = 0;
+
+
+	/** Le numéro de la sortie de l'{@link ExportCSV} recevant les coordonnées Lambert II. */
+	static final int SORTIE_LAMBERT_S = 1;
+
+
+	/** Le nombre de valeurs produites par la conversion d'une trame. */
+	static final int NB_VALEURS_S = 6;
+
+
+	/** Le journal dans lequel on doit écrire les trames reçues. */
+	private JournalSession journal_ = null;
 
 
 
 
 	/**
-	 * Permet de srialiser la trame passe en paramtre en la concatnant  la fin du fichier. 
+	 * Permet d'enregistrer la trame passée en paramètre en la concaténant à la fin du fichier. 
+	 * <p>La trame est écrite immédiatement dans le fichier. Pour enregistrer plusieurs trames à la suite, il est
+	 * préférable d'utiliser {@link #ajouterTrameBin(TrameGPS, String)} puis {@link #validerEcritures()}.</p>
 	 * @param trame
-	 * 				La trame  crire.
+	 * 				La trame à écrire.
 	 * @param nomFic
-	 * 				Le nom du fichier dans lequel on va srialiser la trame.
+	 * 				Le nom du fichier dans lequel on va enregistrer la trame.
 	 */
 	public void ecrireTrameBin( TrameGPS trame, String nomFic) {
+		ajouterTrameBin( trame, nomFic);
+		validerEcritures();
+	}
+
+
+
+
+	/**
+	 * Permet d'ajouter la trame passée en paramètre à la fin du fichier sans l'écrire tout de suite.
+	 * <p>La trame reste dans le bloc courant du {@link JournalSession} jusqu'à la prochaine validation : 
+	 * un lot de trames ne coûte ainsi qu'une seule écriture dans le fichier.</p>
+	 * @param trame
+	 * 				La trame à écrire.
+	 * @param nomFic
+	 * 				Le nom du fichier dans lequel on va enregistrer la trame.
+	 */
+	public void ajouterTrameBin( TrameGPS trame, String nomFic) {
 		try {
-			if( fos_ == null && oos_ == null) {
+			if( journal_ == null) {
 				if( DEBUG_S) {
-					System.out.println( "Creation du fichier de serialisation.");
+					System.out.println( "Creation du journal de la session.");
 				}
-				// Ouverture d'un flux de sortie vers le fichier passe en parametre
-				fos_ = new FileOutputStream( nomFic);
-				// Creation d'un flux objet avec le flux fichier
-				oos_ = new ObjectOutputStream( fos_);
-			}
-			// Serialisation : ecriture de l'objet dans le flux de sortie
-			oos_.writeObject( trame);
-			// On vide le tampon
-			oos_.flush();
+				journal_ = new JournalSession( nomFic);
+			}
+			journal_.ajouter( trame);
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire dans le fichier toutes les trames ajoutées depuis la dernière validation.
+	 */
+	public void validerEcritures() {
+		if( journal_ == null) {
+			return;
+		}
+		try {
+			journal_.valider();
 		} catch( IOException e) {
 			if( DEBUG_S) {
 				e.printStackTrace();
@@ -89,12 +203,83 @@ public class PostTraitement {
 
 
 	/**
-	 * Permet de dsrialiser les trames GPS stockes dans le fichier.
+	 * Permet d'écrire dans le fichier les trames ajoutées si elles sont assez nombreuses ou attendent depuis
+	 * assez longtemps (voir {@link JournalSession#validerSiSeuilAtteint()}).
+	 */
+	public void validerEcrituresSiSeuilAtteint() {
+		if( journal_ == null) {
+			return;
+		}
+		try {
+			journal_.validerSiSeuilAtteint();
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de lire les trames GPS stockées dans le fichier.
+	 * <p>Les fichiers enregistrés avant le {@link JournalSession}, qui contiennent des trames sérialisées, sont
+	 * toujours lus.</p>
 	 * @param nomFic
-	 * 					Le chemin du fichier contenant les trames srialises.
-	 * @return La liste des trames GPS dsrialises.
+	 * 					Le chemin du fichier contenant les trames.
+	 * @return La liste des trames GPS lues.
 	 */
 	public ArrayList< TrameGPS> lireTramesBin( String nomFic) {
+		try {
+			if( JournalSession.estJournal( nomFic)) {
+				return JournalSession.lire( nomFic);
+			}
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+			return new ArrayList< TrameGPS>();
+		}
+		return lireTramesSerialisees( nomFic);
+	}
+
+
+
+
+	/**
+	 * Permet de parcourir les trames GPS stockées dans le fichier sans les charger toutes en mémoire.
+	 * <p>Les trames d'un {@link JournalSession} sont décodées une par une par un {@link CurseurJournal} : la trame
+	 * fournie par le flux est réutilisée d'un élément au suivant. Les fichiers de trames sérialisées, plus anciens,
+	 * sont lus entièrement avant d'être parcourus.</p>
+	 * @param nomFic
+	 * 					Le chemin du fichier contenant les trames.
+	 * @return Le flux des trames GPS, à fermer après usage pour libérer le fichier.
+	 */
+	public Stream< TrameGPS> parcourirTramesBin( String nomFic) {
+		try {
+			if( JournalSession.estJournal( nomFic)) {
+				return CurseurJournal.flux( nomFic, false);
+			}
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+			return Stream.empty();
+		}
+		return lireTramesSerialisees( nomFic).stream();
+	}
+
+
+
+
+	/**
+	 * Permet de désérialiser les trames GPS d'un fichier enregistré avant le {@link JournalSession}.
+	 * @param nomFic
+	 * 					Le chemin du fichier contenant les trames sérialisées.
+	 * @return La liste des trames GPS désérialisées.
+	 */
+	private ArrayList< TrameGPS> lireTramesSerialisees( String nomFic) {
 		// La liste des trames GPS deserialisee
 		ArrayList< TrameGPS> listeTrames = new ArrayList< TrameGPS>();
 
@@ -136,26 +321,19 @@ public class PostTraitement {
 
 
 	/**
-	 * Permet de fermer le fichier dans lequel on a crit les trames srialises.
+	 * Permet de fermer le fichier dans lequel on a écrit les trames.
 	 */
 	public void fermerFichier() {
 		try {
-			try {
-				if( oos_ != null) {
-					oos_.close();
-				}
-			} finally {
-				if( fos_ != null) {
-					fos_.close();
-				}
+			if( journal_ != null) {
+				journal_.fermer();
 			}
 		} catch ( IOException e) {
 			if( DEBUG_S) {
 				e.printStackTrace();
 			}
 		} finally {
-			oos_ = null;
-			fos_ = null;
+			journal_ = null;
 		}
 	}
 
@@ -163,28 +341,137 @@ public class PostTraitement {
 
 
 	/**
-	 * Le programme  excuter pour traiter les trames srialises.
-	 * Permet de crer un fichier csv contenant les trames acquises converties en degrs minutes et en 
-	 * coordonnes cartesiennes.
+	 * Le programme à exécuter pour traiter les trames sérialisées.
+	 * Permet de créer un fichier csv contenant les trames acquises converties en degrés minutes et en 
+	 * coordonnées cartesiennes.
 	 * @param args
-	 * 				Non utilis.
+	 * 				Le fichier de trames à traiter, par exemple celui d'une des motos enregistrées par le
+	 * 				{@link telemetrieMoto.acquisition.comm.udp.Recepteur}. Par défaut, celui du fichier de configuration.
 	 */
 	public static void main( String args[]) {
 		PostTraitement p = new PostTraitement();
+		String nomFic = args.length > 0 ? args[ 0] : prop_s.getPropriete( "nomFichTramesBin");
+
+		int parallelisme = PARALLELISME_S > 0 ? PARALLELISME_S : Runtime.getRuntime().availableProcessors();
+		long debut = System.nanoTime();
+		long nbLignes = 0;
+		try( ExportCSV export = new ExportCSV( prop_s.getPropriete( "nomFichTramesCsv"), prop_s.getPropriete( "nomFichTramesCsv2"))) {
+			if( ( parallelisme > 1 || PROJECTION_LOCALE_S) && JournalSession.estJournal( nomFic)) {
+				// Conversion des morceaux du journal en parallele, ecriture dans l'ordre
+				TraitementParallele traitement = new TraitementParallele( parallelisme, PROJECTION_LOCALE_S, CACHE_CONVERSIONS_S, PAS_CACHE_S);
+				try {
+					traitement.exporter( nomFic, export);
+					if( traitement.getProjectionLocale() != null) {
+						System.out.println( "Projection locale, erreur maximale : " + traitement.getProjectionLocale().getErreurMax() + " m");
+					} else if( traitement.getNbRequetesCache() > 0) {
+						afficherCache( traitement.getNbRequetesCache(), traitement.getNbSuccesCache());
+					}
+				} finally {
+					traitement.fermer();
+				}
+			} else {
+				// On parcourt les trames au fur et a mesure de leur lecture et on ecrit leur conversion dans les fichiers csv
+				double[] valeurs = new double[ NB_VALEURS_S];
+				CacheConversions cache = CACHE_CONVERSIONS_S > 0 ? new CacheConversions( CACHE_CONVERSIONS_S, PAS_CACHE_S) : null;
+				try( Stream< TrameGPS> trames = p.parcourirTramesBin( nomFic)) {
+					for( Iterator< TrameGPS> it = trames.iterator() ; it.hasNext() ; ) {
+						convertir( it.next(), cache, valeurs, 0);
+						exporter( export, valeurs, 0);
+					}
+				}
+				if( cache != null) {
+					afficherCache( cache.getNbRequetes(), cache.getNbSucces());
+				}
+			}
+			nbLignes = export.getNbLignes( SORTIE_DEGRES_S);
+		} catch( IOException e) {
+			if( DEBUG_S) {
+				e.printStackTrace();
+			}
+			System.exit( 1);
+		}
+		afficherDebit( nbLignes, System.nanoTime() - debut);
+
+		if( LIGNE_ARRIVEE_S != null) {
+			List<Tour> tours = DetecteurTours.detecter( nomFic, LIGNE_ARRIVEE_S, DUREE_MIN_TOUR_MS_S);
+			for( Tour tour : tours) {
+				System.out.println( tour);
+			}
+		}
+
+		if( !NOM_FICH_CINEMATIQUE_S.isEmpty()) {
+			// Les accelerations dependent de la trame precedente : second parcours sequentiel de la session
+			try( ExportCSV export = new ExportCSV( NOM_FICH_CINEMATIQUE_S)) {
+				Cinematique.exporter( nomFic, export, 0);
+			} catch( IOException e) {
+				if( DEBUG_S) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		if( !NOM_FICH_TRAJECTOIRE_S.isEmpty()) {
+			try( ExportCSV export = new ExportCSV( NOM_FICH_TRAJECTOIRE_S)) {
+				FiltreKalman.exporter( nomFic, export, 0);
+			} catch( IOException e) {
+				if( DEBUG_S) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		if( LIGNE_ARRIVEE_S != null && !NOM_FICH_COMPARAISON_S.isEmpty()) {
+			try( ExportCSV export = new ExportCSV( NOM_FICH_COMPARAISON_S)) {
+				ComparaisonTours.exporter( nomFic, LIGNE_ARRIVEE_S, DUREE_MIN_TOUR_MS_S, export, 0);
+			} catch( IOException e) {
+				if( DEBUG_S) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
 
-		// On recupere toutes les trames lues
-		ArrayList< TrameGPS> listeTrames = p.lireTramesBin( prop_s.getPropriete( "nomFichTramesBin"));
 
-		// On ecrit leur conversion dans un fichier csv
-		TrameGPS trame = null;
-		CoordonneesGPSDegresDecimaux cdd = null;
-		CoordonneesGPSLambert2 cl2 = null;
-		for( Iterator< TrameGPS> it = listeTrames.iterator() ; it.hasNext() ; ) {
-			trame = ( TrameGPS) it.next();
-			cdd = new CoordonneesGPSDegresDecimaux( trame);
-			cl2 = new CoordonneesGPSLambert2( cdd);
-			ecrireDansFichierTxt( cdd.toString(), prop_s.getPropriete( "nomFichTramesCsv"));
-			ecrireDansFichierTxt( cl2.toString(), prop_s.getPropriete( "nomFichTramesCsv2"));
+
+	/**
+	 * Permet de convertir la position d'une trame en degrés décimaux et en Lambert II.
+	 * @param trame
+	 * 					La trame à convertir.
+	 * @param valeurs
+	 * 					Le tableau recevant les {@link #NB_VALEURS_S} valeurs de la trame : latitude, longitude et
+	 * 					altitude en degrés décimaux, puis x, y et z en Lambert II.
+	 * @param position
+	 * 					La position de la première valeur dans le tableau.
+	 */
+	static void convertir( TrameGPS trame, double[] valeurs, int position) {
+		convertir( trame, null, valeurs, position);
+	}
+
+
+
+
+	/**
+	 * Permet de convertir la position d'une trame en degrés décimaux et en Lambert II en passant par un cache.
+	 * @param trame
+	 * 					La trame à convertir.
+	 * @param cache
+	 * 					Le cache des conversions Lambert II, <i>null</i> pour utiliser directement le
+	 * 					{@link ConvertisseurLambert2}.
+	 * @param valeurs
+	 * 					Le tableau recevant les {@link #NB_VALEURS_S} valeurs de la trame.
+	 * @param position
+	 * 					La position de la première valeur dans le tableau.
+	 */
+	static void convertir( TrameGPS trame, CacheConversions cache, double[] valeurs, int position) {
+		CoordonneesGPSDegresDecimaux cdd = new CoordonneesGPSDegresDecimaux( trame);
+		valeurs[ position] = cdd.getLatitude();
+		valeurs[ position + 1] = cdd.getLongitude();
+		valeurs[ position + 2] = cdd.getAltitude();
+		if( cache != null) {
+			cache.projeter( cdd.getLatitude(), cdd.getLongitude(), cdd.getAltitude(), valeurs, position + 3);
+		} else {
+			ConvertisseurLambert2.projeter( cdd.getLatitude(), cdd.getLongitude(), cdd.getAltitude(), valeurs, position + 3);
 		}
 	}
 
@@ -192,11 +479,61 @@ public class PostTraitement {
 
 
 	/**
-	 * Permet d'crire dans un fichier texte.
+	 * Permet d'écrire les valeurs converties d'une trame dans les deux fichiers csv.
+	 * @param export
+	 * 					L'export dont la sortie {@link #SORTIE_DEGRES_S} reçoit les degrés décimaux et la sortie
+	 * 					{@link #SORTIE_LAMBERT_S} les coordonnées Lambert II.
+	 * @param valeurs
+	 * 					Le tableau rempli par {@link #convertir(TrameGPS, double[], int)}.
+	 * @param position
+	 * 					La position de la première valeur de la trame dans le tableau.
+	 * @throws IOException si l'écriture dans un fichier a échoué.
+	 */
+	static void exporter( ExportCSV export, double[] valeurs, int position) throws IOException {
+		export.ligne( SORTIE_DEGRES_S, valeurs[ position], valeurs[ position + 1], valeurs[ position + 2], 6, 2);
+		export.ligne( SORTIE_LAMBERT_S, valeurs[ position + 3], valeurs[ position + 4], valeurs[ position + 5], 3, 3);
+	}
+
+
+
+
+	/**
+	 * Permet d'afficher le nombre de lignes exportées et le débit obtenu.
+	 * @param nbLignes
+	 * 					Le nombre de lignes écrites dans chaque fichier csv.
+	 * @param dureeNanos
+	 * 					La durée de l'export en nanosecondes.
+	 */
+	static void afficherDebit( long nbLignes, long dureeNanos) {
+		double secondes = dureeNanos / 1e9;
+		System.out.println( nbLignes + " trames exportees en " + Math.round( secondes * 1000) + " ms ("
+				+ Math.round( secondes > 0 ? nbLignes / secondes : 0) + " lignes/s)");
+	}
+
+
+
+
+	/**
+	 * Permet d'afficher le taux de succès du cache des conversions.
+	 * @param nbRequetes
+	 * 					Le nombre de conversions demandées au cache.
+	 * @param nbSucces
+	 * 					Le nombre de conversions trouvées dans le cache.
+	 */
+	static void afficherCache( long nbRequetes, long nbSucces) {
+		System.out.println( "Cache des conversions : " + nbSucces + " succes sur " + nbRequetes + " ("
+				+ Math.round( nbRequetes > 0 ? 100.0 * nbSucces / nbRequetes : 0) + " %)");
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire dans un fichier texte.
 	 * @param aEcrire
-	 * 					La chaine  crire dans le fichier.
+	 * 					La chaine à écrire dans le fichier.
 	 * @param nomFic
-	 * 					Le nom du fichier dans lequel on veut crire.
+	 * 					Le nom du fichier dans lequel on veut écrire.
 	 */
 	public static void ecrireDansFichierTxt( String aEcrire, String nomFic) {
 		// Le descripteur de fichier en ecriture
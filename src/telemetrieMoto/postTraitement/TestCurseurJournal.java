@@ -0,0 +1,139 @@
+/*
+ * TestCurseurJournal.java
+ * Permet de tester le parcours des trames d'un journal de session
+ */
+
+package telemetrieMoto.postTraitement;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+
+
+/**
+ * <b>TestCurseurJournal permet de tester le {@link CurseurJournal}.</b>
+ * <p>On vérifie que le parcours par le curseur, séquentiel ou en flux parallèle, retrouve les trames lues par
+ * {@link JournalSession#lire(String)} en réutilisant les mêmes trames.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see CurseurJournal
+ */
+public class TestCurseurJournal {
+
+
+	/** Le nombre de trames écrites dans le journal de test. */
+	private static final int NB_TRAMES_S = 5 * JournalSession.ENREGISTREMENTS_PAR_BLOC_S + 42;
+
+
+
+
+	/**
+	 * Permet d'écrire le journal de test, alternant trames GPGGA et GPRMC.
+	 * <br>Chaque test a son propre fichier : sous Windows, un journal déjà lu reste projeté et ne peut être réécrit.
+	 * @param nomFic
+	 * 				Le nom du fichier à écrire.
+	 * @throws IOException si le fichier de test n'a pas pu être écrit.
+	 */
+	private static void ecrireJournal( String nomFic) throws IOException {
+		JournalSession journal = new JournalSession( nomFic, 64, 60000);
+		for( int i = 0 ; i < NB_TRAMES_S ; ++i) {
+			journal.ajouter( TestJournalSession.trame( i));
+		}
+		journal.fermer();
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que le curseur relit toutes les trames dans l'ordre avec seulement deux trames réutilisées.
+	 * @throws IOException si le fichier de test n'a pas pu être lu.
+	 */
+	@Test
+	public void testParcoursSequentiel() throws IOException {
+		String nomFic = "curseurSequentielTest.tmj";
+		ecrireJournal( nomFic);
+		ArrayList<TrameGPS> attendues = JournalSession.lire( nomFic);
+		LecteurJournal lecteur = new LecteurJournal( nomFic);
+		try {
+			CurseurJournal curseur = lecteur.curseur();
+			assertEquals( NB_TRAMES_S, curseur.estimateSize());
+			assertTrue( curseur.hasCharacteristics( Spliterator.SIZED | Spliterator.ORDERED));
+
+			TrameGPS premiereGGA = null;
+			int nb = 0;
+			while( curseur.avancer()) {
+				TrameGPS trame = curseur.getTrame();
+				assertEquals( nb, curseur.getIndice());
+				assertTrue( "Trame " + nb, trame.equals( attendues.get( nb)));
+				assertEquals( attendues.get( nb).getHorodatage(), trame.getHorodatage());
+				if( nb == 0) {
+					premiereGGA = trame;
+				} else if( nb % 2 == 0) {
+					assertSame( "Trame reutilisee", premiereGGA, trame);
+				}
+				++nb;
+			}
+			assertEquals( NB_TRAMES_S, nb);
+			assertFalse( curseur.avancer());
+		} finally {
+			lecteur.close();
+			new File( nomFic).delete();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un flux parallèle découpe le journal sans perdre ni dupliquer de trame.
+	 * @throws IOException si le fichier de test n'a pas pu être lu.
+	 */
+	@Test
+	public void testFluxParallele() throws IOException {
+		String nomFic = "curseurParalleleTest.tmj";
+		ecrireJournal( nomFic);
+		try {
+			long sommeAttendue = 0;
+			for( int i = 0 ; i < NB_TRAMES_S ; ++i) {
+				sommeAttendue += 48608958 + i;
+			}
+			long somme;
+			try( Stream<TrameGPS> trames = CurseurJournal.flux( nomFic, true)) {
+				somme = trames.mapToLong( new ToLongFunction<TrameGPS>() {
+					@Override
+					public long applyAsLong( TrameGPS trame) {
+						return trame.getLatitudeMicroDegres();
+					}
+				}).sum();
+			}
+			assertEquals( sommeAttendue, somme);
+
+			try( Stream<TrameGPS> trames = new PostTraitement().parcourirTramesBin( nomFic)) {
+				long nbRMC = trames.filter( new Predicate<TrameGPS>() {
+					@Override
+					public boolean test( TrameGPS trame) {
+						return trame instanceof TrameGPRMC;
+					}
+				}).count();
+				assertEquals( NB_TRAMES_S / 2, nbRMC);
+			}
+		} finally {
+			new File( nomFic).delete();
+		}
+	}
+}
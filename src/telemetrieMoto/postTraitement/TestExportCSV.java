@@ -0,0 +1,115 @@
+/*
+ * TestExportCSV.java
+ * Permet de tester l'ecriture des fichiers csv du post traitement
+ */
+
+package telemetrieMoto.postTraitement;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestExportCSV permet de tester l'{@link ExportCSV}.</b>
+ * <p>On vérifie le formatage des nombres en virgule fixe et l'écriture de plusieurs fichiers en une seule passe.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ExportCSV
+ */
+public class TestExportCSV {
+
+
+
+
+	/**
+	 * Permet de formater un nombre dans une chaîne.
+	 * @param valeur
+	 * 				Le nombre à formater.
+	 * @param decimales
+	 * 				Le nombre de décimales.
+	 * @return Le nombre formaté.
+	 */
+	private static String formater( double valeur, int decimales) {
+		ByteBuffer tampon = ByteBuffer.allocate( 64);
+		ExportCSV.formater( tampon, valeur, decimales);
+		return new String( tampon.array(), 0, tampon.position(), StandardCharsets.US_ASCII);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier le formatage des nombres, y compris les arrondis et les cas particuliers.
+	 */
+	@Test
+	public void testFormatage() {
+		assertEquals( "48.608958", formater( 48.608958, 6));
+		assertEquals( "7.000001", formater( 7.0000005001, 6));
+		assertEquals( "-0.250", formater( -0.25, 3));
+		assertEquals( "0.000", formater( -0.0001, 3));
+		assertEquals( "1.00", formater( 0.999, 2));
+		assertEquals( "660276.854", formater( 660276.854, 3));
+		assertEquals( "42", formater( 41.6, 0));
+		assertEquals( "NaN", formater( Double.NaN, 3));
+		assertEquals( Double.toString( 1e20), formater( 1e20, 3));
+
+		// Comparaison avec le formatage de la bibliotheque standard sur des valeurs quelconques
+		Random aleatoire = new Random( 42);
+		for( int i = 0 ; i < 1000 ; ++i) {
+			double valeur = ( aleatoire.nextDouble() - 0.5) * 2e6;
+			assertEquals( String.format( Locale.ROOT, "%.3f", valeur), formater( valeur, 3));
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que les lignes de deux sorties sont écrites dans leurs fichiers, avec peu d'écritures.
+	 * @throws IOException si un fichier de test n'a pas pu être écrit ou lu.
+	 */
+	@Test
+	public void testEcriture() throws IOException {
+		String nomFic1 = "exportTest1.csv";
+		String nomFic2 = "exportTest2.csv";
+		new File( nomFic1).delete();
+		new File( nomFic2).delete();
+		int nbLignes = 10000;
+		ExportCSV export = new ExportCSV( 64 * 1024, nomFic1, nomFic2);
+		try {
+			for( int i = 0 ; i < nbLignes ; ++i) {
+				export.ligne( 0, 48.5 + i * 1e-6, 7.5, 200.25, 6, 2);
+				export.colonne( 1, i, 0).colonne( 1, 0.5 * i, 1);
+				export.finLigne( 1);
+			}
+		} finally {
+			export.close();
+		}
+		assertEquals( nbLignes, export.getNbLignes( 0));
+		assertTrue( "Ecritures regroupees", export.getNbEcritures() < 20);
+
+		List<String> lignes1 = Files.readAllLines( Paths.get( nomFic1), StandardCharsets.US_ASCII);
+		List<String> lignes2 = Files.readAllLines( Paths.get( nomFic2), StandardCharsets.US_ASCII);
+		new File( nomFic1).delete();
+		new File( nomFic2).delete();
+		assertEquals( nbLignes, lignes1.size());
+		assertEquals( nbLignes, lignes2.size());
+		assertEquals( "48.500000;7.500000;200.25", lignes1.get( 0));
+		assertEquals( "48.509999;7.500000;200.25", lignes1.get( nbLignes - 1));
+		assertEquals( "9999;4999.5", lignes2.get( nbLignes - 1));
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * TestJournalSession.java
+ * Permet de tester l'ecriture et la relecture du journal de session
+ */
+
+package telemetrieMoto.postTraitement;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+
+
+/**
+ * <b>TestJournalSession permet de tester le {@link JournalSession}.</b>
+ * <p>On vérifie la relecture de trames réparties sur plusieurs blocs, le regroupement des écritures selon le seuil
+ * de validation et l'abandon d'un bloc dont le CRC est faux.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see JournalSession
+ */
+public class TestJournalSession {
+
+
+	/** Le fichier utilisé par les tests. */
+	private static final String NOM_FICHIER_S = "journalTest.tmj";
+
+
+
+
+	/**
+	 * Permet de créer une trame différente pour chaque indice, horodatée 100 ms après la précédente.
+	 * <br>Ces trames servent aussi aux tests du {@link LecteurJournal} et du {@link CurseurJournal}.
+	 * @param i
+	 * 			L'indice de la trame.
+	 * @return Une trame GPGGA pour les indices pairs, GPRMC pour les indices impairs.
+	 */
+	static TrameGPS trame( int i) {
+		TrameGPS trame;
+		if( i % 2 == 0) {
+			trame = new TrameGPGGA( 48608958 + i, 7682288 - i, ( float) 64036.2, 4 + i % 8, ( float) 1.5, ( float) 200.0 + i);
+		} else {
+			// Certaines trames GPRMC n'ont pas de vitesse ou pas de cap
+			trame = new TrameGPRMC( 48608958 + i, 7682288 - i, ( float) 64036.2, 'A', 100106, i % 11 == 1 ? Float.NaN : 40.5f + i,
+					i % 7 == 1 ? TrameGPRMC.CAP_ABSENT_S : 137 * i % 36000);
+		}
+		trame.setHorodatage( 1136905200000L + 100L * i);
+		return trame;
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que les trames sont relues à l'identique, y compris celles du dernier bloc incomplet,
+	 * et que les écritures sont regroupées.
+	 * @throws IOException si le fichier de test n'a pas pu être écrit.
+	 */
+	@Test
+	public void testEcritureLecture() throws IOException {
+		int nbTrames = 2 * JournalSession.ENREGISTREMENTS_PAR_BLOC_S + 10;
+		JournalSession journal = new JournalSession( NOM_FICHIER_S, 50, 60000);
+		try {
+			for( int i = 0 ; i < nbTrames ; ++i) {
+				journal.ajouter( trame( i));
+				journal.validerSiSeuilAtteint();
+			}
+		} finally {
+			journal.fermer();
+		}
+		// Une ecriture tous les 50 ajouts ou a chaque bloc plein, plus la derniere
+		assertTrue( "Ecritures regroupees", journal.getNbEcritures() <= nbTrames / 50 + 3);
+		assertEquals( JournalSession.TAILLE_ENTETE_S + 2 * JournalSession.TAILLE_BLOC_S + JournalSession.TAILLE_ENTETE_BLOC_S
+				+ 10 * JournalSession.TAILLE_ENREGISTREMENT_S, new File( NOM_FICHIER_S).length());
+
+		assertTrue( JournalSession.estJournal( NOM_FICHIER_S));
+		ArrayList<TrameGPS> lues = JournalSession.lire( NOM_FICHIER_S);
+		new File( NOM_FICHIER_S).delete();
+
+		assertEquals( nbTrames, lues.size());
+		for( int i = 0 ; i < nbTrames ; ++i) {
+			assertTrue( "Trame " + i, lues.get( i).equals( trame( i)));
+			assertEquals( trame( i).getHorodatage(), lues.get( i).getHorodatage());
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un bloc altéré est ignoré sans empêcher la lecture des autres blocs.
+	 * @throws IOException si le fichier de test n'a pas pu être écrit.
+	 */
+	@Test
+	public void testBlocCorrompu() throws IOException {
+		int nbTrames = JournalSession.ENREGISTREMENTS_PAR_BLOC_S + 5;
+		JournalSession journal = new JournalSession( NOM_FICHIER_S, 1000, 60000);
+		for( int i = 0 ; i < nbTrames ; ++i) {
+			journal.ajouter( trame( i));
+		}
+		journal.fermer();
+
+		// On altere la latitude du premier enregistrement du premier bloc
+		RandomAccessFile fichier = new RandomAccessFile( NOM_FICHIER_S, "rw");
+		try {
+			fichier.seek( JournalSession.TAILLE_ENTETE_S + JournalSession.TAILLE_ENTETE_BLOC_S + 4);
+			fichier.writeInt( 0);
+		} finally {
+			fichier.close();
+		}
+
+		ArrayList<TrameGPS> lues = JournalSession.lire( NOM_FICHIER_S);
+		new File( NOM_FICHIER_S).delete();
+		assertEquals( "Seules les trames du second bloc sont lues", 5, lues.size());
+		assertTrue( lues.get( 0).equals( trame( JournalSession.ENREGISTREMENTS_PAR_BLOC_S)));
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * TestLecteurJournal.java
+ * Permet de tester l'acces direct aux trames d'un journal de session
+ */
+
+package telemetrieMoto.postTraitement;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+
+
+
+
+/**
+ * <b>TestLecteurJournal permet de tester le {@link LecteurJournal}.</b>
+ * <p>On vérifie l'accès aux trames par leur indice, la recherche par horodatage et l'abandon d'un bloc corrompu.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see LecteurJournal
+ */
+public class TestLecteurJournal {
+
+
+	/** L'horodatage de la première trame écrite. */
+	private static final long DEBUT_S = 1136905200000L;
+
+
+
+
+	/**
+	 * Permet d'écrire un journal dont les trames, celles de {@link TestJournalSession}, sont espacées de 100 ms.
+	 * <br>Chaque test a son propre fichier : sous Windows, un journal déjà lu reste projeté et ne peut être réécrit.
+	 * @param nomFic
+	 * 				Le nom du fichier à écrire.
+	 * @param nbTrames
+	 * 				Le nombre de trames à écrire.
+	 * @throws IOException si le fichier de test n'a pas pu être écrit.
+	 */
+	private static void ecrireJournal( String nomFic, int nbTrames) throws IOException {
+		JournalSession journal = new JournalSession( nomFic, 64, 60000);
+		for( int i = 0 ; i < nbTrames ; ++i) {
+			journal.ajouter( TestJournalSession.trame( i));
+			journal.validerSiSeuilAtteint();
+		}
+		journal.fermer();
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier l'accès par indice et la recherche par horodatage sur plusieurs blocs.
+	 * @throws IOException si le fichier de test n'a pas pu être lu.
+	 */
+	@Test
+	public void testAccesDirect() throws IOException {
+		String nomFic = "lecteurAccesTest.tmj";
+		int nbTrames = 3 * JournalSession.ENREGISTREMENTS_PAR_BLOC_S + 20;
+		ecrireJournal( nomFic, nbTrames);
+		LecteurJournal lecteur = new LecteurJournal( nomFic);
+		try {
+			assertEquals( nbTrames, lecteur.getNbTrames());
+			assertEquals( 0, lecteur.getNbBlocsCorrompus());
+			for( int i : new int[] { 0, 126, 127, 300, nbTrames - 1}) {
+				assertEquals( 48608958 + i, lecteur.getLatitudeMicroDegres( i));
+				assertEquals( 7682288 - i, lecteur.getLongitudeMicroDegres( i));
+				assertEquals( DEBUT_S + 100L * i, lecteur.getTrame( i).getHorodatage());
+			}
+			try {
+				lecteur.getTrame( nbTrames);
+				fail( "Indice hors du journal");
+			} catch( IndexOutOfBoundsException e) {
+			}
+
+			// Instant exact, entre deux trames, avant la premiere et apres la derniere
+			assertEquals( 200, lecteur.chercher( DEBUT_S + 100L * 200));
+			assertEquals( 128, lecteur.chercher( DEBUT_S + 100L * 127 + 50));
+			assertEquals( 0, lecteur.chercher( 0));
+			assertEquals( nbTrames, lecteur.chercher( DEBUT_S + 100L * nbTrames));
+		} finally {
+			lecteur.close();
+			new File( nomFic).delete();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un bloc corrompu est écarté et que les trames suivantes restent accessibles.
+	 * @throws IOException si le fichier de test n'a pas pu être lu.
+	 */
+	@Test
+	public void testBlocCorrompu() throws IOException {
+		String nomFic = "lecteurCorrompuTest.tmj";
+		int nbTrames = 2 * JournalSession.ENREGISTREMENTS_PAR_BLOC_S + 3;
+		ecrireJournal( nomFic, nbTrames);
+		RandomAccessFile fichier = new RandomAccessFile( nomFic, "rw");
+		try {
+			// On altere une trame du deuxieme bloc
+			fichier.seek( JournalSession.TAILLE_ENTETE_S + JournalSession.TAILLE_BLOC_S + JournalSession.TAILLE_ENTETE_BLOC_S + 8);
+			fichier.writeInt( 0);
+		} finally {
+			fichier.close();
+		}
+
+		LecteurJournal lecteur = new LecteurJournal( nomFic);
+		try {
+			assertEquals( 1, lecteur.getNbBlocsCorrompus());
+			assertEquals( nbTrames - JournalSession.ENREGISTREMENTS_PAR_BLOC_S, lecteur.getNbTrames());
+			int premierTroisiemeBloc = 2 * JournalSession.ENREGISTREMENTS_PAR_BLOC_S;
+			assertEquals( DEBUT_S + 100L * premierTroisiemeBloc, lecteur.getHorodatage( JournalSession.ENREGISTREMENTS_PAR_BLOC_S));
+			assertEquals( JournalSession.ENREGISTREMENTS_PAR_BLOC_S, lecteur.chercher( DEBUT_S + 100L * 200));
+		} finally {
+			lecteur.close();
+			new File( nomFic).delete();
+		}
+	}
+}
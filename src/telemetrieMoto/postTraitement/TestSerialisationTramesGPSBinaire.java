@@ -20,7 +20,7 @@ import telemetrieMoto.acquisition.comm.gps.TrameGPS;
 
 
 /**
- * <b>TestSerialisationTramesGPSBinaire permet de tester la srialisation des {@link TrameGPS}.</b>
+ * <b>TestSerialisationTramesGPSBinaire permet de tester la sérialisation des {@link TrameGPS}.</b>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -33,9 +33,9 @@ public class TestSerialisationTramesGPSBinaire {
 	
 	
 	/**
-	 * Test le mcanisme de srialisation des {@link TrameGPS}. Vrifie que la srialisation des trames s'excute 
-	 * correctement. Dsrialise les trames et vrifie qu'elle n'ai pas t altres. Une fois les 
-	 * tests termins, le fichier de test est supprim.
+	 * Test le mécanisme de sérialisation des {@link TrameGPS}. Vérifie que la sérialisation des trames s'exécute 
+	 * correctement. Désérialise les trames et vérifie qu'elle n'ai pas été altérées. Une fois les 
+	 * tests terminés, le fichier de test est supprimé.
 	 */
 	@Test
 	public void test() {
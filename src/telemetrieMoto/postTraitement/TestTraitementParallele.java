@@ -0,0 +1,131 @@
+/*
+ * TestTraitementParallele.java
+ * Permet de tester la conversion en parallele des trames d'un journal de session
+ */
+
+package telemetrieMoto.postTraitement;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+
+
+
+
+/**
+ * <b>TestTraitementParallele permet de tester le {@link TraitementParallele}.</b>
+ * <p>On vérifie que les fichiers csv produits en parallèle sont identiques à ceux produits séquentiellement.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see TraitementParallele
+ */
+public class TestTraitementParallele {
+
+
+
+
+	/**
+	 * Permet de vérifier que l'ordre des trames est conservé quel que soit l'ordre de fin des tâches.
+	 * @throws IOException si un fichier de test n'a pas pu être écrit ou lu.
+	 */
+	@Test
+	public void testOrdreConserve() throws IOException {
+		String nomJournal = "paralleleTest.tmj";
+		String[] sequentiels = { "sequentielTest1.csv", "sequentielTest2.csv"};
+		String[] paralleles = { "paralleleTest1.csv", "paralleleTest2.csv"};
+		int nbTrames = 2 * TraitementParallele.TRAMES_PAR_MORCEAU_S + 100;
+		try {
+			JournalSession journal = new JournalSession( nomJournal, 1000, 60000);
+			for( int i = 0 ; i < nbTrames ; ++i) {
+				TrameGPS trame = new TrameGPGGA( 45759391 + i % 5000, 3111315 + i % 7000, ( float) 164715.0, 8, ( float) 1.0, ( float) ( 400 + i % 50));
+				trame.setHorodatage( 1361983635000L + 100L * i);
+				journal.ajouter( trame);
+			}
+			journal.fermer();
+
+			// Traitement sequentiel de reference
+			ExportCSV export = new ExportCSV( sequentiels);
+			LecteurJournal lecteur = new LecteurJournal( nomJournal);
+			double[] valeurs = new double[ PostTraitement.NB_VALEURS_S];
+			try {
+				CurseurJournal curseur = lecteur.curseur();
+				while( curseur.avancer()) {
+					PostTraitement.convertir( curseur.getTrame(), valeurs, 0);
+					PostTraitement.exporter( export, valeurs, 0);
+				}
+			} finally {
+				lecteur.close();
+				export.close();
+			}
+
+			// Traitement parallele
+			export = new ExportCSV( paralleles);
+			TraitementParallele traitement = new TraitementParallele( 4);
+			try {
+				assertEquals( nbTrames, traitement.exporter( nomJournal, export));
+			} finally {
+				traitement.fermer();
+				export.close();
+			}
+
+			assertEquals( nbTrames, export.getNbLignes( PostTraitement.SORTIE_LAMBERT_S));
+			for( int i = 0 ; i < sequentiels.length ; ++i) {
+				assertTrue( "Sortie " + i, Arrays.equals( Files.readAllBytes( Paths.get( sequentiels[ i])),
+						Files.readAllBytes( Paths.get( paralleles[ i]))));
+			}
+		} finally {
+			new File( nomJournal).delete();
+			for( int i = 0 ; i < sequentiels.length ; ++i) {
+				new File( sequentiels[ i]).delete();
+				new File( paralleles[ i]).delete();
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que la projection approchée est ajustée sur l'emprise de la session.
+	 * @throws IOException si un fichier de test n'a pas pu être écrit ou lu.
+	 */
+	@Test
+	public void testProjectionLocale() throws IOException {
+		String nomJournal = "localeTest.tmj";
+		String[] sorties = { "localeTest1.csv", "localeTest2.csv"};
+		try {
+			JournalSession journal = new JournalSession( nomJournal, 1000, 60000);
+			for( int i = 0 ; i < 1000 ; ++i) {
+				journal.ajouter( new TrameGPGGA( 45759391 + i * 20, 3111315 + i * 30, ( float) 164715.0, 8, ( float) 1.0, ( float) 400));
+			}
+			journal.fermer();
+
+			ExportCSV export = new ExportCSV( sorties);
+			TraitementParallele traitement = new TraitementParallele( 2, true);
+			try {
+				traitement.exporter( nomJournal, export);
+			} finally {
+				traitement.fermer();
+				export.close();
+			}
+			assertNotNull( traitement.getProjectionLocale());
+			assertTrue( traitement.getProjectionLocale().estPrecise());
+			assertEquals( 1000, export.getNbLignes( PostTraitement.SORTIE_LAMBERT_S));
+		} finally {
+			new File( nomJournal).delete();
+			for( String sortie : sorties) {
+				new File( sortie).delete();
+			}
+		}
+	}
+}
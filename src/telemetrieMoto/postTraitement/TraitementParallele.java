@@ -0,0 +1,365 @@
+/*
+ * TraitementParallele.java
+ * Permet de convertir les trames d'un journal de session sur plusieurs threads
+ */
+
+package telemetrieMoto.postTraitement;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.coordonnees.CacheConversions;
+import telemetrieMoto.postTraitement.coordonnees.ConvertisseurLambert2;
+import telemetrieMoto.postTraitement.coordonnees.ProjectionLocaleLambert2;
+
+
+/**
+ * <b>TraitementParallele permet de convertir les trames d'un {@link JournalSession} sur plusieurs threads.</b>
+ * <p>Le journal, projeté en mémoire par un {@link LecteurJournal}, est découpé en morceaux de
+ * {@link #BLOCS_PAR_MORCEAU_S} blocs. Chaque morceau est converti par une tâche d'un {@link ForkJoinPool}
+ * dans un tableau de valeurs, indépendamment des autres : ses coordonnées sont rassemblées dans des tableaux
+ * puis converties en une fois par le {@link ConvertisseurLambert2}. Les morceaux sont ensuite écrits dans l'ordre du
+ * journal : les fichiers csv sont identiques à ceux d'un traitement séquentiel.
+ * <br>Au plus deux morceaux par thread sont en cours à la fois, la mémoire utilisée ne dépend donc pas
+ * de la longueur de la session.</p>
+ * <p>Sur demande, les coordonnées Lambert II sont calculées par une {@link ProjectionLocaleLambert2} ajustée sur
+ * l'emprise de la session, si son erreur maximale reste sous {@link ProjectionLocaleLambert2#ERREUR_MAX_S}.
+ * Sinon, chaque tâche peut passer par son propre {@link CacheConversions}.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see PostTraitement
+ * @see LecteurJournal
+ */
+public class TraitementParallele {
+
+
+	/** Le nombre de blocs du journal convertis par une même tâche. */
+	private static final int BLOCS_PAR_MORCEAU_S = 64;
+
+
+	/** Le nombre de trames converties par une même tâche. */
+	static final int TRAMES_PAR_MORCEAU_S = BLOCS_PAR_MORCEAU_S * JournalSession.ENREGISTREMENTS_PAR_BLOC_S;
+
+
+	/** Les threads de conversion. */
+	private final ForkJoinPool pool_;
+
+
+	/** Le nombre maximal de morceaux en cours de conversion ou en attente d'écriture. */
+	private final int nbMorceauxMax_;
+
+
+	/** Vrai si on doit essayer d'utiliser une projection approchée sur l'emprise de chaque session. */
+	private final boolean projectionLocale_;
+
+
+	/** Le nombre de cellules du cache de chaque tâche, 0 pour ne pas utiliser de cache. */
+	private final int capaciteCache_;
+
+
+	/** Le côté d'une cellule des caches en micro-degrés. */
+	private final int pasCache_;
+
+
+	/** La projection approchée utilisée pour la dernière session, <i>null</i> si la formule exacte a été utilisée. */
+	private ProjectionLocaleLambert2 locale_ = null;
+
+
+	/** Le nombre de conversions demandées aux caches pendant la dernière session. */
+	private long nbRequetesCache_ = 0;
+
+
+	/** Le nombre de conversions trouvées dans les caches pendant la dernière session. */
+	private long nbSuccesCache_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur de TraitementParallele utilisant la formule exacte de conversion.
+	 * @param parallelisme
+	 * 				Le nombre de threads de conversion.
+	 */
+	public TraitementParallele( int parallelisme) {
+		this( parallelisme, false);
+	}
+
+
+
+
+	/**
+	 * Le constructeur de TraitementParallele.
+	 * @param parallelisme
+	 * 				Le nombre de threads de conversion.
+	 * @param projectionLocale
+	 * 				<i>true</i> pour utiliser une {@link ProjectionLocaleLambert2} lorsqu'elle est assez précise.
+	 */
+	public TraitementParallele( int parallelisme, boolean projectionLocale) {
+		this( parallelisme, projectionLocale, 0, 1);
+	}
+
+
+
+
+	/**
+	 * Le constructeur de TraitementParallele avec un cache des conversions par tâche.
+	 * @param parallelisme
+	 * 				Le nombre de threads de conversion.
+	 * @param projectionLocale
+	 * 				<i>true</i> pour utiliser une {@link ProjectionLocaleLambert2} lorsqu'elle est assez précise.
+	 * @param capaciteCache
+	 * 				Le nombre de cellules du {@link CacheConversions} de chaque tâche, 0 pour ne pas utiliser de cache.
+	 * 				Le cache n'est pas utilisé avec une projection approchée.
+	 * @param pasCache
+	 * 				Le côté d'une cellule des caches en micro-degrés.
+	 */
+	public TraitementParallele( int parallelisme, boolean projectionLocale, int capaciteCache, int pasCache) {
+		pool_ = new ForkJoinPool( parallelisme);
+		nbMorceauxMax_ = 2 * parallelisme;
+		projectionLocale_ = projectionLocale;
+		capaciteCache_ = capaciteCache;
+		pasCache_ = pasCache;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir toutes les trames d'un journal et de les écrire dans les fichiers csv.
+	 * @param nomFic
+	 * 				Le nom du fichier de la session.
+	 * @param export
+	 * 				L'export recevant les conversions, voir {@link PostTraitement#exporter(ExportCSV, double[], int)}.
+	 * @return Le nombre de trames converties.
+	 * @throws IOException si le journal n'a pas pu être lu ou les fichiers csv écrits.
+	 */
+	public long exporter( String nomFic, ExportCSV export) throws IOException {
+		try( LecteurJournal lecteur = new LecteurJournal( nomFic)) {
+			int nbTrames = lecteur.getNbTrames();
+			locale_ = projectionLocale_ ? creerProjectionLocale( lecteur) : null;
+			nbRequetesCache_ = 0;
+			nbSuccesCache_ = 0;
+			ArrayDeque<Conversion> enCours = new ArrayDeque<Conversion>();
+			int debut = 0;
+			while( debut < nbTrames || !enCours.isEmpty()) {
+				// On garde tous les threads occupes pendant l'ecriture du plus ancien morceau
+				while( debut < nbTrames && enCours.size() < nbMorceauxMax_) {
+					int fin = Math.min( debut + TRAMES_PAR_MORCEAU_S, nbTrames);
+					Conversion conversion = new Conversion( lecteur, debut, fin, locale_);
+					if( locale_ == null && capaciteCache_ > 0) {
+						conversion.cache_ = new CacheConversions( capaciteCache_, pasCache_);
+					}
+					pool_.execute( conversion);
+					enCours.add( conversion);
+					debut = fin;
+				}
+				Conversion conversion = enCours.poll();
+				double[] valeurs = conversion.join();
+				if( conversion.cache_ != null) {
+					nbRequetesCache_ += conversion.cache_.getNbRequetes();
+					nbSuccesCache_ += conversion.cache_.getNbSucces();
+				}
+				for( int position = 0 ; position < valeurs.length ; position += PostTraitement.NB_VALEURS_S) {
+					PostTraitement.exporter( export, valeurs, position);
+				}
+			}
+			return nbTrames;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'ajuster une projection approchée sur l'emprise des trames d'un journal.
+	 * @param lecteur
+	 * 				Le lecteur du journal.
+	 * @return La projection, ou <i>null</i> si le journal n'a pas de position ou si la projection n'est pas
+	 * assez précise.
+	 */
+	private static ProjectionLocaleLambert2 creerProjectionLocale( LecteurJournal lecteur) {
+		double latMin = Double.MAX_VALUE, latMax = -Double.MAX_VALUE;
+		double lonMin = Double.MAX_VALUE, lonMax = -Double.MAX_VALUE;
+		double altMin = Double.MAX_VALUE, altMax = -Double.MAX_VALUE;
+		CurseurJournal curseur = lecteur.curseur();
+		while( curseur.avancer()) {
+			TrameGPS trame = curseur.getTrame();
+			if( !trame.aUnePosition()) {
+				continue;
+			}
+			double lat = trame.getLatitudeMicroDegres() / 1e6;
+			double lon = trame.getLongitudeMicroDegres() / 1e6;
+			double alt = altitude( trame);
+			latMin = Math.min( latMin, lat);
+			latMax = Math.max( latMax, lat);
+			lonMin = Math.min( lonMin, lon);
+			lonMax = Math.max( lonMax, lon);
+			altMin = Math.min( altMin, alt);
+			altMax = Math.max( altMax, alt);
+		}
+		if( latMin > latMax) {
+			return null;
+		}
+		ProjectionLocaleLambert2 locale = new ProjectionLocaleLambert2( latMin, latMax, lonMin, lonMax, altMin, altMax);
+		return locale.estPrecise() ? locale : null;
+	}
+
+
+
+
+	/**
+	 * Retourne l'altitude d'une trame.
+	 * @param trame
+	 * 				La trame.
+	 * @return L'altitude en mètres des trames GPGGA, 0 pour les autres.
+	 */
+	private static double altitude( TrameGPS trame) {
+		return trame instanceof TrameGPGGA ? ( ( TrameGPGGA) trame).getAltitude() : 0.d;
+	}
+
+
+
+
+	/**
+	 * Retourne la projection approchée utilisée pour la dernière session exportée.
+	 * @return La projection, ou <i>null</i> si la formule exacte a été utilisée.
+	 */
+	public ProjectionLocaleLambert2 getProjectionLocale() {
+		return locale_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de conversions demandées aux caches des tâches pendant la dernière session.
+	 * @return Le nombre de requêtes, 0 si aucun cache n'a été utilisé.
+	 */
+	public long getNbRequetesCache() {
+		return nbRequetesCache_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de conversions trouvées dans les caches des tâches pendant la dernière session.
+	 * @return Le nombre de succès.
+	 */
+	public long getNbSuccesCache() {
+		return nbSuccesCache_;
+	}
+
+
+
+
+	/**
+	 * Permet d'arrêter les threads de conversion.
+	 */
+	public void fermer() {
+		pool_.shutdown();
+	}
+
+
+
+
+	/**
+	 * <b>Conversion est la tâche convertissant un morceau du journal.</b>
+	 * <p>Le morceau est parcouru par son propre {@link CurseurJournal}.</p>
+	 *
+	 * @author Yoan DUMAS
+	 * @version 1.1
+	 */
+	private static class Conversion extends RecursiveTask<double[]> {
+
+
+		/** L'identifiant de sérialisation. */
+		private static final long serialVersionUID = 1L;
+
+
+		/** Le lecteur du journal. */
+		private final transient LecteurJournal lecteur_;
+
+
+		/** L'indice de la première trame du morceau. */
+		private final int debut_;
+
+
+		/** L'indice suivant la dernière trame du morceau. */
+		private final int fin_;
+
+
+		/** La projection approchée à utiliser, <i>null</i> pour la formule exacte. */
+		private final transient ProjectionLocaleLambert2 locale_;
+
+
+		/** Le cache des conversions propre à la tâche, <i>null</i> pour ne pas en utiliser. */
+		private transient CacheConversions cache_ = null;
+
+
+
+
+		/**
+		 * Le constructeur de la tâche.
+		 * @param lecteur
+		 * 				Le lecteur du journal.
+		 * @param debut
+		 * 				L'indice de la première trame du morceau.
+		 * @param fin
+		 * 				L'indice suivant la dernière trame du morceau.
+		 * @param locale
+		 * 				La projection approchée à utiliser, <i>null</i> pour la formule exacte.
+		 */
+		public Conversion( LecteurJournal lecteur, int debut, int fin, ProjectionLocaleLambert2 locale) {
+			lecteur_ = lecteur;
+			debut_ = debut;
+			fin_ = fin;
+			locale_ = locale;
+		}
+
+
+
+
+		@Override
+		protected double[] compute() {
+			int nb = fin_ - debut_;
+			double[] latitudes = new double[ nb];
+			double[] longitudes = new double[ nb];
+			double[] altitudes = new double[ nb];
+			CurseurJournal curseur = new CurseurJournal( lecteur_, debut_, fin_);
+			for( int i = 0 ; curseur.avancer() ; ++i) {
+				TrameGPS trame = curseur.getTrame();
+				latitudes[ i] = trame.getLatitudeMicroDegres() / 1e6;
+				longitudes[ i] = trame.getLongitudeMicroDegres() / 1e6;
+				altitudes[ i] = altitude( trame);
+			}
+
+			// Conversion du morceau entier, puis entrelacement des valeurs dans l'ordre des colonnes des fichiers
+			double[] x = new double[ nb];
+			double[] y = new double[ nb];
+			double[] z = new double[ nb];
+			if( locale_ != null) {
+				locale_.convertir( latitudes, longitudes, altitudes, x, y, z, 0, nb);
+			} else if( cache_ != null) {
+				cache_.convertir( latitudes, longitudes, altitudes, x, y, z, 0, nb);
+			} else {
+				ConvertisseurLambert2.convertir( latitudes, longitudes, altitudes, x, y, z, 0, nb);
+			}
+			double[] valeurs = new double[ nb * PostTraitement.NB_VALEURS_S];
+			for( int i = 0, position = 0 ; i < nb ; ++i, position += PostTraitement.NB_VALEURS_S) {
+				valeurs[ position] = latitudes[ i];
+				valeurs[ position + 1] = longitudes[ i];
+				valeurs[ position + 2] = altitudes[ i];
+				valeurs[ position + 3] = x[ i];
+				valeurs[ position + 4] = y[ i];
+				valeurs[ position + 5] = z[ i];
+			}
+			return valeurs;
+		}
+	}
+}
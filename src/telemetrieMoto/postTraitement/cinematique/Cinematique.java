@@ -0,0 +1,276 @@
+/*
+ * Cinematique.java
+ * Permet de calculer au fil de l'eau les accelerations et l'angle d'inclinaison d'une moto
+ */
+
+package telemetrieMoto.postTraitement.cinematique;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.ExportCSV;
+import telemetrieMoto.postTraitement.PostTraitement;
+
+
+
+
+/**
+ * <b>Cinematique calcule les accélérations et l'angle d'inclinaison d'une moto à chaque trame GPRMC.</b>
+ * <p>Le calcul part de la vitesse par rapport au sol et du cap transmis par le GPS (voir {@link TrameGPRMC#getVitesse()}
+ * et {@link TrameGPRMC#getCap()}) plutôt que des positions successives : le GPS les mesure par effet Doppler, elles
+ * sont bien moins bruitées que la dérivée des positions. Entre deux trames :
+ * <ul>
+ * 	<li>L'accélération longitudinale est la variation de la vitesse divisée par la durée.</li>
+ * 	<li>L'accélération latérale est la vitesse moyenne multipliée par la vitesse de lacet, variation du cap
+ * 	divisée par la durée. Elle est positive dans un virage à droite.</li>
+ * 	<li>L'angle d'inclinaison est celui qui équilibre l'accélération latérale et la pesanteur,
+ * 	<i>atan( a / g)</i>, pour une moto sans largeur de pneu : c'est une estimation.</li>
+ * </ul>
+ * En dessous de {@link #VITESSE_MIN_S}, le cap n'a plus de sens et la moto est considérée en ligne droite.</p>
+ * <p>Chaque trame est traitée en temps constant et sans allocation : les valeurs de la dernière trame se lisent
+ * dans les accesseurs jusqu'à la suivante. Les trames GPGGA, non valides ou sans vitesse sont ignorées, de même que
+ * les trames d'un instant déjà traité. Les horodatages sont comptés modulo un jour, comme pour le
+ * {@link telemetrieMoto.postTraitement.tours.DetecteurTours}.</p>
+ * <p>Une instance n'est pas partagée entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see TrameGPRMC
+ */
+public class Cinematique {
+
+
+	/** L'accélération de la pesanteur en mètres par seconde au carré. */
+	public static final double G_S = 9.80665;
+
+
+	/** La vitesse en mètres par seconde en dessous de laquelle le cap n'est pas utilisé. */
+	public static final double VITESSE_MIN_S = 2.0;
+
+
+	/** Vrai si une trame précédente est connue. */
+	private boolean aPrecedente_ = false;
+
+
+	/** L'horodatage de la trame précédente en millisecondes. */
+	private long horodatagePrecedent_;
+
+
+	/** La vitesse de la trame précédente en mètres par seconde. */
+	private double vitessePrecedente_;
+
+
+	/** Le cap de la trame précédente en degrés, <i>NaN</i> s'il est absent. */
+	private double capPrecedent_;
+
+
+	/** L'instant de la dernière trame en millisecondes depuis la première trame. */
+	private double temps_ = 0;
+
+
+	/** La vitesse de la dernière trame en mètres par seconde. */
+	private double vitesse_ = Double.NaN;
+
+
+	/** L'accélération longitudinale en mètres par seconde au carré. */
+	private double accelerationLongitudinale_ = Double.NaN;
+
+
+	/** La vitesse de lacet en degrés par seconde. */
+	private double vitesseLacet_ = Double.NaN;
+
+
+	/** L'accélération latérale en mètres par seconde au carré. */
+	private double accelerationLaterale_ = Double.NaN;
+
+
+	/** L'angle d'inclinaison estimé en degrés. */
+	private double inclinaison_ = Double.NaN;
+
+
+
+
+	/**
+	 * Permet d'écrire la cinématique de toutes les trames d'un fichier de session dans un fichier csv.
+	 * <p>Chaque trame GPRMC retenue donne une ligne : l'instant en secondes depuis la première trame, la vitesse en
+	 * mètres par seconde, les accélérations longitudinale et latérale en mètres par seconde au carré, puis l'angle
+	 * d'inclinaison en degrés.</p>
+	 * @param nomFic
+	 * 				Le nom du fichier de la session, journal ou trames sérialisées.
+	 * @param export
+	 * 				L'export recevant les lignes.
+	 * @param sortie
+	 * 				Le numéro de la sortie de l'export.
+	 * @throws IOException si l'écriture dans le fichier csv a échoué.
+	 */
+	public static void exporter( String nomFic, ExportCSV export, int sortie) throws IOException {
+		Cinematique cinematique = new Cinematique();
+		try( Stream<TrameGPS> trames = new PostTraitement().parcourirTramesBin( nomFic)) {
+			for( Iterator<TrameGPS> it = trames.iterator() ; it.hasNext() ; ) {
+				if( cinematique.ajouter( it.next())) {
+					export.colonne( sortie, cinematique.getTemps() / 1000, 3).colonne( sortie, cinematique.getVitesse(), 2)
+							.colonne( sortie, cinematique.getAccelerationLongitudinale(), 2)
+							.colonne( sortie, cinematique.getAccelerationLaterale(), 2).colonne( sortie, cinematique.getInclinaison(), 1);
+					export.finLigne( sortie);
+				}
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de traiter la trame suivante de la session.
+	 * @param trame
+	 * 				La trame, seules les trames GPRMC valides avec une vitesse sont utilisées.
+	 * @return <i>true</i> si les valeurs ont été mises à jour par cette trame.
+	 */
+	public boolean ajouter( TrameGPS trame) {
+		if( !( trame instanceof TrameGPRMC)) {
+			return false;
+		}
+		TrameGPRMC rmc = ( TrameGPRMC) trame;
+		if( !rmc.estValide() || Float.isNaN( rmc.getVitesse())) {
+			return false;
+		}
+		return ajouter( rmc.getHorodatage(), rmc.getVitesseMetresSeconde(), rmc.getCap());
+	}
+
+
+
+
+	/**
+	 * Permet de traiter la mesure suivante de la session.
+	 * @param horodatage
+	 * 				L'horodatage de la mesure en millisecondes, voir {@link TrameGPS#getHorodatage()}.
+	 * @param vitesse
+	 * 				La vitesse par rapport au sol en mètres par seconde.
+	 * @param cap
+	 * 				Le cap suivi en degrés depuis le nord dans le sens horaire, <i>NaN</i> s'il est absent.
+	 * @return <i>true</i> si les valeurs ont été mises à jour par cette mesure, <i>false</i> pour la première
+	 * mesure ou une mesure qui n'est pas postérieure à la précédente.
+	 */
+	public boolean ajouter( long horodatage, double vitesse, double cap) {
+		if( !aPrecedente_) {
+			aPrecedente_ = true;
+			retenir( horodatage, vitesse, cap);
+			return false;
+		}
+
+		long ecart = ( horodatage - horodatagePrecedent_) % TrameGPS.MS_PAR_JOUR_S;
+		if( ecart > TrameGPS.MS_PAR_JOUR_S / 2) {
+			ecart -= TrameGPS.MS_PAR_JOUR_S;
+		} else if( ecart < -TrameGPS.MS_PAR_JOUR_S / 2) {
+			ecart += TrameGPS.MS_PAR_JOUR_S;
+		}
+		if( ecart <= 0) {
+			return false;
+		}
+
+		double duree = ecart / 1000.0;
+		accelerationLongitudinale_ = ( vitesse - vitessePrecedente_) / duree;
+		if( Math.min( vitesse, vitessePrecedente_) < VITESSE_MIN_S) {
+			vitesseLacet_ = 0;
+		} else {
+			// Variation du cap ramenee dans [-180, 180[, NaN si un des caps est absent
+			double variation = cap - capPrecedent_;
+			variation -= 360.0 * Math.floor( ( variation + 180.0) / 360.0);
+			vitesseLacet_ = variation / duree;
+		}
+		accelerationLaterale_ = ( vitesse + vitessePrecedente_) / 2 * Math.toRadians( vitesseLacet_);
+		inclinaison_ = Math.toDegrees( Math.atan( accelerationLaterale_ / G_S));
+		vitesse_ = vitesse;
+		temps_ += ecart;
+		retenir( horodatage, vitesse, cap);
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet de retenir une mesure comme mesure précédente.
+	 * @param horodatage
+	 * 				L'horodatage en millisecondes.
+	 * @param vitesse
+	 * 				La vitesse en mètres par seconde.
+	 * @param cap
+	 * 				Le cap en degrés.
+	 */
+	private void retenir( long horodatage, double vitesse, double cap) {
+		horodatagePrecedent_ = horodatage;
+		vitessePrecedente_ = vitesse;
+		capPrecedent_ = cap;
+	}
+
+
+
+
+	/**
+	 * Retourne l'instant de la dernière trame retenue.
+	 * @return L'instant en millisecondes depuis la première trame.
+	 */
+	public double getTemps() {
+		return temps_;
+	}
+
+
+
+
+	/**
+	 * Retourne la vitesse de la dernière trame retenue.
+	 * @return La vitesse en mètres par seconde, <i>NaN</i> avant la deuxième trame.
+	 */
+	public double getVitesse() {
+		return vitesse_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'accélération longitudinale entre les deux dernières trames.
+	 * @return L'accélération en mètres par seconde au carré, négative au freinage, <i>NaN</i> avant la deuxième trame.
+	 */
+	public double getAccelerationLongitudinale() {
+		return accelerationLongitudinale_;
+	}
+
+
+
+
+	/**
+	 * Retourne la vitesse de lacet entre les deux dernières trames.
+	 * @return La vitesse de lacet en degrés par seconde, positive dans un virage à droite, <i>NaN</i> si un cap manque.
+	 */
+	public double getVitesseLacet() {
+		return vitesseLacet_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'accélération latérale entre les deux dernières trames.
+	 * @return L'accélération en mètres par seconde au carré, positive dans un virage à droite, <i>NaN</i> si un
+	 * cap manque.
+	 */
+	public double getAccelerationLaterale() {
+		return accelerationLaterale_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'angle d'inclinaison estimé entre les deux dernières trames.
+	 * @return L'angle en degrés, positif vers la droite, <i>NaN</i> si un cap manque.
+	 */
+	public double getInclinaison() {
+		return inclinaison_;
+	}
+}
@@ -0,0 +1,616 @@
+/*
+ * FiltreKalman.java
+ * Permet de filtrer et de lisser les positions d'une moto par un filtre de Kalman a acceleration constante
+ */
+
+package telemetrieMoto.postTraitement.cinematique;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import telemetrieMoto.Proprietes;
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.ExportCSV;
+import telemetrieMoto.postTraitement.PostTraitement;
+import telemetrieMoto.postTraitement.projections.ProjectionENU;
+
+
+
+
+/**
+ * <b>FiltreKalman estime la position, la vitesse et l'accélération d'une moto à partir de ses positions GPS bruitées.</b>
+ * <p>Les positions sont exprimées en mètres dans le repère local Est Nord Haut de la première position (voir
+ * {@link ProjectionENU}). Chaque axe suit un modèle à accélération constante perturbée par un <i>jerk</i> blanc
+ * de densité {@link #getBruitJerk()}. L'écart type de chaque position mesurée est la dilution horizontale de la
+ * dernière {@link TrameGPGGA} multipliée par {@link #getEcartTypePosition()} : une position douteuse compte peu.
+ * <br>Les deux axes ont la même dynamique et le même bruit de mesure : ils partagent une seule matrice de
+ * covariance 3 x 3, stockée sous forme symétrique dans un tableau de six réels. Une position coûte une
+ * centaine d'opérations sur des réels, sans allocation, ce qui permet de filtrer beaucoup de motos à 10 ou 20 Hz
+ * sur un seul coeur.</p>
+ * <p>Le filtre s'utilise de deux façons :
+ * <ul>
+ * 	<li>En direct, seul le passage avant est fait : l'état courant se lit dans les accesseurs après chaque position.</li>
+ * 	<li>En post traitement, avec un historique, les états filtrés et les covariances sont conservés dans des tableaux
+ * 	de réels. {@link #lisser()} fait ensuite le passage arrière du lisseur de Rauch-Tung-Striebel, qui remplace chaque
+ * 	état par son estimation connaissant toute la session. Seuls les états sont lissés, pas les covariances.</li>
+ * </ul>
+ * Les trames GPRMC du même instant qu'une trame GPGGA ne comptent qu'une fois, les horodatages sont comptés modulo
+ * un jour.</p>
+ * <p>Un filtre n'est pas partagé entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Cinematique
+ * @see ProjectionENU
+ */
+public class FiltreKalman {
+
+
+	/** Le nombre de variables d'état d'un axe : position, vitesse et accélération. */
+	private static final int NB_ETAT_S = 3;
+
+
+	/** Le nombre de variables d'état des deux axes. */
+	public static final int NB_VALEURS_S = 2 * NB_ETAT_S;
+
+
+	/** Le nombre de termes d'une covariance 3 x 3 symétrique : 00, 01, 02, 11, 12 et 22. */
+	private static final int NB_COVARIANCE_S = 6;
+
+
+	/** L'écart type initial de la vitesse en mètres par seconde. */
+	private static final double ECART_TYPE_VITESSE_INITIAL_S = 50.0;
+
+
+	/** L'écart type initial de l'accélération en mètres par seconde au carré. */
+	private static final double ECART_TYPE_ACCELERATION_INITIAL_S = 10.0;
+
+
+	/** Le nombre d'états prévus au départ dans l'historique. */
+	private static final int ETATS_INITIAUX_S = 4096;
+
+
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
+	private static Proprietes prop_s = Proprietes.getInstance();
+
+
+	/** L'écart type en mètres d'une position pour une dilution horizontale de 1.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final double ECART_TYPE_POSITION_S = Double.valueOf( prop_s.getPropriete( "FiltreEcartTypePosition"));
+
+
+	/** La densité spectrale du <i>jerk</i> en m<sup>2</sup>/s<sup>5</sup>.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i> */
+	private static final double BRUIT_JERK_S = Double.valueOf( prop_s.getPropriete( "FiltreBruitJerk"));
+
+
+	/** L'écart type en mètres d'une position pour une dilution horizontale de 1. */
+	private final double ecartTypePosition_;
+
+
+	/** La densité spectrale du <i>jerk</i>. */
+	private final double bruitJerk_;
+
+
+	/** Vrai si les états sont conservés pour le lissage. */
+	private final boolean historique_;
+
+
+	/** Le repère local, créé à la première position. */
+	private ProjectionENU repere_ = null;
+
+
+	/** Les coordonnées locales de la dernière position reçue. */
+	private final double[] xyz_ = new double[ 3];
+
+
+	/** L'état courant : position, vitesse et accélération en x puis en y. */
+	private final double[] etat_ = new double[ NB_VALEURS_S];
+
+
+	/** La covariance de l'état d'un axe. */
+	private final double[] covariance_ = new double[ NB_COVARIANCE_S];
+
+
+	/** La covariance prédite de l'état d'un axe, avant la dernière mesure. */
+	private final double[] prediction_ = new double[ NB_COVARIANCE_S];
+
+
+	/** La dilution horizontale de la dernière trame GPGGA. */
+	private double hdop_ = 1.0;
+
+
+	/** Vrai si une position a déjà été reçue. */
+	private boolean initialise_ = false;
+
+
+	/** L'horodatage de la dernière position en millisecondes. */
+	private long horodatagePrecedent_;
+
+
+	/** L'instant de la dernière position en secondes depuis la première. */
+	private double temps_ = 0;
+
+
+	/** Le nombre d'états de l'historique. */
+	private int nbEtats_ = 0;
+
+
+	/** Les instants des états de l'historique en secondes. */
+	private double[] tempsEtats_;
+
+
+	/** Les états de l'historique, filtrés puis lissés. */
+	private double[] etats_;
+
+
+	/** Les covariances filtrées de l'historique. */
+	private double[] covariances_;
+
+
+	/** Les covariances prédites de l'historique, avant la mesure de chaque état. */
+	private double[] predictions_;
+
+
+	/** Vrai si l'historique a été lissé. */
+	private boolean lisse_ = false;
+
+
+
+
+	/**
+	 * Le constructeur du filtre, avec les bruits du fichier de configuration.
+	 * @param historique
+	 * 				Vrai pour conserver les états et pouvoir les lisser, faux pour un filtrage en direct.
+	 */
+	public FiltreKalman( boolean historique) {
+		this( ECART_TYPE_POSITION_S, BRUIT_JERK_S, historique);
+	}
+
+
+
+
+	/**
+	 * Le constructeur du filtre.
+	 * @param ecartTypePosition
+	 * 				L'écart type en mètres d'une position pour une dilution horizontale de 1.
+	 * @param bruitJerk
+	 * 				La densité spectrale du <i>jerk</i> en m<sup>2</sup>/s<sup>5</sup> : plus elle est grande, plus le filtre suit
+	 * 				rapidement les changements d'accélération.
+	 * @param historique
+	 * 				Vrai pour conserver les états et pouvoir les lisser, faux pour un filtrage en direct.
+	 */
+	public FiltreKalman( double ecartTypePosition, double bruitJerk, boolean historique) {
+		ecartTypePosition_ = ecartTypePosition;
+		bruitJerk_ = bruitJerk;
+		historique_ = historique;
+		if( historique) {
+			tempsEtats_ = new double[ ETATS_INITIAUX_S];
+			etats_ = new double[ ETATS_INITIAUX_S * NB_VALEURS_S];
+			covariances_ = new double[ ETATS_INITIAUX_S * NB_COVARIANCE_S];
+			predictions_ = new double[ ETATS_INITIAUX_S * NB_COVARIANCE_S];
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de lisser toutes les positions d'un fichier de session et de les écrire dans un fichier csv.
+	 * <p>Chaque état lissé donne une ligne : l'instant en secondes depuis la première position, la latitude et la
+	 * longitude en degrés décimaux, puis la vitesse en mètres par seconde.</p>
+	 * @param nomFic
+	 * 				Le nom du fichier de la session, journal ou trames sérialisées.
+	 * @param export
+	 * 				L'export recevant les lignes.
+	 * @param sortie
+	 * 				Le numéro de la sortie de l'export.
+	 * @throws IOException si l'écriture dans le fichier csv a échoué.
+	 */
+	public static void exporter( String nomFic, ExportCSV export, int sortie) throws IOException {
+		FiltreKalman filtre = new FiltreKalman( true);
+		try( Stream<TrameGPS> trames = new PostTraitement().parcourirTramesBin( nomFic)) {
+			for( Iterator<TrameGPS> it = trames.iterator() ; it.hasNext() ; ) {
+				filtre.ajouter( it.next());
+			}
+		}
+		filtre.lisser();
+		double[] latLon = new double[ 3];
+		for( int i = 0 ; i < filtre.getNbEtats() ; ++i) {
+			filtre.getPosition( i, latLon, 0);
+			export.colonne( sortie, filtre.getTemps( i), 3).colonne( sortie, latLon[ 0], 7).colonne( sortie, latLon[ 1], 7)
+					.colonne( sortie, filtre.getVitesse( i), 2);
+			export.finLigne( sortie);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de traiter la trame suivante de la session.
+	 * <p>Une trame GPGGA donne la dilution horizontale de sa position et des suivantes. Les trames GPRMC non
+	 * valides sont ignorées.</p>
+	 * @param trame
+	 * 				La trame, qui peut ne pas contenir de position.
+	 * @return <i>true</i> si l'état a été mis à jour par cette trame.
+	 */
+	public boolean ajouter( TrameGPS trame) {
+		if( trame instanceof TrameGPGGA) {
+			float hdop = ( ( TrameGPGGA) trame).getHDOP();
+			if( hdop > 0) {
+				hdop_ = hdop;
+			}
+		}
+		if( !trame.aUnePosition() || ( trame instanceof TrameGPRMC && !trame.estValide())) {
+			return false;
+		}
+		double latitude = trame.getLatitudeMicroDegres() / 1e6;
+		double longitude = trame.getLongitudeMicroDegres() / 1e6;
+		long horodatage = trame.getHorodatage();
+		if( repere_ == null) {
+			repere_ = new ProjectionENU( latitude, longitude, 0);
+			horodatagePrecedent_ = horodatage;
+		}
+
+		long ecart = ( horodatage - horodatagePrecedent_) % TrameGPS.MS_PAR_JOUR_S;
+		if( ecart > TrameGPS.MS_PAR_JOUR_S / 2) {
+			ecart -= TrameGPS.MS_PAR_JOUR_S;
+		} else if( ecart < -TrameGPS.MS_PAR_JOUR_S / 2) {
+			ecart += TrameGPS.MS_PAR_JOUR_S;
+		}
+		if( initialise_ && ecart <= 0) {
+			// Meme instant que la position precedente (GPGGA et GPRMC) ou trame en retard
+			return false;
+		}
+		horodatagePrecedent_ = horodatage;
+		repere_.projeter( latitude, longitude, 0, xyz_, 0);
+		return ajouter( temps_ + ecart / 1000.0, xyz_[ 0], xyz_[ 1], hdop_ * ecartTypePosition_);
+	}
+
+
+
+
+	/**
+	 * Permet de traiter la mesure de position suivante.
+	 * @param temps
+	 * 				L'instant de la mesure en secondes.
+	 * @param x
+	 * 				L'abscisse mesurée en mètres.
+	 * @param y
+	 * 				L'ordonnée mesurée en mètres.
+	 * @param ecartType
+	 * 				L'écart type de la mesure en mètres sur chaque axe.
+	 * @return <i>true</i> si l'état a été mis à jour, <i>false</i> si la mesure n'est pas postérieure à la précédente.
+	 * @throws IllegalStateException si l'historique a déjà été lissé.
+	 */
+	public boolean ajouter( double temps, double x, double y, double ecartType) {
+		if( lisse_) {
+			throw new IllegalStateException( "L'historique a deja ete lisse");
+		}
+		double r = ecartType * ecartType;
+		double[] p = covariance_;
+		double[] e = etat_;
+		if( !initialise_) {
+			initialise_ = true;
+			Arrays.fill( e, 0);
+			e[ 0] = x;
+			e[ NB_ETAT_S] = y;
+			Arrays.fill( p, 0);
+			p[ 0] = r;
+			p[ 3] = ECART_TYPE_VITESSE_INITIAL_S * ECART_TYPE_VITESSE_INITIAL_S;
+			p[ 5] = ECART_TYPE_ACCELERATION_INITIAL_S * ECART_TYPE_ACCELERATION_INITIAL_S;
+			System.arraycopy( p, 0, prediction_, 0, NB_COVARIANCE_S);
+			temps_ = temps;
+			memoriser();
+			return true;
+		}
+		double dt = temps - temps_;
+		if( dt <= 0) {
+			return false;
+		}
+
+		// Prediction de l'etat : x' = F x
+		double h = dt * dt / 2;
+		for( int axe = 0 ; axe < NB_VALEURS_S ; axe += NB_ETAT_S) {
+			e[ axe] += dt * e[ axe + 1] + h * e[ axe + 2];
+			e[ axe + 1] += dt * e[ axe + 2];
+		}
+
+		// Prediction de la covariance : P' = F P Ft + Q, Q etant celle d'un jerk blanc
+		double f0 = p[ 0] + dt * p[ 1] + h * p[ 2];
+		double f1 = p[ 1] + dt * p[ 3] + h * p[ 4];
+		double f2 = p[ 2] + dt * p[ 4] + h * p[ 5];
+		double g1 = p[ 3] + dt * p[ 4];
+		double g2 = p[ 4] + dt * p[ 5];
+		double dt2 = dt * dt;
+		double dt3 = dt2 * dt;
+		double[] q = prediction_;
+		q[ 0] = f0 + dt * f1 + h * f2 + bruitJerk_ * dt3 * dt2 / 20;
+		q[ 1] = f1 + dt * f2 + bruitJerk_ * dt2 * dt2 / 8;
+		q[ 2] = f2 + bruitJerk_ * dt3 / 6;
+		q[ 3] = g1 + dt * g2 + bruitJerk_ * dt3 / 3;
+		q[ 4] = g2 + bruitJerk_ * dt2 / 2;
+		q[ 5] = p[ 5] + bruitJerk_ * dt;
+
+		// Mise a jour par la position mesuree : K = P' Ht / ( H P' Ht + R), P = P' - K H P'
+		double s = q[ 0] + r;
+		double k0 = q[ 0] / s;
+		double k1 = q[ 1] / s;
+		double k2 = q[ 2] / s;
+		double innovationX = x - e[ 0];
+		double innovationY = y - e[ NB_ETAT_S];
+		e[ 0] += k0 * innovationX;
+		e[ 1] += k1 * innovationX;
+		e[ 2] += k2 * innovationX;
+		e[ NB_ETAT_S] += k0 * innovationY;
+		e[ NB_ETAT_S + 1] += k1 * innovationY;
+		e[ NB_ETAT_S + 2] += k2 * innovationY;
+		p[ 0] = q[ 0] - k0 * q[ 0];
+		p[ 1] = q[ 1] - k0 * q[ 1];
+		p[ 2] = q[ 2] - k0 * q[ 2];
+		p[ 3] = q[ 3] - k1 * q[ 1];
+		p[ 4] = q[ 4] - k1 * q[ 2];
+		p[ 5] = q[ 5] - k2 * q[ 2];
+		temps_ = temps;
+		memoriser();
+		return true;
+	}
+
+
+
+
+	/**
+	 * Permet d'ajouter l'état courant à l'historique, s'il est conservé.
+	 */
+	private void memoriser() {
+		if( !historique_) {
+			return;
+		}
+		if( nbEtats_ == tempsEtats_.length) {
+			tempsEtats_ = Arrays.copyOf( tempsEtats_, 2 * nbEtats_);
+			etats_ = Arrays.copyOf( etats_, 2 * nbEtats_ * NB_VALEURS_S);
+			covariances_ = Arrays.copyOf( covariances_, 2 * nbEtats_ * NB_COVARIANCE_S);
+			predictions_ = Arrays.copyOf( predictions_, 2 * nbEtats_ * NB_COVARIANCE_S);
+		}
+		tempsEtats_[ nbEtats_] = temps_;
+		System.arraycopy( etat_, 0, etats_, nbEtats_ * NB_VALEURS_S, NB_VALEURS_S);
+		System.arraycopy( covariance_, 0, covariances_, nbEtats_ * NB_COVARIANCE_S, NB_COVARIANCE_S);
+		System.arraycopy( prediction_, 0, predictions_, nbEtats_ * NB_COVARIANCE_S, NB_COVARIANCE_S);
+		++nbEtats_;
+	}
+
+
+
+
+	/**
+	 * Permet de lisser les états de l'historique par le passage arrière de Rauch-Tung-Striebel.
+	 * <p>En partant du dernier état, chaque état filtré est corrigé par l'écart entre l'état lissé suivant et sa
+	 * prédiction : <i>xs(k) = xf(k) + C (xs(k+1) - F xf(k))</i>, avec <i>C = Pf(k) Ft Pp(k+1)^-1</i>. Les états
+	 * sont remplacés sur place. Le filtre ne peut plus recevoir de position ensuite.</p>
+	 * @return Le nombre d'états lissés.
+	 * @throws IllegalStateException si le filtre ne conserve pas d'historique.
+	 */
+	public int lisser() {
+		if( !historique_) {
+			throw new IllegalStateException( "Le filtre ne conserve pas d'historique");
+		}
+		if( lisse_) {
+			return nbEtats_;
+		}
+		lisse_ = true;
+		double[] c = new double[ 9];
+		for( int k = nbEtats_ - 2 ; k >= 0 ; --k) {
+			double dt = tempsEtats_[ k + 1] - tempsEtats_[ k];
+			double h = dt * dt / 2;
+			int pf = k * NB_COVARIANCE_S;
+			int pp = ( k + 1) * NB_COVARIANCE_S;
+
+			// A = Pf Ft, ligne par ligne
+			double f00 = covariances_[ pf], f01 = covariances_[ pf + 1], f02 = covariances_[ pf + 2];
+			double f11 = covariances_[ pf + 3], f12 = covariances_[ pf + 4], f22 = covariances_[ pf + 5];
+			double a00 = f00 + dt * f01 + h * f02, a01 = f01 + dt * f02, a02 = f02;
+			double a10 = f01 + dt * f11 + h * f12, a11 = f11 + dt * f12, a12 = f12;
+			double a20 = f02 + dt * f12 + h * f22, a21 = f12 + dt * f22, a22 = f22;
+
+			// Inverse de Pp par les cofacteurs
+			double p00 = predictions_[ pp], p01 = predictions_[ pp + 1], p02 = predictions_[ pp + 2];
+			double p11 = predictions_[ pp + 3], p12 = predictions_[ pp + 4], p22 = predictions_[ pp + 5];
+			double i00 = p11 * p22 - p12 * p12;
+			double i01 = p02 * p12 - p01 * p22;
+			double i02 = p01 * p12 - p02 * p11;
+			double i11 = p00 * p22 - p02 * p02;
+			double i12 = p01 * p02 - p00 * p12;
+			double i22 = p00 * p11 - p01 * p01;
+			double inverseDet = 1.0 / ( p00 * i00 + p01 * i01 + p02 * i02);
+
+			// C = A Pp^-1
+			c[ 0] = ( a00 * i00 + a01 * i01 + a02 * i02) * inverseDet;
+			c[ 1] = ( a00 * i01 + a01 * i11 + a02 * i12) * inverseDet;
+			c[ 2] = ( a00 * i02 + a01 * i12 + a02 * i22) * inverseDet;
+			c[ 3] = ( a10 * i00 + a11 * i01 + a12 * i02) * inverseDet;
+			c[ 4] = ( a10 * i01 + a11 * i11 + a12 * i12) * inverseDet;
+			c[ 5] = ( a10 * i02 + a11 * i12 + a12 * i22) * inverseDet;
+			c[ 6] = ( a20 * i00 + a21 * i01 + a22 * i02) * inverseDet;
+			c[ 7] = ( a20 * i01 + a21 * i11 + a22 * i12) * inverseDet;
+			c[ 8] = ( a20 * i02 + a21 * i12 + a22 * i22) * inverseDet;
+
+			for( int axe = k * NB_VALEURS_S ; axe < ( k + 1) * NB_VALEURS_S ; axe += NB_ETAT_S) {
+				int suivant = axe + NB_VALEURS_S;
+				double position = etats_[ axe], vitesse = etats_[ axe + 1], acceleration = etats_[ axe + 2];
+				double d0 = etats_[ suivant] - ( position + dt * vitesse + h * acceleration);
+				double d1 = etats_[ suivant + 1] - ( vitesse + dt * acceleration);
+				double d2 = etats_[ suivant + 2] - acceleration;
+				etats_[ axe] = position + c[ 0] * d0 + c[ 1] * d1 + c[ 2] * d2;
+				etats_[ axe + 1] = vitesse + c[ 3] * d0 + c[ 4] * d1 + c[ 5] * d2;
+				etats_[ axe + 2] = acceleration + c[ 6] * d0 + c[ 7] * d1 + c[ 8] * d2;
+			}
+		}
+		return nbEtats_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'abscisse estimée de la dernière position.
+	 * @return L'abscisse en mètres dans le repère local.
+	 */
+	public double getX() {
+		return etat_[ 0];
+	}
+
+
+
+
+	/**
+	 * Retourne l'ordonnée estimée de la dernière position.
+	 * @return L'ordonnée en mètres dans le repère local.
+	 */
+	public double getY() {
+		return etat_[ NB_ETAT_S];
+	}
+
+
+
+
+	/**
+	 * Retourne la vitesse estimée à la dernière position.
+	 * @return La norme de la vitesse en mètres par seconde.
+	 */
+	public double getVitesse() {
+		return Math.hypot( etat_[ 1], etat_[ NB_ETAT_S + 1]);
+	}
+
+
+
+
+	/**
+	 * Permet de recopier l'état estimé à la dernière position.
+	 * @param etat
+	 * 				Le tableau recevant les {@link #NB_VALEURS_S} valeurs : position, vitesse et accélération en x,
+	 * 				puis en y.
+	 * @param position
+	 * 				La position de la première valeur dans le tableau.
+	 */
+	public void getEtat( double[] etat, int position) {
+		System.arraycopy( etat_, 0, etat, position, NB_VALEURS_S);
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart type de l'estimation de la position sur chaque axe.
+	 * @return L'écart type en mètres.
+	 */
+	public double getEcartTypeEstimation() {
+		return Math.sqrt( covariance_[ 0]);
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'états de l'historique.
+	 * @return Le nombre de positions retenues, 0 si le filtre ne conserve pas d'historique.
+	 */
+	public int getNbEtats() {
+		return nbEtats_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'instant d'un état de l'historique.
+	 * @param i
+	 * 				L'indice de l'état.
+	 * @return L'instant en secondes depuis la première position.
+	 */
+	public double getTemps( int i) {
+		return tempsEtats_[ i];
+	}
+
+
+
+
+	/**
+	 * Permet de recopier un état de l'historique, filtré ou lissé selon que {@link #lisser()} a été appelée.
+	 * @param i
+	 * 				L'indice de l'état.
+	 * @param etat
+	 * 				Le tableau recevant les {@link #NB_VALEURS_S} valeurs.
+	 * @param position
+	 * 				La position de la première valeur dans le tableau.
+	 */
+	public void getEtat( int i, double[] etat, int position) {
+		System.arraycopy( etats_, i * NB_VALEURS_S, etat, position, NB_VALEURS_S);
+	}
+
+
+
+
+	/**
+	 * Retourne la vitesse d'un état de l'historique.
+	 * @param i
+	 * 				L'indice de l'état.
+	 * @return La norme de la vitesse en mètres par seconde.
+	 */
+	public double getVitesse( int i) {
+		return Math.hypot( etats_[ i * NB_VALEURS_S + 1], etats_[ i * NB_VALEURS_S + NB_ETAT_S + 1]);
+	}
+
+
+
+
+	/**
+	 * Permet de convertir la position d'un état de l'historique en coordonnées WGS84.
+	 * @param i
+	 * 				L'indice de l'état.
+	 * @param latLon
+	 * 				Le tableau recevant la latitude, la longitude en degrés décimaux et la hauteur.
+	 * @param position
+	 * 				La position de la latitude dans le tableau.
+	 */
+	public void getPosition( int i, double[] latLon, int position) {
+		repere_.inverser( etats_[ i * NB_VALEURS_S], etats_[ i * NB_VALEURS_S + NB_ETAT_S], 0, latLon, position);
+	}
+
+
+
+
+	/**
+	 * Retourne le repère local des positions.
+	 * @return Le repère centré sur la première position, <i>null</i> tant qu'aucune trame n'a été reçue.
+	 */
+	public ProjectionENU getRepere() {
+		return repere_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart type d'une position pour une dilution horizontale de 1.
+	 * @return L'écart type en mètres.
+	 */
+	public double getEcartTypePosition() {
+		return ecartTypePosition_;
+	}
+
+
+
+
+	/**
+	 * Retourne la densité spectrale du <i>jerk</i> du modèle.
+	 * @return La densité en m<sup>2</sup>/s<sup>5</sup>.
+	 */
+	public double getBruitJerk() {
+		return bruitJerk_;
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * TestCinematique.java
+ * Permet de tester le calcul des accelerations et de l'angle d'inclinaison
+ */
+
+package telemetrieMoto.postTraitement.cinematique;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+
+
+
+
+/**
+ * <b>TestCinematique permet de tester la {@link Cinematique} sur des trajectoires simples à 10 Hz.</b>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Cinematique
+ */
+public class TestCinematique {
+
+
+	/** L'horodatage de la première trame, 1 s avant minuit pour traverser le changement de jour. */
+	private static final long DEBUT_S = 1136851200000L - 1000;
+
+
+
+
+	/**
+	 * Permet de créer une trame GPRMC transmettant une vitesse et un cap.
+	 * @param horodatage
+	 * 				L'horodatage de la trame en millisecondes.
+	 * @param vitesse
+	 * 				La vitesse en mètres par seconde.
+	 * @param cap
+	 * 				Le cap en degrés, <i>NaN</i> s'il est absent.
+	 * @return La trame.
+	 */
+	private static TrameGPRMC trame( long horodatage, double vitesse, double cap) {
+		TrameGPRMC trame = new TrameGPRMC( 46860000, 3160000, 0, 'A', 0, ( float) ( vitesse / TrameGPRMC.METRES_SECONDE_PAR_NOEUD_S),
+				Double.isNaN( cap) ? TrameGPRMC.CAP_ABSENT_S : ( int) Math.round( cap * 100) % 36000);
+		trame.setHorodatage( horodatage);
+		return trame;
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier un virage à droite à vitesse constante, le cap passant par le nord.
+	 */
+	@Test
+	public void testVirage() {
+		double vitesse = 20;
+		double rayon = 100;
+		double lacet = Math.toDegrees( vitesse / rayon);
+		Cinematique cinematique = new Cinematique();
+		assertFalse( cinematique.ajouter( trame( DEBUT_S, vitesse, 350)));
+		// Les trames GPGGA et les doublons ne changent rien
+		assertFalse( cinematique.ajouter( new TrameGPGGA( 46860000, 3160000, 0, 8, 1, 200)));
+		assertFalse( cinematique.ajouter( trame( DEBUT_S, vitesse, 350)));
+		for( int i = 1 ; i <= 30 ; ++i) {
+			assertTrue( cinematique.ajouter( trame( DEBUT_S + 100 * i, vitesse, ( 350 + lacet * i / 10) % 360)));
+			assertEquals( 0, cinematique.getAccelerationLongitudinale(), 0.01);
+			assertEquals( lacet, cinematique.getVitesseLacet(), 0.1);
+			assertEquals( vitesse * vitesse / rayon, cinematique.getAccelerationLaterale(), 0.05);
+			assertEquals( Math.toDegrees( Math.atan( 4 / Cinematique.G_S)), cinematique.getInclinaison(), 0.2);
+		}
+		assertEquals( 3000, cinematique.getTemps(), 0);
+
+		// Virage a gauche
+		Cinematique gauche = new Cinematique();
+		gauche.ajouter( trame( 0, vitesse, 10));
+		gauche.ajouter( trame( 100, vitesse, 10 - lacet / 10));
+		assertEquals( -vitesse * vitesse / rayon, gauche.getAccelerationLaterale(), 0.05);
+		assertTrue( gauche.getInclinaison() < -20);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier un freinage en ligne droite jusqu'à l'arrêt, où le cap disparait.
+	 */
+	@Test
+	public void testFreinage() {
+		Cinematique cinematique = new Cinematique();
+		cinematique.ajouter( trame( 0, 30, 90));
+		for( int i = 1 ; i <= 45 ; ++i) {
+			double vitesse = Math.max( 30 - 0.75 * i, 0);
+			assertTrue( cinematique.ajouter( trame( 100 * i, vitesse, vitesse > 1 ? 90 : Double.NaN)));
+			assertEquals( vitesse, cinematique.getVitesse(), 1e-5);
+			assertEquals( i <= 40 ? -7.5 : 0, cinematique.getAccelerationLongitudinale(), 1e-3);
+			// A l'arret, l'absence de cap ne compte pas
+			assertEquals( 0, cinematique.getAccelerationLaterale(), 0);
+			assertEquals( 0, cinematique.getInclinaison(), 0);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * TestFiltreKalman.java
+ * Permet de tester le filtrage et le lissage des positions
+ */
+
+package telemetrieMoto.postTraitement.cinematique;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.postTraitement.projections.ProjectionENU;
+
+
+
+
+/**
+ * <b>TestFiltreKalman permet de tester le {@link FiltreKalman} sur des trajectoires bruitées à 10 Hz.</b>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see FiltreKalman
+ */
+public class TestFiltreKalman {
+
+
+	/** L'écart type en mètres d'une position pour une dilution horizontale de 1. */
+	private static final double ECART_TYPE_S = 2.5;
+
+
+	/** La densité spectrale du jerk utilisée par les tests. */
+	private static final double BRUIT_JERK_S = 20;
+
+
+
+
+	/**
+	 * Permet de vérifier que le filtre réduit le bruit d'un virage et que le lissage le réduit encore.
+	 */
+	@Test
+	public void testVirage() {
+		double rayon = 150;
+		double vitesse = 30;
+		double ecartType = 1.2 * ECART_TYPE_S;
+		int nb = 1200;
+		Random aleas = new Random( 42);
+		FiltreKalman filtre = new FiltreKalman( ECART_TYPE_S, BRUIT_JERK_S, true);
+		double[] vraisX = new double[ nb];
+		double[] vraisY = new double[ nb];
+		double erreurMesure = 0;
+		double erreurFiltre = 0;
+		double erreurVitesseFiltre = 0;
+		for( int i = 0 ; i < nb ; ++i) {
+			double angle = vitesse / rayon * i / 10;
+			vraisX[ i] = rayon * Math.cos( angle);
+			vraisY[ i] = rayon * Math.sin( angle);
+			double x = vraisX[ i] + ecartType * aleas.nextGaussian();
+			double y = vraisY[ i] + ecartType * aleas.nextGaussian();
+			assertTrue( filtre.ajouter( i / 10.0, x, y, ecartType));
+			if( i >= 50) {
+				erreurMesure += carre( x - vraisX[ i], y - vraisY[ i]);
+				erreurFiltre += carre( filtre.getX() - vraisX[ i], filtre.getY() - vraisY[ i]);
+				erreurVitesseFiltre += carre( filtre.getVitesse() - vitesse, 0);
+			}
+		}
+		assertFalse( filtre.ajouter( 10, 0, 0, ecartType));
+		assertEquals( nb, filtre.getNbEtats());
+
+		assertEquals( nb, filtre.lisser());
+		double[] etat = new double[ FiltreKalman.NB_VALEURS_S];
+		double erreurLissage = 0;
+		double erreurVitesse = 0;
+		double erreurAcceleration = 0;
+		for( int i = 50 ; i < nb ; ++i) {
+			filtre.getEtat( i, etat, 0);
+			erreurLissage += carre( etat[ 0] - vraisX[ i], etat[ 3] - vraisY[ i]);
+			erreurVitesse += carre( filtre.getVitesse( i) - vitesse, 0);
+			// L'acceleration centripete est retrouvee
+			erreurAcceleration += carre( Math.hypot( etat[ 2], etat[ 5]) - vitesse * vitesse / rayon, 0);
+		}
+		assertTrue( "Filtrage", erreurFiltre < 0.6 * 0.6 * erreurMesure);
+		assertTrue( "Lissage", erreurLissage < 0.6 * 0.6 * erreurFiltre);
+		assertTrue( "Vitesse lissee", erreurVitesse < 0.5 * 0.5 * erreurVitesseFiltre);
+		assertEquals( 0, Math.sqrt( erreurAcceleration / ( nb - 50)), 1.5);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier qu'une position dont la dilution horizontale est grande ne déplace presque pas l'estimation.
+	 */
+	@Test
+	public void testDilution() {
+		ProjectionENU repere = new ProjectionENU( 46.86, 3.16, 0);
+		double[] latLon = new double[ 3];
+		double[] ecarts = new double[ 2];
+		for( int essai = 0 ; essai < 2 ; ++essai) {
+			FiltreKalman filtre = new FiltreKalman( ECART_TYPE_S, BRUIT_JERK_S, false);
+			double attendue = 0;
+			for( int i = 0 ; i <= 50 ; ++i) {
+				// Ligne droite vers l'est a 20 m/s, la derniere position est 40 m au nord
+				repere.inverser( 2.0 * i, i == 50 ? 40 : 0, 0, latLon, 0);
+				TrameGPGGA trame = new TrameGPGGA( ( int) Math.round( latLon[ 0] * 1e6), ( int) Math.round( latLon[ 1] * 1e6),
+						0, 8, i == 50 && essai == 0 ? 20 : 1, 200);
+				trame.setHorodatage( 1136851200000L + 100L * i);
+				assertTrue( filtre.ajouter( trame));
+				// La trame GPRMC du meme instant est ignoree
+				assertFalse( filtre.ajouter( trame));
+				if( i == 49) {
+					attendue = filtre.getY();
+				}
+			}
+			ecarts[ essai] = filtre.getY() - attendue;
+		}
+		assertTrue( "Position douteuse", Math.abs( ecarts[ 0]) < 1);
+		assertTrue( "Position sure", ecarts[ 1] > 5);
+	}
+
+
+
+
+	/**
+	 * Permet de calculer le carré d'une distance.
+	 * @param dx
+	 * 				L'écart en x.
+	 * @param dy
+	 * 				L'écart en y.
+	 * @return Le carré de la distance.
+	 */
+	private static double carre( double dx, double dy) {
+		return dx * dx + dy * dy;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * BancCacheConversions.java
+ * Permet de mesurer le gain du cache de conversions sur des tours de circuit simules
+ */
+
+package telemetrieMoto.postTraitement.coordonnees;
+
+import java.util.Random;
+
+
+
+
+/**
+ * <b>BancCacheConversions mesure l'intérêt du {@link CacheConversions} par rapport au {@link ConvertisseurLambert2}.</b>
+ * <p>Une session est simulée : des tours d'un circuit d'environ 4 km enregistrés à 10 Hz, chaque tour s'écartant
+ * de quelques mètres de la trajectoire idéale. Les positions sont converties sans cache puis avec des caches de
+ * différents pas. Pour chaque pas, on affiche la durée d'une conversion, le taux de succès et l'écart maximal au
+ * calcul exact.</p>
+ * <p>Le cache est intéressant dès que la moto repasse dans les mêmes cellules : à partir du deuxième tour pour des
+ * cellules de quelques mètres. Des cellules d'un micro-degré ne sont presque jamais relues par une moto qui roule,
+ * le cache ne fait alors que ralentir la conversion.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see CacheConversions
+ */
+public final class BancCacheConversions {
+
+
+	/** Le nombre de tours simulés par défaut. */
+	private static final int NB_TOURS_S = 30;
+
+
+	/** Le nombre de positions enregistrées par tour. */
+	private static final int POSITIONS_PAR_TOUR_S = 1000;
+
+
+	/** Le nombre de mesures de chaque conversion, la première servant de chauffe. */
+	private static final int NB_MESURES_S = 5;
+
+
+	/** La capacité des caches mesurés. */
+	private static final int CAPACITE_S = 16384;
+
+
+	/** Les pas des caches mesurés en micro-degrés. */
+	private static final int[] PAS_S = { 1, 10, 50, 100, 1000};
+
+
+
+
+	/**
+	 * Le constructeur privé : la classe ne contient que le programme de mesure.
+	 */
+	private BancCacheConversions() {
+	}
+
+
+
+
+	/**
+	 * Le programme de mesure.
+	 * @param args
+	 * 				Le nombre de tours à simuler, {@link #NB_TOURS_S} par défaut.
+	 */
+	public static void main( String[] args) {
+		int nbTours = args.length > 0 ? Integer.parseInt( args[ 0]) : NB_TOURS_S;
+		int nb = nbTours * POSITIONS_PAR_TOUR_S;
+		double[] latitudes = new double[ nb];
+		double[] longitudes = new double[ nb];
+		double[] altitudes = new double[ nb];
+		simulerSession( nbTours, latitudes, longitudes, altitudes);
+
+		double[] xExact = new double[ nb];
+		double[] yExact = new double[ nb];
+		double[] zExact = new double[ nb];
+		long meilleure = Long.MAX_VALUE;
+		for( int m = 0 ; m < NB_MESURES_S ; ++m) {
+			long debut = System.nanoTime();
+			ConvertisseurLambert2.convertir( latitudes, longitudes, altitudes, xExact, yExact, zExact, 0, nb);
+			meilleure = Math.min( meilleure, System.nanoTime() - debut);
+		}
+		System.out.println( nb + " positions, " + nbTours + " tours");
+		System.out.println( "sans cache : " + meilleure / nb + " ns/position");
+
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		double[] z = new double[ nb];
+		for( int pas : PAS_S) {
+			// Un cache neuf par mesure, comme pour une session
+			CacheConversions cache = null;
+			meilleure = Long.MAX_VALUE;
+			for( int m = 0 ; m < NB_MESURES_S ; ++m) {
+				cache = new CacheConversions( CAPACITE_S, pas);
+				long debut = System.nanoTime();
+				cache.convertir( latitudes, longitudes, altitudes, x, y, z, 0, nb);
+				meilleure = Math.min( meilleure, System.nanoTime() - debut);
+			}
+			double erreurMax = 0;
+			for( int i = 0 ; i < nb ; ++i) {
+				erreurMax = Math.max( erreurMax, Math.hypot( x[ i] - xExact[ i], y[ i] - yExact[ i]));
+				erreurMax = Math.max( erreurMax, Math.abs( z[ i] - zExact[ i]));
+			}
+			System.out.println( "pas " + pas + " micro-degres : " + meilleure / nb + " ns/position, succes "
+					+ Math.round( cache.getTauxSucces() * 1000) / 10.0 + " %, " + cache.getNbEntrees() + " cellules, "
+					+ cache.getNbRemplacements() + " remplacements, erreur max " + erreurMax + " m");
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de simuler les positions d'une session sur un circuit autour de Magny-Cours.
+	 * @param nbTours
+	 * 				Le nombre de tours.
+	 * @param latitudes
+	 * 				Le tableau recevant les latitudes en degrés décimaux.
+	 * @param longitudes
+	 * 				Le tableau recevant les longitudes en degrés décimaux.
+	 * @param altitudes
+	 * 				Le tableau recevant les altitudes en mètres.
+	 */
+	static void simulerSession( int nbTours, double[] latitudes, double[] longitudes, double[] altitudes) {
+		Random aleatoire = new Random( 11);
+		for( int t = 0, i = 0 ; t < nbTours ; ++t) {
+			// Ecart lateral propre au tour, en degres (environ 5 m au plus)
+			double ecart = ( aleatoire.nextDouble() - 0.5) * 1e-4;
+			for( int p = 0 ; p < POSITIONS_PAR_TOUR_S ; ++p, ++i) {
+				double angle = 2 * Math.PI * ( p + aleatoire.nextDouble()) / POSITIONS_PAR_TOUR_S;
+				double rayon = 1 + 0.25 * Math.sin( 3 * angle);
+				latitudes[ i] = 46.86 + ( 0.006 + ecart) * rayon * Math.sin( angle) + 2e-6 * aleatoire.nextGaussian();
+				longitudes[ i] = 3.16 + ( 0.009 + ecart) * rayon * Math.cos( angle) + 2e-6 * aleatoire.nextGaussian();
+				altitudes[ i] = 220 + 15 * Math.sin( angle) + aleatoire.nextGaussian();
+			}
+		}
+	}
+}
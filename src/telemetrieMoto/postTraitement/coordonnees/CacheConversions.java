@@ -0,0 +1,402 @@
+/*
+ * CacheConversions.java
+ * Permet de garder les conversions Lambert 2 des positions deja rencontrees pendant une session
+ */
+
+package telemetrieMoto.postTraitement.coordonnees;
+
+
+
+
+/**
+ * <b>CacheConversions garde les conversions Lambert II des cellules de positions déjà rencontrées.</b>
+ * <p>Une moto repasse tour après tour sur les mêmes portions du circuit : les positions sont regroupées en
+ * cellules carrées de {@link #getPas()} micro-degrés de côté, et chaque cellule n'est convertie par le
+ * {@link ConvertisseurLambert2} qu'une seule fois. La cellule garde la conversion de son centre ainsi que
+ * ses dérivées en latitude, en longitude et en altitude : une position de la cellule est convertie par
+ * développement au premier ordre, avec un écart au calcul exact de quelques dizaines de micromètres pour des
+ * cellules de 100 micro-degrés (environ 10 m).</p>
+ * <p>Le cache est borné à {@link #getCapacite()} cellules. Les cellules sont rangées dans une table à
+ * adressage ouvert indexée par les coordonnées de la cellule, sans objet par entrée. Quand le cache est plein,
+ * la cellule remplacée est choisie par l'algorithme de l'horloge : une cellule relue depuis le dernier
+ * passage de l'aiguille a une seconde chance.
+ * <br>Les nombres de requêtes, de succès et de remplacements permettent de juger de l'intérêt du cache pour
+ * une session (voir {@link BancCacheConversions}).</p>
+ * <p>Un cache n'est pas partagé entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ConvertisseurLambert2
+ * @see BancCacheConversions
+ */
+public final class CacheConversions {
+
+
+	/** Le nombre de valeurs gardées par cellule : x, y, écart de hauteur et six dérivées. */
+	private static final int NB_VALEURS_S = 9;
+
+
+	/** Le pas en mètres utilisé pour la dérivée en altitude. */
+	private static final double PAS_ALTITUDE_S = 100.0;
+
+
+	/** Le nombre de micro-degrés dans un degré. */
+	private static final double MICRO_DEGRES_S = 1e6;
+
+
+	/** Le côté d'une cellule en micro-degrés. */
+	private final int pas_;
+
+
+	/** Le nombre maximal de cellules. */
+	private final int capacite_;
+
+
+	/** Le masque des indices de la table, dont la taille est une puissance de deux. */
+	private final int masque_;
+
+
+	/** La table à adressage ouvert : numéro de l'entrée plus un, 0 pour une case vide. */
+	private final int[] table_;
+
+
+	/** La clé de la cellule de chaque entrée. */
+	private final long[] cles_;
+
+
+	/** Les {@link #NB_VALEURS_S} valeurs de chaque entrée, à la suite. */
+	private final double[] valeurs_;
+
+
+	/** Le bit de référence de chaque entrée, pour l'algorithme de l'horloge. */
+	private final boolean[] references_;
+
+
+	/** Le nombre d'entrées utilisées. */
+	private int nbEntrees_ = 0;
+
+
+	/** La position de l'aiguille de l'horloge. */
+	private int aiguille_ = 0;
+
+
+	/** Le nombre de conversions demandées. */
+	private long nbRequetes_ = 0;
+
+
+	/** Le nombre de conversions trouvées dans le cache. */
+	private long nbSucces_ = 0;
+
+
+	/** Le nombre de cellules remplacées. */
+	private long nbRemplacements_ = 0;
+
+
+
+
+	/**
+	 * Le constructeur du cache.
+	 * @param capacite
+	 * 				Le nombre maximal de cellules gardées.
+	 * @param pas
+	 * 				Le côté d'une cellule en micro-degrés.
+	 * @throws IllegalArgumentException si la capacité ou le pas n'est pas strictement positif.
+	 */
+	public CacheConversions( int capacite, int pas) {
+		if( capacite < 1 || pas < 1) {
+			throw new IllegalArgumentException( "Capacite " + capacite + " ou pas " + pas + " invalide");
+		}
+		capacite_ = capacite;
+		pas_ = pas;
+		// La table reste au plus a moitie pleine
+		int taille = Integer.highestOneBit( Math.max( 2, capacite) - 1) << 2;
+		table_ = new int[ taille];
+		masque_ = taille - 1;
+		cles_ = new long[ capacite];
+		valeurs_ = new double[ capacite * NB_VALEURS_S];
+		references_ = new boolean[ capacite];
+	}
+
+
+
+
+	/**
+	 * Permet de convertir un point en coordonnées Lambert II, comme
+	 * {@link ConvertisseurLambert2#projeter(double, double, double, double[], int)}.
+	 * @param latitude
+	 * 				La latitude WGS84 en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude WGS84 en degrés décimaux.
+	 * @param altitude
+	 * 				La hauteur au dessus de l'ellipsoïde WGS84 en mètres.
+	 * @param xyz
+	 * 				Le tableau recevant l'abscisse, l'ordonnée et la hauteur au dessus de l'ellipsoïde Clarke 1880.
+	 * @param position
+	 * 				La position de l'abscisse dans le tableau.
+	 */
+	public void projeter( double latitude, double longitude, double altitude, double[] xyz, int position) {
+		++nbRequetes_;
+		long celluleLatitude = ( long) Math.floor( latitude * MICRO_DEGRES_S / pas_);
+		long celluleLongitude = ( long) Math.floor( longitude * MICRO_DEGRES_S / pas_);
+		long cle = ( celluleLatitude << 32) | ( celluleLongitude & 0xffffffffL);
+
+		int entree = chercher( cle);
+		if( entree >= 0) {
+			++nbSucces_;
+			references_[ entree] = true;
+		} else {
+			entree = remplir( cle, celluleLatitude, celluleLongitude);
+		}
+
+		// Developpement au premier ordre autour du centre de la cellule
+		double dLatitude = latitude - ( celluleLatitude + 0.5) * pas_ / MICRO_DEGRES_S;
+		double dLongitude = longitude - ( celluleLongitude + 0.5) * pas_ / MICRO_DEGRES_S;
+		int v = entree * NB_VALEURS_S;
+		xyz[ position] = valeurs_[ v] + valeurs_[ v + 3] * dLatitude + valeurs_[ v + 4] * dLongitude + valeurs_[ v + 7] * altitude;
+		xyz[ position + 1] = valeurs_[ v + 1] + valeurs_[ v + 5] * dLatitude + valeurs_[ v + 6] * dLongitude + valeurs_[ v + 8] * altitude;
+		xyz[ position + 2] = altitude + valeurs_[ v + 2];
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une série de points, comme {@link ConvertisseurLambert2#convertir(double[], double[],
+	 * double[], double[], double[], double[], int, int)}.
+	 * @param latitudes
+	 * 				Les latitudes WGS84 en degrés décimaux.
+	 * @param longitudes
+	 * 				Les longitudes WGS84 en degrés décimaux.
+	 * @param altitudes
+	 * 				Les hauteurs au dessus de l'ellipsoïde WGS84 en mètres, <i>null</i> pour des hauteurs nulles.
+	 * @param x
+	 * 				Le tableau recevant les abscisses.
+	 * @param y
+	 * 				Le tableau recevant les ordonnées.
+	 * @param z
+	 * 				Le tableau recevant les hauteurs, <i>null</i> si elles ne sont pas utiles.
+	 * @param debut
+	 * 				L'indice du premier point à convertir, dans tous les tableaux.
+	 * @param nb
+	 * 				Le nombre de points à convertir.
+	 */
+	public void convertir( double[] latitudes, double[] longitudes, double[] altitudes, double[] x, double[] y,
+			double[] z, int debut, int nb) {
+		double[] xyz = new double[ 3];
+		int fin = debut + nb;
+		for( int i = debut ; i < fin ; ++i) {
+			projeter( latitudes[ i], longitudes[ i], altitudes != null ? altitudes[ i] : 0.0, xyz, 0);
+			x[ i] = xyz[ 0];
+			y[ i] = xyz[ 1];
+			if( z != null) {
+				z[ i] = xyz[ 2];
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne l'indice de départ dans la table d'une clé.
+	 * @param cle
+	 * 				La clé de la cellule.
+	 * @return L'indice de la première case à examiner.
+	 */
+	private int indice( long cle) {
+		// Melange des bits de la cle, les cellules voisines ne doivent pas se suivre dans la table
+		long h = cle * 0x9E3779B97F4A7C15L;
+		return ( int) ( h ^ ( h >>> 32)) & masque_;
+	}
+
+
+
+
+	/**
+	 * Permet de trouver l'entrée d'une cellule.
+	 * @param cle
+	 * 				La clé de la cellule.
+	 * @return Le numéro de l'entrée, ou -1 si la cellule n'est pas dans le cache.
+	 */
+	private int chercher( long cle) {
+		for( int i = indice( cle) ; table_[ i] != 0 ; i = ( i + 1) & masque_) {
+			int entree = table_[ i] - 1;
+			if( cles_[ entree] == cle) {
+				return entree;
+			}
+		}
+		return -1;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une cellule absente et de la ranger dans le cache.
+	 * @param cle
+	 * 				La clé de la cellule.
+	 * @param celluleLatitude
+	 * 				Le numéro de la cellule en latitude.
+	 * @param celluleLongitude
+	 * 				Le numéro de la cellule en longitude.
+	 * @return Le numéro de l'entrée de la cellule.
+	 */
+	private int remplir( long cle, long celluleLatitude, long celluleLongitude) {
+		int entree;
+		if( nbEntrees_ < capacite_) {
+			entree = nbEntrees_++;
+		} else {
+			entree = choisirVictime();
+			supprimer( cles_[ entree]);
+			++nbRemplacements_;
+		}
+		cles_[ entree] = cle;
+		references_[ entree] = false;
+		int i = indice( cle);
+		while( table_[ i] != 0) {
+			i = ( i + 1) & masque_;
+		}
+		table_[ i] = entree + 1;
+
+		// Conversion exacte du centre de la cellule et de trois points voisins pour les derivees
+		double pasDegres = pas_ / MICRO_DEGRES_S;
+		double latitude = ( celluleLatitude + 0.5) * pasDegres;
+		double longitude = ( celluleLongitude + 0.5) * pasDegres;
+		double[] centre = new double[ 3];
+		double[] voisin = new double[ 3];
+		int v = entree * NB_VALEURS_S;
+		ConvertisseurLambert2.projeter( latitude, longitude, 0, centre, 0);
+		valeurs_[ v] = centre[ 0];
+		valeurs_[ v + 1] = centre[ 1];
+		valeurs_[ v + 2] = centre[ 2];
+		ConvertisseurLambert2.projeter( latitude + pasDegres, longitude, 0, voisin, 0);
+		valeurs_[ v + 3] = ( voisin[ 0] - centre[ 0]) / pasDegres;
+		valeurs_[ v + 5] = ( voisin[ 1] - centre[ 1]) / pasDegres;
+		ConvertisseurLambert2.projeter( latitude, longitude + pasDegres, 0, voisin, 0);
+		valeurs_[ v + 4] = ( voisin[ 0] - centre[ 0]) / pasDegres;
+		valeurs_[ v + 6] = ( voisin[ 1] - centre[ 1]) / pasDegres;
+		ConvertisseurLambert2.projeter( latitude, longitude, PAS_ALTITUDE_S, voisin, 0);
+		valeurs_[ v + 7] = ( voisin[ 0] - centre[ 0]) / PAS_ALTITUDE_S;
+		valeurs_[ v + 8] = ( voisin[ 1] - centre[ 1]) / PAS_ALTITUDE_S;
+		return entree;
+	}
+
+
+
+
+	/**
+	 * Permet de choisir l'entrée à remplacer par l'algorithme de l'horloge.
+	 * @return Le numéro de la première entrée non référencée après l'aiguille.
+	 */
+	private int choisirVictime() {
+		while( references_[ aiguille_]) {
+			references_[ aiguille_] = false;
+			aiguille_ = ( aiguille_ + 1) % capacite_;
+		}
+		int victime = aiguille_;
+		aiguille_ = ( aiguille_ + 1) % capacite_;
+		return victime;
+	}
+
+
+
+
+	/**
+	 * Permet de retirer une cellule de la table en recompactant les cases qui la suivent.
+	 * @param cle
+	 * 				La clé de la cellule, présente dans la table.
+	 */
+	private void supprimer( long cle) {
+		int i = indice( cle);
+		while( cles_[ table_[ i] - 1] != cle) {
+			i = ( i + 1) & masque_;
+		}
+		// Une case suivante n'est rapprochee que si sa position de depart n'est pas entre le trou et elle
+		for( int j = ( i + 1) & masque_ ; table_[ j] != 0 ; j = ( j + 1) & masque_) {
+			int depart = indice( cles_[ table_[ j] - 1]);
+			boolean aSaPlace = i <= j ? ( i < depart && depart <= j) : ( i < depart || depart <= j);
+			if( !aSaPlace) {
+				table_[ i] = table_[ j];
+				i = j;
+			}
+		}
+		table_[ i] = 0;
+	}
+
+
+
+
+	/**
+	 * Retourne le côté d'une cellule.
+	 * @return Le côté d'une cellule en micro-degrés.
+	 */
+	public int getPas() {
+		return pas_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre maximal de cellules.
+	 * @return La capacité du cache.
+	 */
+	public int getCapacite() {
+		return capacite_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de cellules gardées.
+	 * @return Le nombre de cellules dans le cache.
+	 */
+	public int getNbEntrees() {
+		return nbEntrees_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de conversions demandées.
+	 * @return Le nombre d'appels à {@link #projeter(double, double, double, double[], int)}.
+	 */
+	public long getNbRequetes() {
+		return nbRequetes_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de conversions trouvées dans le cache.
+	 * @return Le nombre de conversions faites sans le {@link ConvertisseurLambert2}.
+	 */
+	public long getNbSucces() {
+		return nbSucces_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de cellules remplacées faute de place.
+	 * @return Le nombre de remplacements.
+	 */
+	public long getNbRemplacements() {
+		return nbRemplacements_;
+	}
+
+
+
+
+	/**
+	 * Retourne la proportion des conversions trouvées dans le cache.
+	 * @return Le taux de succès entre 0 et 1, 0 si aucune conversion n'a été demandée.
+	 */
+	public double getTauxSucces() {
+		return nbRequetes_ > 0 ? ( double) nbSucces_ / nbRequetes_ : 0.0;
+	}
+}
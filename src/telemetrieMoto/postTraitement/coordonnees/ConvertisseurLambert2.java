@@ -0,0 +1,210 @@
+/*
+ * ConvertisseurLambert2.java
+ * Permet de convertir des series de coordonnees en degres decimaux en coordonnees Lambert 2
+ */
+
+package telemetrieMoto.postTraitement.coordonnees;
+
+
+
+
+/**
+ * <b>ConvertisseurLambert2 permet de convertir des tableaux de coordonnées WGS84 en coordonnées Lambert II.</b>
+ * <p>La conversion se fait en trois étapes :
+ * <ul>
+ * 	<li>Passage en coordonnées géocentriques sur l'ellipsoïde WGS84 puis translation vers le système NTF.</li>
+ * 	<li>Retour en coordonnées géographiques sur l'ellipsoïde Clarke 1880 IGN, par la formule de Bowring qui
+ * 	évite les itérations.</li>
+ * 	<li>Projection conique conforme de Lambert zone II, méridien d'origine de Paris.</li>
+ * </ul>
+ * Toutes les constantes dérivées des ellipsoïdes et de la projection sont calculées une seule fois.</p>
+ * <p>Les coordonnées sont passées sous forme de tableaux séparés (latitudes, longitudes, altitudes) : une
+ * session entière se convertit sans créer un objet par point. L'ordonnée est comptée sans le décalage de zone,
+ * comme le faisait {@link CoordonneesGPSLambert2}.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see CoordonneesGPSLambert2
+ * @see CoordonneesGPSDegresDecimaux
+ */
+public final class ConvertisseurLambert2 {
+
+
+	/** Le demi grand axe de l'ellipsoïde WGS84 en mètres. */
+	private static final double A_WGS84_S = 6378137.0;
+
+
+	/** Le carré de l'excentricité de l'ellipsoïde WGS84. */
+	private static final double E2_WGS84_S = 0.08181919112 * 0.08181919112;
+
+
+	/** La translation en mètres sur l'axe des x du système WGS84 vers le système NTF. */
+	private static final double TX_S = 168.0;
+
+
+	/** La translation en mètres sur l'axe des y du système WGS84 vers le système NTF. */
+	private static final double TY_S = 60.0;
+
+
+	/** La translation en mètres sur l'axe des z du système WGS84 vers le système NTF. */
+	private static final double TZ_S = -320.0;
+
+
+	/** Le demi grand axe de l'ellipsoïde Clarke 1880 IGN en mètres. */
+	private static final double A_CLARKE_S = 6378249.2;
+
+
+	/** Le demi petit axe de l'ellipsoïde Clarke 1880 IGN en mètres. */
+	private static final double B_CLARKE_S = 6356515.0;
+
+
+	/** Le carré de l'excentricité de l'ellipsoïde Clarke 1880 IGN. */
+	private static final double E2_CLARKE_S = ( A_CLARKE_S * A_CLARKE_S - B_CLARKE_S * B_CLARKE_S) / ( A_CLARKE_S * A_CLARKE_S);
+
+
+	/** L'excentricité de l'ellipsoïde Clarke 1880 IGN. */
+	private static final double E_CLARKE_S = Math.sqrt( E2_CLARKE_S);
+
+
+	/** Le carré de la seconde excentricité de l'ellipsoïde Clarke 1880 IGN. */
+	private static final double EP2_CLARKE_S = ( A_CLARKE_S * A_CLARKE_S - B_CLARKE_S * B_CLARKE_S) / ( B_CLARKE_S * B_CLARKE_S);
+
+
+	/** L'exposant de la projection Lambert II. */
+	private static final double N_S = 0.728968627421412;
+
+
+	/** La constante de la projection Lambert II en mètres. */
+	private static final double C_S = 11745793.393416170;
+
+
+	/** L'abscisse en mètres de la projection du méridien d'origine. */
+	private static final double XS_S = 600000.0;
+
+
+	/** L'ordonnée en mètres du pôle de la projection, sans le décalage de zone. */
+	private static final double YS_S = 6199695.76801151690;
+
+
+	/** La longitude du méridien de Paris en radians. */
+	private static final double LONGITUDE_ORIGINE_S = 0.040792344331977;
+
+
+	/** Le facteur de conversion des degrés en radians. */
+	private static final double RADIANS_PAR_DEGRE_S = Math.PI / 180.0;
+
+
+
+
+	/**
+	 * Le constructeur est privé : la classe ne contient que des méthodes statiques.
+	 */
+	private ConvertisseurLambert2() {
+	}
+
+
+
+
+	/**
+	 * Permet de convertir un point.
+	 * @param latitude
+	 * 				La latitude WGS84 en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude WGS84 en degrés décimaux.
+	 * @param altitude
+	 * 				La hauteur au dessus de l'ellipsoïde WGS84 en mètres.
+	 * @param xyz
+	 * 				Le tableau recevant l'abscisse, l'ordonnée et la hauteur au dessus de l'ellipsoïde Clarke 1880.
+	 * @param position
+	 * 				La position de l'abscisse dans le tableau.
+	 */
+	public static void projeter( double latitude, double longitude, double altitude, double[] xyz, int position) {
+		double phi = latitude * RADIANS_PAR_DEGRE_S;
+		double lambda = longitude * RADIANS_PAR_DEGRE_S;
+		double sinPhi = Math.sin( phi);
+		double cosPhi = Math.cos( phi);
+
+		// Coordonnees geocentriques WGS84 puis NTF
+		double n = A_WGS84_S / Math.sqrt( 1.0 - E2_WGS84_S * sinPhi * sinPhi);
+		double x = ( n + altitude) * cosPhi * Math.cos( lambda) + TX_S;
+		double y = ( n + altitude) * cosPhi * Math.sin( lambda) + TY_S;
+		double z = ( n * ( 1.0 - E2_WGS84_S) + altitude) * sinPhi + TZ_S;
+
+		// Coordonnees geographiques sur Clarke 1880 (Bowring)
+		double p = Math.sqrt( x * x + y * y);
+		double theta = Math.atan2( z * A_CLARKE_S, p * B_CLARKE_S);
+		double sinTheta = Math.sin( theta);
+		double cosTheta = Math.cos( theta);
+		phi = Math.atan2( z + EP2_CLARKE_S * B_CLARKE_S * sinTheta * sinTheta * sinTheta,
+				p - E2_CLARKE_S * A_CLARKE_S * cosTheta * cosTheta * cosTheta);
+		lambda = Math.atan2( y, x);
+		sinPhi = Math.sin( phi);
+		double hauteur = p / Math.cos( phi) - A_CLARKE_S / Math.sqrt( 1.0 - E2_CLARKE_S * sinPhi * sinPhi);
+
+		// Latitude isometrique puis projection conique conforme
+		double eSinPhi = E_CLARKE_S * sinPhi;
+		double l = 0.5 * ( Math.log( ( 1.0 + sinPhi) / ( 1.0 - sinPhi)) - E_CLARKE_S * Math.log( ( 1.0 + eSinPhi) / ( 1.0 - eSinPhi)));
+		double r = C_S * Math.exp( -N_S * l);
+		double gamma = N_S * ( lambda - LONGITUDE_ORIGINE_S);
+		xyz[ position] = XS_S + r * Math.sin( gamma);
+		xyz[ position + 1] = YS_S - r * Math.cos( gamma);
+		xyz[ position + 2] = hauteur;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une série de points.
+	 * @param latitudes
+	 * 				Les latitudes WGS84 en degrés décimaux.
+	 * @param longitudes
+	 * 				Les longitudes WGS84 en degrés décimaux.
+	 * @param altitudes
+	 * 				Les hauteurs au dessus de l'ellipsoïde WGS84 en mètres, <i>null</i> pour des hauteurs nulles.
+	 * @param x
+	 * 				Le tableau recevant les abscisses.
+	 * @param y
+	 * 				Le tableau recevant les ordonnées.
+	 * @param z
+	 * 				Le tableau recevant les hauteurs au dessus de l'ellipsoïde Clarke 1880, <i>null</i> si elles
+	 * 				ne sont pas utiles.
+	 * @param debut
+	 * 				L'indice du premier point à convertir, dans tous les tableaux.
+	 * @param nb
+	 * 				Le nombre de points à convertir.
+	 */
+	public static void convertir( double[] latitudes, double[] longitudes, double[] altitudes, double[] x, double[] y,
+			double[] z, int debut, int nb) {
+		double[] xyz = new double[ 3];
+		int fin = debut + nb;
+		for( int i = debut ; i < fin ; ++i) {
+			projeter( latitudes[ i], longitudes[ i], altitudes != null ? altitudes[ i] : 0.0, xyz, 0);
+			x[ i] = xyz[ 0];
+			y[ i] = xyz[ 1];
+			if( z != null) {
+				z[ i] = xyz[ 2];
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de convertir tous les points d'une série.
+	 * @param latitudes
+	 * 				Les latitudes WGS84 en degrés décimaux.
+	 * @param longitudes
+	 * 				Les longitudes WGS84 en degrés décimaux.
+	 * @param altitudes
+	 * 				Les hauteurs au dessus de l'ellipsoïde WGS84 en mètres, <i>null</i> pour des hauteurs nulles.
+	 * @param x
+	 * 				Le tableau recevant les abscisses.
+	 * @param y
+	 * 				Le tableau recevant les ordonnées.
+	 */
+	public static void convertir( double[] latitudes, double[] longitudes, double[] altitudes, double[] x, double[] y) {
+		convertir( latitudes, longitudes, altitudes, x, y, null, 0, latitudes.length);
+	}
+}
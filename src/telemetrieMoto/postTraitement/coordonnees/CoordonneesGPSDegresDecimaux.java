@@ -12,9 +12,9 @@ import telemetrieMoto.acquisition.comm.gps.TrameGPS;
 
 
 /**
- * <b>CoordonneesGPSDegresDecimaux permet de reprsenter une coordonne GPS en utilisant 
- * les degrs dcimaux.</b>
- * <p>La classe propose un systme de conversion des trames au format WGS84 au format degrs dcimaux.</p>
+ * <b>CoordonneesGPSDegresDecimaux permet de représenter une coordonnée GPS en utilisant 
+ * les degrés décimaux.</b>
+ * <p>La classe propose un système de conversion des trames au format WGS84 au format degrés décimaux.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -23,28 +23,28 @@ import telemetrieMoto.acquisition.comm.gps.TrameGPS;
 public class CoordonneesGPSDegresDecimaux {
 
 
-	/** La latitude exprime en degrs dcimaux. */
+	/** La latitude exprimée en degrés décimaux. */
 	private double latitude_;
 
 
-	/** La longitude exprime en degrs dcimaux. */
+	/** La longitude exprimée en degrés décimaux. */
 	private double longitude_;
 	
 	
-	/** L'altitude exprime en mtres. */
+	/** L'altitude exprimée en mètres. */
 	private double altitude_;
 
 
 
 
 	/**
-	 * Le constructeur de coordonnes GPS en reprsentation degrs dcimaux.
+	 * Le constructeur de coordonnées GPS en représentation degrés décimaux.
 	 * @param latitude
-	 * 					La latitude de la coordonne en degrs dcimaux.
+	 * 					La latitude de la coordonnée en degrés décimaux.
 	 * @param longitude
-	 * 					La longitude de la coordonne en degrs dcimaux.
+	 * 					La longitude de la coordonnée en degrés décimaux.
 	 * @param altitude
-	 * 					L'altitude de la coordonne en mtres.
+	 * 					L'altitude de la coordonnée en mètres.
 	 */
 	public CoordonneesGPSDegresDecimaux( double latitude, double longitude, double altitude) {
 		latitude_ = latitude;
@@ -56,32 +56,17 @@ public class CoordonneesGPSDegresDecimaux {
 
 
 	/**
-	 * Construit une coordonne GPS en reprsentation degrs dcimaux  partir d'une {@link TrameGPS} 
+	 * Construit une coordonnée GPS en représentation degrés décimaux à partir d'une {@link TrameGPS} 
 	 * au format WGS84.
+	 * <p>La trame doit contenir une position (voir {@link TrameGPS#aUnePosition()}).</p>
 	 * @param trame
-	 * 				La {@link TrameGPS}  partir de laquelle on va extraire la coordonne.
+	 * 				La {@link TrameGPS} à partir de laquelle on va extraire la coordonnée.
 	 */
 	public CoordonneesGPSDegresDecimaux( TrameGPS trame) {
-		// La longitude et latitude a transformer
-		latitude_ = Double.valueOf( trame.getLatitude().substring( 0, trame.getLatitude().length() - 2));
-		longitude_ = Double.valueOf( trame.getLongitude().substring( 0, trame.getLongitude().length() - 2));
+		// La trame stocke deja la position en millioniemes de degre, aucune chaine n'est analysee
+		latitude_ = trame.getLatitudeMicroDegres() / 1e6;
+		longitude_ = trame.getLongitudeMicroDegres() / 1e6;
 
-		if( trame.getLatitude().charAt( trame.getLatitude().length() - 1) == 'S') {
-			latitude_ *= - 1;
-		}
-		if( trame.getLongitude().charAt( trame.getLongitude().length() - 1) == 'W') {
-			longitude_ *= -1;
-		}
-
-		// Conversion en degres minutes
-		double degres = partieEntiere( latitude_ / 100.0f);
-		double minutes = latitude_ - ( degres * 100.0f);
-
-		latitude_ = degres + minutes / 60.0f;
-		degres = partieEntiere( longitude_ / 100.0f);
-		minutes = longitude_ - ( degres * 100.0f);
-		longitude_ = degres + minutes / 60.0f;
-		
 		// Recherche de l'altitude du point
 		if( trame instanceof TrameGPGGA) {
 			altitude_ = ( ( TrameGPGGA) trame).getAltitude();
@@ -94,8 +79,8 @@ public class CoordonneesGPSDegresDecimaux {
 
 
 	/**
-	 * Retourne la coordonne GPS sous forme <i>latitude;longitude;altitude</i>.
-	 * @return La coordonne GPS sous forme <i>latitude:longitude;altitude</i>.
+	 * Retourne la coordonnée GPS sous forme <i>latitude;longitude;altitude</i>.
+	 * @return La coordonnée GPS sous forme <i>latitude:longitude;altitude</i>.
 	 */
 	public String toString() {
 		return latitude_ + ";" + longitude_ + ";" + altitude_;
@@ -105,7 +90,7 @@ public class CoordonneesGPSDegresDecimaux {
 
 
 	/**
-	 * Permet d'obtenir la valeur entire de v.
+	 * Permet d'obtenir la valeur entière de v.
 	 * @param v
 	 * 			Le nombre dont on veut l'arrondie entier.
 	 * @return L'arrondi entier de v.
@@ -10,8 +10,8 @@ package telemetrieMoto.postTraitement.coordonnees;
 
 
 /**
- * <b>CoordonneesGPSLambert2 permet de reprsenter des coordonne GPS sous forme cartesienne.</b>
- * <p>La classe permet la conversion des trames GPS au format WGS84 sous forme cartsienne grce  
+ * <b>CoordonneesGPSLambert2 permet de représenter des coordonnée GPS sous forme cartesienne.</b>
+ * <p>La classe permet la conversion des trames GPS au format WGS84 sous forme cartésienne grâce à 
  * la projection de <b>Lambert II</b>.</p>
  * 
  * @author Yoan DUMAS
@@ -21,28 +21,28 @@ package telemetrieMoto.postTraitement.coordonnees;
 public class CoordonneesGPSLambert2 {
 
 	
-	/** La coordonne cartsienne sur l'axe des x. */
+	/** La coordonnée cartésienne sur l'axe des x. */
 	private double x_;
 	
 	
-	/** La coordonne cartsienne sur l'axe des y. */
+	/** La coordonnée cartésienne sur l'axe des y. */
 	private double y_;
 	
 	
-	/** La coordonne cartsienne sur l'axe des z. */
+	/** La coordonnée cartésienne sur l'axe des z. */
 	private double z_;
 	
 	
 	
 	
 	/**
-	 * Le constructeur de coordonnes GPS en reprsentation <b>Lambert II</b>.
+	 * Le constructeur de coordonnées GPS en représentation <b>Lambert II</b>.
 	 * @param x 
-	 * 			La coordonne cartsienne sur l'axe des x.
+	 * 			La coordonnée cartésienne sur l'axe des x.
 	 * @param y
-	 * 			La coordonne cartsienne sur l'axe des y.
+	 * 			La coordonnée cartésienne sur l'axe des y.
 	 * @param z
-	 * 			La coordonne cartsienne sur l'axe des z.
+	 * 			La coordonnée cartésienne sur l'axe des z.
 	 */
 	public CoordonneesGPSLambert2( double x, double y, double z) {
 		x_ = x;
@@ -52,56 +52,30 @@ public class CoordonneesGPSLambert2 {
 	
 	
 	
-	/* 50m d'erreur sur x, 5m d'err sur y
-	Ecart type sur x et sur y plus ou moins 5m
-	//Methode Peter*/
 	/**
-	 * Permet de construire une coordone GPS sous forme cartsienne  partir d'une coordonne exprime
-	 * en degrs dcimaux.
+	 * Permet de construire une coordonée GPS sous forme cartésienne à partir d'une coordonnée exprimée
+	 * en degrés décimaux.
+	 * <p>La conversion est celle de {@link ConvertisseurLambert2#projeter(double, double, double, double[], int)} :
+	 * z est la hauteur au dessus de l'ellipsoïde Clarke 1880. Pour convertir une série de coordonnées, il est
+	 * préférable d'utiliser directement le {@link ConvertisseurLambert2}.</p>
 	 * @param cgdd
-	 * 				La coordonne GPS exprime en degrs dcimaux.
+	 * 				La coordonnée GPS exprimée en degrés décimaux.
 	 */
 	public CoordonneesGPSLambert2( CoordonneesGPSDegresDecimaux cgdd) {
-		double a, e2, sinFi, cosFi, N;
-		double longi, lati, alti;
-		
-		longi = Radians( cgdd.getLongitude());
-		lati = Radians( cgdd.getLatitude());
-		alti = cgdd.getAltitude();
-		
-		a = 6378137.0;
-		e2 = Math.pow( 0.08181919112, 2);
-		
-		sinFi = Math.sin( lati);
-		cosFi = Math.cos( lati);
-		
-		N = a / Math.sqrt( 1 - e2 * sinFi * sinFi );
-		
-		x_  = ( N + alti) * cosFi * Math.cos( longi) + 168.0;
-        y_  = ( N + alti) * cosFi * Math.sin( longi) + 60.0;
-        z_  = ( N * ( 1 - e2) + alti) * sinFi - 320.0;
-		
-		
-        // Passage en plane ne fonctionne pas
-        double L, tmp;
-
-		L = Math.log( Math.tan( Math.PI / 4.0 + lati / 2.0) * Math.pow( ( 1 - 0.08248325676 * Math.sin( lati)) / ( 1 + 0.08248325676 * Math.sin( lati)), 
-				( 0.08248325676 / 2.0)) );
-
-		tmp = 11745793.393416170 * Math.exp( - 0.728968627421412 * L);
-
-		// Passage en plane
-		x_ = 600000.d + tmp * Math.sin( 0.728968627421412 * ( longi - 0.040792344331977));
-		y_ = 6199695.76801151690 - tmp * Math.cos( 0.728968627421412 * ( longi - 0.040792344331977));
+		double[] xyz = new double[ 3];
+		ConvertisseurLambert2.projeter( cgdd.getLatitude(), cgdd.getLongitude(), cgdd.getAltitude(), xyz, 0);
+		x_ = xyz[ 0];
+		y_ = xyz[ 1];
+		z_ = xyz[ 2];
 	}
-	
-	
-	
-	
+
+
+
+
 	/**
-	 * Permet de convertir un angle en degrs en radians.
+	 * Permet de convertir un angle en degrés en radians.
 	 * @param x
-	 * 			L'angle en degrs.
+	 * 			L'angle en degrés.
 	 * @return L'angle en radians.
 	 */
 	public static double Radians( double x) { 
@@ -112,10 +86,10 @@ public class CoordonneesGPSLambert2 {
 	
 	
 	/**
-	 * Permet de convertir un angle en radians en degrs.
+	 * Permet de convertir un angle en radians en degrés.
 	 * @param x
 	 * 			L'angle en radians.
-	 * @return L'angle en degrs.
+	 * @return L'angle en degrés.
 	 */
 	public static double Degres( double x) { 
 		return ( ( x * 180.0) / Math.PI); 
@@ -125,8 +99,8 @@ public class CoordonneesGPSLambert2 {
 	
 	
 	/**
-	 * Permet d'afficher la coordonne GPS sous forme <i>x;y;z</i>.
-	 * @return La coordonne GPS sous forme <i>x;y;z</i>.
+	 * Permet d'afficher la coordonnée GPS sous forme <i>x;y;z</i>.
+	 * @return La coordonnée GPS sous forme <i>x;y;z</i>.
 	 */
 	public String toString() {
 		return x_ + ";" + y_ + ";" + z_;
@@ -136,8 +110,8 @@ public class CoordonneesGPSLambert2 {
 
 
 	/**
-	 * Retourne l'abscisse de la coordonne cartsienne.
-	 * @return L'abscisse de la coordonne cartsienne.
+	 * Retourne l'abscisse de la coordonnée cartésienne.
+	 * @return L'abscisse de la coordonnée cartésienne.
 	 */
 	public double getX() {
 		return x_;
@@ -147,8 +121,8 @@ public class CoordonneesGPSLambert2 {
 
 
 	/**
-	 * Retourne l'ordonne de la coordonne cartsienne.
-	 * @return L'ordonne de la coordonne cartsienne.
+	 * Retourne l'ordonnée de la coordonnée cartésienne.
+	 * @return L'ordonnée de la coordonnée cartésienne.
 	 */
 	public double getY() {
 		return y_;
@@ -158,8 +132,8 @@ public class CoordonneesGPSLambert2 {
 
 
 	/**
-	 * Retourne la hauteur de la coordone cartsienne.
-	 * @return La hauteur de la coordone cartsienne.
+	 * Retourne la hauteur de la coordonée cartésienne.
+	 * @return La hauteur de la coordonée cartésienne.
 	 */
 	public double getZ() {
 		return z_;
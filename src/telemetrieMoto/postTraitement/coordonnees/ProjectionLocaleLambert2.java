@@ -0,0 +1,411 @@
+/*
+ * ProjectionLocaleLambert2.java
+ * Permet d'approcher la conversion Lambert 2 par un polynome autour d'un circuit
+ */
+
+package telemetrieMoto.postTraitement.coordonnees;
+
+
+
+
+/**
+ * <b>ProjectionLocaleLambert2 permet d'approcher la conversion Lambert II par un polynôme sur une petite zone.</b>
+ * <p>Un circuit ne fait que quelques kilomètres : sur une zone aussi petite, la conversion du
+ * {@link ConvertisseurLambert2} est très bien approchée par un polynôme de degré 3 en latitude et longitude,
+ * plus un terme linéaire en altitude. Les coefficients sont ajustés une fois par moindres carrés sur une grille
+ * de points convertis exactement, puis chaque point se projette avec une vingtaine de multiplications et
+ * additions, sans aucune fonction trigonométrique ni logarithme.</p>
+ * <p>L'erreur maximale de l'approximation est mesurée à la construction sur une grille plus fine que celle de
+ * l'ajustement (voir {@link #getErreurMax()}). Elle doit être comparée à {@link #ERREUR_MAX_S} avant d'utiliser
+ * la projection. Les points hors de la zone sont convertis par la formule exacte.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ConvertisseurLambert2
+ */
+public final class ProjectionLocaleLambert2 {
+
+
+	/** L'erreur maximale tolérée en mètres, au delà de laquelle il faut utiliser la formule exacte. */
+	public static final double ERREUR_MAX_S = 0.05;
+
+
+	/** Le degré du polynôme en latitude et longitude. */
+	private static final int DEGRE_S = 3;
+
+
+	/** Le nombre de coefficients de chaque polynôme : monômes de degré 3 au plus, plus le terme en altitude. */
+	private static final int NB_COEFFICIENTS_S = ( DEGRE_S + 1) * ( DEGRE_S + 2) / 2 + 1;
+
+
+	/** Le nombre de points de la grille d'ajustement sur chaque axe horizontal. */
+	private static final int POINTS_AJUSTEMENT_S = 9;
+
+
+	/** Le nombre de points de la grille de vérification sur chaque axe horizontal. */
+	private static final int POINTS_VERIFICATION_S = 33;
+
+
+	/** La demi étendue minimale de la zone en degrés, environ 100 m. */
+	private static final double DEMI_ETENDUE_MIN_S = 0.001;
+
+
+	/** La demi étendue minimale de la zone en altitude, en mètres. */
+	private static final double DEMI_ETENDUE_ALTITUDE_MIN_S = 100.0;
+
+
+	/** La latitude du centre de la zone en degrés. */
+	private final double latitude0_;
+
+
+	/** La longitude du centre de la zone en degrés. */
+	private final double longitude0_;
+
+
+	/** L'altitude du centre de la zone en mètres. */
+	private final double altitude0_;
+
+
+	/** L'inverse de la demi étendue de la zone en latitude. */
+	private final double echelleLatitude_;
+
+
+	/** L'inverse de la demi étendue de la zone en longitude. */
+	private final double echelleLongitude_;
+
+
+	/** L'inverse de la demi étendue de la zone en altitude. */
+	private final double echelleAltitude_;
+
+
+	/** Les coefficients du polynôme donnant l'abscisse. */
+	private final double[] cx_;
+
+
+	/** Les coefficients du polynôme donnant l'ordonnée. */
+	private final double[] cy_;
+
+
+	/** Les coefficients du polynôme donnant la hauteur au dessus de l'ellipsoïde Clarke 1880. */
+	private final double[] cz_;
+
+
+	/** L'écart horizontal maximal en mètres mesuré avec la formule exacte. */
+	private final double erreurMax_;
+
+
+	/** L'écart maximal en hauteur en mètres mesuré avec la formule exacte. */
+	private final double erreurMaxHauteur_;
+
+
+
+
+	/**
+	 * Le constructeur d'une projection approchée sur une zone.
+	 * <p>La zone est agrandie de 10 % de chaque côté.</p>
+	 * @param latitudeMin
+	 * 				La latitude minimale de la zone en degrés décimaux.
+	 * @param latitudeMax
+	 * 				La latitude maximale de la zone en degrés décimaux.
+	 * @param longitudeMin
+	 * 				La longitude minimale de la zone en degrés décimaux.
+	 * @param longitudeMax
+	 * 				La longitude maximale de la zone en degrés décimaux.
+	 * @param altitudeMin
+	 * 				L'altitude minimale de la zone en mètres.
+	 * @param altitudeMax
+	 * 				L'altitude maximale de la zone en mètres.
+	 */
+	public ProjectionLocaleLambert2( double latitudeMin, double latitudeMax, double longitudeMin, double longitudeMax,
+			double altitudeMin, double altitudeMax) {
+		latitude0_ = ( latitudeMin + latitudeMax) / 2;
+		longitude0_ = ( longitudeMin + longitudeMax) / 2;
+		altitude0_ = ( altitudeMin + altitudeMax) / 2;
+		echelleLatitude_ = 1.0 / Math.max( 1.1 * ( latitudeMax - latitudeMin) / 2, DEMI_ETENDUE_MIN_S);
+		echelleLongitude_ = 1.0 / Math.max( 1.1 * ( longitudeMax - longitudeMin) / 2, DEMI_ETENDUE_MIN_S);
+		echelleAltitude_ = 1.0 / Math.max( 1.1 * ( altitudeMax - altitudeMin) / 2, DEMI_ETENDUE_ALTITUDE_MIN_S);
+
+		// Ajustement sur une grille de points convertis exactement, a trois altitudes
+		double[][] normale = new double[ NB_COEFFICIENTS_S][ NB_COEFFICIENTS_S];
+		double[][] seconds = new double[ 3][ NB_COEFFICIENTS_S];
+		double[] monomes = new double[ NB_COEFFICIENTS_S];
+		double[] exact = new double[ 3];
+		for( int w = -1 ; w <= 1 ; ++w) {
+			for( int i = 0 ; i < POINTS_AJUSTEMENT_S ; ++i) {
+				for( int j = 0 ; j < POINTS_AJUSTEMENT_S ; ++j) {
+					double u = -1.0 + 2.0 * i / ( POINTS_AJUSTEMENT_S - 1);
+					double v = -1.0 + 2.0 * j / ( POINTS_AJUSTEMENT_S - 1);
+					monomes( u, v, w, monomes);
+					projeterExact( u, v, w, exact);
+					for( int k = 0 ; k < NB_COEFFICIENTS_S ; ++k) {
+						for( int l = 0 ; l < NB_COEFFICIENTS_S ; ++l) {
+							normale[ k][ l] += monomes[ k] * monomes[ l];
+						}
+						for( int s = 0 ; s < 3 ; ++s) {
+							seconds[ s][ k] += monomes[ k] * exact[ s];
+						}
+					}
+				}
+			}
+		}
+		cx_ = resoudre( normale, seconds[ 0]);
+		cy_ = resoudre( normale, seconds[ 1]);
+		cz_ = resoudre( normale, seconds[ 2]);
+
+		// Mesure de l'erreur sur une grille plus fine, y compris entre les altitudes d'ajustement
+		double erreurMax = 0;
+		double erreurMaxHauteur = 0;
+		double[] approche = new double[ 3];
+		for( int k = 0 ; k <= 4 ; ++k) {
+			double w = -1.0 + 0.5 * k;
+			for( int i = 0 ; i < POINTS_VERIFICATION_S ; ++i) {
+				for( int j = 0 ; j < POINTS_VERIFICATION_S ; ++j) {
+					double u = -1.0 + 2.0 * i / ( POINTS_VERIFICATION_S - 1);
+					double v = -1.0 + 2.0 * j / ( POINTS_VERIFICATION_S - 1);
+					projeterExact( u, v, w, exact);
+					evaluer( u, v, w, approche, 0);
+					double dx = approche[ 0] - exact[ 0];
+					double dy = approche[ 1] - exact[ 1];
+					erreurMax = Math.max( erreurMax, Math.sqrt( dx * dx + dy * dy));
+					erreurMaxHauteur = Math.max( erreurMaxHauteur, Math.abs( approche[ 2] - exact[ 2]));
+				}
+			}
+		}
+		erreurMax_ = erreurMax;
+		erreurMaxHauteur_ = erreurMaxHauteur;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir exactement un point de la zone donné par ses coordonnées réduites.
+	 * @param u
+	 * 				La latitude réduite, de -1 à 1.
+	 * @param v
+	 * 				La longitude réduite, de -1 à 1.
+	 * @param w
+	 * 				L'altitude réduite, de -1 à 1.
+	 * @param xyz
+	 * 				Le tableau recevant l'abscisse, l'ordonnée et la hauteur.
+	 */
+	private void projeterExact( double u, double v, double w, double[] xyz) {
+		ConvertisseurLambert2.projeter( latitude0_ + u / echelleLatitude_, longitude0_ + v / echelleLongitude_,
+				altitude0_ + w / echelleAltitude_, xyz, 0);
+	}
+
+
+
+
+	/**
+	 * Permet de calculer les monômes des coordonnées réduites, dans l'ordre des coefficients.
+	 * @param u
+	 * 				La latitude réduite.
+	 * @param v
+	 * 				La longitude réduite.
+	 * @param w
+	 * 				L'altitude réduite.
+	 * @param monomes
+	 * 				Le tableau recevant les monômes.
+	 */
+	private static void monomes( double u, double v, double w, double[] monomes) {
+		int k = 0;
+		double ui = 1;
+		for( int i = 0 ; i <= DEGRE_S ; ++i) {
+			double uv = ui;
+			for( int j = 0 ; i + j <= DEGRE_S ; ++j) {
+				monomes[ k++] = uv;
+				uv *= v;
+			}
+			ui *= u;
+		}
+		monomes[ k] = w;
+	}
+
+
+
+
+	/**
+	 * Permet de résoudre un système linéaire par la méthode de Gauss avec recherche du pivot.
+	 * @param matrice
+	 * 				La matrice du système, qui n'est pas modifiée.
+	 * @param secondMembre
+	 * 				Le second membre du système, qui n'est pas modifié.
+	 * @return La solution du système.
+	 */
+	private static double[] resoudre( double[][] matrice, double[] secondMembre) {
+		int n = secondMembre.length;
+		double[][] a = new double[ n][];
+		for( int i = 0 ; i < n ; ++i) {
+			a[ i] = new double[ n + 1];
+			System.arraycopy( matrice[ i], 0, a[ i], 0, n);
+			a[ i][ n] = secondMembre[ i];
+		}
+		for( int colonne = 0 ; colonne < n ; ++colonne) {
+			int pivot = colonne;
+			for( int i = colonne + 1 ; i < n ; ++i) {
+				if( Math.abs( a[ i][ colonne]) > Math.abs( a[ pivot][ colonne])) {
+					pivot = i;
+				}
+			}
+			double[] ligne = a[ pivot];
+			a[ pivot] = a[ colonne];
+			a[ colonne] = ligne;
+			for( int i = colonne + 1 ; i < n ; ++i) {
+				double facteur = a[ i][ colonne] / ligne[ colonne];
+				for( int j = colonne ; j <= n ; ++j) {
+					a[ i][ j] -= facteur * ligne[ j];
+				}
+			}
+		}
+		double[] solution = new double[ n];
+		for( int i = n - 1 ; i >= 0 ; --i) {
+			double somme = a[ i][ n];
+			for( int j = i + 1 ; j < n ; ++j) {
+				somme -= a[ i][ j] * solution[ j];
+			}
+			solution[ i] = somme / a[ i][ i];
+		}
+		return solution;
+	}
+
+
+
+
+	/**
+	 * Permet d'évaluer un polynôme en coordonnées réduites, par le schéma de Horner.
+	 * @param c
+	 * 				Les coefficients du polynôme.
+	 * @param u
+	 * 				La latitude réduite.
+	 * @param v
+	 * 				La longitude réduite.
+	 * @param w
+	 * 				L'altitude réduite.
+	 * @return La valeur du polynôme.
+	 */
+	private static double polynome( double[] c, double u, double v, double w) {
+		return c[ 0] + v * ( c[ 1] + v * ( c[ 2] + v * c[ 3]))
+				+ u * ( c[ 4] + v * ( c[ 5] + v * c[ 6]) + u * ( c[ 7] + v * c[ 8] + u * c[ 9]))
+				+ w * c[ 10];
+	}
+
+
+
+
+	/**
+	 * Permet d'évaluer les trois polynômes en coordonnées réduites.
+	 * @param u
+	 * 				La latitude réduite.
+	 * @param v
+	 * 				La longitude réduite.
+	 * @param w
+	 * 				L'altitude réduite.
+	 * @param xyz
+	 * 				Le tableau recevant l'abscisse, l'ordonnée et la hauteur.
+	 * @param position
+	 * 				La position de l'abscisse dans le tableau.
+	 */
+	private void evaluer( double u, double v, double w, double[] xyz, int position) {
+		xyz[ position] = polynome( cx_, u, v, w);
+		xyz[ position + 1] = polynome( cy_, u, v, w);
+		xyz[ position + 2] = polynome( cz_, u, v, w);
+	}
+
+
+
+
+	/**
+	 * Permet de convertir un point, de façon approchée s'il est dans la zone et exacte sinon.
+	 * @param latitude
+	 * 				La latitude WGS84 en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude WGS84 en degrés décimaux.
+	 * @param altitude
+	 * 				La hauteur au dessus de l'ellipsoïde WGS84 en mètres.
+	 * @param xyz
+	 * 				Le tableau recevant l'abscisse, l'ordonnée et la hauteur au dessus de l'ellipsoïde Clarke 1880.
+	 * @param position
+	 * 				La position de l'abscisse dans le tableau.
+	 */
+	public void projeter( double latitude, double longitude, double altitude, double[] xyz, int position) {
+		double u = ( latitude - latitude0_) * echelleLatitude_;
+		double v = ( longitude - longitude0_) * echelleLongitude_;
+		double w = ( altitude - altitude0_) * echelleAltitude_;
+		if( Math.abs( u) <= 1.0 && Math.abs( v) <= 1.0 && Math.abs( w) <= 1.0) {
+			evaluer( u, v, w, xyz, position);
+		} else {
+			ConvertisseurLambert2.projeter( latitude, longitude, altitude, xyz, position);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de convertir une série de points, comme {@link ConvertisseurLambert2#convertir(double[], double[],
+	 * double[], double[], double[], double[], int, int)}.
+	 * @param latitudes
+	 * 				Les latitudes WGS84 en degrés décimaux.
+	 * @param longitudes
+	 * 				Les longitudes WGS84 en degrés décimaux.
+	 * @param altitudes
+	 * 				Les hauteurs au dessus de l'ellipsoïde WGS84 en mètres, <i>null</i> pour des hauteurs nulles.
+	 * @param x
+	 * 				Le tableau recevant les abscisses.
+	 * @param y
+	 * 				Le tableau recevant les ordonnées.
+	 * @param z
+	 * 				Le tableau recevant les hauteurs, <i>null</i> si elles ne sont pas utiles.
+	 * @param debut
+	 * 				L'indice du premier point à convertir, dans tous les tableaux.
+	 * @param nb
+	 * 				Le nombre de points à convertir.
+	 */
+	public void convertir( double[] latitudes, double[] longitudes, double[] altitudes, double[] x, double[] y,
+			double[] z, int debut, int nb) {
+		double[] xyz = new double[ 3];
+		int fin = debut + nb;
+		for( int i = debut ; i < fin ; ++i) {
+			projeter( latitudes[ i], longitudes[ i], altitudes != null ? altitudes[ i] : 0.0, xyz, 0);
+			x[ i] = xyz[ 0];
+			y[ i] = xyz[ 1];
+			if( z != null) {
+				z[ i] = xyz[ 2];
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart horizontal maximal entre l'approximation et la formule exacte.
+	 * @return L'écart maximal en mètres mesuré sur la zone.
+	 */
+	public double getErreurMax() {
+		return erreurMax_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart maximal en hauteur entre l'approximation et la formule exacte.
+	 * @return L'écart maximal en mètres mesuré sur la zone.
+	 */
+	public double getErreurMaxHauteur() {
+		return erreurMaxHauteur_;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si l'approximation est assez précise pour être utilisée.
+	 * @return <i>true</i> si les écarts horizontal et vertical sont inférieurs à {@link #ERREUR_MAX_S}.
+	 */
+	public boolean estPrecise() {
+		return erreurMax_ < ERREUR_MAX_S && erreurMaxHauteur_ < ERREUR_MAX_S;
+	}
+}
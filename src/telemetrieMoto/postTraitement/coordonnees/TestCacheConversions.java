@@ -0,0 +1,98 @@
+/*
+ * TestCacheConversions.java
+ * Permet de tester le cache des conversions Lambert 2
+ */
+
+package telemetrieMoto.postTraitement.coordonnees;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestCacheConversions permet de tester le {@link CacheConversions}.</b>
+ * <p>On vérifie l'écart avec la formule exacte, le comptage des succès et le remplacement des cellules par
+ * l'algorithme de l'horloge.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see CacheConversions
+ */
+public class TestCacheConversions {
+
+
+	/** L'écart toléré en mètres avec la formule exacte. */
+	private static final double ERREUR_S = 1e-3;
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un petit cache reste exact et cohérent quand ses cellules sont remplacées sans cesse.
+	 */
+	@Test
+	public void testPrecision() {
+		CacheConversions cache = new CacheConversions( 64, 100);
+		Random aleatoire = new Random( 13);
+		double[] exact = new double[ 3];
+		double[] approche = new double[ 3];
+		for( int i = 0 ; i < 20000 ; ++i) {
+			double lat = 46.85 + 0.02 * aleatoire.nextDouble();
+			double lon = 3.15 + 0.02 * aleatoire.nextDouble();
+			double alt = 150 + 100 * aleatoire.nextDouble();
+			ConvertisseurLambert2.projeter( lat, lon, alt, exact, 0);
+			cache.projeter( lat, lon, alt, approche, 0);
+			assertEquals( exact[ 0], approche[ 0], ERREUR_S);
+			assertEquals( exact[ 1], approche[ 1], ERREUR_S);
+			assertEquals( exact[ 2], approche[ 2], ERREUR_S);
+		}
+		assertEquals( 20000, cache.getNbRequetes());
+		assertEquals( 64, cache.getNbEntrees());
+		assertEquals( cache.getNbRequetes() - cache.getNbSucces() - cache.getNbEntrees(), cache.getNbRemplacements());
+
+		// Cellules de part et d'autre du meridien de Greenwich et de l'equateur
+		for( int i = 0 ; i < 1000 ; ++i) {
+			double lat = -0.001 + 0.002 * aleatoire.nextDouble();
+			double lon = -0.001 + 0.002 * aleatoire.nextDouble();
+			ConvertisseurLambert2.projeter( lat, lon, 0, exact, 0);
+			cache.projeter( lat, lon, 0, approche, 0);
+			assertEquals( exact[ 0], approche[ 0], ERREUR_S);
+			assertEquals( exact[ 1], approche[ 1], ERREUR_S);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier les succès et le choix de la cellule remplacée.
+	 */
+	@Test
+	public void testHorloge() {
+		CacheConversions cache = new CacheConversions( 4, 100);
+		double[] xyz = new double[ 3];
+		// Quatre cellules distinctes remplissent le cache
+		for( int i = 0 ; i < 4 ; ++i) {
+			cache.projeter( 46.86 + i * 1e-3, 3.16, 200, xyz, 0);
+		}
+		assertEquals( 0, cache.getNbSucces());
+		// Un second point de la premiere cellule est un succes
+		cache.projeter( 46.86 + 1e-5, 3.16 + 1e-5, 200, xyz, 0);
+		assertEquals( 1, cache.getNbSucces());
+
+		// La premiere cellule a ete relue : c'est la deuxieme qui est remplacee
+		cache.projeter( 46.87, 3.16, 200, xyz, 0);
+		assertEquals( 1, cache.getNbRemplacements());
+		cache.projeter( 46.86, 3.16, 200, xyz, 0);
+		assertEquals( 2, cache.getNbSucces());
+		cache.projeter( 46.861, 3.16, 200, xyz, 0);
+		assertEquals( 2, cache.getNbSucces());
+		assertEquals( 2, cache.getNbRemplacements());
+		assertEquals( 2.0 / 8, cache.getTauxSucces(), 0);
+	}
+}
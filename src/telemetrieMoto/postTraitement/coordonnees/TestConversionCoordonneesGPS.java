@@ -16,8 +16,8 @@ import telemetrieMoto.acquisition.comm.gps.TrameGPS;
 
 
 /**
- * <b>TestConversionCoordonneesGPS permet de tester la validit des conversions de {@link TrameGPS} aux
- * diffrents formats.</p>
+ * <b>TestConversionCoordonneesGPS permet de tester la validité des conversions de {@link TrameGPS} aux
+ * différents formats.</p>
  * 
  * @author Yoan DUMAS
  * @version 1.1
@@ -28,8 +28,8 @@ public class TestConversionCoordonneesGPS {
 	
 	
 	/**
-	 * Permet de vrifier que la conversion des coordonnes GPS WGS84 vers des coordonnes en degrs 
-	 * dcimaux fonctionne.
+	 * Permet de vérifier que la conversion des coordonnées GPS WGS84 vers des coordonnées en degrés 
+	 * décimaux fonctionne.
 	 */
 	@Test
 	public void testConversionWGS84VersDegresDecimaux() {
@@ -54,8 +54,8 @@ public class TestConversionCoordonneesGPS {
 	
 	
 	/**
-	 * Permet de vrifier que la conversion des coordonnes GPS en degrs dcimaux vers des coordonnes 
-	 * cartsiennes fonctionne.
+	 * Permet de vérifier que la conversion des coordonnées GPS en degrés décimaux vers des coordonnées 
+	 * cartésiennes fonctionne.
 	 */
 	@Test
 	public void testConversionDDVersCartesien() {
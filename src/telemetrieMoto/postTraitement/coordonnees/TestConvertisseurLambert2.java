@@ -0,0 +1,74 @@
+/*
+ * TestConvertisseurLambert2.java
+ * Permet de tester la conversion par lots en coordonnees Lambert 2
+ */
+
+package telemetrieMoto.postTraitement.coordonnees;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestConvertisseurLambert2 permet de tester le {@link ConvertisseurLambert2}.</b>
+ * <p>On vérifie la conversion d'un lot de points par rapport aux attendus de {@link TestConversionCoordonneesGPS}
+ * et par rapport à la conversion point par point.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ConvertisseurLambert2
+ */
+public class TestConvertisseurLambert2 {
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un lot donne les mêmes résultats que la conversion d'une {@link CoordonneesGPSLambert2}.
+	 */
+	@Test
+	public void testConversionLot() {
+		int nb = 1000;
+		double[] latitudes = new double[ nb];
+		double[] longitudes = new double[ nb];
+		double[] altitudes = new double[ nb];
+		Random aleatoire = new Random( 13);
+		for( int i = 0 ; i < nb ; ++i) {
+			latitudes[ i] = 42.5 + 8.5 * aleatoire.nextDouble();
+			longitudes[ i] = -4.5 + 12.5 * aleatoire.nextDouble();
+			altitudes[ i] = 1000 * aleatoire.nextDouble();
+		}
+		// Le point de TestConversionCoordonneesGPS, dont la projection est connue
+		latitudes[ 0] = 45.0 + 45.5635 / 60.0;
+		longitudes[ 0] = 3.0 + 6.6789 / 60.0;
+		altitudes[ 0] = 0;
+
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		double[] z = new double[ nb];
+		ConvertisseurLambert2.convertir( latitudes, longitudes, altitudes, x, y, z, 0, nb);
+
+		assertEquals( 660276.854, x[ 0], 5);
+		assertEquals( 84639.891, y[ 0], 5);
+		for( int i = 0 ; i < nb ; ++i) {
+			CoordonneesGPSLambert2 cl2 = new CoordonneesGPSLambert2( new CoordonneesGPSDegresDecimaux( latitudes[ i], longitudes[ i], altitudes[ i]));
+			assertEquals( cl2.getX(), x[ i], 0);
+			assertEquals( cl2.getY(), y[ i], 0);
+			assertEquals( cl2.getZ(), z[ i], 0);
+			// La hauteur sur Clarke 1880 reste proche de la hauteur WGS84
+			assertEquals( altitudes[ i], z[ i], 100);
+		}
+
+		// Sans altitudes ni hauteurs
+		double[] x0 = new double[ nb];
+		double[] y0 = new double[ nb];
+		ConvertisseurLambert2.convertir( latitudes, longitudes, null, x0, y0);
+		assertEquals( x[ 0], x0[ 0], 0);
+		assertEquals( y[ 0], y0[ 0], 0);
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * TestProjectionLocaleLambert2.java
+ * Permet de tester l'approximation de la conversion Lambert 2 autour d'un circuit
+ */
+
+package telemetrieMoto.postTraitement.coordonnees;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestProjectionLocaleLambert2 permet de tester la {@link ProjectionLocaleLambert2}.</b>
+ * <p>On vérifie que l'erreur annoncée reste sous 5 cm pour un circuit et qu'elle borne bien l'écart mesuré sur
+ * des points quelconques de la zone.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ProjectionLocaleLambert2
+ */
+public class TestProjectionLocaleLambert2 {
+
+
+
+
+	/**
+	 * Permet de vérifier la précision de l'approximation sur une zone de 6 km par 6 km.
+	 */
+	@Test
+	public void testPrecision() {
+		double latMin = 46.83;
+		double latMax = 46.89;
+		double lonMin = 3.12;
+		double lonMax = 3.20;
+		ProjectionLocaleLambert2 locale = new ProjectionLocaleLambert2( latMin, latMax, lonMin, lonMax, 180, 260);
+		assertTrue( "Erreur horizontale " + locale.getErreurMax(), locale.getErreurMax() < ProjectionLocaleLambert2.ERREUR_MAX_S);
+		assertTrue( "Erreur verticale " + locale.getErreurMaxHauteur(), locale.getErreurMaxHauteur() < ProjectionLocaleLambert2.ERREUR_MAX_S);
+		assertTrue( locale.estPrecise());
+
+		// Points quelconques de la zone, compares a la formule exacte
+		Random aleatoire = new Random( 7);
+		double[] exact = new double[ 3];
+		double[] approche = new double[ 3];
+		for( int i = 0 ; i < 10000 ; ++i) {
+			double lat = latMin + ( latMax - latMin) * aleatoire.nextDouble();
+			double lon = lonMin + ( lonMax - lonMin) * aleatoire.nextDouble();
+			double alt = 180 + 80 * aleatoire.nextDouble();
+			ConvertisseurLambert2.projeter( lat, lon, alt, exact, 0);
+			locale.projeter( lat, lon, alt, approche, 0);
+			assertEquals( exact[ 0], approche[ 0], ProjectionLocaleLambert2.ERREUR_MAX_S);
+			assertEquals( exact[ 1], approche[ 1], ProjectionLocaleLambert2.ERREUR_MAX_S);
+			assertEquals( exact[ 2], approche[ 2], ProjectionLocaleLambert2.ERREUR_MAX_S);
+		}
+
+		// Hors de la zone, la formule exacte est utilisee
+		ConvertisseurLambert2.projeter( 48.0, 2.0, 50, exact, 0);
+		locale.projeter( 48.0, 2.0, 50, approche, 0);
+		assertEquals( exact[ 0], approche[ 0], 0);
+		assertEquals( exact[ 1], approche[ 1], 0);
+	}
+}
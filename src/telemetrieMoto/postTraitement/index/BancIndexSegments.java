@@ -0,0 +1,207 @@
+/*
+ * BancIndexSegments.java
+ * Permet de mesurer la duree d'une recherche du segment le plus proche sur un tour de reference simule
+ */
+
+package telemetrieMoto.postTraitement.index;
+
+import java.util.Random;
+
+
+
+
+/**
+ * <b>BancIndexSegments mesure la durée d'une recherche dans un {@link IndexSegments}.</b>
+ * <p>Un tour de référence d'environ 4 km est simulé avec {@link #POINTS_PAR_TOUR_S} points par défaut, soit un
+ * point tous les 40 cm. Les positions recherchées sont celles de tours qui s'écartent de quelques mètres de la
+ * référence, enregistrés à 10 Hz. On affiche la durée d'une recherche avec l'index, pour plusieurs côtés de
+ * cellule, puis celle d'un parcours de tous les segments pour comparaison.</p>
+ * <p>Avec le côté choisi par défaut, une recherche lit une dizaine de cellules et dure environ un tiers de
+ * microseconde, quand le parcours de dix mille segments en demande plusieurs dizaines.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see IndexSegments
+ */
+public final class BancIndexSegments {
+
+
+	/** Le nombre de points du tour de référence par défaut. */
+	private static final int POINTS_PAR_TOUR_S = 10000;
+
+
+	/** Le nombre de positions recherchées. */
+	private static final int NB_POSITIONS_S = 200000;
+
+
+	/** Le nombre de positions recherchées par parcours de tous les segments. */
+	private static final int NB_POSITIONS_LINEAIRE_S = 2000;
+
+
+	/** Le nombre de mesures de chaque recherche, la première servant de chauffe. */
+	private static final int NB_MESURES_S = 5;
+
+
+	/** Les côtés de cellule mesurés en mètres, 0 désignant le côté choisi par l'index. */
+	private static final double[] COTES_S = { 0, 2, 5, 10, 20, 50};
+
+
+
+
+	/**
+	 * Le constructeur privé : la classe ne contient que le programme de mesure.
+	 */
+	private BancIndexSegments() {
+	}
+
+
+
+
+	/**
+	 * Le programme de mesure.
+	 * @param args
+	 * 				Le nombre de points du tour de référence, {@link #POINTS_PAR_TOUR_S} par défaut.
+	 */
+	public static void main( String[] args) {
+		int nbPoints = args.length > 0 ? Integer.parseInt( args[ 0]) : POINTS_PAR_TOUR_S;
+		double[] x = new double[ nbPoints];
+		double[] y = new double[ nbPoints];
+		simulerTour( nbPoints, 0.0, 0.0, new Random( 3), x, y);
+
+		// Positions de tours a 10 Hz, environ 45 m entre deux positions a 160 km/h
+		double[] xPositions = new double[ NB_POSITIONS_S];
+		double[] yPositions = new double[ NB_POSITIONS_S];
+		Random aleatoire = new Random( 5);
+		for( int debut = 0 ; debut < NB_POSITIONS_S ; debut += 100) {
+			simulerTour( Math.min( 100, NB_POSITIONS_S - debut), 8 * ( aleatoire.nextDouble() - 0.5), 1.0, aleatoire,
+					xPositions, yPositions, debut);
+		}
+		System.out.println( nbPoints + " points de reference, " + NB_POSITIONS_S + " positions");
+
+		double[] resultat = new double[ IndexSegments.NB_RESULTATS_S];
+		for( double cote : COTES_S) {
+			IndexSegments index = new IndexSegments( x, y, nbPoints, true, cote);
+			long meilleure = Long.MAX_VALUE;
+			double somme = 0;
+			for( int m = 0 ; m < NB_MESURES_S ; ++m) {
+				somme = 0;
+				long debut = System.nanoTime();
+				for( int i = 0 ; i < NB_POSITIONS_S ; ++i) {
+					index.chercher( xPositions[ i], yPositions[ i], resultat, 0);
+					somme += resultat[ 1];
+				}
+				meilleure = Math.min( meilleure, System.nanoTime() - debut);
+			}
+			System.out.println( "cote " + Math.round( index.getCote() * 100) / 100.0 + " m : " + meilleure / NB_POSITIONS_S
+					+ " ns/recherche, " + index.getNbCellules() + " cellules, " + index.getNbInscriptions()
+					+ " inscriptions, ecart moyen " + Math.round( somme / NB_POSITIONS_S * 100) / 100.0 + " m");
+		}
+
+		long meilleure = Long.MAX_VALUE;
+		for( int m = 0 ; m < NB_MESURES_S ; ++m) {
+			long debut = System.nanoTime();
+			for( int i = 0 ; i < NB_POSITIONS_LINEAIRE_S ; ++i) {
+				chercherLineaire( x, y, nbPoints, true, xPositions[ i], yPositions[ i], resultat);
+			}
+			meilleure = Math.min( meilleure, System.nanoTime() - debut);
+		}
+		System.out.println( "parcours de tous les segments : " + meilleure / NB_POSITIONS_LINEAIRE_S + " ns/recherche");
+	}
+
+
+
+
+	/**
+	 * Permet de simuler les points d'un tour de circuit en mètres, dans un repère centré sur le circuit.
+	 * @param nb
+	 * 				Le nombre de points.
+	 * @param ecart
+	 * 				L'écart latéral du tour à la trajectoire idéale en mètres.
+	 * @param bruit
+	 * 				L'écart type du bruit des positions en mètres.
+	 * @param aleatoire
+	 * 				Le générateur du bruit et des angles.
+	 * @param x
+	 * 				Le tableau recevant les abscisses.
+	 * @param y
+	 * 				Le tableau recevant les ordonnées.
+	 */
+	static void simulerTour( int nb, double ecart, double bruit, Random aleatoire, double[] x, double[] y) {
+		simulerTour( nb, ecart, bruit, aleatoire, x, y, 0);
+	}
+
+
+
+
+	/**
+	 * Permet de simuler les points d'un tour de circuit en mètres à partir d'une position des tableaux.
+	 * @param nb
+	 * 				Le nombre de points.
+	 * @param ecart
+	 * 				L'écart latéral du tour à la trajectoire idéale en mètres.
+	 * @param bruit
+	 * 				L'écart type du bruit des positions en mètres.
+	 * @param aleatoire
+	 * 				Le générateur du bruit et des angles.
+	 * @param x
+	 * 				Le tableau recevant les abscisses.
+	 * @param y
+	 * 				Le tableau recevant les ordonnées.
+	 * @param position
+	 * 				L'indice du premier point écrit.
+	 */
+	private static void simulerTour( int nb, double ecart, double bruit, Random aleatoire, double[] x, double[] y,
+			int position) {
+		for( int p = 0 ; p < nb ; ++p) {
+			double angle = 2 * Math.PI * ( p + ( bruit > 0 ? aleatoire.nextDouble() : 0)) / nb;
+			// Un ovale de 1400 m sur 900 m avec trois bosses : des virages serres et des lignes droites
+			double rayon = 1 + 0.25 * Math.sin( 3 * angle);
+			x[ position + p] = ( 700 + ecart) * rayon * Math.cos( angle) + bruit * aleatoire.nextGaussian();
+			y[ position + p] = ( 450 + ecart) * rayon * Math.sin( angle) + bruit * aleatoire.nextGaussian();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de chercher le segment le plus proche d'un point en parcourant tous les segments de la ligne.
+	 * @param x
+	 * 				Les abscisses des points de la ligne en mètres.
+	 * @param y
+	 * 				Les ordonnées des points de la ligne en mètres.
+	 * @param nb
+	 * 				Le nombre de points.
+	 * @param fermee
+	 * 				Vrai si le dernier point est relié au premier.
+	 * @param px
+	 * 				L'abscisse du point en mètres.
+	 * @param py
+	 * 				L'ordonnée du point en mètres.
+	 * @param resultat
+	 * 				Le tableau recevant le paramètre de la projection et la distance du point au segment.
+	 * @return L'indice du segment le plus proche.
+	 */
+	static int chercherLineaire( double[] x, double[] y, int nb, boolean fermee, double px, double py, double[] resultat) {
+		int meilleur = -1;
+		double meilleureDistance = Double.POSITIVE_INFINITY;
+		for( int s = 0 ; s < ( fermee ? nb : nb - 1) ; ++s) {
+			int suivant = s + 1 < nb ? s + 1 : 0;
+			double dx = x[ suivant] - x[ s];
+			double dy = y[ suivant] - y[ s];
+			double carre = dx * dx + dy * dy;
+			double t = carre > 0 ? ( ( px - x[ s]) * dx + ( py - y[ s]) * dy) / carre : 0.0;
+			t = Math.min( Math.max( t, 0.0), 1.0);
+			double ex = px - x[ s] - t * dx;
+			double ey = py - y[ s] - t * dy;
+			double distance = ex * ex + ey * ey;
+			if( distance < meilleureDistance) {
+				meilleureDistance = distance;
+				meilleur = s;
+				resultat[ 0] = t;
+			}
+		}
+		resultat[ 1] = Math.sqrt( meilleureDistance);
+		return meilleur;
+	}
+}
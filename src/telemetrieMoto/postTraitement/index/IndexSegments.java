@@ -0,0 +1,382 @@
+/*
+ * IndexSegments.java
+ * Permet de retrouver rapidement le segment d'une ligne de reference le plus proche d'un point
+ */
+
+package telemetrieMoto.postTraitement.index;
+
+import java.util.Arrays;
+
+
+
+
+/**
+ * <b>IndexSegments retrouve le segment d'une ligne de référence le plus proche d'un point du plan.</b>
+ * <p>La ligne de référence, par exemple la trajectoire d'un tour, est une suite de points en mètres dans un repère
+ * plan : Lambert II étendu ou repère local Est Nord Haut. Ses segments sont rangés dans une grille uniforme de
+ * cellules carrées, chaque segment étant inscrit dans toutes les cellules que touche son rectangle englobant.
+ * Les cellules sont stockées à plat : un tableau donne le début de chaque cellule dans un tableau unique de
+ * segments, dont les extrémités sont recopiées dans l'ordre des cellules pour être lues d'un seul trait.</p>
+ * <p>Une recherche parcourt les cellules par anneaux carrés autour de celle du point et s'arrête dès que le
+ * meilleur segment trouvé est plus proche que le bord de la zone déjà parcourue. Elle donne le segment, le
+ * paramètre de la projection sur ce segment, la distance au point et l'abscisse curviligne de la projection,
+ * c'est-à-dire la distance parcourue le long de la ligne depuis son premier point. Pour un point proche de la
+ * ligne, seules quelques cellules sont lues : la recherche ne dépend presque pas du nombre de points.</p>
+ * <p>Un index ne change pas après sa construction et ne garde aucun état entre deux recherches : il peut être
+ * partagé entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see BancIndexSegments
+ */
+public final class IndexSegments {
+
+
+	/** Le nombre de valeurs écrites par une recherche : paramètre, distance et abscisse curviligne. */
+	public static final int NB_RESULTATS_S = 3;
+
+
+	/** Le nombre de réels recopiés par segment inscrit : origine, vecteur et inverse du carré de la longueur. */
+	private static final int NB_DONNEES_S = 5;
+
+
+	/** Le côté des cellules en longueurs moyennes de segment. */
+	private static final double SEGMENTS_PAR_COTE_S = 2.0;
+
+
+	/** Le nombre maximal de cellules par segment de la ligne. */
+	private static final int CELLULES_PAR_SEGMENT_S = 8;
+
+
+	/** Le nombre de segments de la ligne. */
+	private final int nbSegments_;
+
+
+	/** L'abscisse curviligne du début de chaque segment, suivie de la longueur de la ligne. */
+	private final double[] abscisses_;
+
+
+	/** L'abscisse du coin inférieur gauche de la grille. */
+	private final double xMin_;
+
+
+	/** L'ordonnée du coin inférieur gauche de la grille. */
+	private final double yMin_;
+
+
+	/** Le côté d'une cellule en mètres. */
+	private final double cote_;
+
+
+	/** Le nombre de colonnes de la grille. */
+	private final int nbColonnes_;
+
+
+	/** Le nombre de lignes de la grille. */
+	private final int nbLignes_;
+
+
+	/** L'indice dans {@link #segments_} du premier segment de chaque cellule, suivi du nombre total d'inscriptions. */
+	private final int[] debuts_;
+
+
+	/** Les segments inscrits, rangés par cellule. */
+	private final int[] segments_;
+
+
+	/** Les données des segments inscrits, dans le même ordre que {@link #segments_}. */
+	private final double[] donnees_;
+
+
+
+
+	/**
+	 * Le constructeur de l'index avec des cellules dimensionnées d'après la longueur moyenne des segments.
+	 * @param x
+	 * 				Les abscisses des points de la ligne en mètres.
+	 * @param y
+	 * 				Les ordonnées des points de la ligne en mètres.
+	 * @param nb
+	 * 				Le nombre de points, au moins deux.
+	 * @param fermee
+	 * 				Vrai si le dernier point est relié au premier, comme pour un tour de circuit.
+	 * @throws IllegalArgumentException s'il y a moins de deux points.
+	 */
+	public IndexSegments( double[] x, double[] y, int nb, boolean fermee) {
+		this( x, y, nb, fermee, 0.0);
+	}
+
+
+
+
+	/**
+	 * Le constructeur de l'index.
+	 * @param x
+	 * 				Les abscisses des points de la ligne en mètres.
+	 * @param y
+	 * 				Les ordonnées des points de la ligne en mètres.
+	 * @param nb
+	 * 				Le nombre de points, au moins deux.
+	 * @param fermee
+	 * 				Vrai si le dernier point est relié au premier, comme pour un tour de circuit.
+	 * @param cote
+	 * 				Le côté des cellules en mètres, ou 0 pour le choisir d'après la longueur moyenne des segments.
+	 * 				Le côté est agrandi si la grille devait compter plus de {@value #CELLULES_PAR_SEGMENT_S} cellules
+	 * 				par segment.
+	 * @throws IllegalArgumentException s'il y a moins de deux points ou si le côté est négatif.
+	 */
+	public IndexSegments( double[] x, double[] y, int nb, boolean fermee, double cote) {
+		if( nb < 2) {
+			throw new IllegalArgumentException( "Une ligne de reference a au moins deux points");
+		}
+		if( !( cote >= 0)) {
+			throw new IllegalArgumentException( "Cote de cellule negatif : " + cote);
+		}
+		nbSegments_ = fermee ? nb : nb - 1;
+
+		// Abscisses curvilignes et emprise de la ligne
+		abscisses_ = new double[ nbSegments_ + 1];
+		double xMin = x[ 0], xMax = x[ 0], yMin = y[ 0], yMax = y[ 0];
+		for( int s = 0 ; s < nbSegments_ ; ++s) {
+			int suivant = s + 1 < nb ? s + 1 : 0;
+			abscisses_[ s + 1] = abscisses_[ s] + Math.hypot( x[ suivant] - x[ s], y[ suivant] - y[ s]);
+			xMin = Math.min( xMin, x[ suivant]);
+			xMax = Math.max( xMax, x[ suivant]);
+			yMin = Math.min( yMin, y[ suivant]);
+			yMax = Math.max( yMax, y[ suivant]);
+		}
+		xMin_ = xMin;
+		yMin_ = yMin;
+
+		// Dimension des cellules, bornee pour que la grille reste de la taille de la ligne
+		if( cote == 0) {
+			cote = SEGMENTS_PAR_COTE_S * abscisses_[ nbSegments_] / nbSegments_;
+		}
+		cote = Math.max( cote, Math.max( xMax - xMin, yMax - yMin) * 1e-6);
+		if( cote == 0) {
+			// Tous les points sont confondus
+			cote = 1.0;
+		}
+		while( ( Math.floor( ( xMax - xMin) / cote) + 1) * ( Math.floor( ( yMax - yMin) / cote) + 1)
+				> ( double) CELLULES_PAR_SEGMENT_S * nbSegments_) {
+			cote *= 2;
+		}
+		cote_ = cote;
+		nbColonnes_ = ( int) Math.floor( ( xMax - xMin) / cote_) + 1;
+		nbLignes_ = ( int) Math.floor( ( yMax - yMin) / cote_) + 1;
+
+		// Premier passage : nombre de segments de chaque cellule
+		debuts_ = new int[ nbColonnes_ * nbLignes_ + 1];
+		int[] emprises = new int[ 4 * nbSegments_];
+		for( int s = 0 ; s < nbSegments_ ; ++s) {
+			int suivant = s + 1 < nb ? s + 1 : 0;
+			emprises[ 4 * s] = colonne( Math.min( x[ s], x[ suivant]));
+			emprises[ 4 * s + 1] = colonne( Math.max( x[ s], x[ suivant]));
+			emprises[ 4 * s + 2] = ligne( Math.min( y[ s], y[ suivant]));
+			emprises[ 4 * s + 3] = ligne( Math.max( y[ s], y[ suivant]));
+			for( int j = emprises[ 4 * s + 2] ; j <= emprises[ 4 * s + 3] ; ++j) {
+				for( int i = emprises[ 4 * s] ; i <= emprises[ 4 * s + 1] ; ++i) {
+					++debuts_[ j * nbColonnes_ + i + 1];
+				}
+			}
+		}
+		for( int c = 0 ; c < nbColonnes_ * nbLignes_ ; ++c) {
+			debuts_[ c + 1] += debuts_[ c];
+		}
+
+		// Second passage : inscription des segments et copie de leurs donnees
+		int nbInscriptions = debuts_[ nbColonnes_ * nbLignes_];
+		segments_ = new int[ nbInscriptions];
+		donnees_ = new double[ NB_DONNEES_S * nbInscriptions];
+		int[] remplissage = Arrays.copyOf( debuts_, nbColonnes_ * nbLignes_);
+		for( int s = 0 ; s < nbSegments_ ; ++s) {
+			int suivant = s + 1 < nb ? s + 1 : 0;
+			double dx = x[ suivant] - x[ s];
+			double dy = y[ suivant] - y[ s];
+			double carre = dx * dx + dy * dy;
+			// Un segment de longueur nulle est projete sur son origine
+			double inverse = carre > 0 ? 1.0 / carre : 0.0;
+			for( int j = emprises[ 4 * s + 2] ; j <= emprises[ 4 * s + 3] ; ++j) {
+				for( int i = emprises[ 4 * s] ; i <= emprises[ 4 * s + 1] ; ++i) {
+					int k = remplissage[ j * nbColonnes_ + i]++;
+					segments_[ k] = s;
+					donnees_[ NB_DONNEES_S * k] = x[ s];
+					donnees_[ NB_DONNEES_S * k + 1] = y[ s];
+					donnees_[ NB_DONNEES_S * k + 2] = dx;
+					donnees_[ NB_DONNEES_S * k + 3] = dy;
+					donnees_[ NB_DONNEES_S * k + 4] = inverse;
+				}
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne la colonne de la grille contenant une abscisse, bornée aux colonnes de la grille.
+	 * @param x
+	 * 			L'abscisse en mètres.
+	 * @return La colonne.
+	 */
+	private int colonne( double x) {
+		return ( int) Math.min( Math.max( Math.floor( ( x - xMin_) / cote_), 0), nbColonnes_ - 1);
+	}
+
+
+
+
+	/**
+	 * Retourne la ligne de la grille contenant une ordonnée, bornée aux lignes de la grille.
+	 * @param y
+	 * 			L'ordonnée en mètres.
+	 * @return La ligne.
+	 */
+	private int ligne( double y) {
+		return ( int) Math.min( Math.max( Math.floor( ( y - yMin_) / cote_), 0), nbLignes_ - 1);
+	}
+
+
+
+
+	/**
+	 * Permet de chercher le segment de la ligne le plus proche d'un point.
+	 * <br>La recherche n'alloue rien. Un point éloigné de la ligne, loin de toute cellule occupée, demande de
+	 * parcourir davantage d'anneaux de cellules vides.
+	 * @param x
+	 * 				L'abscisse du point en mètres.
+	 * @param y
+	 * 				L'ordonnée du point en mètres.
+	 * @param resultat
+	 * 				Le tableau recevant, à partir de la position indiquée, le paramètre de la projection entre 0 à
+	 * 				l'origine du segment et 1 à son extrémité, la distance du point à la ligne en mètres et l'abscisse
+	 * 				curviligne de la projection en mètres.
+	 * @param position
+	 * 				L'indice de la première valeur écrite dans le tableau.
+	 * @return L'indice du segment le plus proche, qui relie les points de même indice et d'indice suivant.
+	 */
+	public int chercher( double x, double y, double[] resultat, int position) {
+		// Cellule du point, eventuellement hors de la grille
+		double u = ( x - xMin_) / cote_;
+		double v = ( y - yMin_) / cote_;
+		int ci = ( int) Math.max( Math.min( Math.floor( u), Integer.MAX_VALUE / 2), Integer.MIN_VALUE / 2);
+		int cj = ( int) Math.max( Math.min( Math.floor( v), Integer.MAX_VALUE / 2), Integer.MIN_VALUE / 2);
+
+		int meilleur = -1;
+		double meilleureDistance = Double.POSITIVE_INFINITY;
+		double meilleurParametre = 0;
+		// Les anneaux plus petits que l'ecart entre la cellule du point et la grille sont vides
+		int premier = Math.max( Math.max( -ci, ci - nbColonnes_ + 1), Math.max( -cj, cj - nbLignes_ + 1));
+		for( int r = Math.max( premier, 0) ; ; ++r) {
+			int iMin = ci - r, iMax = ci + r, jMin = cj - r, jMax = cj + r;
+			for( int j = Math.max( jMin, 0) ; j <= Math.min( jMax, nbLignes_ - 1) ; ++j) {
+				// Sur les lignes interieures de l'anneau, seules les deux colonnes du bord sont nouvelles
+				boolean bord = j == jMin || j == jMax;
+				int pas = bord ? 1 : iMax - iMin;
+				for( int i = bord ? Math.max( iMin, 0) : iMin ; i <= Math.min( iMax, nbColonnes_ - 1) ; i += pas) {
+					if( i < 0) {
+						continue;
+					}
+					int c = j * nbColonnes_ + i;
+					for( int k = debuts_[ c] ; k < debuts_[ c + 1] ; ++k) {
+						int d = NB_DONNEES_S * k;
+						double px = x - donnees_[ d];
+						double py = y - donnees_[ d + 1];
+						double dx = donnees_[ d + 2];
+						double dy = donnees_[ d + 3];
+						double t = ( px * dx + py * dy) * donnees_[ d + 4];
+						t = t < 0 ? 0 : ( t > 1 ? 1 : t);
+						double ex = px - t * dx;
+						double ey = py - t * dy;
+						double distance = ex * ex + ey * ey;
+						if( distance < meilleureDistance || ( distance == meilleureDistance && segments_[ k] < meilleur)) {
+							meilleureDistance = distance;
+							meilleur = segments_[ k];
+							meilleurParametre = t;
+						}
+					}
+				}
+			}
+			// Distance du point au bord de la zone parcourue, au dela de laquelle aucun segment n'a ete lu
+			double marge = Math.min( Math.min( u - iMin, iMax + 1 - u), Math.min( v - jMin, jMax + 1 - v)) * cote_;
+			boolean grilleCouverte = iMin <= 0 && jMin <= 0 && iMax >= nbColonnes_ - 1 && jMax >= nbLignes_ - 1;
+			if( grilleCouverte || ( meilleur >= 0 && meilleureDistance <= marge * marge)) {
+				break;
+			}
+		}
+		resultat[ position] = meilleurParametre;
+		resultat[ position + 1] = Math.sqrt( meilleureDistance);
+		resultat[ position + 2] = getAbscisse( meilleur, meilleurParametre);
+		return meilleur;
+	}
+
+
+
+
+	/**
+	 * Retourne l'abscisse curviligne d'un point d'un segment.
+	 * @param segment
+	 * 				L'indice du segment.
+	 * @param parametre
+	 * 				Le paramètre du point entre 0 à l'origine du segment et 1 à son extrémité.
+	 * @return La distance parcourue le long de la ligne depuis son premier point, en mètres.
+	 */
+	public double getAbscisse( int segment, double parametre) {
+		return abscisses_[ segment] + parametre * ( abscisses_[ segment + 1] - abscisses_[ segment]);
+	}
+
+
+
+
+	/**
+	 * Retourne la longueur de la ligne, y compris le segment de fermeture d'une ligne fermée.
+	 * @return La longueur en mètres.
+	 */
+	public double getLongueur() {
+		return abscisses_[ nbSegments_];
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de segments de la ligne.
+	 * @return Le nombre de segments.
+	 */
+	public int getNbSegments() {
+		return nbSegments_;
+	}
+
+
+
+
+	/**
+	 * Retourne le côté des cellules de la grille.
+	 * @return Le côté en mètres.
+	 */
+	public double getCote() {
+		return cote_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de cellules de la grille.
+	 * @return Le nombre de cellules.
+	 */
+	public int getNbCellules() {
+		return nbColonnes_ * nbLignes_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'inscriptions de segments dans les cellules, un segment pouvant toucher plusieurs cellules.
+	 * @return Le nombre d'inscriptions.
+	 */
+	public int getNbInscriptions() {
+		return segments_.length;
+	}
+}
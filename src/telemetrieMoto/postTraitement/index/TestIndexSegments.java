@@ -0,0 +1,116 @@
+/*
+ * TestIndexSegments.java
+ * Permet de tester la recherche du segment le plus proche dans l'index des segments
+ */
+
+package telemetrieMoto.postTraitement.index;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestIndexSegments permet de tester l'{@link IndexSegments}.</b>
+ * <p>On compare l'index au parcours de tous les segments pour des points proches du tour, éloignés ou hors de la
+ * grille, avec le côté de cellule par défaut et des côtés extrêmes, puis on vérifie les abscisses curvilignes
+ * d'une ligne ouverte.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see IndexSegments
+ */
+public class TestIndexSegments {
+
+
+	/** L'écart toléré en mètres avec le parcours de tous les segments. */
+	private static final double ERREUR_S = 1e-9;
+
+
+
+
+	/**
+	 * Permet de vérifier que l'index trouve le même segment que le parcours de tous les segments.
+	 */
+	@Test
+	public void testRecherche() {
+		int nb = 10000;
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		BancIndexSegments.simulerTour( nb, 0.0, 0.0, new Random( 3), x, y);
+
+		Random aleatoire = new Random( 17);
+		double[] attendu = new double[ 2];
+		double[] resultat = new double[ IndexSegments.NB_RESULTATS_S + 1];
+		// Cote par defaut, le plus petit cote admis pour le nombre de segments, puis une seule cellule
+		for( double cote : new double[] { 0, 0.05, 1e5}) {
+			IndexSegments index = new IndexSegments( x, y, nb, true, cote);
+			assertEquals( nb, index.getNbSegments());
+			for( int i = 0 ; i < 3000 ; ++i) {
+				double px, py;
+				if( i % 3 == 0) {
+					// Pres du tour
+					int p = aleatoire.nextInt( nb);
+					px = x[ p] + 10 * aleatoire.nextGaussian();
+					py = y[ p] + 10 * aleatoire.nextGaussian();
+				} else {
+					// N'importe ou, jusqu'a plusieurs kilometres hors de la grille
+					double etendue = i % 3 == 1 ? 2000 : 20000;
+					px = etendue * ( 2 * aleatoire.nextDouble() - 1);
+					py = etendue * ( 2 * aleatoire.nextDouble() - 1);
+				}
+				int segment = BancIndexSegments.chercherLineaire( x, y, nb, true, px, py, attendu);
+				int trouve = index.chercher( px, py, resultat, 1);
+				assertEquals( "Distance de ( " + px + ", " + py + ")", attendu[ 1], resultat[ 2], ERREUR_S);
+				if( segment == trouve) {
+					assertEquals( attendu[ 0], resultat[ 1], ERREUR_S);
+				}
+				assertEquals( index.getAbscisse( trouve, resultat[ 1]), resultat[ 3], 0.0);
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier les paramètres et les abscisses curvilignes sur une ligne ouverte en escalier.
+	 */
+	@Test
+	public void testLigneOuverte() {
+		double[] x = { 0, 10, 10, 30, 30};
+		double[] y = { 0, 0, 10, 10, 10};
+		IndexSegments index = new IndexSegments( x, y, x.length, false);
+		assertEquals( 4, index.getNbSegments());
+		assertEquals( 40.0, index.getLongueur(), ERREUR_S);
+
+		double[] resultat = new double[ IndexSegments.NB_RESULTATS_S];
+		assertEquals( 0, index.chercher( 4, -3, resultat, 0));
+		assertEquals( 0.4, resultat[ 0], ERREUR_S);
+		assertEquals( 3.0, resultat[ 1], ERREUR_S);
+		assertEquals( 4.0, resultat[ 2], ERREUR_S);
+
+		assertEquals( 2, index.chercher( 25, 12, resultat, 0));
+		assertEquals( 0.75, resultat[ 0], ERREUR_S);
+		assertEquals( 2.0, resultat[ 1], ERREUR_S);
+		assertEquals( 35.0, resultat[ 2], ERREUR_S);
+
+		// Avant le debut et apres la fin, la projection est bornee aux extremites
+		index.chercher( -6, -8, resultat, 0);
+		assertEquals( 10.0, resultat[ 1], ERREUR_S);
+		assertEquals( 0.0, resultat[ 2], ERREUR_S);
+		index.chercher( 1000, 10, resultat, 0);
+		assertEquals( 970.0, resultat[ 1], ERREUR_S);
+		assertEquals( 40.0, resultat[ 2], ERREUR_S);
+
+		try {
+			new IndexSegments( x, y, 1, false);
+			fail( "Une ligne d'un seul point doit etre rejetee");
+		} catch( IllegalArgumentException e) {
+		}
+	}
+}
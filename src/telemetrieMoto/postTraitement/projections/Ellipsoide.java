@@ -0,0 +1,187 @@
+/*
+ * Ellipsoide.java
+ * Permet de representer un ellipsoide de reference et ses constantes derivees
+ */
+
+package telemetrieMoto.postTraitement.projections;
+
+
+
+
+/**
+ * <b>Ellipsoide représente un ellipsoïde de référence.</b>
+ * <p>Les constantes dérivées du demi grand axe et de l'aplatissement (excentricités, demi petit axe) sont
+ * calculées une fois à la construction. L'ellipsoïde permet le passage entre coordonnées géographiques et
+ * coordonnées géocentriques.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Projection
+ */
+public final class Ellipsoide {
+
+
+	/** L'ellipsoïde du système WGS84, celui des coordonnées fournies par le GPS. */
+	public static final Ellipsoide WGS84_S = new Ellipsoide( 6378137.0, 1 / 298.257223563);
+
+
+	/** L'ellipsoïde GRS80 du système RGF93, utilisé par la projection Lambert-93. */
+	public static final Ellipsoide GRS80_S = new Ellipsoide( 6378137.0, 1 / 298.257222101);
+
+
+	/** L'ellipsoïde Clarke 1880 IGN du système NTF, utilisé par les projections Lambert I à IV. */
+	public static final Ellipsoide CLARKE_1880_IGN_S = new Ellipsoide( 6378249.2, 1 - 6356515.0 / 6378249.2);
+
+
+	/** Le demi grand axe en mètres. */
+	private final double a_;
+
+
+	/** L'aplatissement. */
+	private final double f_;
+
+
+	/** Le demi petit axe en mètres. */
+	private final double b_;
+
+
+	/** Le carré de l'excentricité. */
+	private final double e2_;
+
+
+	/** L'excentricité. */
+	private final double e_;
+
+
+	/** Le carré de la seconde excentricité. */
+	private final double ep2_;
+
+
+
+
+	/**
+	 * Le constructeur d'un ellipsoïde.
+	 * @param a
+	 * 			Le demi grand axe en mètres.
+	 * @param f
+	 * 			L'aplatissement.
+	 */
+	public Ellipsoide( double a, double f) {
+		a_ = a;
+		f_ = f;
+		b_ = a * ( 1 - f);
+		e2_ = f * ( 2 - f);
+		e_ = Math.sqrt( e2_);
+		ep2_ = e2_ / ( 1 - e2_);
+	}
+
+
+
+
+	/**
+	 * Permet de convertir des coordonnées géographiques en coordonnées géocentriques.
+	 * @param phi
+	 * 				La latitude en radians.
+	 * @param lambda
+	 * 				La longitude en radians.
+	 * @param h
+	 * 				La hauteur au dessus de l'ellipsoïde en mètres.
+	 * @param xyz
+	 * 				Le tableau recevant X, Y et Z en mètres.
+	 * @param position
+	 * 				La position de X dans le tableau.
+	 */
+	public void versGeocentrique( double phi, double lambda, double h, double[] xyz, int position) {
+		double sinPhi = Math.sin( phi);
+		double cosPhi = Math.cos( phi);
+		double n = a_ / Math.sqrt( 1 - e2_ * sinPhi * sinPhi);
+		xyz[ position] = ( n + h) * cosPhi * Math.cos( lambda);
+		xyz[ position + 1] = ( n + h) * cosPhi * Math.sin( lambda);
+		xyz[ position + 2] = ( n * ( 1 - e2_) + h) * sinPhi;
+	}
+
+
+
+
+	/**
+	 * Permet de convertir des coordonnées géocentriques en coordonnées géographiques, par la formule de Bowring.
+	 * <p>La formule, sans itération, est précise au dixième de millimètre pour des points proches de la surface.</p>
+	 * @param x
+	 * 				La coordonnée X en mètres.
+	 * @param y
+	 * 				La coordonnée Y en mètres.
+	 * @param z
+	 * 				La coordonnée Z en mètres.
+	 * @param phiLambdaH
+	 * 				Le tableau recevant la latitude et la longitude en radians, puis la hauteur en mètres.
+	 * @param position
+	 * 				La position de la latitude dans le tableau.
+	 */
+	public void versGeographique( double x, double y, double z, double[] phiLambdaH, int position) {
+		double p = Math.sqrt( x * x + y * y);
+		double theta = Math.atan2( z * a_, p * b_);
+		double sinTheta = Math.sin( theta);
+		double cosTheta = Math.cos( theta);
+		double phi = Math.atan2( z + ep2_ * b_ * sinTheta * sinTheta * sinTheta, p - e2_ * a_ * cosTheta * cosTheta * cosTheta);
+		double sinPhi = Math.sin( phi);
+		double n = a_ / Math.sqrt( 1 - e2_ * sinPhi * sinPhi);
+		phiLambdaH[ position] = phi;
+		phiLambdaH[ position + 1] = Math.atan2( y, x);
+		phiLambdaH[ position + 2] = p / Math.cos( phi) - n;
+	}
+
+
+
+
+	/**
+	 * Retourne le demi grand axe.
+	 * @return Le demi grand axe en mètres.
+	 */
+	public double getA() {
+		return a_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'aplatissement.
+	 * @return L'aplatissement.
+	 */
+	public double getF() {
+		return f_;
+	}
+
+
+
+
+	/**
+	 * Retourne le demi petit axe.
+	 * @return Le demi petit axe en mètres.
+	 */
+	public double getB() {
+		return b_;
+	}
+
+
+
+
+	/**
+	 * Retourne le carré de l'excentricité.
+	 * @return Le carré de l'excentricité.
+	 */
+	public double getE2() {
+		return e2_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'excentricité.
+	 * @return L'excentricité.
+	 */
+	public double getE() {
+		return e_;
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Projection.java
+ * Permet de representer une projection des coordonnees WGS84 vers des coordonnees metriques
+ */
+
+package telemetrieMoto.postTraitement.projections;
+
+
+
+
+/**
+ * <b>Projection représente la conversion des coordonnées GPS WGS84 en coordonnées métriques, et son inverse.</b>
+ * <p>Chaque projection calcule ses constantes dérivées une seule fois, à sa construction. Les projections
+ * courantes sont partagées : {@link #lambert93()}, {@link #lambert2()} et {@link ProjectionUTM#zone(int, boolean)}.
+ * Une projection ne change pas après sa construction et peut être utilisée par plusieurs threads.</p>
+ * <p>Les conversions existent point par point, dans un tableau, et par séries de points rangées dans des tableaux
+ * séparés, sans création d'objet par point.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ProjectionConiqueConforme
+ * @see ProjectionUTM
+ * @see ProjectionENU
+ */
+public abstract class Projection {
+
+
+	/** Le facteur de conversion des degrés en radians. */
+	protected static final double RADIANS_PAR_DEGRE_S = Math.PI / 180.0;
+
+
+	/** La projection Lambert-93, système légal en France métropolitaine. */
+	private static final Projection LAMBERT_93_S = new ProjectionConiqueConforme( Ellipsoide.GRS80_S, null,
+			44.0, 49.0, 46.5, 3.0, 700000.0, 6600000.0);
+
+
+	/** La projection Lambert II du système NTF, avec la même ordonnée que {@link telemetrieMoto.postTraitement.coordonnees.CoordonneesGPSLambert2}. */
+	private static final Projection LAMBERT_2_S = new ProjectionConiqueConforme( Ellipsoide.CLARKE_1880_IGN_S,
+			new double[] { 168.0, 60.0, -320.0}, 0.728968627421412, 11745793.393416170, 0.040792344331977,
+			600000.0, 6199695.76801151690);
+
+
+
+
+	/**
+	 * Permet de projeter un point.
+	 * @param latitude
+	 * 				La latitude WGS84 en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude WGS84 en degrés décimaux.
+	 * @param altitude
+	 * 				La hauteur au dessus de l'ellipsoïde WGS84 en mètres.
+	 * @param xyz
+	 * 				Le tableau recevant les coordonnées projetées en mètres.
+	 * @param position
+	 * 				La position de la première coordonnée dans le tableau.
+	 */
+	public abstract void projeter( double latitude, double longitude, double altitude, double[] xyz, int position);
+
+
+
+
+	/**
+	 * Permet de retrouver les coordonnées WGS84 d'un point projeté.
+	 * @param x
+	 * 				La première coordonnée projetée en mètres.
+	 * @param y
+	 * 				La deuxième coordonnée projetée en mètres.
+	 * @param z
+	 * 				La troisième coordonnée projetée en mètres.
+	 * @param latLonAlt
+	 * 				Le tableau recevant la latitude et la longitude en degrés décimaux, puis la hauteur en mètres.
+	 * @param position
+	 * 				La position de la latitude dans le tableau.
+	 */
+	public abstract void inverser( double x, double y, double z, double[] latLonAlt, int position);
+
+
+
+
+	/**
+	 * Permet de projeter une série de points.
+	 * @param latitudes
+	 * 				Les latitudes WGS84 en degrés décimaux.
+	 * @param longitudes
+	 * 				Les longitudes WGS84 en degrés décimaux.
+	 * @param altitudes
+	 * 				Les hauteurs en mètres, <i>null</i> pour des hauteurs nulles.
+	 * @param x
+	 * 				Le tableau recevant les premières coordonnées.
+	 * @param y
+	 * 				Le tableau recevant les deuxièmes coordonnées.
+	 * @param z
+	 * 				Le tableau recevant les troisièmes coordonnées, <i>null</i> si elles ne sont pas utiles.
+	 * @param debut
+	 * 				L'indice du premier point, dans tous les tableaux.
+	 * @param nb
+	 * 				Le nombre de points.
+	 */
+	public void projeter( double[] latitudes, double[] longitudes, double[] altitudes, double[] x, double[] y,
+			double[] z, int debut, int nb) {
+		double[] xyz = new double[ 3];
+		int fin = debut + nb;
+		for( int i = debut ; i < fin ; ++i) {
+			projeter( latitudes[ i], longitudes[ i], altitudes != null ? altitudes[ i] : 0.0, xyz, 0);
+			x[ i] = xyz[ 0];
+			y[ i] = xyz[ 1];
+			if( z != null) {
+				z[ i] = xyz[ 2];
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de retrouver les coordonnées WGS84 d'une série de points projetés.
+	 * @param x
+	 * 				Les premières coordonnées projetées.
+	 * @param y
+	 * 				Les deuxièmes coordonnées projetées.
+	 * @param z
+	 * 				Les troisièmes coordonnées projetées, <i>null</i> pour des valeurs nulles.
+	 * @param latitudes
+	 * 				Le tableau recevant les latitudes en degrés décimaux.
+	 * @param longitudes
+	 * 				Le tableau recevant les longitudes en degrés décimaux.
+	 * @param altitudes
+	 * 				Le tableau recevant les hauteurs en mètres, <i>null</i> si elles ne sont pas utiles.
+	 * @param debut
+	 * 				L'indice du premier point, dans tous les tableaux.
+	 * @param nb
+	 * 				Le nombre de points.
+	 */
+	public void inverser( double[] x, double[] y, double[] z, double[] latitudes, double[] longitudes,
+			double[] altitudes, int debut, int nb) {
+		double[] latLonAlt = new double[ 3];
+		int fin = debut + nb;
+		for( int i = debut ; i < fin ; ++i) {
+			inverser( x[ i], y[ i], z != null ? z[ i] : 0.0, latLonAlt, 0);
+			latitudes[ i] = latLonAlt[ 0];
+			longitudes[ i] = latLonAlt[ 1];
+			if( altitudes != null) {
+				altitudes[ i] = latLonAlt[ 2];
+			}
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne la projection Lambert-93 (RGF93, ellipsoïde GRS80).
+	 * <p>Les coordonnées WGS84 sont assimilées au RGF93, à quelques centimètres près.</p>
+	 * @return La projection partagée.
+	 */
+	public static Projection lambert93() {
+		return LAMBERT_93_S;
+	}
+
+
+
+
+	/**
+	 * Retourne la projection Lambert II du système NTF, celle de
+	 * {@link telemetrieMoto.postTraitement.coordonnees.ConvertisseurLambert2}.
+	 * @return La projection partagée.
+	 */
+	public static Projection lambert2() {
+		return LAMBERT_2_S;
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * ProjectionConiqueConforme.java
+ * Permet de projeter des coordonnees WGS84 par une projection conique conforme de Lambert
+ */
+
+package telemetrieMoto.postTraitement.projections;
+
+
+
+
+/**
+ * <b>ProjectionConiqueConforme représente une projection conique conforme de Lambert, comme Lambert-93 ou Lambert II.</b>
+ * <p>La projection est définie soit par ses deux parallèles automécoïques, soit directement par ses constantes
+ * (exposant, constante et coordonnées du pôle) telles que les publie l'IGN. Dans les deux cas, les constantes
+ * sont calculées une seule fois.
+ * <br>Si le système géodésique de la projection n'est pas le WGS84, une translation des coordonnées géocentriques
+ * est appliquée avant la projection, puis retranchée lors de l'inversion.</p>
+ * <p>La troisième coordonnée projetée est la hauteur au dessus de l'ellipsoïde de la projection.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Projection
+ * @see Ellipsoide
+ */
+public class ProjectionConiqueConforme extends Projection {
+
+
+	/** La précision en radians de l'inversion de la latitude isométrique. */
+	private static final double PRECISION_LATITUDE_S = 1e-12;
+
+
+	/** Le nombre maximal d'itérations de l'inversion de la latitude isométrique. */
+	private static final int ITERATIONS_MAX_S = 20;
+
+
+	/** L'ellipsoïde du système géodésique de la projection. */
+	private final Ellipsoide ellipsoide_;
+
+
+	/** La translation en mètres des coordonnées géocentriques WGS84 vers le système de la projection, <i>null</i> si aucune. */
+	private final double[] translation_;
+
+
+	/** L'exposant de la projection. */
+	private final double n_;
+
+
+	/** La constante de la projection en mètres. */
+	private final double c_;
+
+
+	/** La longitude du méridien d'origine en radians. */
+	private final double lambda0_;
+
+
+	/** L'abscisse du pôle en mètres. */
+	private final double xs_;
+
+
+	/** L'ordonnée du pôle en mètres. */
+	private final double ys_;
+
+
+
+
+	/**
+	 * Le constructeur d'une projection définie par ses parallèles automécoïques.
+	 * @param ellipsoide
+	 * 				L'ellipsoïde du système géodésique de la projection.
+	 * @param translation
+	 * 				La translation en mètres des coordonnées géocentriques WGS84 vers le système de la projection,
+	 * 				<i>null</i> si le système est assimilé au WGS84.
+	 * @param phi1
+	 * 				Le premier parallèle automécoïque en degrés.
+	 * @param phi2
+	 * 				Le second parallèle automécoïque en degrés.
+	 * @param phi0
+	 * 				La latitude d'origine en degrés.
+	 * @param lambda0
+	 * 				La longitude du méridien d'origine en degrés.
+	 * @param x0
+	 * 				L'abscisse du point d'origine en mètres.
+	 * @param y0
+	 * 				L'ordonnée du point d'origine en mètres.
+	 */
+	public ProjectionConiqueConforme( Ellipsoide ellipsoide, double[] translation, double phi1, double phi2, double phi0,
+			double lambda0, double x0, double y0) {
+		ellipsoide_ = ellipsoide;
+		translation_ = translation != null ? translation.clone() : null;
+		double p1 = phi1 * RADIANS_PAR_DEGRE_S;
+		double p2 = phi2 * RADIANS_PAR_DEGRE_S;
+		double l1 = latitudeIsometrique( p1, ellipsoide.getE());
+		double l2 = latitudeIsometrique( p2, ellipsoide.getE());
+		n_ = ( Math.log( grandeNormale( p1) * Math.cos( p1)) - Math.log( grandeNormale( p2) * Math.cos( p2))) / ( l2 - l1);
+		c_ = grandeNormale( p1) * Math.cos( p1) / n_ * Math.exp( n_ * l1);
+		lambda0_ = lambda0 * RADIANS_PAR_DEGRE_S;
+		xs_ = x0;
+		ys_ = y0 + c_ * Math.exp( -n_ * latitudeIsometrique( phi0 * RADIANS_PAR_DEGRE_S, ellipsoide.getE()));
+	}
+
+
+
+
+	/**
+	 * Le constructeur d'une projection définie par ses constantes.
+	 * @param ellipsoide
+	 * 				L'ellipsoïde du système géodésique de la projection.
+	 * @param translation
+	 * 				La translation en mètres des coordonnées géocentriques WGS84 vers le système de la projection,
+	 * 				<i>null</i> si le système est assimilé au WGS84.
+	 * @param n
+	 * 				L'exposant de la projection.
+	 * @param c
+	 * 				La constante de la projection en mètres.
+	 * @param lambda0
+	 * 				La longitude du méridien d'origine en radians.
+	 * @param xs
+	 * 				L'abscisse du pôle en mètres.
+	 * @param ys
+	 * 				L'ordonnée du pôle en mètres.
+	 */
+	public ProjectionConiqueConforme( Ellipsoide ellipsoide, double[] translation, double n, double c, double lambda0,
+			double xs, double ys) {
+		ellipsoide_ = ellipsoide;
+		translation_ = translation != null ? translation.clone() : null;
+		n_ = n;
+		c_ = c;
+		lambda0_ = lambda0;
+		xs_ = xs;
+		ys_ = ys;
+	}
+
+
+
+
+	/**
+	 * Retourne la grande normale de l'ellipsoïde à une latitude.
+	 * @param phi
+	 * 				La latitude en radians.
+	 * @return La grande normale en mètres.
+	 */
+	private double grandeNormale( double phi) {
+		double sinPhi = Math.sin( phi);
+		return ellipsoide_.getA() / Math.sqrt( 1 - ellipsoide_.getE2() * sinPhi * sinPhi);
+	}
+
+
+
+
+	/**
+	 * Retourne la latitude isométrique d'une latitude.
+	 * @param phi
+	 * 				La latitude en radians.
+	 * @param e
+	 * 				L'excentricité de l'ellipsoïde.
+	 * @return La latitude isométrique.
+	 */
+	static double latitudeIsometrique( double phi, double e) {
+		double sinPhi = Math.sin( phi);
+		double eSinPhi = e * sinPhi;
+		return 0.5 * ( Math.log( ( 1 + sinPhi) / ( 1 - sinPhi)) - e * Math.log( ( 1 + eSinPhi) / ( 1 - eSinPhi)));
+	}
+
+
+
+
+	@Override
+	public void projeter( double latitude, double longitude, double altitude, double[] xyz, int position) {
+		double phi = latitude * RADIANS_PAR_DEGRE_S;
+		double lambda = longitude * RADIANS_PAR_DEGRE_S;
+		double hauteur = altitude;
+		if( translation_ != null) {
+			// Changement de systeme par les coordonnees geocentriques
+			Ellipsoide.WGS84_S.versGeocentrique( phi, lambda, altitude, xyz, position);
+			ellipsoide_.versGeographique( xyz[ position] + translation_[ 0], xyz[ position + 1] + translation_[ 1],
+					xyz[ position + 2] + translation_[ 2], xyz, position);
+			phi = xyz[ position];
+			lambda = xyz[ position + 1];
+			hauteur = xyz[ position + 2];
+		}
+		double r = c_ * Math.exp( -n_ * latitudeIsometrique( phi, ellipsoide_.getE()));
+		double gamma = n_ * ( lambda - lambda0_);
+		xyz[ position] = xs_ + r * Math.sin( gamma);
+		xyz[ position + 1] = ys_ - r * Math.cos( gamma);
+		xyz[ position + 2] = hauteur;
+	}
+
+
+
+
+	@Override
+	public void inverser( double x, double y, double z, double[] latLonAlt, int position) {
+		double dx = x - xs_;
+		double dy = ys_ - y;
+		double r = Math.sqrt( dx * dx + dy * dy);
+		double lambda = lambda0_ + Math.atan2( dx, dy) / n_;
+		double l = -Math.log( r / c_) / n_;
+
+		// Inversion de la latitude isometrique par iterations
+		double e = ellipsoide_.getE();
+		double expL = Math.exp( l);
+		double phi = 2 * Math.atan( expL) - Math.PI / 2;
+		for( int i = 0 ; i < ITERATIONS_MAX_S ; ++i) {
+			double eSinPhi = e * Math.sin( phi);
+			double suivante = 2 * Math.atan( Math.pow( ( 1 + eSinPhi) / ( 1 - eSinPhi), e / 2) * expL) - Math.PI / 2;
+			boolean convergee = Math.abs( suivante - phi) < PRECISION_LATITUDE_S;
+			phi = suivante;
+			if( convergee) {
+				break;
+			}
+		}
+
+		double hauteur = z;
+		if( translation_ != null) {
+			ellipsoide_.versGeocentrique( phi, lambda, z, latLonAlt, position);
+			Ellipsoide.WGS84_S.versGeographique( latLonAlt[ position] - translation_[ 0], latLonAlt[ position + 1] - translation_[ 1],
+					latLonAlt[ position + 2] - translation_[ 2], latLonAlt, position);
+			phi = latLonAlt[ position];
+			lambda = latLonAlt[ position + 1];
+			hauteur = latLonAlt[ position + 2];
+		}
+		latLonAlt[ position] = phi / RADIANS_PAR_DEGRE_S;
+		latLonAlt[ position + 1] = lambda / RADIANS_PAR_DEGRE_S;
+		latLonAlt[ position + 2] = hauteur;
+	}
+
+
+
+
+	/**
+	 * Retourne l'exposant de la projection.
+	 * @return L'exposant de la projection.
+	 */
+	public double getN() {
+		return n_;
+	}
+
+
+
+
+	/**
+	 * Retourne la constante de la projection.
+	 * @return La constante de la projection en mètres.
+	 */
+	public double getC() {
+		return c_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'ordonnée du pôle de la projection.
+	 * @return L'ordonnée du pôle en mètres.
+	 */
+	public double getYs() {
+		return ys_;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * ProjectionENU.java
+ * Permet d'exprimer des coordonnees WGS84 dans un repere local Est Nord Haut
+ */
+
+package telemetrieMoto.postTraitement.projections;
+
+
+
+
+/**
+ * <b>ProjectionENU exprime les points dans le repère local Est, Nord, Haut tangent à l'ellipsoïde en une origine.</b>
+ * <p>Le repère est celui d'un circuit : l'origine est par exemple la ligne d'arrivée, l'axe x pointe vers l'est,
+ * l'axe y vers le nord et l'axe z vers le haut. Les coordonnées géocentriques de l'origine et la matrice de
+ * rotation sont calculées une seule fois à la construction. La conversion est exacte, sans approximation plane.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Projection
+ */
+public class ProjectionENU extends Projection {
+
+
+	/** Les coordonnées géocentriques de l'origine. */
+	private final double[] origine_ = new double[ 3];
+
+
+	/** La matrice de rotation du repère géocentrique vers le repère local, ligne par ligne. */
+	private final double[] rotation_ = new double[ 9];
+
+
+	/** La latitude de l'origine en degrés. */
+	private final double latitude0_;
+
+
+	/** La longitude de l'origine en degrés. */
+	private final double longitude0_;
+
+
+	/** La hauteur de l'origine en mètres. */
+	private final double altitude0_;
+
+
+
+
+	/**
+	 * Le constructeur du repère local.
+	 * @param latitude0
+	 * 				La latitude WGS84 de l'origine en degrés décimaux.
+	 * @param longitude0
+	 * 				La longitude WGS84 de l'origine en degrés décimaux.
+	 * @param altitude0
+	 * 				La hauteur WGS84 de l'origine en mètres.
+	 */
+	public ProjectionENU( double latitude0, double longitude0, double altitude0) {
+		latitude0_ = latitude0;
+		longitude0_ = longitude0;
+		altitude0_ = altitude0;
+		double phi = latitude0 * RADIANS_PAR_DEGRE_S;
+		double lambda = longitude0 * RADIANS_PAR_DEGRE_S;
+		Ellipsoide.WGS84_S.versGeocentrique( phi, lambda, altitude0, origine_, 0);
+		double sinPhi = Math.sin( phi);
+		double cosPhi = Math.cos( phi);
+		double sinLambda = Math.sin( lambda);
+		double cosLambda = Math.cos( lambda);
+		// Est
+		rotation_[ 0] = -sinLambda;
+		rotation_[ 1] = cosLambda;
+		rotation_[ 2] = 0;
+		// Nord
+		rotation_[ 3] = -sinPhi * cosLambda;
+		rotation_[ 4] = -sinPhi * sinLambda;
+		rotation_[ 5] = cosPhi;
+		// Haut
+		rotation_[ 6] = cosPhi * cosLambda;
+		rotation_[ 7] = cosPhi * sinLambda;
+		rotation_[ 8] = sinPhi;
+	}
+
+
+
+
+	@Override
+	public void projeter( double latitude, double longitude, double altitude, double[] xyz, int position) {
+		Ellipsoide.WGS84_S.versGeocentrique( latitude * RADIANS_PAR_DEGRE_S, longitude * RADIANS_PAR_DEGRE_S, altitude, xyz, position);
+		double dx = xyz[ position] - origine_[ 0];
+		double dy = xyz[ position + 1] - origine_[ 1];
+		double dz = xyz[ position + 2] - origine_[ 2];
+		xyz[ position] = rotation_[ 0] * dx + rotation_[ 1] * dy + rotation_[ 2] * dz;
+		xyz[ position + 1] = rotation_[ 3] * dx + rotation_[ 4] * dy + rotation_[ 5] * dz;
+		xyz[ position + 2] = rotation_[ 6] * dx + rotation_[ 7] * dy + rotation_[ 8] * dz;
+	}
+
+
+
+
+	@Override
+	public void inverser( double x, double y, double z, double[] latLonAlt, int position) {
+		// La matrice de rotation est orthogonale : son inverse est sa transposee
+		double gx = origine_[ 0] + rotation_[ 0] * x + rotation_[ 3] * y + rotation_[ 6] * z;
+		double gy = origine_[ 1] + rotation_[ 1] * x + rotation_[ 4] * y + rotation_[ 7] * z;
+		double gz = origine_[ 2] + rotation_[ 2] * x + rotation_[ 5] * y + rotation_[ 8] * z;
+		Ellipsoide.WGS84_S.versGeographique( gx, gy, gz, latLonAlt, position);
+		latLonAlt[ position] /= RADIANS_PAR_DEGRE_S;
+		latLonAlt[ position + 1] /= RADIANS_PAR_DEGRE_S;
+	}
+
+
+
+
+	/**
+	 * Retourne la latitude de l'origine.
+	 * @return La latitude WGS84 de l'origine en degrés décimaux.
+	 */
+	public double getLatitude0() {
+		return latitude0_;
+	}
+
+
+
+
+	/**
+	 * Retourne la longitude de l'origine.
+	 * @return La longitude WGS84 de l'origine en degrés décimaux.
+	 */
+	public double getLongitude0() {
+		return longitude0_;
+	}
+
+
+
+
+	/**
+	 * Retourne la hauteur de l'origine.
+	 * @return La hauteur WGS84 de l'origine en mètres.
+	 */
+	public double getAltitude0() {
+		return altitude0_;
+	}
+}
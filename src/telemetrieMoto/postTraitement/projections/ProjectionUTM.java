@@ -0,0 +1,244 @@
+/*
+ * ProjectionUTM.java
+ * Permet de projeter des coordonnees WGS84 dans une zone UTM
+ */
+
+package telemetrieMoto.postTraitement.projections;
+
+
+
+
+/**
+ * <b>ProjectionUTM représente la projection Transverse Universelle de Mercator d'une zone.</b>
+ * <p>La projection utilise les séries de Krüger en fonction du troisième aplatissement, développées à l'ordre 4 :
+ * l'erreur est inférieure au dixième de millimètre dans la zone. Les coefficients des séries ne dépendent que de
+ * l'ellipsoïde et sont calculés une fois par zone ; les 120 zones sont partagées (voir {@link #zone(int, boolean)}).</p>
+ * <p>La troisième coordonnée projetée est la hauteur WGS84, inchangée.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Projection
+ */
+public class ProjectionUTM extends Projection {
+
+
+	/** Le nombre de zones UTM dans chaque hémisphère. */
+	public static final int NB_ZONES_S = 60;
+
+
+	/** L'ordre du développement des séries de Krüger. */
+	private static final int ORDRE_S = 4;
+
+
+	/** Le facteur d'échelle sur le méridien central. */
+	private static final double K0_S = 0.9996;
+
+
+	/** L'abscisse du méridien central en mètres. */
+	private static final double E0_S = 500000.0;
+
+
+	/** L'ordonnée de l'équateur dans l'hémisphère sud en mètres. */
+	private static final double N0_SUD_S = 10000000.0;
+
+
+	/** Les zones déjà construites, celles de l'hémisphère nord puis celles de l'hémisphère sud. */
+	private static final ProjectionUTM[] ZONES_S = new ProjectionUTM[ 2 * NB_ZONES_S];
+
+
+	/** Le numéro de la zone. */
+	private final int zone_;
+
+
+	/** Vrai si la zone est dans l'hémisphère nord. */
+	private final boolean nord_;
+
+
+	/** La longitude du méridien central en radians. */
+	private final double lambda0_;
+
+
+	/** L'ordonnée de l'équateur en mètres. */
+	private final double n0_;
+
+
+	/** Le rayon rectifiant multiplié par le facteur d'échelle. */
+	private final double k0A_;
+
+
+	/** Le facteur de la latitude conforme. */
+	private final double facteurConforme_;
+
+
+	/** Les coefficients de la série directe. */
+	private final double[] alpha_ = new double[ ORDRE_S];
+
+
+	/** Les coefficients de la série inverse. */
+	private final double[] beta_ = new double[ ORDRE_S];
+
+
+	/** Les coefficients du retour de la latitude conforme à la latitude. */
+	private final double[] delta_ = new double[ ORDRE_S];
+
+
+
+
+	/**
+	 * Le constructeur d'une zone UTM sur l'ellipsoïde WGS84.
+	 * @param zone
+	 * 				Le numéro de la zone, de 1 à 60.
+	 * @param nord
+	 * 				<i>true</i> pour l'hémisphère nord.
+	 * @throws IllegalArgumentException si le numéro de zone est invalide.
+	 */
+	public ProjectionUTM( int zone, boolean nord) {
+		if( zone < 1 || zone > NB_ZONES_S) {
+			throw new IllegalArgumentException( "Zone UTM invalide : " + zone);
+		}
+		zone_ = zone;
+		nord_ = nord;
+		lambda0_ = ( zone * 6 - 183) * RADIANS_PAR_DEGRE_S;
+		n0_ = nord ? 0 : N0_SUD_S;
+
+		Ellipsoide ellipsoide = Ellipsoide.WGS84_S;
+		double f = ellipsoide.getF();
+		double n = f / ( 2 - f);
+		double n2 = n * n;
+		double n3 = n2 * n;
+		double n4 = n3 * n;
+		k0A_ = K0_S * ellipsoide.getA() / ( 1 + n) * ( 1 + n2 / 4 + n4 / 64);
+		facteurConforme_ = 2 * Math.sqrt( n) / ( 1 + n);
+		alpha_[ 0] = n / 2 - 2 * n2 / 3 + 5 * n3 / 16 + 41 * n4 / 180;
+		alpha_[ 1] = 13 * n2 / 48 - 3 * n3 / 5 + 557 * n4 / 1440;
+		alpha_[ 2] = 61 * n3 / 240 - 103 * n4 / 140;
+		alpha_[ 3] = 49561 * n4 / 161280;
+		beta_[ 0] = n / 2 - 2 * n2 / 3 + 37 * n3 / 96 - n4 / 360;
+		beta_[ 1] = n2 / 48 + n3 / 15 - 437 * n4 / 1440;
+		beta_[ 2] = 17 * n3 / 480 - 37 * n4 / 840;
+		beta_[ 3] = 4397 * n4 / 161280;
+		delta_[ 0] = 2 * n - 2 * n2 / 3 - 2 * n3 + 116 * n4 / 45;
+		delta_[ 1] = 7 * n2 / 3 - 8 * n3 / 5 - 227 * n4 / 45;
+		delta_[ 2] = 56 * n3 / 15 - 136 * n4 / 35;
+		delta_[ 3] = 4279 * n4 / 630;
+	}
+
+
+
+
+	/**
+	 * Retourne la projection partagée d'une zone UTM.
+	 * @param zone
+	 * 				Le numéro de la zone, de 1 à 60.
+	 * @param nord
+	 * 				<i>true</i> pour l'hémisphère nord.
+	 * @return La projection de la zone, construite au premier appel.
+	 * @throws IllegalArgumentException si le numéro de zone est invalide.
+	 */
+	public static synchronized ProjectionUTM zone( int zone, boolean nord) {
+		if( zone < 1 || zone > NB_ZONES_S) {
+			throw new IllegalArgumentException( "Zone UTM invalide : " + zone);
+		}
+		int indice = ( nord ? 0 : NB_ZONES_S) + zone - 1;
+		if( ZONES_S[ indice] == null) {
+			ZONES_S[ indice] = new ProjectionUTM( zone, nord);
+		}
+		return ZONES_S[ indice];
+	}
+
+
+
+
+	/**
+	 * Retourne la projection partagée de la zone UTM contenant un point.
+	 * <p>Les exceptions de la Norvège et du Svalbard ne sont pas gérées.</p>
+	 * @param latitude
+	 * 				La latitude en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude en degrés décimaux.
+	 * @return La projection de la zone du point.
+	 */
+	public static ProjectionUTM pour( double latitude, double longitude) {
+		int zone = ( int) Math.floor( ( longitude + 180) / 6) % NB_ZONES_S + 1;
+		return zone( zone, latitude >= 0);
+	}
+
+
+
+
+	@Override
+	public void projeter( double latitude, double longitude, double altitude, double[] xyz, int position) {
+		double sinPhi = Math.sin( latitude * RADIANS_PAR_DEGRE_S);
+		double dLambda = longitude * RADIANS_PAR_DEGRE_S - lambda0_;
+		double t = Math.sinh( atanh( sinPhi) - facteurConforme_ * atanh( facteurConforme_ * sinPhi));
+		double xiP = Math.atan2( t, Math.cos( dLambda));
+		double etaP = atanh( Math.sin( dLambda) / Math.sqrt( 1 + t * t));
+		double xi = xiP;
+		double eta = etaP;
+		for( int j = 1 ; j <= ORDRE_S ; ++j) {
+			xi += alpha_[ j - 1] * Math.sin( 2 * j * xiP) * Math.cosh( 2 * j * etaP);
+			eta += alpha_[ j - 1] * Math.cos( 2 * j * xiP) * Math.sinh( 2 * j * etaP);
+		}
+		xyz[ position] = E0_S + k0A_ * eta;
+		xyz[ position + 1] = n0_ + k0A_ * xi;
+		xyz[ position + 2] = altitude;
+	}
+
+
+
+
+	@Override
+	public void inverser( double x, double y, double z, double[] latLonAlt, int position) {
+		double xi = ( y - n0_) / k0A_;
+		double eta = ( x - E0_S) / k0A_;
+		double xiP = xi;
+		double etaP = eta;
+		for( int j = 1 ; j <= ORDRE_S ; ++j) {
+			xiP -= beta_[ j - 1] * Math.sin( 2 * j * xi) * Math.cosh( 2 * j * eta);
+			etaP -= beta_[ j - 1] * Math.cos( 2 * j * xi) * Math.sinh( 2 * j * eta);
+		}
+		double chi = Math.asin( Math.sin( xiP) / Math.cosh( etaP));
+		double phi = chi;
+		for( int j = 1 ; j <= ORDRE_S ; ++j) {
+			phi += delta_[ j - 1] * Math.sin( 2 * j * chi);
+		}
+		latLonAlt[ position] = phi / RADIANS_PAR_DEGRE_S;
+		latLonAlt[ position + 1] = ( lambda0_ + Math.atan2( Math.sinh( etaP), Math.cos( xiP))) / RADIANS_PAR_DEGRE_S;
+		latLonAlt[ position + 2] = z;
+	}
+
+
+
+
+	/**
+	 * Retourne l'argument tangente hyperbolique d'un nombre.
+	 * @param x
+	 * 			Le nombre, strictement entre -1 et 1.
+	 * @return L'argument tangente hyperbolique de x.
+	 */
+	private static double atanh( double x) {
+		return 0.5 * Math.log( ( 1 + x) / ( 1 - x));
+	}
+
+
+
+
+	/**
+	 * Retourne le numéro de la zone.
+	 * @return Le numéro de la zone, de 1 à 60.
+	 */
+	public int getZone() {
+		return zone_;
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si la zone est dans l'hémisphère nord.
+	 * @return <i>true</i> pour l'hémisphère nord.
+	 */
+	public boolean estNord() {
+		return nord_;
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * TestProjections.java
+ * Permet de tester les projections Lambert-93, Lambert II, UTM et ENU
+ */
+
+package telemetrieMoto.postTraitement.projections;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import telemetrieMoto.postTraitement.coordonnees.ConvertisseurLambert2;
+
+
+
+
+/**
+ * <b>TestProjections permet de tester les {@link Projection}.</b>
+ * <p>On vérifie les constantes publiées par l'IGN pour Lambert-93, quelques points connus, l'accord avec le
+ * {@link ConvertisseurLambert2} et l'inversion de chaque projection.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Projection
+ */
+public class TestProjections {
+
+
+	/** L'écart toléré en degrés après un aller retour, environ un dixième de millimètre. */
+	private static final double ERREUR_DEGRES_S = 1e-9;
+
+
+
+
+	/**
+	 * Permet de vérifier qu'un aller retour par une projection redonne le point de départ, point par point et par lots.
+	 * @param projection
+	 * 				La projection à vérifier.
+	 * @param latMin
+	 * 				La latitude minimale des points.
+	 * @param lonMin
+	 * 				La longitude minimale des points.
+	 * @param etendue
+	 * 				L'étendue en degrés des points en latitude et en longitude.
+	 */
+	private static void verifierAllerRetour( Projection projection, double latMin, double lonMin, double etendue) {
+		int nb = 500;
+		Random aleatoire = new Random( 3);
+		double[] lat = new double[ nb];
+		double[] lon = new double[ nb];
+		double[] alt = new double[ nb];
+		for( int i = 0 ; i < nb ; ++i) {
+			lat[ i] = latMin + etendue * aleatoire.nextDouble();
+			lon[ i] = lonMin + etendue * aleatoire.nextDouble();
+			alt[ i] = 500 * aleatoire.nextDouble();
+		}
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		double[] z = new double[ nb];
+		projection.projeter( lat, lon, alt, x, y, z, 0, nb);
+		double[] lat2 = new double[ nb];
+		double[] lon2 = new double[ nb];
+		double[] alt2 = new double[ nb];
+		projection.inverser( x, y, z, lat2, lon2, alt2, 0, nb);
+		double[] xyz = new double[ 3];
+		for( int i = 0 ; i < nb ; ++i) {
+			assertEquals( lat[ i], lat2[ i], ERREUR_DEGRES_S);
+			assertEquals( lon[ i], lon2[ i], ERREUR_DEGRES_S);
+			assertEquals( alt[ i], alt2[ i], 1e-3);
+			projection.projeter( lat[ i], lon[ i], alt[ i], xyz, 0);
+			assertEquals( x[ i], xyz[ 0], 0);
+			assertEquals( y[ i], xyz[ 1], 0);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier les constantes et l'origine de Lambert-93, et l'accord de Lambert II avec le convertisseur.
+	 */
+	@Test
+	public void testLambert() {
+		ProjectionConiqueConforme lambert93 = ( ProjectionConiqueConforme) Projection.lambert93();
+		assertEquals( 0.7256077650, lambert93.getN(), 1e-10);
+		assertEquals( 11754255.426, lambert93.getC(), 1e-3);
+		assertEquals( 12655612.050, lambert93.getYs(), 1e-3);
+		double[] xyz = new double[ 3];
+		lambert93.projeter( 46.5, 3.0, 0, xyz, 0);
+		assertEquals( 700000.0, xyz[ 0], 1e-6);
+		assertEquals( 6600000.0, xyz[ 1], 1e-6);
+		verifierAllerRetour( lambert93, 42.0, -4.5, 8.0);
+
+		double[] attendu = new double[ 3];
+		Random aleatoire = new Random( 5);
+		for( int i = 0 ; i < 500 ; ++i) {
+			double lat = 42.5 + 8 * aleatoire.nextDouble();
+			double lon = -4 + 11 * aleatoire.nextDouble();
+			ConvertisseurLambert2.projeter( lat, lon, 200, attendu, 0);
+			Projection.lambert2().projeter( lat, lon, 200, xyz, 0);
+			// Le convertisseur arrondit l'excentricite du WGS84, d'ou quelques dixiemes de millimetre d'ecart
+			assertEquals( attendu[ 0], xyz[ 0], 1e-3);
+			assertEquals( attendu[ 1], xyz[ 1], 1e-3);
+			assertEquals( attendu[ 2], xyz[ 2], 1e-3);
+		}
+		verifierAllerRetour( Projection.lambert2(), 42.5, -4.0, 8.0);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier la projection UTM sur le méridien central et l'inversion dans une zone.
+	 */
+	@Test
+	public void testUTM() {
+		ProjectionUTM utm = ProjectionUTM.pour( 45.0, 3.5);
+		assertEquals( 31, utm.getZone());
+		assertTrue( utm.estNord());
+		assertSame( utm, ProjectionUTM.zone( 31, true));
+		assertEquals( 60, ProjectionUTM.pour( 10, 179.9).getZone());
+		assertEquals( 1, ProjectionUTM.pour( 10, -180).getZone());
+
+		// Sur le meridien central, l'ordonnee est l'arc de meridien reduit par le facteur d'echelle
+		double[] xyz = new double[ 3];
+		utm.projeter( 45.0, 3.0, 0, xyz, 0);
+		assertEquals( 500000.0, xyz[ 0], 1e-6);
+		assertEquals( 0.9996 * 4984944.378, xyz[ 1], 0.01);
+		ProjectionUTM.zone( 31, false).projeter( -45.0, 3.0, 0, xyz, 0);
+		assertEquals( 10000000.0 - 0.9996 * 4984944.378, xyz[ 1], 0.01);
+
+		verifierAllerRetour( utm, 42.0, 0.0, 6.0);
+		verifierAllerRetour( ProjectionUTM.zone( 33, false), -40.0, 12.0, 6.0);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier le repère local autour d'un circuit.
+	 */
+	@Test
+	public void testENU() {
+		ProjectionENU enu = new ProjectionENU( 46.86, 3.16, 200);
+		double[] xyz = new double[ 3];
+		enu.projeter( 46.86, 3.16, 300, xyz, 0);
+		assertEquals( 0, xyz[ 0], 1e-6);
+		assertEquals( 0, xyz[ 1], 1e-6);
+		assertEquals( 100, xyz[ 2], 1e-6);
+
+		// Un millieme de degre vers le nord fait environ 111 m
+		enu.projeter( 46.861, 3.16, 200, xyz, 0);
+		assertEquals( 0, xyz[ 0], 1e-6);
+		assertEquals( 111.2, xyz[ 1], 0.2);
+
+		verifierAllerRetour( enu, 46.83, 3.13, 0.06);
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * Chronometre.java
+ * Permet de suivre en direct les temps des secteurs et l'ecart au meilleur tour d'une moto
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import java.util.Arrays;
+
+
+
+
+/**
+ * <b>Chronometre suit le tour en cours d'une moto : temps des secteurs, distance parcourue et écart au meilleur tour.</b>
+ * <p>En plus du découpage en tours du {@link DetecteurTours}, chaque déplacement est mesuré dans le repère de la
+ * ligne d'arrivée pour connaître la distance parcourue depuis la ligne, et comparé à la ligne du prochain secteur
+ * seulement. Le franchissement d'une ligne de secteur est interpolé comme celui de la ligne d'arrivée.</p>
+ * <p>Le meilleur tour de la session sert de référence : ses échantillons de distance et de temps sont gardés dans un
+ * {@link TourReference}. L'écart au meilleur tour, {@link #getEcart()}, est le temps du tour en cours moins le temps
+ * du meilleur tour à la même distance : négatif si la moto est en avance. Il est mis à jour à chaque position en
+ * temps constant, pour toutes les motos à la fréquence du GPS.</p>
+ * <p>Un chronomètre n'est pas partagé entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see DetecteurTours
+ * @see TourReference
+ */
+public class Chronometre extends DetecteurTours {
+
+
+	/** Le nombre d'échantillons prévus au départ pour un tour. */
+	private static final int ECHANTILLONS_INITIAUX_S = 2048;
+
+
+	/** Les lignes des secteurs dans l'ordre du circuit, exprimées dans le repère de la ligne d'arrivée. */
+	private final LigneChronometrage[] secteurs_;
+
+
+	/** Vrai une fois la ligne d'arrivée franchie pour la première fois. */
+	private boolean enTour_ = false;
+
+
+	/** L'instant du début du tour en cours en millisecondes. */
+	private double debutTour_;
+
+
+	/** L'instant du début du secteur en cours en millisecondes. */
+	private double debutSecteur_;
+
+
+	/** L'indice de la prochaine ligne de secteur à franchir. */
+	private int prochainSecteur_ = 0;
+
+
+	/** Les temps des secteurs du tour en cours en millisecondes, <i>NaN</i> si le secteur n'est pas terminé. */
+	private final double[] secteursEnCours_;
+
+
+	/** Les temps des secteurs du dernier tour terminé en millisecondes, <i>null</i> si aucun. */
+	private double[] secteursDernierTour_ = null;
+
+
+	/** Les meilleurs temps de chaque secteur sur la session en millisecondes, <i>NaN</i> si aucun. */
+	private final double[] meilleursSecteurs_;
+
+
+	/** La distance parcourue depuis le début du tour en cours en mètres. */
+	private double distance_ = 0;
+
+
+	/** Le temps écoulé depuis le début du tour en cours en millisecondes, à la dernière position. */
+	private double tempsTour_ = 0;
+
+
+	/** Les distances des échantillons du tour en cours. */
+	private double[] distances_ = new double[ ECHANTILLONS_INITIAUX_S];
+
+
+	/** Les temps écoulés des échantillons du tour en cours. */
+	private double[] temps_ = new double[ ECHANTILLONS_INITIAUX_S];
+
+
+	/** Le nombre d'échantillons du tour en cours. */
+	private int nbEchantillons_ = 0;
+
+
+	/** La référence construite sur le meilleur tour, <i>null</i> si aucun tour n'est terminé. */
+	private TourReference reference_ = null;
+
+
+
+
+	/**
+	 * Le constructeur du chronomètre.
+	 * @param ligne
+	 * 				La ligne d'arrivée.
+	 * @param secteurs
+	 * 				Les lignes des secteurs dans l'ordre du circuit, créées par
+	 * 				{@link LigneChronometrage#analyserSecteurs(String, LigneChronometrage)}, éventuellement aucune.
+	 * @param dureeMin
+	 * 				La durée minimale d'un tour en millisecondes.
+	 */
+	public Chronometre( LigneChronometrage ligne, LigneChronometrage[] secteurs, long dureeMin) {
+		super( ligne, dureeMin);
+		secteurs_ = secteurs.clone();
+		secteursEnCours_ = new double[ secteurs.length + 1];
+		meilleursSecteurs_ = new double[ secteurs.length + 1];
+		Arrays.fill( secteursEnCours_, Double.NaN);
+		Arrays.fill( meilleursSecteurs_, Double.NaN);
+	}
+
+
+
+
+	@Override
+	protected void deplacer( double x1, double y1, double x2, double y2, double temps1, double temps2, double franchissement) {
+		double longueur = Math.hypot( x2 - x1, y2 - y1);
+		if( !Double.isNaN( franchissement)) {
+			double instant = temps1 + franchissement * ( temps2 - temps1);
+			if( enTour_) {
+				terminerTour( instant, distance_ + franchissement * longueur);
+			}
+			// Debut d'un nouveau tour sur la ligne
+			enTour_ = true;
+			debutTour_ = instant;
+			debutSecteur_ = instant;
+			prochainSecteur_ = 0;
+			Arrays.fill( secteursEnCours_, Double.NaN);
+			nbEchantillons_ = 0;
+			ajouterEchantillon( 0, 0);
+			distance_ = ( 1 - franchissement) * longueur;
+			tempsTour_ = temps2 - instant;
+			ajouterEchantillon( distance_, tempsTour_);
+			return;
+		}
+		if( !enTour_) {
+			return;
+		}
+
+		if( prochainSecteur_ < secteurs_.length) {
+			double fraction = secteurs_[ prochainSecteur_].franchissement( x1, y1, x2, y2);
+			if( !Double.isNaN( fraction)) {
+				double instant = temps1 + fraction * ( temps2 - temps1);
+				secteursEnCours_[ prochainSecteur_] = instant - debutSecteur_;
+				debutSecteur_ = instant;
+				++prochainSecteur_;
+			}
+		}
+		distance_ += longueur;
+		tempsTour_ = temps2 - debutTour_;
+		ajouterEchantillon( distance_, tempsTour_);
+	}
+
+
+
+
+	/**
+	 * Permet de terminer le tour en cours sur la ligne d'arrivée.
+	 * @param instant
+	 * 				L'instant du franchissement en millisecondes.
+	 * @param distance
+	 * 				La distance parcourue sur le tour en mètres.
+	 */
+	private void terminerTour( double instant, double distance) {
+		// Un secteur manque si sa ligne n'a pas ete vue, faute de positions
+		if( prochainSecteur_ == secteurs_.length) {
+			secteursEnCours_[ secteurs_.length] = instant - debutSecteur_;
+		}
+		secteursDernierTour_ = secteursEnCours_.clone();
+		for( int i = 0 ; i < meilleursSecteurs_.length ; ++i) {
+			if( secteursEnCours_[ i] < meilleursSecteurs_[ i] || Double.isNaN( meilleursSecteurs_[ i])) {
+				meilleursSecteurs_[ i] = secteursEnCours_[ i];
+			}
+		}
+		ajouterEchantillon( distance, instant - debutTour_);
+		// Le tour vient d'etre ajoute par le detecteur : il devient la reference s'il est le meilleur
+		if( getMeilleurTour() == getTours().get( getTours().size() - 1)) {
+			reference_ = new TourReference( distances_, temps_, nbEchantillons_);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'ajouter un échantillon au tour en cours.
+	 * @param distance
+	 * 				La distance depuis la ligne en mètres.
+	 * @param temps
+	 * 				Le temps écoulé depuis la ligne en millisecondes.
+	 */
+	private void ajouterEchantillon( double distance, double temps) {
+		if( nbEchantillons_ == distances_.length) {
+			distances_ = Arrays.copyOf( distances_, 2 * nbEchantillons_);
+			temps_ = Arrays.copyOf( temps_, 2 * nbEchantillons_);
+		}
+		distances_[ nbEchantillons_] = distance;
+		temps_[ nbEchantillons_] = temps;
+		++nbEchantillons_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart entre le tour en cours et le meilleur tour, à la même distance de la ligne.
+	 * @return L'écart en millisecondes, négatif si la moto est en avance, <i>NaN</i> tant qu'aucun tour n'est terminé.
+	 */
+	public double getEcart() {
+		if( reference_ == null || !enTour_) {
+			return Double.NaN;
+		}
+		return tempsTour_ - reference_.getTemps( distance_);
+	}
+
+
+
+
+	/**
+	 * Retourne la distance parcourue depuis le début du tour en cours.
+	 * @return La distance en mètres, <i>NaN</i> si la ligne n'a pas encore été franchie.
+	 */
+	public double getDistance() {
+		return enTour_ ? distance_ : Double.NaN;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de secteurs du circuit.
+	 * @return Le nombre de lignes de secteur plus un.
+	 */
+	public int getNbSecteurs() {
+		return secteurs_.length + 1;
+	}
+
+
+
+
+	/**
+	 * Retourne les temps des secteurs du tour en cours.
+	 * @return Une copie des temps en millisecondes, <i>NaN</i> pour les secteurs non terminés.
+	 */
+	public double[] getSecteursEnCours() {
+		return secteursEnCours_.clone();
+	}
+
+
+
+
+	/**
+	 * Retourne les temps des secteurs du dernier tour terminé.
+	 * @return Une copie des temps en millisecondes, <i>NaN</i> pour un secteur manqué, ou <i>null</i> si aucun tour
+	 * n'est terminé.
+	 */
+	public double[] getSecteursDernierTour() {
+		return secteursDernierTour_ != null ? secteursDernierTour_.clone() : null;
+	}
+
+
+
+
+	/**
+	 * Retourne les meilleurs temps de chaque secteur sur la session.
+	 * @return Une copie des temps en millisecondes, <i>NaN</i> pour un secteur jamais terminé.
+	 */
+	public double[] getMeilleursSecteurs() {
+		return meilleursSecteurs_.clone();
+	}
+
+
+
+
+	/**
+	 * Retourne la référence construite sur le meilleur tour.
+	 * @return La référence, ou <i>null</i> si aucun tour n'est terminé.
+	 */
+	public TourReference getReference() {
+		return reference_;
+	}
+}
@@ -0,0 +1,475 @@
+/*
+ * ComparaisonTours.java
+ * Permet de comparer des tours a un tour de reference a distances egales
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+import telemetrieMoto.Proprietes;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.ExportCSV;
+import telemetrieMoto.postTraitement.PostTraitement;
+import telemetrieMoto.postTraitement.cinematique.FiltreKalman;
+import telemetrieMoto.postTraitement.index.IndexSegments;
+
+
+
+
+/**
+ * <b>ComparaisonTours compare des tours à un tour de référence, à distances égales le long du circuit.</b>
+ * <p>Deux tours ne se comparent pas échantillon par échantillon : les positions du GPS ne tombent jamais aux mêmes
+ * endroits. Chaque échantillon d'un tour est donc projeté sur la trajectoire du tour de référence, grâce à un
+ * {@link IndexSegments} : on obtient la distance parcourue le long de la référence et l'écart latéral à la
+ * référence. Les instants, les vitesses et les écarts latéraux sont ensuite rééchantillonnés sur une grille
+ * régulière de distances, par exemple tous les mètres, comme le tour de référence lui-même. Les écarts d'un tour à
+ * une distance de la grille se lisent alors dans un {@link EcartsTour}.</p>
+ * <p>Les vitesses et les écarts latéraux sont interpolés linéairement. Les instants peuvent l'être par
+ * l'interpolation cubique d'Hermite, dont la pente en chaque échantillon est l'inverse de sa vitesse, ramenée à la
+ * distance le long de la référence par la longueur du déplacement de la moto : entre deux
+ * échantillons éloignés de plusieurs mètres, elle suit l'accélération ou le freinage de la moto là où
+ * l'interpolation linéaire suppose une vitesse constante. Sur un intervalle où une vitesse est inconnue ou trop
+ * faible, ou si la courbe sortait des instants des deux échantillons, l'interpolation reste linéaire.</p>
+ * <p>Les tours doivent aller d'un franchissement de la ligne d'arrivée au suivant, comme ceux découpés par
+ * {@link TraceTour#extraire(Tour, double[], double[], double[], double[], int)}. Les distances de la grille au-delà
+ * du dernier échantillon d'un tour reçoivent les valeurs de cet échantillon.</p>
+ * <p>Chaque tour est comparé par sa propre tâche d'un {@link ForkJoinPool}, toutes les tâches partageant la
+ * référence et son index sans les modifier. Le travail d'un tour ne dépend que de son nombre d'échantillons et de
+ * la longueur de la grille, sans allocation par échantillon.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see TraceTour
+ * @see EcartsTour
+ * @see IndexSegments
+ */
+public class ComparaisonTours {
+
+
+	/** L'instance représentant le fichier de configuration du projet à interroger. */
+	private static Proprietes prop_s = Proprietes.getInstance();
+
+
+	/**
+	 * Le nombre de threads comparant les tours lors de l'export, 0 pour autant que de processeurs.
+	 * <br><i>Sa valeur est stockée dans le fichier de configuration du projet.</i>
+	 */
+	private static final int PARALLELISME_S = Integer.valueOf( prop_s.getPropriete( "ParallelismePostTraitement"));
+
+
+	/** La vitesse en mètres par seconde en dessous de laquelle les instants sont interpolés linéairement. */
+	private static final double VITESSE_MIN_S = 1.0;
+
+
+	/** Le tracé du tour de référence. */
+	private final TraceTour reference_;
+
+
+	/** L'index des segments de la trajectoire de référence. */
+	private final IndexSegments index_;
+
+
+	/** Le pas de la grille des distances en mètres. */
+	private final double pas_;
+
+
+	/** Vrai si les instants sont interpolés par l'interpolation cubique d'Hermite. */
+	private final boolean hermite_;
+
+
+	/** Les instants du tour de référence aux distances de la grille en millisecondes. */
+	private final double[] tempsReference_;
+
+
+	/** Les vitesses du tour de référence aux distances de la grille en mètres par seconde. */
+	private final double[] vitessesReference_;
+
+
+	/** Les threads de comparaison. */
+	private final ForkJoinPool pool_;
+
+
+
+
+	/**
+	 * Le constructeur de la comparaison.
+	 * @param reference
+	 * 				Le tracé du tour de référence.
+	 * @param pas
+	 * 				Le pas de la grille des distances en mètres.
+	 * @param hermite
+	 * 				<i>true</i> pour interpoler les instants par l'interpolation cubique d'Hermite, <i>false</i> pour
+	 * 				les interpoler linéairement.
+	 * @param parallelisme
+	 * 				Le nombre de threads de comparaison.
+	 * @throws IllegalArgumentException si le pas n'est pas strictement positif.
+	 */
+	public ComparaisonTours( TraceTour reference, double pas, boolean hermite, int parallelisme) {
+		if( !( pas > 0)) {
+			throw new IllegalArgumentException( "Pas de la grille non positif : " + pas);
+		}
+		int nb = reference.getNb();
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		for( int i = 0 ; i < nb ; ++i) {
+			x[ i] = reference.getX( i);
+			y[ i] = reference.getY( i);
+		}
+		reference_ = reference;
+		index_ = new IndexSegments( x, y, nb, true);
+		pas_ = pas;
+		hermite_ = hermite;
+
+		double[] distances = new double[ nb];
+		double[] lateraux = new double[ nb];
+		projeter( reference, distances, lateraux);
+		int nbDistances = ( int) Math.floor( Math.max( distances[ nb - 1], 0) / pas) + 1;
+		tempsReference_ = new double[ nbDistances];
+		vitessesReference_ = new double[ nbDistances];
+		reechantillonner( reference, distances, lateraux, tempsReference_, vitessesReference_, new double[ nbDistances]);
+		pool_ = new ForkJoinPool( parallelisme);
+	}
+
+
+
+
+	/**
+	 * Permet de comparer les tours d'une session à son meilleur tour et d'écrire les écarts dans un fichier csv.
+	 * <p>Les positions sont lissées par un {@link FiltreKalman}, qui donne aussi les vitesses, et les tours sont
+	 * découpés par un {@link DetecteurTours} pendant le même parcours des trames. Chaque ligne donne le numéro du
+	 * tour, la distance, l'écart de temps, l'écart de vitesse et l'écart latéral au meilleur tour, un mètre après
+	 * l'autre.</p>
+	 * @param nomFic
+	 * 				Le nom du fichier de la session, journal ou trames sérialisées.
+	 * @param ligne
+	 * 				La ligne d'arrivée.
+	 * @param dureeMin
+	 * 				La durée minimale d'un tour en millisecondes.
+	 * @param export
+	 * 				L'export recevant les écarts.
+	 * @param sortie
+	 * 				L'indice du fichier de l'export à écrire.
+	 * @throws IOException si le fichier csv n'a pas pu être écrit.
+	 */
+	public static void exporter( String nomFic, LigneChronometrage ligne, long dureeMin, ExportCSV export, int sortie)
+			throws IOException {
+		DetecteurTours detecteur = new DetecteurTours( ligne, dureeMin);
+		FiltreKalman filtre = new FiltreKalman( true);
+		try( Stream<TrameGPS> trames = new PostTraitement().parcourirTramesBin( nomFic)) {
+			for( Iterator<TrameGPS> it = trames.iterator() ; it.hasNext() ; ) {
+				TrameGPS trame = it.next();
+				detecteur.ajouter( trame);
+				filtre.ajouter( trame);
+			}
+		}
+		if( detecteur.getMeilleurTour() == null) {
+			return;
+		}
+
+		int nb = filtre.lisser();
+		double[] temps = new double[ nb];
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		double[] vitesses = new double[ nb];
+		double[] etat = new double[ FiltreKalman.NB_VALEURS_S];
+		for( int i = 0 ; i < nb ; ++i) {
+			filtre.getEtat( i, etat, 0);
+			temps[ i] = filtre.getTemps( i) * 1000;
+			x[ i] = etat[ 0];
+			y[ i] = etat[ FiltreKalman.NB_VALEURS_S / 2];
+			vitesses[ i] = filtre.getVitesse( i);
+		}
+		List<Tour> tours = new ArrayList<Tour>();
+		List<TraceTour> traces = new ArrayList<TraceTour>();
+		for( Tour tour : detecteur.getTours()) {
+			// Le detecteur et le filtre comptent le temps depuis la meme premiere position valide : on ne garde par
+			// securite que les tours compris dans les positions du filtre
+			if( nb >= 2 && tour.getDebut() >= temps[ 0] && tour.getFin() <= temps[ nb - 1]) {
+				tours.add( tour);
+				traces.add( TraceTour.extraire( tour, temps, x, y, vitesses, nb));
+			}
+		}
+		if( !tours.contains( detecteur.getMeilleurTour())) {
+			return;
+		}
+
+		ComparaisonTours comparaison = new ComparaisonTours( traces.get( tours.indexOf( detecteur.getMeilleurTour())),
+				TourReference.PAS_S, true, PARALLELISME_S > 0 ? PARALLELISME_S : Runtime.getRuntime().availableProcessors());
+		try {
+			List<EcartsTour> ecarts = comparaison.comparer( traces);
+			for( int t = 0 ; t < tours.size() ; ++t) {
+				EcartsTour ecartsTour = ecarts.get( t);
+				for( int k = 0 ; k < ecartsTour.getNbDistances() ; ++k) {
+					export.colonne( sortie, tours.get( t).getNumero(), 0).colonne( sortie, ecartsTour.getDistance( k), 1)
+							.colonne( sortie, ecartsTour.getEcartTemps( k), 1).colonne( sortie, ecartsTour.getEcartVitesse( k), 2)
+							.colonne( sortie, ecartsTour.getEcartLateral( k), 2);
+					export.finLigne( sortie);
+				}
+			}
+		} finally {
+			comparaison.fermer();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de comparer un tour à la référence dans le thread appelant.
+	 * @param tour
+	 * 				Le tracé du tour.
+	 * @return Les écarts du tour à la référence.
+	 */
+	public EcartsTour comparer( TraceTour tour) {
+		int nb = tour.getNb();
+		double[] distances = new double[ nb];
+		double[] lateraux = new double[ nb];
+		projeter( tour, distances, lateraux);
+
+		int nbDistances = tempsReference_.length;
+		double[] ecartsTemps = new double[ nbDistances];
+		double[] ecartsVitesse = new double[ nbDistances];
+		double[] ecartsLateraux = new double[ nbDistances];
+		reechantillonner( tour, distances, lateraux, ecartsTemps, ecartsVitesse, ecartsLateraux);
+		for( int k = 0 ; k < nbDistances ; ++k) {
+			ecartsTemps[ k] -= tempsReference_[ k];
+			ecartsVitesse[ k] -= vitessesReference_[ k];
+		}
+		return new EcartsTour( pas_, ecartsTemps, ecartsVitesse, ecartsLateraux);
+	}
+
+
+
+
+	/**
+	 * Permet de comparer des tours à la référence, chacun par une tâche des threads de comparaison.
+	 * @param tours
+	 * 				Les tracés des tours.
+	 * @return Les écarts de chaque tour à la référence, dans l'ordre des tours.
+	 */
+	public List<EcartsTour> comparer( List<TraceTour> tours) {
+		List<ForkJoinTask<EcartsTour>> taches = new ArrayList<ForkJoinTask<EcartsTour>>( tours.size());
+		for( TraceTour tour : tours) {
+			taches.add( pool_.submit( new Comparaison( this, tour)));
+		}
+		List<EcartsTour> ecarts = new ArrayList<EcartsTour>( tours.size());
+		for( ForkJoinTask<EcartsTour> tache : taches) {
+			ecarts.add( tache.join());
+		}
+		return ecarts;
+	}
+
+
+
+
+	/**
+	 * Permet de projeter les échantillons d'un tour sur la trajectoire de référence.
+	 * <p>Les distances le long de la référence sont rendues continues : la référence étant fermée, un échantillon
+	 * proche de la ligne d'arrivée peut se projeter juste avant la fin de la référence ou juste après son début.</p>
+	 * @param tour
+	 * 				Le tracé du tour.
+	 * @param distances
+	 * 				Le tableau recevant la distance de chaque échantillon le long de la référence en mètres.
+	 * @param lateraux
+	 * 				Le tableau recevant l'écart latéral de chaque échantillon en mètres, positif à gauche.
+	 */
+	private void projeter( TraceTour tour, double[] distances, double[] lateraux) {
+		double longueur = index_.getLongueur();
+		int nbReference = reference_.getNb();
+		double[] resultat = new double[ IndexSegments.NB_RESULTATS_S];
+		double abscissePrecedente = 0;
+		for( int i = 0 ; i < tour.getNb() ; ++i) {
+			double x = tour.getX( i);
+			double y = tour.getY( i);
+			int segment = index_.chercher( x, y, resultat, 0);
+
+			// Cote de la reference, par le produit vectoriel avec le segment
+			int suivant = segment + 1 < nbReference ? segment + 1 : 0;
+			double x0 = reference_.getX( segment);
+			double y0 = reference_.getY( segment);
+			double vectoriel = ( reference_.getX( suivant) - x0) * ( y - y0) - ( reference_.getY( suivant) - y0) * ( x - x0);
+			lateraux[ i] = vectoriel < 0 ? -resultat[ 1] : resultat[ 1];
+
+			double abscisse = resultat[ 2];
+			if( i == 0) {
+				distances[ i] = abscisse > longueur / 2 ? abscisse - longueur : abscisse;
+			} else {
+				double ecart = abscisse - abscissePrecedente;
+				if( ecart > longueur / 2) {
+					ecart -= longueur;
+				} else if( ecart < -longueur / 2) {
+					ecart += longueur;
+				}
+				distances[ i] = distances[ i - 1] + ecart;
+			}
+			abscissePrecedente = abscisse;
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de rééchantillonner un tour sur la grille des distances.
+	 * @param tour
+	 * 				Le tracé du tour.
+	 * @param distances
+	 * 				Les distances des échantillons le long de la référence en mètres.
+	 * @param lateraux
+	 * 				Les écarts latéraux des échantillons en mètres.
+	 * @param temps
+	 * 				Le tableau recevant l'instant à chaque distance de la grille en millisecondes.
+	 * @param vitesses
+	 * 				Le tableau recevant la vitesse à chaque distance de la grille en mètres par seconde.
+	 * @param lateralesGrille
+	 * 				Le tableau recevant l'écart latéral à chaque distance de la grille en mètres.
+	 */
+	private void reechantillonner( TraceTour tour, double[] distances, double[] lateraux, double[] temps,
+			double[] vitesses, double[] lateralesGrille) {
+		int nb = tour.getNb();
+		int j = 0;
+		for( int k = 0 ; k < temps.length ; ++k) {
+			double distance = k * pas_;
+			while( j < nb - 2 && distances[ j + 1] < distance) {
+				++j;
+			}
+			double intervalle = distances[ j + 1] - distances[ j];
+			double u = intervalle > 0 ? ( distance - distances[ j]) / intervalle : 1.0;
+			u = Math.min( Math.max( u, 0.0), 1.0);
+
+			double t0 = tour.getTemps( j);
+			double t1 = tour.getTemps( j + 1);
+			double v0 = tour.getVitesse( j);
+			double v1 = tour.getVitesse( j + 1);
+			double t = t0 + u * ( t1 - t0);
+			if( hermite_ && intervalle > 0 && v0 >= VITESSE_MIN_S && v1 >= VITESSE_MIN_S) {
+				// Pentes en millisecondes par metre de la reference, multipliees par la longueur de l'intervalle :
+				// la moto parcourt la longueur de son propre deplacement, plus courte a l'interieur d'un virage
+				double parcours = Math.hypot( tour.getX( j + 1) - tour.getX( j), tour.getY( j + 1) - tour.getY( j));
+				double m0 = 1000 * parcours / v0;
+				double m1 = 1000 * parcours / v1;
+				double u2 = u * u;
+				double u3 = u2 * u;
+				double cubique = ( 2 * u3 - 3 * u2 + 1) * t0 + ( u3 - 2 * u2 + u) * m0 + ( 3 * u2 - 2 * u3) * t1
+						+ ( u3 - u2) * m1;
+				if( cubique >= t0 && cubique <= t1) {
+					t = cubique;
+				}
+			}
+			temps[ k] = t;
+			vitesses[ k] = v0 + u * ( v1 - v0);
+			lateralesGrille[ k] = lateraux[ j] + u * ( lateraux[ j + 1] - lateraux[ j]);
+		}
+	}
+
+
+
+
+	/**
+	 * Permet d'arrêter les threads de comparaison.
+	 */
+	public void fermer() {
+		pool_.shutdown();
+	}
+
+
+
+
+	/**
+	 * Retourne le pas de la grille des distances.
+	 * @return Le pas en mètres.
+	 */
+	public double getPas() {
+		return pas_;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de distances de la grille, qui couvre le tour de référence.
+	 * @return Le nombre de distances.
+	 */
+	public int getNbDistances() {
+		return tempsReference_.length;
+	}
+
+
+
+
+	/**
+	 * Retourne l'instant du tour de référence à une distance de la grille.
+	 * @param k
+	 * 			L'indice de la distance.
+	 * @return L'instant en millisecondes depuis le début du tour de référence.
+	 */
+	public double getTempsReference( int k) {
+		return tempsReference_[ k];
+	}
+
+
+
+
+	/**
+	 * Retourne le tracé du tour de référence.
+	 * @return Le tracé.
+	 */
+	public TraceTour getReference() {
+		return reference_;
+	}
+
+
+
+
+	/**
+	 * <b>Comparaison est la tâche comparant un tour à la référence.</b>
+	 *
+	 * @author Yoan DUMAS
+	 * @version 1.1
+	 */
+	private static class Comparaison extends RecursiveTask<EcartsTour> {
+
+
+		/** L'identifiant de sérialisation. */
+		private static final long serialVersionUID = 1L;
+
+
+		/** La comparaison partagée par toutes les tâches. */
+		private final transient ComparaisonTours comparaison_;
+
+
+		/** Le tracé du tour à comparer. */
+		private final transient TraceTour tour_;
+
+
+
+
+		/**
+		 * Le constructeur de la tâche.
+		 * @param comparaison
+		 * 				La comparaison partagée par toutes les tâches.
+		 * @param tour
+		 * 				Le tracé du tour à comparer.
+		 */
+		public Comparaison( ComparaisonTours comparaison, TraceTour tour) {
+			comparaison_ = comparaison;
+			tour_ = tour;
+		}
+
+
+
+
+		@Override
+		protected EcartsTour compute() {
+			return comparaison_.comparer( tour_);
+		}
+	}
+}
@@ -0,0 +1,360 @@
+/*
+ * DetecteurTours.java
+ * Permet de decouper au fil de l'eau une suite de trames GPS en tours de circuit
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.PostTraitement;
+
+
+
+
+/**
+ * <b>DetecteurTours découpe une suite de trames GPS en tours, au fur et à mesure de leur arrivée.</b>
+ * <p>Chaque position est comparée à la précédente : si le déplacement franchit la {@link LigneChronometrage},
+ * l'instant du franchissement est interpolé entre les deux positions et termine le tour en cours. Le traitement
+ * d'une trame se fait en temps constant, le temps du tour est donc connu dès la trame qui suit la ligne, aussi
+ * bien en direct dans la {@link telemetrieMoto.acquisition.comm.udp.SessionMoto} qu'en relisant un fichier de
+ * session (voir {@link #detecter(String, LigneChronometrage, long)}).</p>
+ * <p>Les trames GPGGA et GPRMC d'un même instant ne comptent qu'une fois. Les trames GPRMC dont le GPS signale
+ * la position comme invalide sont ignorées, comme par le {@link telemetrieMoto.postTraitement.cinematique.FiltreKalman} :
+ * les instants des tours et ceux du filtre sont ainsi comptés depuis la même première position. Seuls les franchissements dans le sens
+ * du premier sont comptés. Un franchissement n'est compté que {@link #getDureeMin()} millisecondes au moins après
+ * le précédent, et si la moto s'est éloignée d'au moins {@link #ELOIGNEMENT_MIN_S} mètres de la ligne entre les
+ * deux : une moto arrêtée sur la ligne ne termine pas de tour à cause du bruit du GPS.
+ * <br>Les horodatages sont comptés modulo un jour, les trames datées et non datées peuvent être mélangées.</p>
+ * <p>Les classes dérivées, comme le {@link Chronometre}, suivent chaque déplacement retenu par
+ * {@link #deplacer(double, double, double, double, double, double, double)}.</p>
+ * <p>Un détecteur n'est pas partagé entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see LigneChronometrage
+ * @see Tour
+ */
+public class DetecteurTours {
+
+
+	/** La distance minimale en mètres au milieu de la ligne que la moto doit atteindre pendant un tour. */
+	public static final double ELOIGNEMENT_MIN_S = 100.0;
+
+
+	/** La ligne d'arrivée. */
+	private final LigneChronometrage ligne_;
+
+
+	/** La durée minimale d'un tour en millisecondes. */
+	private final long dureeMin_;
+
+
+	/** Les tours terminés. */
+	private final ArrayList<Tour> tours_ = new ArrayList<Tour>();
+
+
+	/** Les coordonnées locales de la position courante. */
+	private final double[] xyz_ = new double[ 3];
+
+
+	/** L'indice de la prochaine trame. */
+	private long indice_ = 0;
+
+
+	/** Vrai si une position précédente est connue. */
+	private boolean aPrecedente_ = false;
+
+
+	/** L'abscisse locale de la position précédente. */
+	private double xPrecedente_;
+
+
+	/** L'ordonnée locale de la position précédente. */
+	private double yPrecedente_;
+
+
+	/** L'horodatage de la position précédente en millisecondes. */
+	private long horodatagePrecedente_;
+
+
+	/** L'instant de la position précédente en millisecondes depuis la première position. */
+	private double tempsPrecedente_;
+
+
+	/** L'indice de la trame de la position précédente. */
+	private long indicePrecedente_;
+
+
+	/** Le sens des franchissements comptés, 0 tant que la ligne n'a pas été franchie. */
+	private int sens_ = 0;
+
+
+	/** L'instant du dernier franchissement compté, <i>NaN</i> si aucun. */
+	private double dernierFranchissement_ = Double.NaN;
+
+
+	/** La position du dernier franchissement compté dans la suite des trames. */
+	private double positionDernierFranchissement_;
+
+
+	/** Vrai si la moto s'est éloignée de la ligne depuis le dernier franchissement compté. */
+	private boolean eloignee_ = false;
+
+
+	/** Le meilleur tour terminé, <i>null</i> si aucun. */
+	private Tour meilleur_ = null;
+
+
+
+
+	/**
+	 * Le constructeur du détecteur.
+	 * @param ligne
+	 * 				La ligne d'arrivée.
+	 * @param dureeMin
+	 * 				La durée minimale d'un tour en millisecondes.
+	 */
+	public DetecteurTours( LigneChronometrage ligne, long dureeMin) {
+		ligne_ = ligne;
+		dureeMin_ = dureeMin;
+	}
+
+
+
+
+	/**
+	 * Permet de découper en tours les trames d'un fichier de session.
+	 * @param nomFic
+	 * 				Le nom du fichier de la session, journal ou trames sérialisées.
+	 * @param ligne
+	 * 				La ligne d'arrivée.
+	 * @param dureeMin
+	 * 				La durée minimale d'un tour en millisecondes.
+	 * @return Les tours de la session, dans l'ordre.
+	 */
+	public static List<Tour> detecter( String nomFic, LigneChronometrage ligne, long dureeMin) {
+		DetecteurTours detecteur = new DetecteurTours( ligne, dureeMin);
+		try( Stream<TrameGPS> trames = new PostTraitement().parcourirTramesBin( nomFic)) {
+			for( Iterator<TrameGPS> it = trames.iterator() ; it.hasNext() ; ) {
+				detecteur.ajouter( it.next());
+			}
+		}
+		return detecteur.getTours();
+	}
+
+
+
+
+	/**
+	 * Permet de traiter la trame suivante de la session.
+	 * @param trame
+	 * 				La trame, qui peut ne pas contenir de position ou être une trame GPRMC invalide.
+	 * @return Le tour terminé par cette trame, ou <i>null</i>.
+	 */
+	public Tour ajouter( TrameGPS trame) {
+		long indice = indice_++;
+		if( !trame.aUnePosition() || ( trame instanceof TrameGPRMC && !trame.estValide())) {
+			return null;
+		}
+		return ajouter( trame.getLatitudeMicroDegres() / 1e6, trame.getLongitudeMicroDegres() / 1e6, trame.getHorodatage(), indice);
+	}
+
+
+
+
+	/**
+	 * Permet de traiter la position suivante de la session.
+	 * @param latitude
+	 * 				La latitude WGS84 en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude WGS84 en degrés décimaux.
+	 * @param horodatage
+	 * 				L'horodatage de la position en millisecondes, voir {@link TrameGPS#getHorodatage()}.
+	 * @return Le tour terminé par cette position, ou <i>null</i>.
+	 */
+	public Tour ajouter( double latitude, double longitude, long horodatage) {
+		return ajouter( latitude, longitude, horodatage, indice_++);
+	}
+
+
+
+
+	/**
+	 * Permet de traiter une position et de terminer le tour en cours si la ligne est franchie.
+	 * @param latitude
+	 * 				La latitude WGS84 en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude WGS84 en degrés décimaux.
+	 * @param horodatage
+	 * 				L'horodatage de la position en millisecondes.
+	 * @param indice
+	 * 				L'indice de la trame de la position.
+	 * @return Le tour terminé par cette position, ou <i>null</i>.
+	 */
+	private Tour ajouter( double latitude, double longitude, long horodatage, long indice) {
+		ligne_.projeter( latitude, longitude, xyz_, 0);
+		double x = xyz_[ 0];
+		double y = xyz_[ 1];
+		if( !aPrecedente_) {
+			aPrecedente_ = true;
+			tempsPrecedente_ = 0;
+			retenir( x, y, horodatage, indice);
+			return null;
+		}
+
+		long ecart = ( horodatage - horodatagePrecedente_) % TrameGPS.MS_PAR_JOUR_S;
+		if( ecart > TrameGPS.MS_PAR_JOUR_S / 2) {
+			ecart -= TrameGPS.MS_PAR_JOUR_S;
+		} else if( ecart < -TrameGPS.MS_PAR_JOUR_S / 2) {
+			ecart += TrameGPS.MS_PAR_JOUR_S;
+		}
+		if( ecart <= 0) {
+			// Meme instant que la position precedente (GPGGA et GPRMC) ou trame en retard
+			return null;
+		}
+
+		Tour tour = null;
+		double compte = Double.NaN;
+		double fraction = ligne_.franchissement( xPrecedente_, yPrecedente_, x, y);
+		if( !Double.isNaN( fraction)) {
+			int sens = ligne_.sens( xPrecedente_, yPrecedente_, x, y);
+			if( sens_ == 0) {
+				sens_ = sens;
+			}
+			double instant = tempsPrecedente_ + fraction * ecart;
+			double position = indicePrecedente_ + fraction * ( indice - indicePrecedente_);
+			boolean premier = Double.isNaN( dernierFranchissement_);
+			if( sens == sens_ && ( premier || ( eloignee_ && instant - dernierFranchissement_ >= dureeMin_))) {
+				if( !premier) {
+					tour = new Tour( tours_.size() + 1, dernierFranchissement_, instant, positionDernierFranchissement_, position);
+					tours_.add( tour);
+					if( meilleur_ == null || tour.getDuree() < meilleur_.getDuree()) {
+						meilleur_ = tour;
+					}
+				}
+				dernierFranchissement_ = instant;
+				positionDernierFranchissement_ = position;
+				eloignee_ = false;
+				compte = fraction;
+			}
+		}
+		deplacer( xPrecedente_, yPrecedente_, x, y, tempsPrecedente_, tempsPrecedente_ + ecart, compte);
+		// Le repere de la ligne est centre sur son milieu
+		if( x * x + y * y > ELOIGNEMENT_MIN_S * ELOIGNEMENT_MIN_S) {
+			eloignee_ = true;
+		}
+		tempsPrecedente_ += ecart;
+		retenir( x, y, horodatage, indice);
+		return tour;
+	}
+
+
+
+
+	/**
+	 * Permet aux classes dérivées de suivre chaque déplacement retenu, après la mise à jour des tours.
+	 * <p>Les coordonnées sont celles du repère local de la ligne d'arrivée (voir
+	 * {@link LigneChronometrage#projeter(double, double, double[], int)}).</p>
+	 * @param x1
+	 * 				L'abscisse locale de la position de départ.
+	 * @param y1
+	 * 				L'ordonnée locale de la position de départ.
+	 * @param x2
+	 * 				L'abscisse locale de la position d'arrivée.
+	 * @param y2
+	 * 				L'ordonnée locale de la position d'arrivée.
+	 * @param temps1
+	 * 				L'instant de la position de départ en millisecondes depuis la première position.
+	 * @param temps2
+	 * 				L'instant de la position d'arrivée en millisecondes depuis la première position.
+	 * @param franchissement
+	 * 				La fraction du déplacement à laquelle un franchissement compté de la ligne d'arrivée a lieu,
+	 * 				<i>NaN</i> s'il n'y en a pas.
+	 */
+	protected void deplacer( double x1, double y1, double x2, double y2, double temps1, double temps2, double franchissement) {
+		// Rien a faire pour le seul decoupage en tours
+	}
+
+
+
+
+	/**
+	 * Permet de retenir une position comme position précédente.
+	 * @param x
+	 * 				L'abscisse locale.
+	 * @param y
+	 * 				L'ordonnée locale.
+	 * @param horodatage
+	 * 				L'horodatage en millisecondes.
+	 * @param indice
+	 * 				L'indice de la trame.
+	 */
+	private void retenir( double x, double y, long horodatage, long indice) {
+		xPrecedente_ = x;
+		yPrecedente_ = y;
+		horodatagePrecedente_ = horodatage;
+		indicePrecedente_ = indice;
+	}
+
+
+
+
+	/**
+	 * Retourne les tours terminés.
+	 * @return Les tours dans l'ordre, en lecture seule.
+	 */
+	public List<Tour> getTours() {
+		return Collections.unmodifiableList( tours_);
+	}
+
+
+
+
+	/**
+	 * Retourne le meilleur tour terminé.
+	 * @return Le tour le plus rapide, ou <i>null</i> si aucun tour n'est terminé.
+	 */
+	public Tour getMeilleurTour() {
+		return meilleur_;
+	}
+
+
+
+
+	/**
+	 * Retourne le temps écoulé depuis le début du tour en cours.
+	 * @return La durée en millisecondes depuis le dernier franchissement, <i>NaN</i> si la ligne n'a pas été franchie.
+	 */
+	public double getTempsTourEnCours() {
+		return tempsPrecedente_ - dernierFranchissement_;
+	}
+
+
+
+
+	/**
+	 * Retourne la ligne d'arrivée.
+	 * @return La ligne d'arrivée.
+	 */
+	public LigneChronometrage getLigne() {
+		return ligne_;
+	}
+
+
+
+
+	/**
+	 * Retourne la durée minimale d'un tour.
+	 * @return La durée en millisecondes.
+	 */
+	public long getDureeMin() {
+		return dureeMin_;
+	}
+}
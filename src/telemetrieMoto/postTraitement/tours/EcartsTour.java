@@ -0,0 +1,123 @@
+/*
+ * EcartsTour.java
+ * Permet de representer les ecarts d'un tour a un tour de reference sur une grille de distances
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+
+
+
+/**
+ * <b>EcartsTour donne les écarts d'un tour au tour de référence, distance par distance.</b>
+ * <p>Les distances sont celles d'une grille régulière le long du tour de référence, depuis la ligne d'arrivée.
+ * A chaque distance, on connaît l'écart de temps, négatif si le tour est en avance sur la référence, l'écart de
+ * vitesse et l'écart latéral, positif si le tour passe à gauche de la référence.</p>
+ * <p>Les écarts sont calculés par un {@link ComparaisonTours} et ne changent plus ensuite.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ComparaisonTours
+ */
+public final class EcartsTour {
+
+
+	/** Le pas de la grille des distances en mètres. */
+	private final double pas_;
+
+
+	/** Les écarts de temps en millisecondes. */
+	private final double[] ecartsTemps_;
+
+
+	/** Les écarts de vitesse en mètres par seconde. */
+	private final double[] ecartsVitesse_;
+
+
+	/** Les écarts latéraux en mètres. */
+	private final double[] ecartsLateraux_;
+
+
+
+
+	/**
+	 * Le constructeur des écarts, qui garde les tableaux sans les copier.
+	 * @param pas
+	 * 				Le pas de la grille des distances en mètres.
+	 * @param ecartsTemps
+	 * 				Les écarts de temps en millisecondes.
+	 * @param ecartsVitesse
+	 * 				Les écarts de vitesse en mètres par seconde.
+	 * @param ecartsLateraux
+	 * 				Les écarts latéraux en mètres.
+	 */
+	EcartsTour( double pas, double[] ecartsTemps, double[] ecartsVitesse, double[] ecartsLateraux) {
+		pas_ = pas;
+		ecartsTemps_ = ecartsTemps;
+		ecartsVitesse_ = ecartsVitesse;
+		ecartsLateraux_ = ecartsLateraux;
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre de distances de la grille.
+	 * @return Le nombre de distances.
+	 */
+	public int getNbDistances() {
+		return ecartsTemps_.length;
+	}
+
+
+
+
+	/**
+	 * Retourne une distance de la grille.
+	 * @param k
+	 * 			L'indice de la distance.
+	 * @return La distance depuis la ligne d'arrivée le long du tour de référence, en mètres.
+	 */
+	public double getDistance( int k) {
+		return k * pas_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart de temps à une distance de la grille.
+	 * @param k
+	 * 			L'indice de la distance.
+	 * @return Le temps du tour moins celui de la référence en millisecondes, négatif si le tour est en avance.
+	 */
+	public double getEcartTemps( int k) {
+		return ecartsTemps_[ k];
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart de vitesse à une distance de la grille.
+	 * @param k
+	 * 			L'indice de la distance.
+	 * @return La vitesse du tour moins celle de la référence en mètres par seconde, <i>NaN</i> si l'une est inconnue.
+	 */
+	public double getEcartVitesse( int k) {
+		return ecartsVitesse_[ k];
+	}
+
+
+
+
+	/**
+	 * Retourne l'écart latéral à une distance de la grille.
+	 * @param k
+	 * 			L'indice de la distance.
+	 * @return La distance du tour à la trajectoire de référence en mètres, positive à gauche de la référence.
+	 */
+	public double getEcartLateral( int k) {
+		return ecartsLateraux_[ k];
+	}
+}
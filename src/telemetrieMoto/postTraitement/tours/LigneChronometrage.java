@@ -0,0 +1,245 @@
+/*
+ * LigneChronometrage.java
+ * Permet de representer une ligne de chronometrage d'un circuit
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import telemetrieMoto.postTraitement.projections.ProjectionENU;
+
+
+
+
+/**
+ * <b>LigneChronometrage représente un segment du circuit que la moto franchit, comme la ligne d'arrivée.</b>
+ * <p>La ligne est définie par ses deux extrémités WGS84. Les positions sont exprimées en mètres dans le repère
+ * local Est Nord Haut centré sur le milieu de la ligne (voir {@link ProjectionENU}) : le test de franchissement
+ * entre deux positions successives est une intersection de segments dans le plan, en temps constant.
+ * <br>Les lignes des secteurs d'un circuit sont exprimées dans le repère de la ligne d'arrivée (voir
+ * {@link #analyserSecteurs(String, LigneChronometrage)}) : une seule conversion par position suffit.</p>
+ * <p>Une ligne ne change pas après sa construction et peut être partagée entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see DetecteurTours
+ */
+public final class LigneChronometrage {
+
+
+	/** Le repère local centré sur le milieu de la ligne. */
+	private final ProjectionENU repere_;
+
+
+	/** L'abscisse en mètres de la première extrémité. */
+	private final double ax_;
+
+
+	/** L'ordonnée en mètres de la première extrémité. */
+	private final double ay_;
+
+
+	/** La composante en x du vecteur allant de la première extrémité à la seconde. */
+	private final double ex_;
+
+
+	/** La composante en y du vecteur allant de la première extrémité à la seconde. */
+	private final double ey_;
+
+
+
+
+	/**
+	 * Le constructeur de la ligne.
+	 * @param latitudeA
+	 * 				La latitude WGS84 de la première extrémité en degrés décimaux.
+	 * @param longitudeA
+	 * 				La longitude WGS84 de la première extrémité en degrés décimaux.
+	 * @param latitudeB
+	 * 				La latitude WGS84 de la seconde extrémité en degrés décimaux.
+	 * @param longitudeB
+	 * 				La longitude WGS84 de la seconde extrémité en degrés décimaux.
+	 * @throws IllegalArgumentException si les deux extrémités sont confondues.
+	 */
+	public LigneChronometrage( double latitudeA, double longitudeA, double latitudeB, double longitudeB) {
+		this( new ProjectionENU( ( latitudeA + latitudeB) / 2, ( longitudeA + longitudeB) / 2, 0), latitudeA, longitudeA,
+				latitudeB, longitudeB);
+	}
+
+
+
+
+	/**
+	 * Le constructeur d'une ligne exprimée dans un repère local donné.
+	 * @param repere
+	 * 				Le repère local dans lequel les positions seront exprimées.
+	 * @param latitudeA
+	 * 				La latitude WGS84 de la première extrémité en degrés décimaux.
+	 * @param longitudeA
+	 * 				La longitude WGS84 de la première extrémité en degrés décimaux.
+	 * @param latitudeB
+	 * 				La latitude WGS84 de la seconde extrémité en degrés décimaux.
+	 * @param longitudeB
+	 * 				La longitude WGS84 de la seconde extrémité en degrés décimaux.
+	 * @throws IllegalArgumentException si les deux extrémités sont confondues.
+	 */
+	private LigneChronometrage( ProjectionENU repere, double latitudeA, double longitudeA, double latitudeB, double longitudeB) {
+		repere_ = repere;
+		double[] xyz = new double[ 3];
+		repere_.projeter( latitudeA, longitudeA, 0, xyz, 0);
+		ax_ = xyz[ 0];
+		ay_ = xyz[ 1];
+		repere_.projeter( latitudeB, longitudeB, 0, xyz, 0);
+		ex_ = xyz[ 0] - ax_;
+		ey_ = xyz[ 1] - ay_;
+		if( ex_ == 0 && ey_ == 0) {
+			throw new IllegalArgumentException( "Les extremites de la ligne sont confondues");
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de créer une ligne à partir de sa description dans le fichier de configuration.
+	 * @param description
+	 * 				Les coordonnées <i>latitudeA,longitudeA,latitudeB,longitudeB</i> en degrés décimaux.
+	 * @return La ligne, ou <i>null</i> si la description est absente ou vide.
+	 * @throws IllegalArgumentException si la description n'a pas quatre coordonnées.
+	 */
+	public static LigneChronometrage analyser( String description) {
+		if( description == null || description.trim().isEmpty()) {
+			return null;
+		}
+		double[] c = coordonnees( description);
+		return new LigneChronometrage( c[ 0], c[ 1], c[ 2], c[ 3]);
+	}
+
+
+
+
+	/**
+	 * Permet de créer les lignes des secteurs d'un circuit, dans le repère de sa ligne d'arrivée.
+	 * @param description
+	 * 				Les lignes dans l'ordre du circuit, séparées par des points-virgules, chacune décrite comme pour
+	 * 				{@link #analyser(String)}.
+	 * @param arrivee
+	 * 				La ligne d'arrivée du circuit.
+	 * @return Les lignes, aucune si la description est absente ou vide.
+	 * @throws IllegalArgumentException si une ligne n'a pas quatre coordonnées.
+	 */
+	public static LigneChronometrage[] analyserSecteurs( String description, LigneChronometrage arrivee) {
+		if( description == null || description.trim().isEmpty()) {
+			return new LigneChronometrage[ 0];
+		}
+		String[] lignes = description.split( ";");
+		LigneChronometrage[] secteurs = new LigneChronometrage[ lignes.length];
+		for( int i = 0 ; i < lignes.length ; ++i) {
+			double[] c = coordonnees( lignes[ i]);
+			secteurs[ i] = new LigneChronometrage( arrivee.repere_, c[ 0], c[ 1], c[ 2], c[ 3]);
+		}
+		return secteurs;
+	}
+
+
+
+
+	/**
+	 * Permet de lire les quatre coordonnées d'une ligne.
+	 * @param description
+	 * 				Les coordonnées <i>latitudeA,longitudeA,latitudeB,longitudeB</i> en degrés décimaux.
+	 * @return Les quatre coordonnées.
+	 * @throws IllegalArgumentException si la description n'a pas quatre coordonnées.
+	 */
+	private static double[] coordonnees( String description) {
+		String[] champs = description.split( ",");
+		if( champs.length != 4) {
+			throw new IllegalArgumentException( "Ligne de chronometrage invalide : " + description);
+		}
+		double[] coordonnees = new double[ 4];
+		for( int i = 0 ; i < 4 ; ++i) {
+			coordonnees[ i] = Double.parseDouble( champs[ i].trim());
+		}
+		return coordonnees;
+	}
+
+
+
+
+	/**
+	 * Permet d'exprimer une position dans le repère de la ligne.
+	 * @param latitude
+	 * 				La latitude WGS84 en degrés décimaux.
+	 * @param longitude
+	 * 				La longitude WGS84 en degrés décimaux.
+	 * @param xyz
+	 * 				Le tableau recevant les coordonnées locales en mètres, seules les deux premières sont utiles.
+	 * @param position
+	 * 				La position de la première coordonnée dans le tableau.
+	 */
+	public void projeter( double latitude, double longitude, double[] xyz, int position) {
+		repere_.projeter( latitude, longitude, 0, xyz, position);
+	}
+
+
+
+
+	/**
+	 * Permet de savoir si le déplacement entre deux positions franchit la ligne.
+	 * <p>Une position exactement sur la ligne compte pour le déplacement qui y arrive, pas pour celui qui en part :
+	 * la ligne n'est pas franchie deux fois.</p>
+	 * @param x1
+	 * 				L'abscisse locale de la position de départ.
+	 * @param y1
+	 * 				L'ordonnée locale de la position de départ.
+	 * @param x2
+	 * 				L'abscisse locale de la position d'arrivée.
+	 * @param y2
+	 * 				L'ordonnée locale de la position d'arrivée.
+	 * @return La fraction du déplacement, dans ]0, 1], à laquelle la ligne est franchie, ou <i>NaN</i> si elle ne
+	 * l'est pas.
+	 */
+	public double franchissement( double x1, double y1, double x2, double y2) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double denominateur = dx * ey_ - dy * ex_;
+		if( denominateur == 0) {
+			// Deplacement nul ou parallele a la ligne
+			return Double.NaN;
+		}
+		double px = ax_ - x1;
+		double py = ay_ - y1;
+		double s = ( px * ey_ - py * ex_) / denominateur;
+		double u = ( px * dy - py * dx) / denominateur;
+		return s > 0 && s <= 1 && u >= 0 && u <= 1 ? s : Double.NaN;
+	}
+
+
+
+
+	/**
+	 * Retourne le sens dans lequel un déplacement traverse la ligne.
+	 * @param x1
+	 * 				L'abscisse locale de la position de départ.
+	 * @param y1
+	 * 				L'ordonnée locale de la position de départ.
+	 * @param x2
+	 * 				L'abscisse locale de la position d'arrivée.
+	 * @param y2
+	 * 				L'ordonnée locale de la position d'arrivée.
+	 * @return 1 si la moto passe de la droite à la gauche de la ligne orientée de A vers B, -1 sinon.
+	 */
+	public int sens( double x1, double y1, double x2, double y2) {
+		return ( x2 - x1) * ey_ - ( y2 - y1) * ex_ < 0 ? 1 : -1;
+	}
+
+
+
+
+	/**
+	 * Retourne la longueur de la ligne.
+	 * @return La longueur en mètres.
+	 */
+	public double getLongueur() {
+		return Math.hypot( ex_, ey_);
+	}
+}
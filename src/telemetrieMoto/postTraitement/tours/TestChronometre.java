@@ -0,0 +1,141 @@
+/*
+ * TestChronometre.java
+ * Permet de tester les temps des secteurs et l'ecart au meilleur tour
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import telemetrieMoto.postTraitement.projections.ProjectionENU;
+
+
+
+
+/**
+ * <b>TestChronometre permet de tester le {@link Chronometre} et le {@link TourReference}.</b>
+ * <p>Une moto tourne sur un cercle de 500 m de rayon, chaque tour à sa propre vitesse. Deux lignes de secteur
+ * coupent le cercle au nord et à l'ouest, la ligne d'arrivée à l'est : les secteurs font un quart, un quart et
+ * la moitié du tour.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Chronometre
+ */
+public class TestChronometre {
+
+
+	/** Le repère local du circuit simulé. */
+	private static final ProjectionENU CIRCUIT_S = new ProjectionENU( 46.86, 3.16, 0);
+
+
+	/** Le rayon du circuit simulé en mètres. */
+	private static final double RAYON_S = 500;
+
+
+	/** Le temps du premier tour en millisecondes. */
+	private static final double DUREE_TOUR_S = 90043.7;
+
+
+	/** Les durées des tours successifs, relativement au premier. */
+	private static final double[] RAPPORTS_S = { 1.0, 1.02, 0.99, 1.0};
+
+
+
+
+	/**
+	 * Permet de décrire une ligne à partir de ses extrémités dans le repère du circuit.
+	 * @param xa
+	 * 				L'abscisse de la première extrémité en mètres.
+	 * @param ya
+	 * 				L'ordonnée de la première extrémité en mètres.
+	 * @param xb
+	 * 				L'abscisse de la seconde extrémité en mètres.
+	 * @param yb
+	 * 				L'ordonnée de la seconde extrémité en mètres.
+	 * @return La description de la ligne, comme dans le fichier de configuration.
+	 */
+	private static String ligne( double xa, double ya, double xb, double yb) {
+		double[] a = new double[ 3];
+		double[] b = new double[ 3];
+		CIRCUIT_S.inverser( xa, ya, 0, a, 0);
+		CIRCUIT_S.inverser( xb, yb, 0, b, 0);
+		return a[ 0] + "," + a[ 1] + "," + b[ 0] + "," + b[ 1];
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier les secteurs, le meilleur tour et l'écart au meilleur tour à 10 Hz.
+	 */
+	@Test
+	public void testSecteursEtEcart() {
+		LigneChronometrage arrivee = LigneChronometrage.analyser( ligne( RAYON_S - 15, 0, RAYON_S + 15, 0));
+		LigneChronometrage[] secteurs = LigneChronometrage.analyserSecteurs(
+				ligne( 0, RAYON_S - 15, 0, RAYON_S + 15) + ";" + ligne( -RAYON_S + 15, 0, -RAYON_S - 15, 0), arrivee);
+		Chronometre chronometre = new Chronometre( arrivee, secteurs, 20000);
+		assertEquals( 3, chronometre.getNbSecteurs());
+
+		// Le depart est donne un quart de tour avant la ligne, dans le sens trigonometrique
+		double angle = -Math.PI / 2;
+		double[] latLon = new double[ 3];
+		boolean ecartVerifie = false;
+		for( long t = 0 ; angle < 2 * Math.PI * RAPPORTS_S.length - 1 ; t += 100) {
+			int tour = angle < 0 ? 0 : ( int) ( angle / ( 2 * Math.PI));
+			angle += 2 * Math.PI * 100 / ( DUREE_TOUR_S * RAPPORTS_S[ tour]);
+			CIRCUIT_S.inverser( RAYON_S * Math.cos( angle), RAYON_S * Math.sin( angle), 0, latLon, 0);
+			Tour termine = chronometre.ajouter( latLon[ 0], latLon[ 1], t);
+
+			if( termine != null) {
+				double duree = DUREE_TOUR_S * RAPPORTS_S[ termine.getNumero() - 1];
+				assertEquals( duree, termine.getDuree(), 5);
+				double[] temps = chronometre.getSecteursDernierTour();
+				assertEquals( duree / 4, temps[ 0], 5);
+				assertEquals( duree / 4, temps[ 1], 5);
+				assertEquals( duree / 2, temps[ 2], 5);
+				assertEquals( termine.getDuree(), temps[ 0] + temps[ 1] + temps[ 2], 1e-6);
+				assertEquals( chronometre.getMeilleurTour().getDuree(), chronometre.getReference().getDuree(), 1e-6);
+				assertEquals( 2 * Math.PI * RAYON_S, chronometre.getReference().getLongueur(), 0.5);
+			}
+
+			// A mi-parcours du deuxieme tour, 2 % plus lent que le premier
+			if( !ecartVerifie && angle >= 3 * Math.PI) {
+				ecartVerifie = true;
+				assertEquals( Math.PI * RAYON_S, chronometre.getDistance(), 1);
+				assertEquals( 0.02 * DUREE_TOUR_S / 2, chronometre.getEcart(), 10);
+				assertTrue( Double.isNaN( chronometre.getSecteursEnCours()[ 2]));
+			}
+		}
+		assertTrue( ecartVerifie);
+		assertEquals( 3, chronometre.getTours().size());
+		assertEquals( 3, chronometre.getMeilleurTour().getNumero());
+		double[] meilleurs = chronometre.getMeilleursSecteurs();
+		assertEquals( 0.99 * DUREE_TOUR_S / 2, meilleurs[ 2], 5);
+		// Le quatrieme tour, au rythme du premier, est en retard sur le troisieme
+		assertEquals( 0.01 * DUREE_TOUR_S * chronometre.getDistance() / ( 2 * Math.PI * RAYON_S), chronometre.getEcart(), 10);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier la lecture de la référence entre et au delà des échantillons.
+	 */
+	@Test
+	public void testReference() {
+		double[] distances = { 0, 2.5, 2.5, 10.25};
+		double[] temps = { 0, 100, 150, 400};
+		TourReference reference = new TourReference( distances, temps, distances.length);
+		assertEquals( 10.25, reference.getLongueur(), 0);
+		assertEquals( 400, reference.getDuree(), 0);
+		assertEquals( 0, reference.getTemps( -3), 0);
+		assertEquals( 40, reference.getTemps( 1), 1e-9);
+		assertEquals( 80, reference.getTemps( 2), 1e-9);
+		assertEquals( 150 + 250 * 3.5 / 7.75, reference.getTemps( 6), 1e-9);
+		assertEquals( 150 + 250 * 7.625 / 7.75, reference.getTemps( 10.125), 1e-9);
+		assertEquals( 400, reference.getTemps( 11), 0);
+	}
+}
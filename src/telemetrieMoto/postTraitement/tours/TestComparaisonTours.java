@@ -0,0 +1,204 @@
+/*
+ * TestComparaisonTours.java
+ * Permet de tester la comparaison de tours a distances egales
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+
+
+
+/**
+ * <b>TestComparaisonTours permet de tester la {@link ComparaisonTours}.</b>
+ * <p>Les tours sont simulés sur des cercles concentriques, avec des vitesses variant le long du tour : l'instant
+ * de passage à chaque distance est connu exactement. On vérifie les écarts de temps, de vitesse et de trajectoire
+ * à la référence, l'apport de l'interpolation d'Hermite, la comparaison parallèle et le découpage d'un tour dans
+ * une session.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ComparaisonTours
+ */
+public class TestComparaisonTours {
+
+
+	/** Le rayon de la trajectoire de référence en mètres. */
+	private static final double RAYON_S = 200.0;
+
+
+
+
+	/**
+	 * Permet de simuler un tour sur un cercle parcouru dans le sens trigonométrique depuis l'angle nul.
+	 * <br>L'angle parcouru à l'instant t est w t + b sin( w t), la vitesse varie donc entre ( 1 - b) et ( 1 + b) fois
+	 * la vitesse moyenne.
+	 * @param decalage
+	 * 				Le décalage du cercle vers le centre en mètres.
+	 * @param w
+	 * 				La pulsation moyenne en radians par seconde.
+	 * @param b
+	 * 				L'amplitude de la variation de vitesse, inférieure à 1.
+	 * @param periode
+	 * 				La période des échantillons en millisecondes.
+	 * @return Le tracé du tour.
+	 */
+	private static TraceTour simuler( double decalage, double w, double b, double periode) {
+		double rayon = RAYON_S - decalage;
+		double duree = 2 * Math.PI / w * 1000;
+		int nb = ( int) Math.ceil( duree / periode) + 1;
+		double[] temps = new double[ nb];
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		double[] vitesses = new double[ nb];
+		for( int i = 0 ; i < nb ; ++i) {
+			temps[ i] = i < nb - 1 ? i * periode : duree;
+			double wt = w * temps[ i] / 1000;
+			double angle = wt + b * Math.sin( wt);
+			x[ i] = rayon * Math.cos( angle);
+			y[ i] = rayon * Math.sin( angle);
+			vitesses[ i] = rayon * w * ( 1 + b * Math.cos( wt));
+		}
+		return new TraceTour( temps, x, y, vitesses, nb);
+	}
+
+
+
+
+	/**
+	 * Retourne l'instant exact de passage d'un tour simulé à une distance le long de la référence.
+	 * @param distance
+	 * 				La distance en mètres.
+	 * @param w
+	 * 				La pulsation moyenne du tour.
+	 * @param b
+	 * 				L'amplitude de la variation de vitesse.
+	 * @return L'instant en millisecondes.
+	 */
+	private static double instant( double distance, double w, double b) {
+		// Methode de Newton sur w t + b sin( w t) = angle
+		double angle = distance / RAYON_S;
+		double wt = angle;
+		for( int i = 0 ; i < 50 ; ++i) {
+			wt -= ( wt + b * Math.sin( wt) - angle) / ( 1 + b * Math.cos( wt));
+		}
+		return wt / w * 1000;
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier les écarts d'un tour plus intérieur et au rythme différent de la référence.
+	 * <br>Le tour est échantillonné à 1 Hz : entre deux positions éloignées de 20 à 40 m, l'interpolation linéaire
+	 * des instants se trompe de plusieurs millisecondes.
+	 */
+	@Test
+	public void testEcarts() {
+		double wReference = 0.15, bReference = 0.3;
+		double wTour = 0.152, bTour = 0.2, decalage = 1.5;
+		TraceTour reference = simuler( 0.0, wReference, bReference, 100.0);
+		TraceTour tour = simuler( decalage, wTour, bTour, 1000.0);
+
+		double[] erreursMax = new double[ 2];
+		for( int h = 0 ; h < 2 ; ++h) {
+			ComparaisonTours comparaison = new ComparaisonTours( reference, 1.0, h == 1, 1);
+			try {
+				assertEquals( ( int) Math.floor( 2 * Math.PI * RAYON_S) + 1, comparaison.getNbDistances(), 1);
+				EcartsTour ecarts = comparaison.comparer( tour);
+				assertEquals( comparaison.getNbDistances(), ecarts.getNbDistances());
+				for( int k = 0 ; k < ecarts.getNbDistances() ; ++k) {
+					double distance = ecarts.getDistance( k);
+					double attendu = instant( distance, wTour, bTour) - instant( distance, wReference, bReference);
+					erreursMax[ h] = Math.max( erreursMax[ h], Math.abs( ecarts.getEcartTemps( k) - attendu));
+
+					double wt = wTour * instant( distance, wTour, bTour) / 1000;
+					double wtReference = wReference * instant( distance, wReference, bReference) / 1000;
+					double ecartVitesse = ( RAYON_S - decalage) * wTour * ( 1 + bTour * Math.cos( wt))
+							- RAYON_S * wReference * ( 1 + bReference * Math.cos( wtReference));
+					assertEquals( "Vitesse a " + distance + " m", ecartVitesse, ecarts.getEcartVitesse( k), 0.05);
+					// Les cordes de la reference s'ecartent du cercle de quelques millimetres
+					assertEquals( "Ecart lateral a " + distance + " m", decalage, ecarts.getEcartLateral( k), 0.02);
+				}
+			} finally {
+				comparaison.fermer();
+			}
+		}
+		// L'erreur d'Hermite est surtout celle des cordes de la reference sur la longueur du tour
+		assertTrue( "Lineaire : " + erreursMax[ 0] + " ms", erreursMax[ 0] < 10.0);
+		assertTrue( "Hermite : " + erreursMax[ 1] + " ms", erreursMax[ 1] < 1.0);
+		assertTrue( erreursMax[ 1] < erreursMax[ 0] / 4);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que la comparaison parallèle donne les écarts de la comparaison dans le thread appelant.
+	 */
+	@Test
+	public void testParallele() {
+		ComparaisonTours comparaison = new ComparaisonTours( simuler( 0.0, 0.15, 0.3, 100.0), 1.0, true, 4);
+		try {
+			List<TraceTour> tours = new ArrayList<TraceTour>();
+			for( int t = 0 ; t < 50 ; ++t) {
+				tours.add( simuler( 3.0 * Math.sin( t), 0.15 + 0.001 * ( t % 7), 0.1 + 0.005 * t, 100.0));
+			}
+			List<EcartsTour> ecarts = comparaison.comparer( tours);
+			assertEquals( tours.size(), ecarts.size());
+			for( int t = 0 ; t < tours.size() ; ++t) {
+				EcartsTour attendus = comparaison.comparer( tours.get( t));
+				for( int k = 0 ; k < attendus.getNbDistances() ; k += 7) {
+					assertEquals( attendus.getEcartTemps( k), ecarts.get( t).getEcartTemps( k), 0.0);
+					assertEquals( attendus.getEcartLateral( k), ecarts.get( t).getEcartLateral( k), 0.0);
+				}
+				assertEquals( 3.0 * Math.sin( t), ecarts.get( t).getEcartLateral( 100), 0.02);
+			}
+		} finally {
+			comparaison.fermer();
+		}
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier le découpage d'un tour dans les échantillons d'une session.
+	 */
+	@Test
+	public void testExtraire() {
+		int nb = 11;
+		double[] temps = new double[ nb];
+		double[] x = new double[ nb];
+		double[] y = new double[ nb];
+		double[] vitesses = new double[ nb];
+		for( int i = 0 ; i < nb ; ++i) {
+			temps[ i] = 100 * i;
+			x[ i] = 2 * i;
+			y[ i] = -i;
+			vitesses[ i] = 20 + i;
+		}
+		TraceTour trace = TraceTour.extraire( new Tour( 1, 250, 700, 2.5, 7), temps, x, y, vitesses, nb);
+		assertEquals( 6, trace.getNb());
+		assertEquals( 0.0, trace.getTemps( 0), 1e-9);
+		assertEquals( 5.0, trace.getX( 0), 1e-9);
+		assertEquals( -2.5, trace.getY( 0), 1e-9);
+		assertEquals( 22.5, trace.getVitesse( 0), 1e-9);
+		assertEquals( 50.0, trace.getTemps( 1), 1e-9);
+		assertEquals( 6.0, trace.getX( 1), 1e-9);
+		assertEquals( 450.0, trace.getDuree(), 1e-9);
+		assertEquals( 14.0, trace.getX( 5), 1e-9);
+
+		try {
+			TraceTour.extraire( new Tour( 2, 700, 1200, 7, 12), temps, x, y, vitesses, nb);
+			fail( "Un tour qui depasse la session doit etre rejete");
+		} catch( IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * TestDetecteurTours.java
+ * Permet de tester le decoupage en tours d'une session
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import telemetrieMoto.acquisition.comm.gps.TrameGPGGA;
+import telemetrieMoto.acquisition.comm.gps.TrameGPRMC;
+import telemetrieMoto.acquisition.comm.gps.TrameGPS;
+import telemetrieMoto.postTraitement.projections.ProjectionENU;
+
+
+
+
+/**
+ * <b>TestDetecteurTours permet de tester le {@link DetecteurTours}.</b>
+ * <p>Une moto tourne sur un cercle de 500 m de rayon à vitesse constante : les temps au tour interpolés doivent
+ * être exacts à la milliseconde près, quelle que soit la position des trames par rapport à la ligne.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see DetecteurTours
+ */
+public class TestDetecteurTours {
+
+
+	/** Le repère local du circuit simulé. */
+	private static final ProjectionENU CIRCUIT_S = new ProjectionENU( 46.86, 3.16, 0);
+
+
+	/** Le rayon du circuit simulé en mètres. */
+	private static final double RAYON_S = 500;
+
+
+	/** Le temps d'un tour du circuit simulé en millisecondes, sans rapport simple avec la période des trames. */
+	private static final double DUREE_TOUR_S = 90043.7;
+
+
+	/** La ligne d'arrivée, coupant le circuit à l'est du centre. */
+	private static final LigneChronometrage LIGNE_S = ligne( RAYON_S - 15, 0, RAYON_S + 15, 0);
+
+
+
+
+	/**
+	 * Permet de créer une ligne à partir de ses extrémités dans le repère du circuit.
+	 * @param xa
+	 * 				L'abscisse de la première extrémité en mètres.
+	 * @param ya
+	 * 				L'ordonnée de la première extrémité en mètres.
+	 * @param xb
+	 * 				L'abscisse de la seconde extrémité en mètres.
+	 * @param yb
+	 * 				L'ordonnée de la seconde extrémité en mètres.
+	 * @return La ligne.
+	 */
+	private static LigneChronometrage ligne( double xa, double ya, double xb, double yb) {
+		double[] a = new double[ 3];
+		double[] b = new double[ 3];
+		CIRCUIT_S.inverser( xa, ya, 0, a, 0);
+		CIRCUIT_S.inverser( xb, yb, 0, b, 0);
+		return new LigneChronometrage( a[ 0], a[ 1], b[ 0], b[ 1]);
+	}
+
+
+
+
+	/**
+	 * Permet de calculer la position de la moto à un instant.
+	 * @param temps
+	 * 				L'instant en millisecondes.
+	 * @param latLon
+	 * 				Le tableau recevant la latitude et la longitude en degrés décimaux.
+	 */
+	private static void position( double temps, double[] latLon) {
+		// Le depart est donne un quart de tour avant la ligne
+		double angle = 2 * Math.PI * temps / DUREE_TOUR_S - Math.PI / 2;
+		CIRCUIT_S.inverser( RAYON_S * Math.cos( angle), RAYON_S * Math.sin( angle), 0, latLon, 0);
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier les temps au tour à 10 Hz, l'interpolation et la position des franchissements.
+	 */
+	@Test
+	public void testTempsAuTour() {
+		DetecteurTours detecteur = new DetecteurTours( LIGNE_S, 20000);
+		double[] latLon = new double[ 3];
+		int nbTours = 0;
+		long debut = 12 * 3600 * 1000L;
+		for( long t = 0 ; t <= 10 * DUREE_TOUR_S ; t += 100) {
+			position( t, latLon);
+			Tour tour = detecteur.ajouter( latLon[ 0], latLon[ 1], debut + t);
+			if( tour != null) {
+				++nbTours;
+				assertEquals( nbTours, tour.getNumero());
+				assertEquals( DUREE_TOUR_S, tour.getDuree(), 1);
+				// La ligne est franchie un quart de tour apres le depart, puis a chaque tour
+				assertEquals( DUREE_TOUR_S * ( nbTours + 0.25), tour.getFin(), 1);
+				assertEquals( tour.getFin() / 100, tour.getPositionFin(), 0.01);
+			}
+		}
+		assertEquals( 9, nbTours);
+		assertEquals( 9, detecteur.getTours().size());
+		assertTrue( detecteur.getTempsTourEnCours() < DUREE_TOUR_S);
+		assertEquals( "1:30.044", Tour.formaterDuree( detecteur.getMeilleurTour().getDuree()));
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier les trames d'une session : doublons GPGGA et GPRMC, minuit, arrêt sur la ligne et
+	 * demi-tour.
+	 */
+	@Test
+	public void testTrames() {
+		DetecteurTours detecteur = new DetecteurTours( LIGNE_S, 20000);
+		double[] latLon = new double[ 3];
+		// La session commence juste avant minuit, les trames GPRMC sont datees et pas les GPGGA
+		long minuit = 16000 * TrameGPS.MS_PAR_JOUR_S;
+		long debut = TrameGPS.MS_PAR_JOUR_S - 60000;
+		long fin = Math.round( 3.25 * DUREE_TOUR_S) + 1000;
+		for( long t = 0 ; t <= fin ; t += 100) {
+			position( t, latLon);
+			int lat = ( int) Math.round( latLon[ 0] * 1e6);
+			int lon = ( int) Math.round( latLon[ 1] * 1e6);
+			TrameGPGGA gga = new TrameGPGGA( lat, lon, 0, 8, 1, 200);
+			gga.setHorodatage( ( debut + t) % TrameGPS.MS_PAR_JOUR_S);
+			TrameGPRMC rmc = new TrameGPRMC( lat, lon, 0, 'A', 0);
+			rmc.setHorodatage( minuit + debut + t);
+			detecteur.ajouter( gga);
+			detecteur.ajouter( rmc);
+		}
+		assertEquals( 3, detecteur.getTours().size());
+		for( Tour tour : detecteur.getTours()) {
+			// Positions arrondies au micro-degre, soit une dizaine de centimetres
+			assertEquals( DUREE_TOUR_S, tour.getDuree(), 10);
+		}
+		// Deux trames par instant : la position est comptee en trames
+		assertEquals( 2 * DUREE_TOUR_S * 1.25 / 100, detecteur.getTours().get( 0).getPositionFin(), 0.1);
+
+		// Moto arretee sur la ligne juste apres l'avoir franchie : le bruit du GPS la fait franchir dans les deux sens
+		Random aleatoire = new Random( 17);
+		long t0 = fin + 100;
+		double[] a = new double[ 3];
+		for( int i = 0 ; i < 600 ; ++i) {
+			CIRCUIT_S.inverser( RAYON_S + aleatoire.nextGaussian(), aleatoire.nextGaussian(), 0, a, 0);
+			assertNull( detecteur.ajouter( a[ 0], a[ 1], t0 + 100 * i));
+		}
+		// Demi-tour : la moto repart en sens inverse et refranchit la ligne
+		for( int i = 0 ; i < 300 ; ++i) {
+			double angle = -0.005 * i;
+			CIRCUIT_S.inverser( RAYON_S * Math.cos( angle), RAYON_S * Math.sin( angle), 0, a, 0);
+			assertNull( detecteur.ajouter( a[ 0], a[ 1], t0 + 60000 + 100 * i));
+		}
+		assertEquals( 3, detecteur.getTours().size());
+	}
+
+
+
+
+	/**
+	 * Permet de vérifier que les trames GPRMC invalides sont ignorées : les instants des tours sont comptés depuis
+	 * la première position valide, comme ceux du filtre des positions.
+	 */
+	@Test
+	public void testTramesInvalides() {
+		DetecteurTours avecInvalides = new DetecteurTours( LIGNE_S, 20000);
+		DetecteurTours sansInvalides = new DetecteurTours( LIGNE_S, 20000);
+		double[] latLon = new double[ 3];
+		long debut = 12 * 3600 * 1000L;
+		for( long t = 0 ; t <= 3 * DUREE_TOUR_S ; t += 100) {
+			position( t, latLon);
+			int lat = ( int) Math.round( latLon[ 0] * 1e6);
+			int lon = ( int) Math.round( latLon[ 1] * 1e6);
+			// Le GPS n'a pas de position fiable pendant les dix premieres secondes
+			TrameGPRMC rmc = new TrameGPRMC( lat, lon, 0, t < 10000 ? 'V' : 'A', 0);
+			rmc.setHorodatage( debut + t);
+			avecInvalides.ajouter( rmc);
+			if( t >= 10000) {
+				sansInvalides.ajouter( rmc);
+			}
+		}
+		assertEquals( sansInvalides.getTours().size(), avecInvalides.getTours().size());
+		for( int i = 0 ; i < sansInvalides.getTours().size() ; ++i) {
+			assertEquals( sansInvalides.getTours().get( i).getDebut(), avecInvalides.getTours().get( i).getDebut(), 0);
+			assertEquals( sansInvalides.getTours().get( i).getFin(), avecInvalides.getTours().get( i).getFin(), 0);
+		}
+		// La ligne est franchie un quart de tour apres le depart, compte depuis la premiere trame valide
+		assertEquals( DUREE_TOUR_S * 1.25 - 10000, avecInvalides.getTours().get( 0).getFin(), 1);
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Tour.java
+ * Permet de representer un tour de circuit chronometre
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+
+
+
+/**
+ * <b>Tour représente un tour de circuit, entre deux franchissements de la ligne d'arrivée.</b>
+ * <p>Les instants de début et de fin sont interpolés entre les deux positions qui encadrent chaque
+ * franchissement : la précision du temps au tour n'est pas limitée par la fréquence du GPS. Ils sont comptés en
+ * millisecondes depuis la première position de la session.
+ * <br>Les positions de début et de fin repèrent les franchissements dans la suite des trames de la session :
+ * la partie entière est l'indice de la trame qui précède le franchissement, la partie décimale la fraction du
+ * déplacement vers la trame suivante.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see DetecteurTours
+ */
+public final class Tour {
+
+
+	/** Le numéro du tour, à partir de 1. */
+	private final int numero_;
+
+
+	/** L'instant du franchissement de début en millisecondes. */
+	private final double debut_;
+
+
+	/** L'instant du franchissement de fin en millisecondes. */
+	private final double fin_;
+
+
+	/** La position du franchissement de début dans la suite des trames. */
+	private final double positionDebut_;
+
+
+	/** La position du franchissement de fin dans la suite des trames. */
+	private final double positionFin_;
+
+
+
+
+	/**
+	 * Le constructeur d'un tour.
+	 * @param numero
+	 * 				Le numéro du tour, à partir de 1.
+	 * @param debut
+	 * 				L'instant du franchissement de début en millisecondes depuis la première position.
+	 * @param fin
+	 * 				L'instant du franchissement de fin en millisecondes depuis la première position.
+	 * @param positionDebut
+	 * 				La position du franchissement de début dans la suite des trames.
+	 * @param positionFin
+	 * 				La position du franchissement de fin dans la suite des trames.
+	 */
+	public Tour( int numero, double debut, double fin, double positionDebut, double positionFin) {
+		numero_ = numero;
+		debut_ = debut;
+		fin_ = fin;
+		positionDebut_ = positionDebut;
+		positionFin_ = positionFin;
+	}
+
+
+
+
+	/**
+	 * Permet d'écrire une durée sous la forme <i>m:ss.SSS</i>.
+	 * @param dureeMs
+	 * 				La durée en millisecondes.
+	 * @return La durée formatée, arrondie à la milliseconde.
+	 */
+	public static String formaterDuree( double dureeMs) {
+		long ms = Math.round( dureeMs);
+		long minutes = ms / 60000;
+		long secondes = ms / 1000 % 60;
+		long millisecondes = ms % 1000;
+		return minutes + ":" + ( secondes < 10 ? "0" : "") + secondes + "." + ( millisecondes < 100 ? "0" : "")
+				+ ( millisecondes < 10 ? "0" : "") + millisecondes;
+	}
+
+
+
+
+	/**
+	 * Retourne le numéro du tour.
+	 * @return Le numéro du tour, à partir de 1.
+	 */
+	public int getNumero() {
+		return numero_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'instant du début du tour.
+	 * @return L'instant en millisecondes depuis la première position de la session.
+	 */
+	public double getDebut() {
+		return debut_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'instant de la fin du tour.
+	 * @return L'instant en millisecondes depuis la première position de la session.
+	 */
+	public double getFin() {
+		return fin_;
+	}
+
+
+
+
+	/**
+	 * Retourne le temps du tour.
+	 * @return La durée du tour en millisecondes.
+	 */
+	public double getDuree() {
+		return fin_ - debut_;
+	}
+
+
+
+
+	/**
+	 * Retourne la position du franchissement de début dans la suite des trames.
+	 * @return L'indice de la trame précédant le franchissement, plus la fraction du déplacement.
+	 */
+	public double getPositionDebut() {
+		return positionDebut_;
+	}
+
+
+
+
+	/**
+	 * Retourne la position du franchissement de fin dans la suite des trames.
+	 * @return L'indice de la trame précédant le franchissement, plus la fraction du déplacement.
+	 */
+	public double getPositionFin() {
+		return positionFin_;
+	}
+
+
+
+
+	/**
+	 * Permet de décrire le tour.
+	 * @return Le numéro et le temps du tour.
+	 */
+	@Override
+	public String toString() {
+		return "Tour " + numero_ + " : " + formaterDuree( getDuree());
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * TourReference.java
+ * Permet de retrouver le temps ecoule a une distance donnee sur un tour de reference
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+
+
+
+/**
+ * <b>TourReference donne le temps écoulé sur un tour de référence en fonction de la distance parcourue.</b>
+ * <p>Le tour est paramétré par la distance depuis la ligne d'arrivée. Les échantillons du tour sont
+ * rééchantillonnés une fois pour toutes, par interpolation linéaire, sur une grille régulière d'un pas de
+ * {@link #PAS_S} mètre : le temps à une distance quelconque se lit ensuite en temps constant, sans recherche.
+ * Un circuit de 5 km tient dans 5000 valeurs.</p>
+ * <p>Une référence ne change pas après sa construction et peut être partagée entre plusieurs threads.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see Chronometre
+ */
+public final class TourReference {
+
+
+	/** Le pas de la grille en mètres. */
+	public static final double PAS_S = 1.0;
+
+
+	/** Le temps écoulé en millisecondes à chaque distance de la grille. */
+	private final double[] temps_;
+
+
+	/** La longueur du tour en mètres. */
+	private final double longueur_;
+
+
+	/** La durée du tour en millisecondes. */
+	private final double duree_;
+
+
+
+
+	/**
+	 * Le constructeur de la référence.
+	 * @param distances
+	 * 				Les distances croissantes des échantillons depuis la ligne, en mètres, la première étant nulle.
+	 * @param temps
+	 * 				Les temps écoulés des échantillons depuis la ligne, en millisecondes.
+	 * @param nb
+	 * 				Le nombre d'échantillons, au moins deux.
+	 * @throws IllegalArgumentException s'il y a moins de deux échantillons.
+	 */
+	public TourReference( double[] distances, double[] temps, int nb) {
+		if( nb < 2) {
+			throw new IllegalArgumentException( "Un tour de reference a au moins deux echantillons");
+		}
+		longueur_ = distances[ nb - 1];
+		duree_ = temps[ nb - 1];
+		temps_ = new double[ ( int) Math.floor( longueur_ / PAS_S) + 1];
+		int j = 0;
+		for( int k = 0 ; k < temps_.length ; ++k) {
+			double distance = k * PAS_S;
+			while( j < nb - 2 && distances[ j + 1] < distance) {
+				++j;
+			}
+			double intervalle = distances[ j + 1] - distances[ j];
+			double u = intervalle > 0 ? ( distance - distances[ j]) / intervalle : 1.0;
+			temps_[ k] = temps[ j] + Math.min( Math.max( u, 0.0), 1.0) * ( temps[ j + 1] - temps[ j]);
+		}
+	}
+
+
+
+
+	/**
+	 * Retourne le temps écoulé sur le tour de référence à une distance.
+	 * @param distance
+	 * 				La distance depuis la ligne d'arrivée en mètres.
+	 * @return Le temps écoulé en millisecondes, borné entre 0 et la durée du tour.
+	 */
+	public double getTemps( double distance) {
+		if( distance <= 0) {
+			return 0.0;
+		}
+		if( distance >= longueur_) {
+			return duree_;
+		}
+		double u = distance / PAS_S;
+		int k = ( int) u;
+		double suivant = k + 1 < temps_.length ? temps_[ k + 1] : duree_;
+		double finIntervalle = k + 1 < temps_.length ? ( k + 1) * PAS_S : longueur_;
+		// Le dernier intervalle de la grille est plus court que le pas
+		return temps_[ k] + ( distance - k * PAS_S) / ( finIntervalle - k * PAS_S) * ( suivant - temps_[ k]);
+	}
+
+
+
+
+	/**
+	 * Retourne la longueur du tour de référence.
+	 * @return La longueur en mètres.
+	 */
+	public double getLongueur() {
+		return longueur_;
+	}
+
+
+
+
+	/**
+	 * Retourne la durée du tour de référence.
+	 * @return La durée en millisecondes.
+	 */
+	public double getDuree() {
+		return duree_;
+	}
+}
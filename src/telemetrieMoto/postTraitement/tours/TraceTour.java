@@ -0,0 +1,240 @@
+/*
+ * TraceTour.java
+ * Permet de representer les echantillons de position et de vitesse d'un tour
+ */
+
+package telemetrieMoto.postTraitement.tours;
+
+import java.util.Arrays;
+
+
+
+
+/**
+ * <b>TraceTour représente les échantillons d'un tour : instant, position dans un repère plan et vitesse.</b>
+ * <p>Les positions sont en mètres dans un repère plan, Lambert II étendu ou repère local Est Nord Haut, le même pour
+ * tous les tours comparés. Les instants sont comptés en millisecondes depuis le début du tour et croissent
+ * strictement. Les échantillons sont gardés dans des tableaux de réels, sans objet par échantillon.</p>
+ * <p>{@link #extraire(Tour, double[], double[], double[], double[], int)} découpe un tour dans les échantillons d'une
+ * session, par exemple ceux d'un {@link telemetrieMoto.postTraitement.cinematique.FiltreKalman} lissé : le premier et
+ * le dernier échantillon sont interpolés aux instants des franchissements de la ligne d'arrivée.</p>
+ *
+ * @author Yoan DUMAS
+ * @version 1.1
+ * @see ComparaisonTours
+ */
+public final class TraceTour {
+
+
+	/** Les instants des échantillons en millisecondes depuis le début du tour. */
+	private final double[] temps_;
+
+
+	/** Les abscisses des échantillons en mètres. */
+	private final double[] x_;
+
+
+	/** Les ordonnées des échantillons en mètres. */
+	private final double[] y_;
+
+
+	/** Les vitesses des échantillons en mètres par seconde, <i>NaN</i> si inconnues. */
+	private final double[] vitesses_;
+
+
+	/** Le nombre d'échantillons. */
+	private final int nb_;
+
+
+
+
+	/**
+	 * Le constructeur du tracé, qui garde les tableaux sans les copier.
+	 * @param temps
+	 * 				Les instants strictement croissants des échantillons en millisecondes depuis le début du tour.
+	 * @param x
+	 * 				Les abscisses des échantillons en mètres.
+	 * @param y
+	 * 				Les ordonnées des échantillons en mètres.
+	 * @param vitesses
+	 * 				Les vitesses des échantillons en mètres par seconde, <i>NaN</i> si inconnues.
+	 * @param nb
+	 * 				Le nombre d'échantillons, au moins deux.
+	 * @throws IllegalArgumentException s'il y a moins de deux échantillons.
+	 */
+	public TraceTour( double[] temps, double[] x, double[] y, double[] vitesses, int nb) {
+		if( nb < 2) {
+			throw new IllegalArgumentException( "Un trace de tour a au moins deux echantillons");
+		}
+		temps_ = temps;
+		x_ = x;
+		y_ = y;
+		vitesses_ = vitesses;
+		nb_ = nb;
+	}
+
+
+
+
+	/**
+	 * Permet de découper un tour dans les échantillons d'une session.
+	 * @param tour
+	 * 				Le tour, dont le début et la fin sont comptés depuis la première position de la session.
+	 * @param temps
+	 * 				Les instants strictement croissants des échantillons de la session en millisecondes depuis la
+	 * 				première position.
+	 * @param x
+	 * 				Les abscisses des échantillons de la session en mètres.
+	 * @param y
+	 * 				Les ordonnées des échantillons de la session en mètres.
+	 * @param vitesses
+	 * 				Les vitesses des échantillons de la session en mètres par seconde.
+	 * @param nb
+	 * 				Le nombre d'échantillons de la session.
+	 * @return Le tracé du tour, dont les instants sont comptés depuis son début.
+	 * @throws IllegalArgumentException si le tour n'est pas compris dans les échantillons de la session.
+	 */
+	public static TraceTour extraire( Tour tour, double[] temps, double[] x, double[] y, double[] vitesses, int nb) {
+		double debut = tour.getDebut();
+		double fin = tour.getFin();
+		if( nb < 2 || debut < temps[ 0] || fin > temps[ nb - 1] || fin <= debut) {
+			throw new IllegalArgumentException( "Le tour " + tour.getNumero() + " n'est pas dans la session");
+		}
+		// Echantillons strictement a l'interieur du tour
+		int premier = Arrays.binarySearch( temps, 0, nb, debut);
+		premier = premier >= 0 ? premier + 1 : -premier - 1;
+		int dernier = Arrays.binarySearch( temps, 0, nb, fin);
+		dernier = dernier >= 0 ? dernier - 1 : -dernier - 2;
+
+		int nbTour = Math.max( dernier - premier + 1, 0) + 2;
+		double[] tempsTour = new double[ nbTour];
+		double[] xTour = new double[ nbTour];
+		double[] yTour = new double[ nbTour];
+		double[] vitessesTour = new double[ nbTour];
+		interpoler( debut, temps, x, y, vitesses, nb, tempsTour, xTour, yTour, vitessesTour, 0);
+		for( int i = premier, j = 1 ; i <= dernier ; ++i, ++j) {
+			tempsTour[ j] = temps[ i];
+			xTour[ j] = x[ i];
+			yTour[ j] = y[ i];
+			vitessesTour[ j] = vitesses[ i];
+		}
+		interpoler( fin, temps, x, y, vitesses, nb, tempsTour, xTour, yTour, vitessesTour, nbTour - 1);
+		for( int j = 0 ; j < nbTour ; ++j) {
+			tempsTour[ j] -= debut;
+		}
+		return new TraceTour( tempsTour, xTour, yTour, vitessesTour, nbTour);
+	}
+
+
+
+
+	/**
+	 * Permet d'interpoler linéairement les échantillons d'une session à un instant.
+	 * @param instant
+	 * 				L'instant en millisecondes, compris entre le premier et le dernier échantillon.
+	 * @param temps
+	 * 				Les instants des échantillons de la session.
+	 * @param x
+	 * 				Les abscisses des échantillons de la session.
+	 * @param y
+	 * 				Les ordonnées des échantillons de la session.
+	 * @param vitesses
+	 * 				Les vitesses des échantillons de la session.
+	 * @param nb
+	 * 				Le nombre d'échantillons de la session.
+	 * @param tempsTour
+	 * 				Le tableau recevant l'instant.
+	 * @param xTour
+	 * 				Le tableau recevant l'abscisse.
+	 * @param yTour
+	 * 				Le tableau recevant l'ordonnée.
+	 * @param vitessesTour
+	 * 				Le tableau recevant la vitesse.
+	 * @param position
+	 * 				L'indice de l'échantillon écrit.
+	 */
+	private static void interpoler( double instant, double[] temps, double[] x, double[] y, double[] vitesses, int nb,
+			double[] tempsTour, double[] xTour, double[] yTour, double[] vitessesTour, int position) {
+		int i = Arrays.binarySearch( temps, 0, nb, instant);
+		i = i >= 0 ? Math.min( i, nb - 2) : Math.min( -i - 2, nb - 2);
+		double u = ( instant - temps[ i]) / ( temps[ i + 1] - temps[ i]);
+		tempsTour[ position] = instant;
+		xTour[ position] = x[ i] + u * ( x[ i + 1] - x[ i]);
+		yTour[ position] = y[ i] + u * ( y[ i + 1] - y[ i]);
+		vitessesTour[ position] = vitesses[ i] + u * ( vitesses[ i + 1] - vitesses[ i]);
+	}
+
+
+
+
+	/**
+	 * Retourne le nombre d'échantillons du tour.
+	 * @return Le nombre d'échantillons.
+	 */
+	public int getNb() {
+		return nb_;
+	}
+
+
+
+
+	/**
+	 * Retourne l'instant d'un échantillon.
+	 * @param i
+	 * 			L'indice de l'échantillon.
+	 * @return L'instant en millisecondes depuis le début du tour.
+	 */
+	public double getTemps( int i) {
+		return temps_[ i];
+	}
+
+
+
+
+	/**
+	 * Retourne l'abscisse d'un échantillon.
+	 * @param i
+	 * 			L'indice de l'échantillon.
+	 * @return L'abscisse en mètres.
+	 */
+	public double getX( int i) {
+		return x_[ i];
+	}
+
+
+
+
+	/**
+	 * Retourne l'ordonnée d'un échantillon.
+	 * @param i
+	 * 			L'indice de l'échantillon.
+	 * @return L'ordonnée en mètres.
+	 */
+	public double getY( int i) {
+		return y_[ i];
+	}
+
+
+
+
+	/**
+	 * Retourne la vitesse d'un échantillon.
+	 * @param i
+	 * 			L'indice de l'échantillon.
+	 * @return La vitesse en mètres par seconde, <i>NaN</i> si inconnue.
+	 */
+	public double getVitesse( int i) {
+		return vitesses_[ i];
+	}
+
+
+
+
+	/**
+	 * Retourne la durée du tour.
+	 * @return L'instant du dernier échantillon en millisecondes.
+	 */
+	public double getDuree() {
+		return temps_[ nb_ - 1];
+	}
+}